@@ -0,0 +1,233 @@
+package com.rescuenet.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+
+import com.rescuenet.config.DbConfig;
+import com.rescuenet.util.PasswordUtil;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * BenchmarkDatabase creates an in-process H2 database in MySQL mode, loads the
+ * RescueNet schema into it, seeds it with a generated fleet, users and
+ * reservations, and points DbConfig at it through the rescuenet.db.* system
+ * properties. Data is generated from a fixed seed, so every run sees the same
+ * rows.
+ */
+public final class BenchmarkDatabase {
+
+	/** The password of every seeded user. */
+	public static final String PASSWORD = "Rescue@123";
+
+	/** Users 1 to this number get a real password hash and can log in. */
+	public static final int LOGIN_USERS = 8;
+
+	/** The first day reservations are seeded on. */
+	public static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+
+	/** The number of days seeded reservations are spread over. */
+	public static final int SEEDED_DAYS = 365;
+
+	private static final String SCHEMA_RESOURCE = "/rescuenet-schema.sql";
+	private static final String[] TYPES = { "Ambulance", "Fire Truck", "Rescue Boat", "Helicopter", "Utility" };
+	private static final String[] BRANDS = { "Toyota", "Ford", "Mercedes", "Volvo", "Tata", "Mahindra", "Airbus",
+			"Yamaha" };
+	private static final String[] RESERVATION_STATUSES = { "Confirmed", "Pending", "Completed", "Cancelled" };
+	private static final int BATCH_SIZE = 500;
+
+	private final String url;
+	private final int vehicles;
+	private final int users;
+	private final int reservations;
+
+	private BenchmarkDatabase(String url, int vehicles, int users, int reservations) {
+		this.url = url;
+		this.vehicles = vehicles;
+		this.users = users;
+		this.reservations = reservations;
+	}
+
+	/**
+	 * Creates and seeds a database, and makes it the one DbConfig connects to.
+	 * Must be called before the first service call in the JVM.
+	 *
+	 * @param vehicles     the fleet size
+	 * @param users        the number of users (at least LOGIN_USERS)
+	 * @param reservations the number of reservations
+	 * @return the seeded database
+	 * @throws SQLException if the schema or data cannot be written
+	 */
+	public static BenchmarkDatabase create(int vehicles, int users, int reservations) throws SQLException {
+		String url = "jdbc:h2:mem:rescuenet-" + System.nanoTime()
+				+ ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+		BenchmarkDatabase database = new BenchmarkDatabase(url, vehicles, Math.max(users, LOGIN_USERS), reservations);
+		database.load();
+
+		System.setProperty("rescuenet.db.url", url);
+		System.setProperty("rescuenet.db.user", "sa");
+		System.setProperty("rescuenet.db.password", "");
+		System.setProperty("rescuenet.db.driver", "org.h2.Driver");
+		DbConfig.shutdownPool(); // In case an earlier trial in this JVM started one
+		return database;
+	}
+
+	/**
+	 * Gets the number of seeded vehicles. Vehicle IDs run from 1 to this number.
+	 *
+	 * @return the fleet size
+	 */
+	public int getVehicleCount() {
+		return vehicles;
+	}
+
+	/**
+	 * Gets the number of seeded users. User IDs run from 1 to this number.
+	 *
+	 * @return the user count
+	 */
+	public int getUserCount() {
+		return users;
+	}
+
+	/**
+	 * Gets the number of seeded reservations. Reservation IDs run from 1 to
+	 * this number.
+	 *
+	 * @return the reservation count
+	 */
+	public int getReservationCount() {
+		return reservations;
+	}
+
+	/**
+	 * Gets the username of a seeded user.
+	 *
+	 * @param userId the user ID
+	 * @return the username
+	 */
+	public static String username(int userId) {
+		return "responder" + userId;
+	}
+
+	/**
+	 * Opens a direct connection, bypassing the application's pool.
+	 *
+	 * @return a new connection
+	 * @throws SQLException if the database cannot be reached
+	 */
+	public Connection connect() throws SQLException {
+		return DriverManager.getConnection(url, "sa", "");
+	}
+
+	private void load() throws SQLException {
+		try (Connection conn = connect()) {
+			try (Statement stmt = conn.createStatement()) {
+				for (String ddl : readSchema().split(";")) {
+					if (!ddl.isBlank()) {
+						stmt.execute(ddl);
+					}
+				}
+			}
+			conn.setAutoCommit(false);
+			Random random = new Random(42);
+			seedUsers(conn);
+			seedVehicles(conn, random);
+			seedReservations(conn, random);
+			conn.commit();
+		}
+	}
+
+	private void seedUsers(Connection conn) throws SQLException {
+		String sql = "INSERT INTO users (username, password_hash, role_id, full_name, email, phone_number, is_active) "
+				+ "VALUES (?, ?, ?, ?, ?, ?, 1)";
+		// Real hashes are slow to derive, so only the login users get one
+		String placeholderHash = PasswordUtil.encrypt(username(0), PASSWORD);
+		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+			for (int id = 1; id <= users; id++) {
+				String username = username(id);
+				stmt.setString(1, username);
+				stmt.setString(2, id <= LOGIN_USERS ? PasswordUtil.encrypt(username, PASSWORD) : placeholderHash);
+				stmt.setInt(3, id == 1 ? 2 : 1); // The first user is the admin
+				stmt.setString(4, "Responder " + id);
+				stmt.setString(5, username + "@rescuenet.org");
+				stmt.setString(6, String.format("98%08d", id));
+				addBatch(stmt, id);
+			}
+			stmt.executeBatch();
+		}
+	}
+
+	private void seedVehicles(Connection conn, Random random) throws SQLException {
+		String sql = "INSERT INTO vehicles (serial_number, brand_name, model, type, status, manufactured_date, "
+				+ "description, price) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+			for (int id = 1; id <= vehicles; id++) {
+				String type = TYPES[random.nextInt(TYPES.length)];
+				String brand = BRANDS[random.nextInt(BRANDS.length)];
+				int roll = random.nextInt(10); // 80% available, 10% reserved, 10% in maintenance
+				stmt.setString(1, String.format("RN-%06d", id));
+				stmt.setString(2, brand);
+				stmt.setString(3, brand + " " + type + " " + (100 + random.nextInt(900)));
+				stmt.setString(4, type);
+				stmt.setString(5, roll < 8 ? "Available" : roll < 9 ? "Reserved" : "Maintenance");
+				stmt.setDate(6, Date.valueOf(LocalDate.of(2005 + random.nextInt(20), 1 + random.nextInt(12), 1)));
+				stmt.setString(7, type + " stationed at district " + (1 + random.nextInt(77)) + ", fully equipped.");
+				stmt.setBigDecimal(8, BigDecimal.valueOf(5_000 + random.nextInt(200_000), 0));
+				addBatch(stmt, id);
+			}
+			stmt.executeBatch();
+		}
+	}
+
+	private void seedReservations(Connection conn, Random random) throws SQLException {
+		String sql = "INSERT INTO reservations (user_id, vehicle_id, reservation_date, status) VALUES (?, ?, ?, ?)";
+		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+			for (int id = 1; id <= reservations; id++) {
+				// Spread over vehicles and days; a vehicle/day pair repeats only in big runs
+				stmt.setInt(1, 1 + random.nextInt(users));
+				stmt.setInt(2, 1 + (id - 1) % vehicles);
+				stmt.setDate(3, Date.valueOf(FIRST_DAY.plusDays(((id - 1) / vehicles) % SEEDED_DAYS)));
+				stmt.setString(4, RESERVATION_STATUSES[random.nextInt(RESERVATION_STATUSES.length)]);
+				addBatch(stmt, id);
+			}
+			stmt.executeBatch();
+		}
+	}
+
+	private static void addBatch(PreparedStatement stmt, int row) throws SQLException {
+		stmt.addBatch();
+		if (row % BATCH_SIZE == 0) {
+			stmt.executeBatch();
+		}
+	}
+
+	private static String readSchema() throws SQLException {
+		try (InputStream in = BenchmarkDatabase.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+			if (in == null) {
+				throw new SQLException("Schema resource " + SCHEMA_RESOURCE + " not found.");
+			}
+			// Drop comment lines so they do not end up in the statements
+			StringBuilder schema = new StringBuilder();
+			for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+				if (!line.trim().startsWith("--")) {
+					schema.append(line).append('\n');
+				}
+			}
+			return schema.toString();
+		} catch (IOException e) {
+			throw new SQLException("Cannot read " + SCHEMA_RESOURCE, e);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.rescuenet.benchmark;
+
+import java.sql.SQLException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.rescuenet.config.DbConfig;
+import com.rescuenet.logging.LogManager;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * FleetState is the seeded database shared by every benchmark in a trial. The
+ * data sizes are JMH parameters, so they can be changed from the command line
+ * (for example -p fleetSize=10000 -p reservationsPerVehicle=50).
+ */
+@State(Scope.Benchmark)
+public class FleetState {
+
+	@Param({ "1000" })
+	public int fleetSize;
+
+	@Param({ "20" })
+	public int reservationsPerVehicle;
+
+	@Param({ "500" })
+	public int userCount;
+
+	public BenchmarkDatabase database;
+
+	/**
+	 * Creates and seeds the database for this trial.
+	 *
+	 * @throws SQLException if seeding fails
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		database = BenchmarkDatabase.create(fleetSize, userCount, fleetSize * reservationsPerVehicle);
+	}
+
+	/**
+	 * Closes the pool and flushes the log.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		DbConfig.shutdownPool();
+		LogManager.shutdown();
+	}
+}
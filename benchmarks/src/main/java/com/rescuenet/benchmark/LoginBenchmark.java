@@ -0,0 +1,93 @@
+package com.rescuenet.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rescuenet.model.UserModel;
+import com.rescuenet.service.CredentialVerificationService;
+import com.rescuenet.service.LoginService;
+import com.rescuenet.util.PasswordUtil;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * Benchmarks logging in through LoginService, with the credential cache hit
+ * (a user who logged in moments ago) and missed (a wrong password, which is
+ * never cached), and the raw PasswordUtil key derivation behind both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Drescuenet.log.level=ERROR")
+public class LoginBenchmark {
+
+	private LoginService loginService;
+	private String storedHash;
+
+	/**
+	 * Creates the service and logs every login user in once, so their
+	 * verifications are cached.
+	 *
+	 * @param fleet the seeded database
+	 */
+	@Setup
+	public void setUp(FleetState fleet) {
+		loginService = new LoginService();
+		for (int id = 1; id <= BenchmarkDatabase.LOGIN_USERS; id++) {
+			login(id, BenchmarkDatabase.PASSWORD);
+		}
+		storedHash = PasswordUtil.encrypt(BenchmarkDatabase.username(1), BenchmarkDatabase.PASSWORD);
+	}
+
+	@Benchmark
+	public Boolean loginCached() {
+		return login(randomLoginUser(), BenchmarkDatabase.PASSWORD);
+	}
+
+	@Benchmark
+	public Boolean loginWrongPassword() {
+		return login(randomLoginUser(), "not-the-password");
+	}
+
+	@Benchmark
+	public CredentialVerificationService.Result verifyUncached() {
+		// A fresh password each time, so the cache can never answer
+		return CredentialVerificationService.getInstance().verify(storedHash, BenchmarkDatabase.username(1),
+				"guess-" + ThreadLocalRandom.current().nextLong());
+	}
+
+	@Benchmark
+	public String passwordDecrypt() {
+		return PasswordUtil.decrypt(storedHash, BenchmarkDatabase.username(1));
+	}
+
+	@Benchmark
+	public String passwordEncrypt() {
+		return PasswordUtil.encrypt(BenchmarkDatabase.username(1), BenchmarkDatabase.PASSWORD);
+	}
+
+	private Boolean login(int userId, String password) {
+		UserModel user = new UserModel();
+		user.setUsername(BenchmarkDatabase.username(userId));
+		user.setPasswordHash(password); // The form's plain password travels in this field
+		return loginService.loginUser(user);
+	}
+
+	private static int randomLoginUser() {
+		return 1 + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.LOGIN_USERS);
+	}
+}
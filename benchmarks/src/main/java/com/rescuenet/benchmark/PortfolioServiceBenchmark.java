@@ -0,0 +1,78 @@
+package com.rescuenet.benchmark;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rescuenet.model.UserModel;
+import com.rescuenet.service.PortfolioService;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * Benchmarks the portfolio page's database work: loading a user's details,
+ * the duplicate username check and saving an edited profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Drescuenet.log.level=ERROR")
+public class PortfolioServiceBenchmark {
+
+	private static final String PROFILE_PICTURE = "Uploads/profile_pictures/benchmark.jpg";
+
+	private PortfolioService portfolioService;
+	private int userCount;
+
+	/**
+	 * Creates the service.
+	 *
+	 * @param fleet the seeded database
+	 */
+	@Setup
+	public void setUp(FleetState fleet) {
+		portfolioService = new PortfolioService();
+		userCount = fleet.database.getUserCount();
+	}
+
+	@Benchmark
+	public UserModel getUserDetails() throws SQLException {
+		return portfolioService.getUserDetails(randomUser());
+	}
+
+	@Benchmark
+	public boolean isUsernameTaken() throws SQLException {
+		int userId = randomUser();
+		return portfolioService.isUsernameTakenByOtherUser(BenchmarkDatabase.username(userId % userCount + 1),
+				userId);
+	}
+
+	@Benchmark
+	public boolean updateProfile() throws SQLException {
+		int userId = randomUser();
+		String username = BenchmarkDatabase.username(userId);
+		// Without a new picture or password the service treats the edit as "no changes"
+		// and skips the UPDATE, so pass a picture path to measure the write
+		return portfolioService.updateUserProfile(userId, username,
+				"Responder " + userId + " " + ThreadLocalRandom.current().nextInt(1000),
+				username + "@rescuenet.org", String.format("98%08d", userId), PROFILE_PICTURE, null);
+	}
+
+	private int randomUser() {
+		return 1 + ThreadLocalRandom.current().nextInt(userCount);
+	}
+}
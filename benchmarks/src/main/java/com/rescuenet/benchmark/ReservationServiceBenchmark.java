@@ -0,0 +1,145 @@
+package com.rescuenet.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rescuenet.model.ReservationFilter;
+import com.rescuenet.model.ReservationModel;
+import com.rescuenet.model.ReservationPage;
+import com.rescuenet.service.ReservationAvailabilityIndex;
+import com.rescuenet.service.ReservationService;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * Benchmarks booking and rebooking reservations (the locked transaction), the
+ * in-memory availability checks, and the first page of the admin listing.
+ * Every booking goes to a vehicle and day nobody holds yet, so the measured
+ * path is the successful one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Drescuenet.log.level=ERROR")
+public class ReservationServiceBenchmark {
+
+	private static final int PAGE_SIZE = 25;
+
+	private ReservationService reservationService;
+	private ReservationAvailabilityIndex availabilityIndex;
+	private List<Integer> bookableVehicleIds;
+	private List<Integer> pendingReservationIds;
+	private int userCount;
+	// Hands out vehicle/day slots beyond the seeded days, one per booking
+	private final AtomicInteger nextSlot = new AtomicInteger();
+	private LocalDate firstFreeDay;
+
+	/**
+	 * Reads the bookable vehicles and pending reservations, and loads the
+	 * availability index.
+	 *
+	 * @param fleet the seeded database
+	 * @throws SQLException if the seed data cannot be read
+	 */
+	@Setup
+	public void setUp(FleetState fleet) throws SQLException {
+		reservationService = new ReservationService();
+		userCount = fleet.database.getUserCount();
+		firstFreeDay = BenchmarkDatabase.FIRST_DAY.plusDays(BenchmarkDatabase.SEEDED_DAYS);
+		List<ReservationModel> confirmed = new ArrayList<>();
+		try (Connection conn = fleet.database.connect()) {
+			bookableVehicleIds = readIds(conn,
+					"SELECT vehicle_id FROM vehicles WHERE status IN ('Available', 'Reserved') ORDER BY vehicle_id");
+			pendingReservationIds = readIds(conn,
+					"SELECT reservation_id FROM reservations WHERE status = 'Pending' ORDER BY reservation_id");
+			try (PreparedStatement stmt = conn
+					.prepareStatement("SELECT vehicle_id, reservation_date FROM reservations WHERE status = 'Confirmed'");
+					ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					ReservationModel reservation = new ReservationModel();
+					reservation.setVehicleId(rs.getInt(1));
+					reservation.setReservationDate(rs.getDate(2).toLocalDate());
+					reservation.setStatus("Confirmed");
+					confirmed.add(reservation);
+				}
+			}
+		}
+		availabilityIndex = ReservationAvailabilityIndex.getInstance();
+		availabilityIndex.ensureLoaded(() -> confirmed);
+	}
+
+	@Benchmark
+	public boolean createReservation() throws SQLException {
+		ReservationModel reservation = new ReservationModel();
+		int slot = nextSlot.getAndIncrement();
+		reservation.setUserId(1 + slot % userCount);
+		reservation.setVehicleId(bookableVehicleIds.get(slot % bookableVehicleIds.size()));
+		reservation.setReservationDate(firstFreeDay.plusDays(slot / bookableVehicleIds.size()));
+		reservation.setStatus("Confirmed");
+		return reservationService.createReservation(reservation);
+	}
+
+	@Benchmark
+	public boolean updateReservation() throws SQLException {
+		int slot = nextSlot.getAndIncrement();
+		ReservationModel reservation = new ReservationModel();
+		reservation.setReservationId(pendingReservationIds.get(slot % pendingReservationIds.size()));
+		reservation.setUserId(1 + slot % userCount);
+		reservation.setVehicleId(bookableVehicleIds.get(slot % bookableVehicleIds.size()));
+		reservation.setReservationDate(firstFreeDay.plusDays(slot / bookableVehicleIds.size()));
+		reservation.setStatus("Pending");
+		return reservationService.updateReservation(reservation);
+	}
+
+	@Benchmark
+	public boolean isBooked() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return availabilityIndex.isBooked(bookableVehicleIds.get(random.nextInt(bookableVehicleIds.size())),
+				BenchmarkDatabase.FIRST_DAY.plusDays(random.nextInt(BenchmarkDatabase.SEEDED_DAYS)));
+	}
+
+	@Benchmark
+	public Set<Integer> freeVehiclesOnDay() {
+		return availabilityIndex.freeVehicles(
+				BenchmarkDatabase.FIRST_DAY.plusDays(ThreadLocalRandom.current().nextInt(BenchmarkDatabase.SEEDED_DAYS)),
+				bookableVehicleIds);
+	}
+
+	@Benchmark
+	public ReservationPage firstListingPage() throws SQLException {
+		return reservationService.getReservationsPage(new ReservationFilter(), PAGE_SIZE);
+	}
+
+	private static List<Integer> readIds(Connection conn, String sql) throws SQLException {
+		List<Integer> ids = new ArrayList<>();
+		try (PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+			while (rs.next()) {
+				ids.add(rs.getInt(1));
+			}
+		}
+		return ids;
+	}
+}
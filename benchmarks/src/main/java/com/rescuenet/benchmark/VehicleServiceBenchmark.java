@@ -0,0 +1,78 @@
+package com.rescuenet.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rescuenet.model.VehicleModel;
+import com.rescuenet.service.VehicleCatalogCache;
+import com.rescuenet.service.VehicleService;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * Benchmarks the vehicle search and the categorized catalog shown on the home
+ * page, both as served from memory and, for the catalog, rebuilt from the
+ * database on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Drescuenet.log.level=ERROR")
+public class VehicleServiceBenchmark {
+
+	private VehicleService vehicleService;
+
+	/**
+	 * The search terms, a separate state so only search() is run once per term.
+	 */
+	@State(Scope.Benchmark)
+	public static class SearchQuery {
+		@Param({ "ambulance", "toyota fire", "district 12", "nomatch" })
+		public String text;
+	}
+
+	/**
+	 * Creates the service and loads the in-memory indexes, so the measured
+	 * calls see the steady state.
+	 *
+	 * @param fleet the seeded database
+	 */
+	@Setup
+	public void setUp(FleetState fleet) {
+		vehicleService = new VehicleService();
+		vehicleService.searchAvailableVehicles("warmup");
+		vehicleService.getCategorizedAvailableVehicles();
+	}
+
+	@Benchmark
+	public List<VehicleModel> search(SearchQuery query) {
+		return vehicleService.searchAvailableVehicles(query.text);
+	}
+
+	@Benchmark
+	public Map<String, List<VehicleModel>> categorizeCached() {
+		return vehicleService.getCategorizedAvailableVehicles();
+	}
+
+	@Benchmark
+	public Map<String, List<VehicleModel>> categorizeFromDatabase() {
+		VehicleCatalogCache.getInstance().invalidate();
+		return vehicleService.getCategorizedAvailableVehicles();
+	}
+}
@@ -0,0 +1,306 @@
+package com.rescuenet.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.loader.WebappLoader;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.descriptor.web.ApplicationParameter;
+import org.apache.catalina.webresources.DirResourceSet;
+import org.apache.catalina.webresources.StandardRoot;
+
+import com.rescuenet.benchmark.BenchmarkDatabase;
+import com.rescuenet.config.DbConfig;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * LoadTest runs RescueNet end to end on localhost. It seeds an embedded H2
+ * database, deploys src/main/webapp with the compiled application classes in
+ * embedded Tomcat, drives it with a fixed number of virtual users (80%
+ * responders, 20% admins) for a warm-up period and a measured period, and
+ * prints throughput, p50/p99/p99.9 latency and error rate per route. Before
+ * the load starts, ResponseCheck checks that the home page is sent correctly,
+ * both before and after its catalog is cached, and the run stops if it is
+ * not. The same seed and options give the same data and the same traffic
+ * mix, so two builds can be compared run against run.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.rescuenet.loadtest.LoadTest \
+ *     --vehicles 1000 --users 500 --reservations 20000 --concurrency 32 --warmup 15 --duration 60
+ * </pre>
+ */
+public final class LoadTest {
+
+	private static final double ADMIN_SHARE = 0.2;
+
+	// --- Options (name, default) ---
+	private static final Map<String, String> DEFAULTS = new TreeMap<>(Map.of("vehicles", "1000", "users", "500",
+			"reservations", "20000", "concurrency", "32", "warmup", "15", "duration", "60", "seed", "42", "webapp",
+			"src/main/webapp", "classes", "benchmarks/target/classes", "csv", ""));
+
+	private final Map<String, RouteStats> stats = new ConcurrentHashMap<>();
+	private final AtomicInteger nextSlot = new AtomicInteger();
+	private final List<Integer> bookableVehicleIds;
+	private final LocalDate firstFreeDay;
+	private final int userCount;
+	private String baseUrl;
+	private volatile long measureFromNanos;
+	private volatile long finishAtNanos;
+
+	private LoadTest(List<Integer> bookableVehicleIds, int userCount) {
+		this.bookableVehicleIds = bookableVehicleIds;
+		this.userCount = userCount;
+		this.firstFreeDay = BenchmarkDatabase.FIRST_DAY.plusDays(BenchmarkDatabase.SEEDED_DAYS);
+	}
+
+	/**
+	 * Runs the load test.
+	 *
+	 * @param args options as --name value pairs; see DEFAULTS
+	 * @throws Exception if the database or server cannot be started
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = parseOptions(args);
+		if (options == null) {
+			System.err.println("Options (with defaults): " + DEFAULTS);
+			System.exit(2);
+			return;
+		}
+		if (System.getProperty("rescuenet.log.level") == null) {
+			System.setProperty("rescuenet.log.level", "WARN"); // Keep the application's log out of the report
+		}
+		java.util.logging.Logger.getLogger("org.apache").setLevel(java.util.logging.Level.WARNING);
+		// The class loader's leak checks need --add-opens flags; their warnings are noise here
+		java.util.logging.Logger.getLogger("org.apache.catalina.loader").setLevel(java.util.logging.Level.SEVERE);
+
+		int vehicles = Integer.parseInt(options.get("vehicles"));
+		int users = Integer.parseInt(options.get("users"));
+		int reservations = Integer.parseInt(options.get("reservations"));
+		int concurrency = Integer.parseInt(options.get("concurrency"));
+		long seed = Long.parseLong(options.get("seed"));
+
+		System.out.printf("Seeding %d vehicles, %d users, %d reservations...%n", vehicles, users, reservations);
+		BenchmarkDatabase database = BenchmarkDatabase.create(vehicles, users, reservations);
+		LoadTest test = new LoadTest(readBookableVehicles(database), database.getUserCount());
+
+		Tomcat tomcat = startServer(new File(options.get("webapp")), new File(options.get("classes")));
+		try {
+			test.baseUrl = "http://localhost:" + tomcat.getConnector().getLocalPort();
+			List<String> failures = new ResponseCheck(test.baseUrl).run();
+			if (!failures.isEmpty()) {
+				failures.forEach(failure -> System.err.println("Response check failed: " + failure));
+				System.exit(1);
+				return;
+			}
+			System.out.printf("Serving on %s; %d virtual users, %ss warm-up, %ss measured.%n", test.baseUrl,
+					concurrency, options.get("warmup"), options.get("duration"));
+			test.run(concurrency, seed, Long.parseLong(options.get("warmup")), Long.parseLong(options.get("duration")));
+		} finally {
+			tomcat.stop();
+			tomcat.destroy();
+			DbConfig.shutdownPool();
+		}
+
+		double seconds = Double.parseDouble(options.get("duration"));
+		List<RouteStats.Summary> summaries = test.summarize(seconds);
+		printTable(System.out, summaries);
+		if (!options.get("csv").isEmpty()) {
+			try (PrintStream csv = new PrintStream(options.get("csv"), "UTF-8")) {
+				printCsv(csv, summaries);
+			}
+			System.out.println("Wrote " + options.get("csv"));
+		}
+	}
+
+	// --- Test Run ---
+
+	private void run(int concurrency, long seed, long warmupSeconds, long durationSeconds)
+			throws InterruptedException {
+		long now = System.nanoTime();
+		measureFromNanos = now + TimeUnit.SECONDS.toNanos(warmupSeconds);
+		finishAtNanos = measureFromNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+		int admins = Math.max(1, (int) Math.round(concurrency * ADMIN_SHARE));
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < concurrency; i++) {
+			boolean admin = i < admins;
+			// User 1 is the admin; responders spread over the users that can log in
+			int userId = admin ? 1 : 2 + i % (BenchmarkDatabase.LOGIN_USERS - 1);
+			Thread thread = new Thread(new VirtualUser(this, admin, userId, seed + i), "virtual-user-" + i);
+			thread.setDaemon(true);
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+	}
+
+	boolean isFinished() {
+		return System.nanoTime() >= finishAtNanos;
+	}
+
+	/**
+	 * Records a request if it completed inside the measured period.
+	 */
+	void record(String route, long nanos, boolean ok) {
+		long now = System.nanoTime();
+		if (now - nanos >= measureFromNanos && now <= finishAtNanos) {
+			stats.computeIfAbsent(route, RouteStats::new).record(nanos, ok);
+		}
+	}
+
+	/**
+	 * Hands out a vehicle and day nobody has booked yet, so bookings made by
+	 * the test do not collide with each other or the seeded data.
+	 */
+	Slot nextSlot() {
+		int slot = nextSlot.getAndIncrement();
+		return new Slot(bookableVehicleIds.get(slot % bookableVehicleIds.size()),
+				firstFreeDay.plusDays(slot / bookableVehicleIds.size()));
+	}
+
+	String getBaseUrl() {
+		return baseUrl;
+	}
+
+	int getUserCount() {
+		return userCount;
+	}
+
+	private List<RouteStats.Summary> summarize(double seconds) {
+		List<RouteStats.Summary> summaries = new ArrayList<>();
+		RouteStats total = new RouteStats("TOTAL");
+		for (RouteStats route : new TreeMap<>(stats).values()) {
+			summaries.add(route.summarize(seconds));
+			total.addAll(route);
+		}
+		summaries.add(total.summarize(seconds));
+		return summaries;
+	}
+
+	/**
+	 * A vehicle and a day to book it on.
+	 */
+	static final class Slot {
+		final int vehicleId;
+		final LocalDate date;
+
+		Slot(int vehicleId, LocalDate date) {
+			this.vehicleId = vehicleId;
+			this.date = date;
+		}
+	}
+
+	// --- Setup ---
+
+	private static Tomcat startServer(File webappDir, File classesDir) throws IOException, LifecycleException {
+		if (!new File(webappDir, "WEB-INF/web.xml").isFile()) {
+			throw new IOException("No web application at " + webappDir.getAbsolutePath() + " (see --webapp)");
+		}
+		if (!new File(classesDir, "com/rescuenet/config/DbConfig.class").isFile()) {
+			throw new IOException("No compiled classes at " + classesDir.getAbsolutePath() + " (see --classes)");
+		}
+		Path baseDir = Files.createTempDirectory("rescuenet-loadtest");
+		Tomcat tomcat = new Tomcat();
+		tomcat.setBaseDir(baseDir.toString());
+		tomcat.setPort(0); // Any free port
+		tomcat.getConnector();
+
+		Context context = tomcat.addWebapp("", webappDir.getAbsolutePath());
+		// Classes come from this JVM's class path, so the test and the application share
+		// one copy of DbConfig; the directory is mounted only for annotation scanning
+		WebappLoader loader = new WebappLoader();
+		loader.setDelegate(true);
+		context.setLoader(loader);
+		context.setParentClassLoader(LoadTest.class.getClassLoader());
+		WebResourceRoot resources = new StandardRoot(context);
+		resources.addPreResources(
+				new DirResourceSet(resources, "/WEB-INF/classes", classesDir.getAbsolutePath(), "/"));
+		context.setResources(resources);
+		// Every virtual user logs in from this machine, far more often than people do, so
+		// lift the login rate limits (non-overridable, so they win over web.xml)
+		for (String name : new String[] { "authAttemptsPerMinutePerAddress", "authBurstPerAddress",
+				"authAttemptsPerMinutePerUsername", "authBurstPerUsername" }) {
+			ApplicationParameter parameter = new ApplicationParameter();
+			parameter.setName(name);
+			parameter.setValue("1000000");
+			parameter.setOverride(false);
+			context.addApplicationParameter(parameter);
+		}
+
+		tomcat.start();
+		return tomcat;
+	}
+
+	private static List<Integer> readBookableVehicles(BenchmarkDatabase database) throws SQLException {
+		List<Integer> ids = new ArrayList<>();
+		try (Connection conn = database.connect();
+				PreparedStatement stmt = conn.prepareStatement(
+						"SELECT vehicle_id FROM vehicles WHERE status IN ('Available', 'Reserved') ORDER BY vehicle_id");
+				ResultSet rs = stmt.executeQuery()) {
+			while (rs.next()) {
+				ids.add(rs.getInt(1));
+			}
+		}
+		return ids;
+	}
+
+	private static Map<String, String> parseOptions(String[] args) {
+		Map<String, String> options = new HashMap<>(DEFAULTS);
+		for (int i = 0; i < args.length; i += 2) {
+			String name = args[i].startsWith("--") ? args[i].substring(2) : null;
+			if (name == null || !DEFAULTS.containsKey(name) || i + 1 >= args.length) {
+				System.err.println("Unknown or incomplete option: " + args[i]);
+				return null;
+			}
+			options.put(name, args[i + 1]);
+		}
+		return options;
+	}
+
+	// --- Report ---
+
+	private static void printTable(PrintStream out, List<RouteStats.Summary> summaries) {
+		out.println();
+		out.printf("%-30s %9s %9s %8s %9s %9s %9s %9s%n", "Route", "Requests", "Req/s", "Errors", "p50 ms",
+				"p99 ms", "p99.9 ms", "Max ms");
+		for (RouteStats.Summary s : summaries) {
+			out.printf("%-30s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f%n", s.route, s.requests, s.throughput,
+					s.errorRate(), millis(s.p50), millis(s.p99), millis(s.p999), millis(s.max));
+		}
+	}
+
+	private static void printCsv(PrintStream out, List<RouteStats.Summary> summaries) {
+		out.println("route,requests,throughput,errors,error_rate,p50_ms,p99_ms,p999_ms,max_ms");
+		for (RouteStats.Summary s : summaries) {
+			out.printf("\"%s\",%d,%.2f,%d,%.4f,%.3f,%.3f,%.3f,%.3f%n", s.route, s.requests, s.throughput, s.errors,
+					s.errorRate(), millis(s.p50), millis(s.p99), millis(s.p999), millis(s.max));
+		}
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+}
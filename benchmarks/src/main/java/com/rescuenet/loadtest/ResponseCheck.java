@@ -0,0 +1,110 @@
+package com.rescuenet.loadtest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import com.rescuenet.benchmark.BenchmarkDatabase;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ResponseCheck checks the headers and body of the home page before any load
+ * is applied, so that the first request, which renders the catalog fragment
+ * because nothing is cached yet, is checked as well as the cached ones. Both
+ * must go out as gzip-compressed UTF-8 HTML that contains the catalog.
+ * LoadTest runs it right after the server starts and stops if it fails.
+ */
+final class ResponseCheck {
+
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+	private static final String EXPECTED_CONTENT_TYPE = "text/html;charset=utf-8";
+	// In the footer of every page; mangled if the charset is lost
+	private static final String NON_ASCII_MARKER = "©";
+	private static final String CATALOG_MARKER = "class=\"vehicle-category-section\"";
+
+	private final String baseUrl;
+	private final HttpClient client;
+	private final List<String> failures = new ArrayList<>();
+
+	ResponseCheck(String baseUrl) {
+		this.baseUrl = baseUrl;
+		this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).cookieHandler(new CookieManager())
+				.followRedirects(HttpClient.Redirect.NEVER).connectTimeout(REQUEST_TIMEOUT).build();
+	}
+
+	/**
+	 * Logs in as a responder and fetches the home page twice, first while the
+	 * catalog fragment is not cached and then while it is.
+	 *
+	 * @return the failures found, empty if the responses are correct
+	 * @throws IOException          if a request fails
+	 * @throws InterruptedException if interrupted while waiting for a response
+	 */
+	List<String> run() throws IOException, InterruptedException {
+		String form = "username=" + URLEncoder.encode(BenchmarkDatabase.username(2), StandardCharsets.UTF_8)
+				+ "&password=" + URLEncoder.encode(BenchmarkDatabase.PASSWORD, StandardCharsets.UTF_8);
+		HttpResponse<InputStream> login = client.send(request("/login")
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form)).build(), HttpResponse.BodyHandlers.ofInputStream());
+		login.body().close();
+		if (login.statusCode() != 302 || login.headers().firstValue("Location").orElse("").contains("/login")) {
+			failures.add("POST /login: could not log in (status " + login.statusCode() + ")");
+			return failures;
+		}
+
+		checkHomePage("GET /home (catalog not cached)");
+		checkHomePage("GET /home (catalog cached)");
+		return failures;
+	}
+
+	/**
+	 * Fetches the home page asking for gzip and checks how it was sent.
+	 */
+	private void checkHomePage(String label) throws IOException, InterruptedException {
+		HttpResponse<byte[]> response = client.send(request("/home").header("Accept-Encoding", "gzip").GET().build(),
+				HttpResponse.BodyHandlers.ofByteArray());
+		if (response.statusCode() != 200) {
+			failures.add(label + ": status " + response.statusCode());
+			return;
+		}
+		String contentType = response.headers().firstValue("Content-Type").orElse("(none)");
+		if (!contentType.replace(" ", "").equalsIgnoreCase(EXPECTED_CONTENT_TYPE)) {
+			failures.add(label + ": Content-Type is " + contentType);
+		}
+		String encoding = response.headers().firstValue("Content-Encoding").orElse("(none)");
+		if (!"gzip".equalsIgnoreCase(encoding)) {
+			failures.add(label + ": Content-Encoding is " + encoding);
+			return;
+		}
+		String page;
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+			page = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			failures.add(label + ": the body is not valid gzip (" + e.getMessage() + ")");
+			return;
+		}
+		if (!page.contains(NON_ASCII_MARKER)) {
+			failures.add(label + ": the body is not UTF-8 (no © in the footer)");
+		}
+		if (!page.contains(CATALOG_MARKER)) {
+			failures.add(label + ": the body has no catalog");
+		}
+	}
+
+	private HttpRequest.Builder request(String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+	}
+}
@@ -0,0 +1,104 @@
+package com.rescuenet.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * RouteStats collects the latency of every measured request to one route,
+ * plus its error count. All samples are kept, so the percentiles are exact.
+ */
+final class RouteStats {
+
+	private final String route;
+	private long[] latencies = new long[1024];
+	private int count;
+	private int errors;
+
+	RouteStats(String route) {
+		this.route = route;
+	}
+
+	/**
+	 * Records one request.
+	 *
+	 * @param nanos the time from sending the request to reading the whole
+	 *              response
+	 * @param ok    whether the response was a success
+	 */
+	synchronized void record(long nanos, boolean ok) {
+		if (count == latencies.length) {
+			latencies = Arrays.copyOf(latencies, count * 2);
+		}
+		latencies[count++] = nanos;
+		if (!ok) {
+			errors++;
+		}
+	}
+
+	/**
+	 * Summarizes the samples recorded so far.
+	 *
+	 * @param seconds the length of the measurement window
+	 * @return the route's summary
+	 */
+	synchronized Summary summarize(double seconds) {
+		long[] sorted = Arrays.copyOf(latencies, count);
+		Arrays.sort(sorted);
+		return new Summary(route, count, errors, count / seconds, percentile(sorted, 0.50),
+				percentile(sorted, 0.99), percentile(sorted, 0.999), count == 0 ? 0 : sorted[count - 1]);
+	}
+
+	/**
+	 * Adds another route's samples to this one, for the all-routes total.
+	 */
+	synchronized void addAll(RouteStats other) {
+		synchronized (other) {
+			if (count + other.count > latencies.length) {
+				latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+			}
+			System.arraycopy(other.latencies, 0, latencies, count, other.count);
+			count += other.count;
+			errors += other.errors;
+		}
+	}
+
+	private static long percentile(long[] sorted, double quantile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(quantile * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+
+	/**
+	 * The results for one route.
+	 */
+	static final class Summary {
+		final String route;
+		final int requests;
+		final int errors;
+		final double throughput;
+		final long p50;
+		final long p99;
+		final long p999;
+		final long max;
+
+		Summary(String route, int requests, int errors, double throughput, long p50, long p99, long p999,
+				long max) {
+			this.route = route;
+			this.requests = requests;
+			this.errors = errors;
+			this.throughput = throughput;
+			this.p50 = p50;
+			this.p99 = p99;
+			this.p999 = p999;
+			this.max = max;
+		}
+
+		double errorRate() {
+			return requests == 0 ? 0 : 100.0 * errors / requests;
+		}
+	}
+}
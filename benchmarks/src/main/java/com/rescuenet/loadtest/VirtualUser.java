@@ -0,0 +1,262 @@
+package com.rescuenet.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.rescuenet.benchmark.BenchmarkDatabase;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * VirtualUser is one simulated person using RescueNet: it logs in, then keeps
+ * picking its next action from a weighted mix until the test ends, with no
+ * pause in between (a closed loop). Responders browse the catalog, search and
+ * edit their profile; admins work the reservation screens, booking,
+ * rebooking and cancelling reservations of their own.
+ */
+final class VirtualUser implements Runnable {
+
+	private static final String ERROR_MARKER = "error-message\"";
+	private static final Pattern EDIT_LINK = Pattern.compile("/reservations/update\\?id=(\\d+)");
+	private static final String[] SEARCH_TERMS = { "ambulance", "fire truck", "rescue boat", "helicopter", "toyota",
+			"volvo", "district 12", "equipped", "utility", "nomatch" };
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	// --- Traffic Mix (relative weights) ---
+	private static final int[] RESPONDER_WEIGHTS = { 35, 35, 15, 10, 5 }; // home, search, portfolio, update, relogin
+	// list, create, update, edit form, delete, dashboard, relogin
+	private static final int[] ADMIN_WEIGHTS = { 30, 25, 15, 10, 10, 5, 5 };
+
+	private final LoadTest test;
+	private final boolean admin;
+	private final int userId;
+	private final Random random;
+	private final HttpClient client;
+	private final Deque<Integer> ownReservations = new ArrayDeque<>();
+
+	VirtualUser(LoadTest test, boolean admin, int userId, long seed) {
+		this.test = test;
+		this.admin = admin;
+		this.userId = userId;
+		this.random = new Random(seed);
+		this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).cookieHandler(new CookieManager())
+				.followRedirects(HttpClient.Redirect.NEVER).connectTimeout(REQUEST_TIMEOUT).build();
+	}
+
+	@Override
+	public void run() {
+		try {
+			login();
+			while (!test.isFinished()) {
+				if (admin) {
+					runAdminAction(pick(ADMIN_WEIGHTS));
+				} else {
+					runResponderAction(pick(RESPONDER_WEIGHTS));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// --- Responder Actions ---
+
+	private void runResponderAction(int action) throws InterruptedException {
+		switch (action) {
+		case 0:
+			get("GET /home", "/home");
+			break;
+		case 1:
+			String term = SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)];
+			get("GET /home?searchQuery", "/home?searchQuery=" + encode(term));
+			break;
+		case 2:
+			get("GET /portfolio", "/portfolio");
+			break;
+		case 3:
+			updateProfile();
+			break;
+		default:
+			relogin();
+		}
+	}
+
+	private void updateProfile() throws InterruptedException {
+		String username = BenchmarkDatabase.username(userId);
+		String boundary = "----rescuenet" + Long.toHexString(random.nextLong());
+		StringBuilder body = new StringBuilder();
+		Map<String, String> fields = Map.of("username", username, "full_name",
+				"Responder " + userId + " " + random.nextInt(1000), "email", username + "@rescuenet.org",
+				"phone_number", String.format("98%08d", userId), "new_password", "", "retype_new_password", "");
+		for (Map.Entry<String, String> field : fields.entrySet()) {
+			body.append("--").append(boundary).append("\r\n").append("Content-Disposition: form-data; name=\"")
+					.append(field.getKey()).append("\"\r\n\r\n").append(field.getValue()).append("\r\n");
+		}
+		body.append("--").append(boundary).append("\r\n")
+				.append("Content-Disposition: form-data; name=\"profile_picture_new\"; filename=\"\"\r\n")
+				.append("Content-Type: application/octet-stream\r\n\r\n\r\n");
+		body.append("--").append(boundary).append("--\r\n");
+		send("POST /portfolio",
+				request("/portfolio").header("Content-Type", "multipart/form-data; boundary=" + boundary)
+						.POST(HttpRequest.BodyPublishers.ofString(body.toString())).build(), false);
+	}
+
+	// --- Admin Actions ---
+
+	private void runAdminAction(int action) throws InterruptedException {
+		switch (action) {
+		case 0:
+			get("GET /reservations", "/reservations");
+			break;
+		case 1:
+			createReservation();
+			break;
+		case 2:
+			updateReservation();
+			break;
+		case 3:
+			if (ownReservations.isEmpty()) {
+				createReservation();
+			} else {
+				get("GET /reservations/update", "/reservations/update?id=" + ownReservations.peekLast());
+			}
+			break;
+		case 4:
+			deleteReservation();
+			break;
+		case 5:
+			get("GET /admin", "/admin");
+			break;
+		default:
+			relogin();
+		}
+	}
+
+	private void createReservation() throws InterruptedException {
+		LoadTest.Slot slot = test.nextSlot();
+		boolean ok = postForm("POST /reservations/create", "/reservations/create", "vehicleId",
+				String.valueOf(slot.vehicleId), "userId", String.valueOf(1 + random.nextInt(test.getUserCount())),
+				"reservationDate", slot.date.toString(), "status", "Confirmed");
+		if (ok) {
+			// Find the new reservation's ID the way an admin would: filter the listing
+			String page = get("GET /reservations?filter", "/reservations?filterVehicleId=" + slot.vehicleId
+					+ "&filterFrom=" + slot.date + "&filterTo=" + slot.date);
+			Matcher matcher = page != null ? EDIT_LINK.matcher(page) : null;
+			if (matcher != null && matcher.find()) {
+				ownReservations.addLast(Integer.parseInt(matcher.group(1)));
+			}
+		}
+	}
+
+	private void updateReservation() throws InterruptedException {
+		if (ownReservations.isEmpty()) {
+			createReservation();
+			return;
+		}
+		LoadTest.Slot slot = test.nextSlot();
+		postForm("POST /reservations/update", "/reservations/update", "reservationId",
+				String.valueOf(ownReservations.peekFirst()), "vehicleId", String.valueOf(slot.vehicleId), "userId",
+				String.valueOf(1 + random.nextInt(test.getUserCount())), "reservationDate", slot.date.toString(),
+				"status", "Confirmed");
+	}
+
+	private void deleteReservation() throws InterruptedException {
+		if (ownReservations.isEmpty()) {
+			createReservation();
+			return;
+		}
+		postForm("POST /reservations/delete", "/reservations/delete", "reservationId",
+				String.valueOf(ownReservations.pollFirst()));
+	}
+
+	// --- Session ---
+
+	private void login() throws InterruptedException {
+		postForm("POST /login", "/login", "username", BenchmarkDatabase.username(userId), "password",
+				BenchmarkDatabase.PASSWORD);
+	}
+
+	private void relogin() throws InterruptedException {
+		send("GET /logout", request("/logout").GET().build(), true);
+		login();
+	}
+
+	// --- HTTP ---
+
+	private String get(String route, String path) throws InterruptedException {
+		return send(route, request(path).GET().build(), false);
+	}
+
+	private boolean postForm(String route, String path, String... nameValuePairs) throws InterruptedException {
+		StringJoiner form = new StringJoiner("&");
+		for (int i = 0; i < nameValuePairs.length; i += 2) {
+			form.add(encode(nameValuePairs[i]) + "=" + encode(nameValuePairs[i + 1]));
+		}
+		return send(route, request(path).header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form.toString())).build(), false) != null;
+	}
+
+	private HttpRequest.Builder request(String path) {
+		return HttpRequest.newBuilder(URI.create(test.getBaseUrl() + path)).timeout(REQUEST_TIMEOUT);
+	}
+
+	/**
+	 * Sends a request and records it. A response counts as an error when it
+	 * has a 4xx/5xx status, redirects with an error message or (unless
+	 * expected) back to the login page, or renders an error message.
+	 *
+	 * @return the response body on success, or null on error
+	 */
+	private String send(String route, HttpRequest request, boolean toLoginExpected) throws InterruptedException {
+		long start = System.nanoTime();
+		String body = null;
+		boolean ok;
+		try {
+			HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+			int status = response.statusCode();
+			String location = response.headers().firstValue("Location").orElse("");
+			boolean toLogin = location.endsWith("/login") || location.contains("/login?");
+			ok = status < 400 && !location.contains("error=") && (toLoginExpected || !toLogin)
+					&& !response.body().contains(ERROR_MARKER);
+			body = ok ? response.body() : null;
+		} catch (IOException e) {
+			ok = false;
+		}
+		test.record(route, System.nanoTime() - start, ok);
+		return body;
+	}
+
+	private int pick(int[] weights) {
+		int total = 0;
+		for (int weight : weights) {
+			total += weight;
+		}
+		int roll = random.nextInt(total);
+		for (int i = 0; i < weights.length; i++) {
+			roll -= weights[i];
+			if (roll < 0) {
+				return i;
+			}
+		}
+		return weights.length - 1;
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+}
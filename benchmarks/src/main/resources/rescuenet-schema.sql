@@ -0,0 +1,54 @@
+-- RescueNet schema for the embedded benchmark database (H2 in MySQL mode).
+-- Mirrors the tables and columns the service layer queries.
+
+CREATE TABLE roles (
+    role_id INT PRIMARY KEY,
+    role_name VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE users (
+    user_id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password_hash VARCHAR(255) NOT NULL,
+    role_id INT NOT NULL REFERENCES roles (role_id),
+    full_name VARCHAR(100),
+    email VARCHAR(100) UNIQUE,
+    phone_number VARCHAR(20),
+    profile_picture_path VARCHAR(255),
+    last_login TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    is_active TINYINT DEFAULT 1
+);
+
+CREATE TABLE vehicles (
+    vehicle_id INT AUTO_INCREMENT PRIMARY KEY,
+    serial_number VARCHAR(50) NOT NULL UNIQUE,
+    brand_name VARCHAR(100) NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    type VARCHAR(50),
+    status VARCHAR(20) NOT NULL DEFAULT 'Available',
+    manufactured_date DATE,
+    image_path VARCHAR(255),
+    description TEXT,
+    price DECIMAL(12, 2)
+);
+
+CREATE TABLE reservations (
+    reservation_id INT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL REFERENCES users (user_id),
+    vehicle_id INT NOT NULL REFERENCES vehicles (vehicle_id),
+    reservation_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL
+);
+
+CREATE INDEX idx_reservations_listing ON reservations (reservation_date, reservation_id);
+CREATE INDEX idx_reservations_vehicle_date ON reservations (vehicle_id, reservation_date);
+
+CREATE TABLE services (
+    service_id INT AUTO_INCREMENT PRIMARY KEY,
+    vehicle_id INT NOT NULL REFERENCES vehicles (vehicle_id),
+    service_date DATE NOT NULL,
+    description VARCHAR(255)
+);
+
+INSERT INTO roles (role_id, role_name) VALUES (1, 'User'), (2, 'Admin');
@@ -0,0 +1,524 @@
+package com.rescuenet.config;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.metrics.Histogram;
+import com.rescuenet.metrics.MetricsRegistry;
+import com.rescuenet.metrics.SqlMetrics;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ConnectionPool is a bounded JDBC connection pool used by DbConfig. It keeps
+ * between a minimum and maximum number of physical connections open, validates
+ * connections before handing them out, evicts connections that have been idle
+ * for too long, makes callers wait (up to a timeout) when every connection is
+ * in use, and reports connections that are held longer than the leak
+ * threshold. Calling close() on a borrowed connection returns it to the pool.
+ * Statements created on a borrowed connection are timed (see SqlMetrics), and
+ * the time callers spend waiting for a connection is recorded as well.
+ */
+public class ConnectionPool implements DataSource {
+
+	private static final Logger LOG = LogManager.getLogger(ConnectionPool.class);
+
+	private final String url;
+	private final String username;
+	private final String password;
+	private final int minSize;
+	private final int maxSize;
+	private final long borrowTimeoutMillis;
+	private final long idleTimeoutMillis;
+	private final long leakThresholdMillis;
+	private final int validationTimeoutSeconds;
+
+	// --- Pool State (guarded by lock) ---
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition connectionReturned = lock.newCondition();
+	private final Deque<PooledConnection> idle = new ArrayDeque<>();
+	private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+	private int totalConnections = 0;
+	private boolean closed = false;
+
+	private final ScheduledExecutorService housekeeper;
+
+	// --- Metrics ---
+	private static final Histogram WAIT_TIME = MetricsRegistry.getInstance().histogram(
+			"rescuenet_db_pool_wait_seconds", "Time spent waiting to borrow a database connection.");
+	private final LongAdder borrowTimeouts = new LongAdder();
+
+	/**
+	 * Creates a pool and opens the minimum number of connections.
+	 *
+	 * @param url                      the JDBC URL
+	 * @param username                 the database user
+	 * @param password                 the database password
+	 * @param minSize                  connections kept open even when idle
+	 * @param maxSize                  upper bound on open connections
+	 * @param borrowTimeoutMillis      how long a caller waits for a free
+	 *                                 connection
+	 * @param idleTimeoutMillis        idle time after which surplus connections
+	 *                                 are closed
+	 * @param leakThresholdMillis      borrow duration after which a connection
+	 *                                 is reported as a possible leak
+	 * @param validationTimeoutSeconds timeout for Connection.isValid on borrow
+	 */
+	public ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+			long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis, int validationTimeoutSeconds) {
+		if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+			throw new IllegalArgumentException("Invalid pool bounds: min=" + minSize + ", max=" + maxSize);
+		}
+		this.url = url;
+		this.username = username;
+		this.password = password;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.borrowTimeoutMillis = borrowTimeoutMillis;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.leakThresholdMillis = leakThresholdMillis;
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+
+		// --- Warm Up Minimum Connections ---
+		for (int i = 0; i < minSize; i++) {
+			try {
+				PooledConnection pooled = new PooledConnection(openPhysical());
+				lock.lock();
+				try {
+					totalConnections++;
+					idle.addLast(pooled);
+				} finally {
+					lock.unlock();
+				}
+			} catch (SQLException e) {
+				// The database may not be up yet; connections are opened on demand later.
+				LOG.error("Could not pre-open connection - {}", e.getMessage());
+				break;
+			}
+		}
+
+		// --- Start Housekeeping (idle eviction + leak detection) ---
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "rescuenet-pool-housekeeper");
+			t.setDaemon(true);
+			return t;
+		});
+		long period = Math.max(1000L, Math.min(idleTimeoutMillis, leakThresholdMillis) / 2);
+		housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Borrows a connection, waiting up to the borrow timeout if the pool is
+	 * exhausted. The returned connection goes back to the pool when closed.
+	 *
+	 * @return a validated pooled connection
+	 * @throws SQLException if the pool is closed, the timeout elapses, or a new
+	 *                      connection cannot be opened
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+		while (true) {
+			PooledConnection candidate = null;
+			boolean mayOpen = false;
+
+			// --- Take an Idle Connection or Reserve a Slot ---
+			lock.lock();
+			try {
+				while (true) {
+					if (closed) {
+						throw new SQLException("Connection pool is closed.");
+					}
+					candidate = idle.pollFirst();
+					if (candidate != null) {
+						break;
+					}
+					if (totalConnections < maxSize) {
+						totalConnections++;
+						mayOpen = true;
+						break;
+					}
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) {
+						borrowTimeouts.increment();
+						WAIT_TIME.recordSince(start);
+						throw new SQLException("Timed out after " + borrowTimeoutMillis
+								+ " ms waiting for a database connection (pool size " + maxSize + ", all in use).");
+					}
+					try {
+						connectionReturned.awaitNanos(remaining);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new SQLException("Interrupted while waiting for a database connection.", e);
+					}
+				}
+			} finally {
+				lock.unlock();
+			}
+
+			// --- Open a New Physical Connection Outside the Lock ---
+			if (mayOpen) {
+				try {
+					candidate = new PooledConnection(openPhysical());
+				} catch (SQLException e) {
+					releaseSlot();
+					throw e;
+				}
+				WAIT_TIME.recordSince(start);
+				return candidate.lease();
+			}
+
+			// --- Validate on Borrow ---
+			if (isUsable(candidate)) {
+				WAIT_TIME.recordSince(start);
+				return candidate.lease();
+			}
+			LOG.warn("Discarding stale connection on borrow.");
+			discard(candidate);
+		}
+	}
+
+	/**
+	 * Closes every idle connection and stops handing out new ones. Connections
+	 * still borrowed are closed when they are returned.
+	 */
+	public void shutdown() {
+		List<PooledConnection> toClose;
+		lock.lock();
+		try {
+			closed = true;
+			toClose = new ArrayList<>(idle);
+			idle.clear();
+			totalConnections -= toClose.size();
+			connectionReturned.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		housekeeper.shutdownNow();
+		for (PooledConnection pooled : toClose) {
+			closeQuietly(pooled.physical);
+		}
+		if (!borrowed.isEmpty()) {
+			LOG.warn("Shut down with {} connection(s) still borrowed.", borrowed.size());
+		}
+	}
+
+	/**
+	 * Gets the number of physical connections currently open.
+	 *
+	 * @return the total connection count
+	 */
+	public int getTotalConnections() {
+		lock.lock();
+		try {
+			return totalConnections;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of open connections waiting in the pool.
+	 *
+	 * @return the idle connection count
+	 */
+	public int getIdleConnections() {
+		lock.lock();
+		try {
+			return idle.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of connections currently handed out to callers.
+	 *
+	 * @return the borrowed connection count
+	 */
+	public int getActiveConnections() {
+		return borrowed.size();
+	}
+
+	/**
+	 * Gets the number of callers waiting for a connection to be returned.
+	 *
+	 * @return the waiting thread count
+	 */
+	public int getWaitingThreads() {
+		lock.lock();
+		try {
+			return lock.getWaitQueueLength(connectionReturned);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of borrows that gave up because no connection became
+	 * free in time.
+	 *
+	 * @return the borrow timeout count
+	 */
+	public long getTimeoutCount() {
+		return borrowTimeouts.sum();
+	}
+
+	/**
+	 * Gets the configured maximum pool size.
+	 *
+	 * @return the maximum number of connections
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	private Connection openPhysical() throws SQLException {
+		return DriverManager.getConnection(url, username, password);
+	}
+
+	private boolean isUsable(PooledConnection pooled) {
+		try {
+			return !pooled.physical.isClosed() && pooled.physical.isValid(validationTimeoutSeconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private void releaseSlot() {
+		lock.lock();
+		try {
+			totalConnections--;
+			connectionReturned.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void discard(PooledConnection pooled) {
+		closeQuietly(pooled.physical);
+		releaseSlot();
+	}
+
+	/**
+	 * Called when a borrowed connection is closed by its user. Resets
+	 * transaction state and puts the connection back in the idle queue.
+	 */
+	private void giveBack(PooledConnection pooled) {
+		borrowed.remove(pooled);
+
+		// --- Reset State Left Behind by the Borrower ---
+		boolean healthy = true;
+		try {
+			if (pooled.physical.isClosed()) {
+				healthy = false;
+			} else if (!pooled.physical.getAutoCommit()) {
+				pooled.physical.rollback();
+				pooled.physical.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			healthy = false;
+		}
+
+		lock.lock();
+		try {
+			if (healthy && !closed) {
+				pooled.lastUsedAt = System.currentTimeMillis();
+				idle.addFirst(pooled); // Most recently used first keeps surplus connections idle long enough to evict
+				connectionReturned.signal();
+				return;
+			}
+		} finally {
+			lock.unlock();
+		}
+		discard(pooled);
+	}
+
+	/**
+	 * Periodic task: closes surplus idle connections and logs suspected leaks.
+	 */
+	private void housekeep() {
+		long now = System.currentTimeMillis();
+
+		// --- Idle Eviction ---
+		List<PooledConnection> evicted = new ArrayList<>();
+		lock.lock();
+		try {
+			Iterator<PooledConnection> it = idle.descendingIterator(); // Least recently used first
+			while (it.hasNext() && totalConnections - evicted.size() > minSize) {
+				PooledConnection pooled = it.next();
+				if (now - pooled.lastUsedAt > idleTimeoutMillis) {
+					it.remove();
+					evicted.add(pooled);
+				}
+			}
+			totalConnections -= evicted.size();
+		} finally {
+			lock.unlock();
+		}
+		for (PooledConnection pooled : evicted) {
+			closeQuietly(pooled.physical);
+		}
+
+		// --- Leak Detection ---
+		for (PooledConnection pooled : borrowed) {
+			long heldFor = now - pooled.borrowedAt;
+			if (heldFor > leakThresholdMillis && !pooled.leakReported) {
+				pooled.leakReported = true;
+				LOG.warn("Possible connection leak - connection held for {} ms by thread '{}'. Borrowed at:",
+						heldFor, pooled.borrowerThread, pooled.borrowSite);
+			}
+		}
+	}
+
+	private static void closeQuietly(Connection conn) {
+		try {
+			conn.close();
+		} catch (SQLException e) {
+			LOG.warn("Error closing physical connection - {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Wraps one physical connection and hands out proxies whose close() returns
+	 * the connection to the pool instead of closing it.
+	 */
+	private final class PooledConnection implements InvocationHandler {
+		private final Connection physical;
+		private volatile long lastUsedAt = System.currentTimeMillis();
+		private volatile long borrowedAt;
+		private volatile String borrowerThread;
+		private volatile Throwable borrowSite;
+		private volatile boolean leakReported;
+		private volatile Connection currentLease;
+
+		PooledConnection(Connection physical) {
+			this.physical = physical;
+		}
+
+		Connection lease() {
+			borrowedAt = System.currentTimeMillis();
+			borrowerThread = Thread.currentThread().getName();
+			borrowSite = new Throwable("Connection borrow site");
+			leakReported = false;
+			currentLease = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, this);
+			borrowed.add(this);
+			return currentLease;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			boolean isCurrent = proxy == currentLease;
+
+			// --- Lifecycle Methods ---
+			if ("close".equals(name) && method.getParameterCount() == 0) {
+				if (isCurrent) {
+					currentLease = null;
+					giveBack(this);
+				}
+				return null;
+			}
+			if ("isClosed".equals(name) && method.getParameterCount() == 0) {
+				return !isCurrent || physical.isClosed();
+			}
+			if ("equals".equals(name) && method.getParameterCount() == 1) {
+				return proxy == args[0];
+			}
+			if ("hashCode".equals(name) && method.getParameterCount() == 0) {
+				return System.identityHashCode(proxy);
+			}
+			if ("toString".equals(name) && method.getParameterCount() == 0) {
+				return "PooledConnection[" + physical + "]";
+			}
+			if (!isCurrent) {
+				throw new SQLException("Connection has already been returned to the pool.");
+			}
+
+			// --- Delegate Everything Else ---
+			Object result;
+			try {
+				result = method.invoke(physical, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (result instanceof Statement) {
+				String sql = name.startsWith("prepare") ? (String) args[0] : null;
+				return SqlMetrics.wrap((Statement) result, method.getReturnType(), sql);
+			}
+			return result;
+		}
+	}
+
+	// --- DataSource Boilerplate ---
+
+	@Override
+	public Connection getConnection(String user, String pass) throws SQLException {
+		throw new SQLFeatureNotSupportedException("Pooled connections use the configured credentials.");
+	}
+
+	@Override
+	public PrintWriter getLogWriter() {
+		return null;
+	}
+
+	@Override
+	public void setLogWriter(PrintWriter out) {
+	}
+
+	@Override
+	public void setLoginTimeout(int seconds) {
+		DriverManager.setLoginTimeout(seconds);
+	}
+
+	@Override
+	public int getLoginTimeout() {
+		return DriverManager.getLoginTimeout();
+	}
+
+	@Override
+	public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return iface.cast(this);
+		}
+		throw new SQLException("Not a wrapper for " + iface.getName());
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) {
+		return iface.isInstance(this);
+	}
+}
@@ -1,33 +1,124 @@
 package com.rescuenet.config;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
 /**
  * @author Prayash Rawal
  */
 /**
  * DbConfig is a configuration class for managing database connections. It
- * handles the connection to a MySQL database using JDBC.
+ * owns the application's connection pool and hands out pooled connections to
+ * the service layer. Closing a connection obtained here returns it to the
+ * pool.
  */
 public class DbConfig {
 
-	// Database configuration information
+	private static final Logger LOG = LogManager.getLogger(DbConfig.class);
+
+	// Database configuration information (each value can be overridden with a
+	// rescuenet.db.* system property, e.g. to run benchmarks against an embedded
+	// database)
 	private static final String DB_NAME = "rescuenet";
-	private static final String URL = "jdbc:mysql://localhost:3306/" + DB_NAME;
+	// rewriteBatchedStatements lets Connector/J send a JDBC batch of inserts as
+	// one multi-row INSERT (used by ReservationImportService). cachePrepStmts
+	// keeps each connection's parsed statements, keyed by SQL text, so the
+	// statements in SqlCatalog are parsed once per connection rather than on
+	// every prepareStatement call.
+	private static final String URL = "jdbc:mysql://localhost:3306/" + DB_NAME + "?rewriteBatchedStatements=true"
+			+ "&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048";
 	private static final String USERNAME = "root";
 	private static final String PASSWORD = "";
+	private static final String DRIVER_CLASS = "com.mysql.cj.jdbc.Driver";
+	private static final String URL_PROPERTY = "rescuenet.db.url";
+	private static final String USERNAME_PROPERTY = "rescuenet.db.user";
+	private static final String PASSWORD_PROPERTY = "rescuenet.db.password";
+	private static final String DRIVER_CLASS_PROPERTY = "rescuenet.db.driver";
+
+	// Connection pool configuration
+	private static final int POOL_MIN_SIZE = 2;
+	private static final int POOL_MAX_SIZE = 20;
+	private static final long POOL_BORROW_TIMEOUT_MS = 5_000;
+	private static final long POOL_IDLE_TIMEOUT_MS = 5 * 60_000;
+	private static final long POOL_LEAK_THRESHOLD_MS = 60_000;
+	private static final int POOL_VALIDATION_TIMEOUT_SECONDS = 2;
+
+	private static volatile ConnectionPool pool;
+
+	/**
+	 * Starts the connection pool. Called once by DbPoolListener when the
+	 * application starts; calling it again has no effect. The connection
+	 * settings are read from the rescuenet.db.* system properties when set.
+	 *
+	 * @throws ClassNotFoundException if the JDBC driver class is not found
+	 */
+	public static synchronized void initPool() throws ClassNotFoundException {
+		if (pool != null) {
+			return;
+		}
+		Class.forName(System.getProperty(DRIVER_CLASS_PROPERTY, DRIVER_CLASS));
+		pool = new ConnectionPool(System.getProperty(URL_PROPERTY, URL),
+				System.getProperty(USERNAME_PROPERTY, USERNAME), System.getProperty(PASSWORD_PROPERTY, PASSWORD),
+				POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_BORROW_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS,
+				POOL_VALIDATION_TIMEOUT_SECONDS);
+		LOG.info("Connection pool started (min={}, max={}).", POOL_MIN_SIZE, POOL_MAX_SIZE);
+	}
+
+	/**
+	 * Closes all pooled connections. Called by DbPoolListener when the
+	 * application stops.
+	 */
+	public static synchronized void shutdownPool() {
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+			LOG.info("Connection pool shut down.");
+		}
+	}
+
+	/**
+	 * Gets the connection pool, starting it if the listener has not run yet.
+	 *
+	 * @return the application's connection pool
+	 * @throws ClassNotFoundException if the JDBC driver class is not found
+	 */
+	public static ConnectionPool getPool() throws ClassNotFoundException {
+		ConnectionPool current = pool;
+		if (current == null) {
+			initPool();
+			current = pool;
+		}
+		return current;
+	}
+
+	/**
+	 * Gets the connection pool without starting it, e.g. to report on it.
+	 *
+	 * @return the running pool, or null if it is not started
+	 */
+	public static ConnectionPool getPoolIfStarted() {
+		return pool;
+	}
 
 	/**
-	 * Establishes a connection to the database.
+	 * Gets a database connection. Inside a request (see UnitOfWork) this is the
+	 * request's shared connection; otherwise a connection is borrowed from the
+	 * pool. Callers must close it (preferably with try-with-resources) either
+	 * way.
 	 *
 	 * @return Connection object for the database
-	 * @throws SQLException           if a database access error occurs
+	 * @throws SQLException           if a database access error occurs or no
+	 *                                connection becomes free in time
 	 * @throws ClassNotFoundException if the JDBC driver class is not found
 	 */
 	public static Connection getDbConnection() throws SQLException, ClassNotFoundException {
-		Class.forName("com.mysql.cj.jdbc.Driver");
-		return DriverManager.getConnection(URL, USERNAME, PASSWORD);
+		UnitOfWork unit = UnitOfWork.current();
+		if (unit != null) {
+			return unit.getConnection();
+		}
+		return getPool().getConnection();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,218 @@
+package com.rescuenet.config;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * Jdbc runs catalog statements (see SqlStatement) for the service layer. Each
+ * call prepares the statement, binds its parameters in order, applies the
+ * statement's fetch size, maps the rows with a RowMapper and closes
+ * everything with try-with-resources. The statements come from the
+ * connection pool, which times their execute calls (see SqlMetrics).
+ *
+ * The methods without a connection borrow one from DbConfig (inside a request
+ * this is the UnitOfWork's shared connection) and give it back afterwards;
+ * the methods that take a connection use it as it is, e.g. inside a
+ * transaction. Parameters are bound with setObject, except that LocalDate
+ * values are bound as SQL dates.
+ */
+public final class Jdbc {
+
+	private Jdbc() {
+	}
+
+	// --- Queries ---
+
+	/**
+	 * Runs a query on a connection from DbConfig and maps every row.
+	 *
+	 * @param <T>       the row type
+	 * @param statement the statement to run
+	 * @param mapper    the row mapper
+	 * @param params    the parameters, in placeholder order
+	 * @return the mapped rows, in result order
+	 * @throws SQLException if a database access error occurs
+	 */
+	public static <T> List<T> query(SqlStatement statement, RowMapper<T> mapper, Object... params)
+			throws SQLException {
+		try (Connection conn = connect()) {
+			return query(conn, statement, mapper, params);
+		}
+	}
+
+	/**
+	 * Runs a query on the given connection and maps every row.
+	 *
+	 * @param <T>       the row type
+	 * @param conn      the connection, which is left open
+	 * @param statement the statement to run
+	 * @param mapper    the row mapper
+	 * @param params    the parameters, in placeholder order
+	 * @return the mapped rows, in result order
+	 * @throws SQLException if a database access error occurs
+	 */
+	public static <T> List<T> query(Connection conn, SqlStatement statement, RowMapper<T> mapper,
+			Object... params) throws SQLException {
+		return run(conn, statement, mapper, Integer.MAX_VALUE, params);
+	}
+
+	/**
+	 * Runs a query on a connection from DbConfig and maps its first row.
+	 *
+	 * @param <T>       the row type
+	 * @param statement the statement to run
+	 * @param mapper    the row mapper
+	 * @param params    the parameters, in placeholder order
+	 * @return the first row, or null if there are none
+	 * @throws SQLException if a database access error occurs
+	 */
+	public static <T> T queryOne(SqlStatement statement, RowMapper<T> mapper, Object... params)
+			throws SQLException {
+		try (Connection conn = connect()) {
+			return queryOne(conn, statement, mapper, params);
+		}
+	}
+
+	/**
+	 * Runs a query on the given connection and maps its first row.
+	 *
+	 * @param <T>       the row type
+	 * @param conn      the connection, which is left open
+	 * @param statement the statement to run
+	 * @param mapper    the row mapper
+	 * @param params    the parameters, in placeholder order
+	 * @return the first row, or null if there are none
+	 * @throws SQLException if a database access error occurs
+	 */
+	public static <T> T queryOne(Connection conn, SqlStatement statement, RowMapper<T> mapper, Object... params)
+			throws SQLException {
+		List<T> rows = run(conn, statement, mapper, 1, params);
+		return rows.isEmpty() ? null : rows.get(0);
+	}
+
+	/**
+	 * Runs a query on the given connection and checks whether it returns any
+	 * row.
+	 *
+	 * @param conn      the connection, which is left open
+	 * @param statement the statement to run
+	 * @param params    the parameters, in placeholder order
+	 * @return true if there is at least one row
+	 * @throws SQLException if a database access error occurs
+	 */
+	public static boolean exists(Connection conn, SqlStatement statement, Object... params) throws SQLException {
+		return !run(conn, statement, rs -> row -> Boolean.TRUE, 1, params).isEmpty();
+	}
+
+	// --- Updates ---
+
+	/**
+	 * Runs an INSERT, UPDATE or DELETE on a connection from DbConfig.
+	 *
+	 * @param statement the statement to run
+	 * @param params    the parameters, in placeholder order
+	 * @return the number of rows affected
+	 * @throws SQLException if a database access error occurs
+	 */
+	public static int update(SqlStatement statement, Object... params) throws SQLException {
+		try (Connection conn = connect()) {
+			return update(conn, statement, params);
+		}
+	}
+
+	/**
+	 * Runs an INSERT, UPDATE or DELETE on the given connection.
+	 *
+	 * @param conn      the connection, which is left open
+	 * @param statement the statement to run
+	 * @param params    the parameters, in placeholder order
+	 * @return the number of rows affected
+	 * @throws SQLException if a database access error occurs
+	 */
+	public static int update(Connection conn, SqlStatement statement, Object... params) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(statement.getSql())) {
+			bind(stmt, params);
+			return stmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Runs an INSERT once per row as one JDBC batch on the given connection and
+	 * reads the generated keys.
+	 *
+	 * @param conn      the connection, which is left open
+	 * @param statement the INSERT to run
+	 * @param rows      the parameters of each row, in placeholder order
+	 * @return the generated key of each row, in row order, or null if any row
+	 *         was not inserted
+	 * @throws SQLException if a database access error occurs
+	 */
+	public static int[] insertBatch(Connection conn, SqlStatement statement, List<Object[]> rows)
+			throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(statement.getSql(), Statement.RETURN_GENERATED_KEYS)) {
+			for (Object[] params : rows) {
+				bind(stmt, params);
+				stmt.addBatch();
+			}
+			for (int count : stmt.executeBatch()) {
+				if (count == 0) {
+					return null;
+				}
+			}
+			int[] keys = new int[rows.size()];
+			try (ResultSet rs = stmt.getGeneratedKeys()) {
+				for (int i = 0; i < keys.length && rs.next(); i++) {
+					keys[i] = rs.getInt(1);
+				}
+			}
+			return keys;
+		}
+	}
+
+	// --- Helpers ---
+
+	private static <T> List<T> run(Connection conn, SqlStatement statement, RowMapper<T> mapper, int maxRows,
+			Object[] params) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(statement.getSql())) {
+			if (statement.getFetchSize() > 0) {
+				stmt.setFetchSize(statement.getFetchSize());
+			}
+			bind(stmt, params);
+			try (ResultSet rs = stmt.executeQuery()) {
+				List<T> rows = new ArrayList<>(maxRows == 1 ? 1 : 16);
+				if (rs.next()) {
+					RowMapper.RowReader<T> reader = mapper.bind(rs);
+					do {
+						rows.add(reader.read(rs));
+					} while (rows.size() < maxRows && rs.next());
+				}
+				return rows;
+			}
+		}
+	}
+
+	private static void bind(PreparedStatement stmt, Object[] params) throws SQLException {
+		for (int i = 0; i < params.length; i++) {
+			Object param = params[i];
+			stmt.setObject(i + 1, param instanceof LocalDate ? Date.valueOf((LocalDate) param) : param);
+		}
+	}
+
+	private static Connection connect() throws SQLException {
+		try {
+			return DbConfig.getDbConnection();
+		} catch (ClassNotFoundException e) {
+			throw new SQLException("JDBC driver not found: " + e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,338 @@
+package com.rescuenet.config;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * QueryGroup runs independent reads for one page at the same time, each on
+ * its own pooled connection, so the page waits for the slowest query instead
+ * of the sum of all of them. Results are collected against a single deadline;
+ * a query that fails or runs past it is cancelled and reported through its
+ * Branch, and the caller decides whether the page can do without it.
+ *
+ * <pre>
+ * try (QueryGroup group = QueryGroup.open(QueryGroup.DEFAULT_DEADLINE_MILLIS)) {
+ * 	Branch&lt;List&lt;UserModel&gt;&gt; users = group.fork("users", service::getAllUsers);
+ * 	...
+ * 	request.setAttribute("users", users.get());
+ * }
+ * </pre>
+ *
+ * Queries run in order on the calling thread, on its own connection, when
+ * its UnitOfWork already holds a connection (it is inside a transaction, whose
+ * uncommitted writes other connections would not see, or it would wait for
+ * more connections while holding one) or when no fork permit or worker thread
+ * is free. At most MAX_CONCURRENT_FORKS queries run forked at once across the
+ * application, well below the connection pool's maximum, so forks cannot drain
+ * the pool that ordinary requests need.
+ */
+public final class QueryGroup implements AutoCloseable {
+
+	private static final Logger LOG = LogManager.getLogger(QueryGroup.class);
+
+	/** A deadline suitable for page loads. */
+	public static final long DEFAULT_DEADLINE_MILLIS = 5_000;
+
+	// Platform threads used when the runtime has no virtual threads. Kept well
+	// below the connection pool size so forks cannot starve ordinary requests.
+	private static final int PLATFORM_THREADS = 8;
+
+	/** The most forked queries running at once (the pool holds up to 20 connections). */
+	public static final int MAX_CONCURRENT_FORKS = 8;
+
+	private static final Semaphore FORK_PERMITS = new Semaphore(MAX_CONCURRENT_FORKS);
+
+	private static ExecutorService executor;
+
+	// --- Metrics ---
+	private static final LongAdder forked = new LongAdder();
+	private static final LongAdder inline = new LongAdder();
+	private static final LongAdder timedOut = new LongAdder();
+
+	private final long deadlineNanos;
+	private final boolean runInline;
+	private final List<Branch<?>> branches = new ArrayList<>();
+
+	/**
+	 * A read to run as part of a group.
+	 *
+	 * @param <T> the result type
+	 */
+	@FunctionalInterface
+	public interface Query<T> {
+		T run() throws SQLException;
+	}
+
+	private QueryGroup(long deadlineMillis) {
+		this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+		UnitOfWork unit = UnitOfWork.current();
+		this.runInline = unit != null && (unit.isInTransaction() || unit.holdsConnection());
+	}
+
+	/**
+	 * Opens a group whose queries must all finish within the given time.
+	 *
+	 * @param deadlineMillis the time allowed for the whole group
+	 * @return the new group
+	 */
+	public static QueryGroup open(long deadlineMillis) {
+		return new QueryGroup(deadlineMillis);
+	}
+
+	/**
+	 * Starts a query. It runs in its own UnitOfWork, so it borrows its own
+	 * connection and releases it when done.
+	 *
+	 * @param <T>   the result type
+	 * @param name  a short name used in log messages and errors
+	 * @param query the read to run
+	 * @return the branch holding the query's eventual result
+	 */
+	public <T> Branch<T> fork(String name, Query<T> query) {
+		Branch<T> branch = new Branch<>(name);
+		branches.add(branch);
+		if (!runInline && FORK_PERMITS.tryAcquire()) {
+			try {
+				ForkTask<T> task = new ForkTask<>(query);
+				getExecutor().execute(task);
+				branch.future = task;
+				forked.increment();
+				return branch;
+			} catch (RejectedExecutionException e) {
+				FORK_PERMITS.release();
+				LOG.debug("No free query thread for {}, running it inline", name);
+			}
+		}
+		inline.increment();
+		try {
+			branch.value = query.run();
+		} catch (SQLException | RuntimeException e) {
+			branch.error = e;
+		}
+		branch.resolved = true;
+		return branch;
+	}
+
+	/**
+	 * Waits until every query has finished or the deadline has passed. Queries
+	 * still running at the deadline are cancelled.
+	 */
+	public void join() {
+		for (Branch<?> branch : branches) {
+			branch.await();
+		}
+	}
+
+	/**
+	 * Cancels any query whose result was never collected.
+	 */
+	@Override
+	public void close() {
+		for (Branch<?> branch : branches) {
+			if (branch.future != null && !branch.resolved) {
+				branch.future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * The eventual result of one query in a group.
+	 *
+	 * @param <T> the result type
+	 */
+	public final class Branch<T> {
+		private final String name;
+		private Future<T> future;
+		private T value;
+		private Exception error;
+		private boolean resolved;
+
+		private Branch(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Gets the query's result, waiting for it up to the group deadline.
+		 *
+		 * @return the result
+		 * @throws SQLException if the query failed, was cancelled or missed the
+		 *                      deadline
+		 */
+		public T get() throws SQLException {
+			await();
+			if (error instanceof SQLException) {
+				throw (SQLException) error;
+			}
+			if (error != null) {
+				throw new SQLException("Query '" + name + "' failed: " + error.getMessage(), error);
+			}
+			return value;
+		}
+
+		/**
+		 * Gets the query's result, or a fallback if it failed or missed the
+		 * deadline. For parts of a page that can be left out.
+		 *
+		 * @param fallback the value to use on failure
+		 * @return the result or the fallback
+		 */
+		public T getOrDefault(T fallback) {
+			await();
+			if (error != null) {
+				LOG.warn("Query '{}' failed, using fallback - {}", name, error.getMessage());
+				return fallback;
+			}
+			return value;
+		}
+
+		/**
+		 * Checks whether the query finished successfully, waiting for it up to
+		 * the group deadline.
+		 *
+		 * @return true if a result is available
+		 */
+		public boolean isSuccess() {
+			await();
+			return error == null;
+		}
+
+		private void await() {
+			if (resolved) {
+				return;
+			}
+			resolved = true;
+			try {
+				value = future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (ExecutionException e) {
+				error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+			} catch (TimeoutException e) {
+				future.cancel(true);
+				timedOut.increment();
+				error = new SQLTimeoutException("Query '" + name + "' did not finish in time.");
+			} catch (CancellationException e) {
+				error = new SQLException("Query '" + name + "' was cancelled.");
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				future.cancel(true);
+				error = new SQLException("Interrupted while waiting for query '" + name + "'.", e);
+			}
+		}
+	}
+
+	/**
+	 * A forked query holding a fork permit. The permit is released when the
+	 * query finishes running, or when it is cancelled before it started, since
+	 * a cancelled FutureTask never runs.
+	 */
+	private static final class ForkTask<T> extends FutureTask<T> {
+		private final AtomicBoolean started = new AtomicBoolean();
+
+		ForkTask(Query<T> query) {
+			super(() -> {
+				UnitOfWork unit = UnitOfWork.begin();
+				try {
+					return query.run();
+				} finally {
+					unit.end();
+				}
+			});
+		}
+
+		@Override
+		public void run() {
+			if (!started.compareAndSet(false, true)) {
+				return; // Cancelled before it started; done() released the permit
+			}
+			try {
+				super.run();
+			} finally {
+				FORK_PERMITS.release();
+			}
+		}
+
+		@Override
+		protected void done() {
+			if (started.compareAndSet(false, true)) {
+				FORK_PERMITS.release();
+			}
+		}
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = RequestExecutor.newVirtualThreadExecutor();
+			if (executor == null) {
+				AtomicInteger threadNumber = new AtomicInteger();
+				// No queue: when every thread is busy the query runs on the caller
+				executor = new ThreadPoolExecutor(0, PLATFORM_THREADS, 30, TimeUnit.SECONDS, new SynchronousQueue<>(),
+						r -> {
+							Thread thread = new Thread(r, "rescuenet-query-" + threadNumber.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						});
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * Stops the query threads. Called when the application stops.
+	 */
+	public static synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	// --- Metrics Getters ---
+
+	/**
+	 * Gets the number of queries run on query threads.
+	 *
+	 * @return the forked query count
+	 */
+	public static long getForkedCount() {
+		return forked.sum();
+	}
+
+	/**
+	 * Gets the number of queries run on the calling thread instead.
+	 *
+	 * @return the inline query count
+	 */
+	public static long getInlineCount() {
+		return inline.sum();
+	}
+
+	/**
+	 * Gets the number of queries cancelled at their group's deadline.
+	 *
+	 * @return the timed-out query count
+	 */
+	public static long getTimedOutCount() {
+		return timedOut.sum();
+	}
+}
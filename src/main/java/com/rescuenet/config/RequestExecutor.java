@@ -0,0 +1,270 @@
+package com.rescuenet.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * RequestExecutor runs controller logic off the container's worker threads
+ * (see AsyncHttpServlet). On a Java runtime with virtual threads each request
+ * gets one; otherwise a dedicated pool of platform threads is used. Either
+ * way, at most maxConcurrent requests are admitted at once; beyond that new
+ * requests are refused immediately instead of queueing without bound.
+ */
+public final class RequestExecutor {
+
+	private static final Logger LOG = LogManager.getLogger(RequestExecutor.class);
+
+	// --- Defaults (overridable through web.xml context parameters) ---
+	public static final int DEFAULT_PLATFORM_THREADS = 64;
+	public static final int DEFAULT_MAX_CONCURRENT = 256;
+	public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+	private static RequestExecutor instance;
+
+	private final ExecutorService executor;
+	private final Semaphore admission;
+	private final int maxConcurrent;
+	private final long defaultTimeoutMillis;
+	private final boolean virtualThreads;
+
+	// --- Metrics ---
+	private final AtomicInteger active = new AtomicInteger();
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder timedOut = new LongAdder();
+
+	private RequestExecutor(int platformThreads, int maxConcurrent, long defaultTimeoutMillis, boolean allowVirtual) {
+		ExecutorService virtual = allowVirtual ? newVirtualThreadExecutor() : null;
+		if (virtual != null) {
+			executor = virtual;
+		} else {
+			AtomicInteger threadNumber = new AtomicInteger();
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(platformThreads, platformThreads, 60, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), r -> {
+						Thread thread = new Thread(r, "rescuenet-request-" + threadNumber.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		}
+		this.virtualThreads = virtual != null;
+		this.maxConcurrent = maxConcurrent;
+		this.admission = new Semaphore(maxConcurrent);
+		this.defaultTimeoutMillis = defaultTimeoutMillis;
+	}
+
+	/**
+	 * Starts the executor. Called when the application starts.
+	 *
+	 * @param platformThreads      the pool size when virtual threads are not used
+	 * @param maxConcurrent        the most requests handled or waiting at once
+	 * @param defaultTimeoutMillis the timeout for routes that do not set their own
+	 * @param allowVirtual         whether to use virtual threads when available
+	 */
+	public static synchronized void start(int platformThreads, int maxConcurrent, long defaultTimeoutMillis,
+			boolean allowVirtual) {
+		if (instance != null) {
+			instance.executor.shutdownNow();
+		}
+		instance = new RequestExecutor(platformThreads, maxConcurrent, defaultTimeoutMillis, allowVirtual);
+		LOG.info("Request executor started ({}, max {} concurrent, {} ms default timeout).",
+				instance.virtualThreads ? "virtual threads" : platformThreads + " platform threads", maxConcurrent,
+				defaultTimeoutMillis);
+	}
+
+	/**
+	 * Gets the executor, starting it with the defaults if the application did
+	 * not configure it.
+	 *
+	 * @return the request executor
+	 */
+	public static synchronized RequestExecutor get() {
+		if (instance == null) {
+			start(DEFAULT_PLATFORM_THREADS, DEFAULT_MAX_CONCURRENT, DEFAULT_TIMEOUT_MILLIS, true);
+		}
+		return instance;
+	}
+
+	/**
+	 * Gets the executor without starting it, e.g. to report on it.
+	 *
+	 * @return the running executor, or null if it is not started
+	 */
+	public static synchronized RequestExecutor getIfStarted() {
+		return instance;
+	}
+
+	/**
+	 * Stops the executor, interrupting requests still running. Called when the
+	 * application stops.
+	 */
+	public static synchronized void shutdown() {
+		if (instance != null) {
+			instance.executor.shutdownNow();
+			instance = null;
+		}
+	}
+
+	/**
+	 * Runs a request task if there is room for it.
+	 *
+	 * @param task the request handling
+	 * @return the running task, for cancellation
+	 * @throws RejectedExecutionException if maxConcurrent requests are already
+	 *                                    admitted
+	 */
+	public Future<?> submit(Runnable task) {
+		if (!admission.tryAcquire()) {
+			rejected.increment();
+			throw new RejectedExecutionException("Request limit of " + maxConcurrent + " reached.");
+		}
+		try {
+			AdmittedTask future = new AdmittedTask(task);
+			executor.execute(future);
+			submitted.increment();
+			return future;
+		} catch (RejectedExecutionException e) {
+			admission.release();
+			rejected.increment();
+			throw e;
+		}
+	}
+
+	/**
+	 * A request task holding an admission permit. The permit is released when
+	 * the task finishes running, or, if it is cancelled while still queued,
+	 * when it is cancelled, since a cancelled FutureTask never runs.
+	 */
+	private final class AdmittedTask extends FutureTask<Void> {
+		private static final int QUEUED = 0;
+		private static final int STARTED = 1;
+		private static final int ABANDONED = 2;
+
+		private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+		AdmittedTask(Runnable task) {
+			super(task, null);
+		}
+
+		@Override
+		public void run() {
+			if (!state.compareAndSet(QUEUED, STARTED)) {
+				return; // Cancelled before it started; done() released the permit
+			}
+			active.incrementAndGet();
+			try {
+				super.run();
+			} finally {
+				active.decrementAndGet();
+				admission.release();
+			}
+		}
+
+		@Override
+		protected void done() {
+			if (state.compareAndSet(QUEUED, ABANDONED)) {
+				admission.release();
+			}
+		}
+	}
+
+	/**
+	 * Counts a request that exceeded its timeout.
+	 */
+	public void recordTimeout() {
+		timedOut.increment();
+	}
+
+	/**
+	 * Gets the timeout for routes that do not set their own.
+	 *
+	 * @return the default timeout in milliseconds
+	 */
+	public long getDefaultTimeoutMillis() {
+		return defaultTimeoutMillis;
+	}
+
+	/**
+	 * Checks whether requests run on virtual threads.
+	 *
+	 * @return true for virtual threads, false for the platform pool
+	 */
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	// --- Metrics Getters ---
+
+	/**
+	 * Gets the number of requests currently running.
+	 *
+	 * @return the active request count
+	 */
+	public int getActiveCount() {
+		return active.get();
+	}
+
+	/**
+	 * Gets the number of requests admitted but not yet running.
+	 *
+	 * @return the waiting request count
+	 */
+	public int getQueuedCount() {
+		return Math.max(0, maxConcurrent - admission.availablePermits() - active.get());
+	}
+
+	/**
+	 * Gets the number of requests admitted.
+	 *
+	 * @return the submitted request count
+	 */
+	public long getSubmittedCount() {
+		return submitted.sum();
+	}
+
+	/**
+	 * Gets the number of requests refused because the limit was reached.
+	 *
+	 * @return the rejected request count
+	 */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Gets the number of requests that exceeded their timeout.
+	 *
+	 * @return the timed-out request count
+	 */
+	public long getTimedOutCount() {
+		return timedOut.sum();
+	}
+
+	/**
+	 * Creates a virtual-thread-per-task executor on runtimes that have one. The
+	 * application is compiled for Java 17, so the factory is looked up by name.
+	 */
+	static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null; // Java 17-20: fall back to platform threads
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.rescuenet.config;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * RowMapper turns the rows of a result set into objects. It works in two
+ * steps: bind() is called once per result set and looks up the index of
+ * every column the mapper reads, and the RowReader it returns reads each row
+ * by those indices, so no column is looked up by name more than once per
+ * query.
+ *
+ * <pre>
+ * RowMapper&lt;UserModel&gt; USER = rs -&gt; {
+ * 	int userId = rs.findColumn("user_id");
+ * 	int username = rs.findColumn("username");
+ * 	return row -&gt; new UserModel(row.getInt(userId), row.getString(username));
+ * };
+ * </pre>
+ *
+ * @param <T> the type each row is mapped to
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+	/**
+	 * Resolves the columns this mapper reads.
+	 *
+	 * @param rs the result set, before its first row is read
+	 * @return the reader for the result set's rows
+	 * @throws SQLException if a column the mapper needs is missing
+	 */
+	RowReader<T> bind(ResultSet rs) throws SQLException;
+
+	/**
+	 * Reads one row with the column indices its mapper resolved.
+	 *
+	 * @param <T> the type the row is mapped to
+	 */
+	@FunctionalInterface
+	interface RowReader<T> {
+
+		/**
+		 * Maps the current row.
+		 *
+		 * @param rs the result set, positioned on the row
+		 * @return the mapped object
+		 * @throws SQLException if a database access error occurs
+		 */
+		T read(ResultSet rs) throws SQLException;
+	}
+}
@@ -0,0 +1,139 @@
+package com.rescuenet.config;
+
+import java.util.Collections;
+import java.util.Objects;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * SqlStatement is a named SQL statement from the service layer's catalog (see
+ * SqlCatalog), run through Jdbc. Besides its SQL it carries a name, used in
+ * error messages, and a fetch size. Its execute calls are timed by the
+ * connection pool's statement proxy (see SqlMetrics), like every other
+ * statement, so the statement itself keeps no timer.
+ *
+ * A statement may contain list markers, written {@code (?*)}, which expand()
+ * replaces with the given number of placeholders, e.g. for IN lists. A query
+ * whose filters are assembled at run time is run with withSql(), which keeps
+ * the name and fetch size of the catalog entry.
+ */
+public final class SqlStatement {
+
+	/** Leaves the fetch size to the driver. */
+	public static final int FETCH_DEFAULT = 0;
+	/** For lookups that read at most a few rows. */
+	public static final int FETCH_SINGLE = 1;
+	/** For queries that read one page of a listing. */
+	public static final int FETCH_PAGE = 100;
+	/** For scans that read a whole table or a large range of it. */
+	public static final int FETCH_BULK = 1_000;
+
+	private static final String LIST_MARKER = "(?*)";
+
+	private final String name;
+	private final String sql;
+	private final int fetchSize;
+
+	private SqlStatement(String name, String sql, int fetchSize) {
+		this.name = name;
+		this.sql = sql;
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Defines a statement that leaves the fetch size to the driver.
+	 *
+	 * @param name the statement's name
+	 * @param sql  the SQL
+	 * @return the statement
+	 */
+	public static SqlStatement of(String name, String sql) {
+		return of(name, sql, FETCH_DEFAULT);
+	}
+
+	/**
+	 * Defines a statement.
+	 *
+	 * @param name      the statement's name
+	 * @param sql       the SQL
+	 * @param fetchSize the number of rows to fetch per round trip, or
+	 *                  FETCH_DEFAULT
+	 * @return the statement
+	 */
+	public static SqlStatement of(String name, String sql, int fetchSize) {
+		Objects.requireNonNull(name, "name");
+		Objects.requireNonNull(sql, "sql");
+		return new SqlStatement(name, sql, fetchSize);
+	}
+
+	/**
+	 * Gets a variant of this statement with its list markers expanded.
+	 *
+	 * @param listSizes the number of placeholders for each list marker, in
+	 *                  order; each must be at least one
+	 * @return the expanded statement
+	 * @throws IllegalArgumentException if the sizes do not match the markers
+	 */
+	public SqlStatement expand(int... listSizes) {
+		StringBuilder expanded = new StringBuilder(sql.length() + 8 * listSizes.length);
+		int from = 0;
+		for (int size : listSizes) {
+			int marker = sql.indexOf(LIST_MARKER, from);
+			if (marker < 0 || size < 1) {
+				throw new IllegalArgumentException("Cannot expand " + name + " with " + listSizes.length + " lists.");
+			}
+			expanded.append(sql, from, marker).append('(')
+					.append(String.join(", ", Collections.nCopies(size, "?"))).append(')');
+			from = marker + LIST_MARKER.length();
+		}
+		if (sql.indexOf(LIST_MARKER, from) >= 0) {
+			throw new IllegalArgumentException("Cannot expand " + name + " with " + listSizes.length + " lists.");
+		}
+		return withSql(expanded.append(sql, from, sql.length()).toString());
+	}
+
+	/**
+	 * Gets a variant of this statement with different SQL, such as the
+	 * statement with run-time filters appended. The variant keeps this
+	 * statement's name.
+	 *
+	 * @param variantSql the SQL to run
+	 * @return the variant
+	 */
+	public SqlStatement withSql(String variantSql) {
+		return new SqlStatement(name, Objects.requireNonNull(variantSql, "variantSql"), fetchSize);
+	}
+
+	/**
+	 * Gets the statement's name.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the statement's SQL.
+	 *
+	 * @return the SQL
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * Gets the number of rows to fetch per round trip.
+	 *
+	 * @return the fetch size, or FETCH_DEFAULT
+	 */
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,259 @@
+package com.rescuenet.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * UnitOfWork binds one pooled connection to the current request thread. The
+ * connection is borrowed lazily the first time a service asks DbConfig for
+ * one, shared by every service call made while handling the request, and
+ * returned to the pool when UnitOfWorkFilter ends the unit. A unit can
+ * optionally run as a single transaction; services that manage their own
+ * transactions then join it instead of committing on their own.
+ */
+public final class UnitOfWork {
+
+	private static final Logger LOG = LogManager.getLogger(UnitOfWork.class);
+
+	private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+	private Connection leased; // The pooled connection, closed in end()
+	private Connection shared; // Non-closing view handed to services
+	private boolean inTransaction = false;
+	private boolean rollbackOnly = false;
+
+	private UnitOfWork() {
+	}
+
+	/**
+	 * Starts a unit of work on the current thread.
+	 *
+	 * @return the new unit
+	 * @throws IllegalStateException if a unit is already active on this thread
+	 */
+	public static UnitOfWork begin() {
+		if (CURRENT.get() != null) {
+			throw new IllegalStateException("A unit of work is already active on this thread.");
+		}
+		UnitOfWork unit = new UnitOfWork();
+		CURRENT.set(unit);
+		return unit;
+	}
+
+	/**
+	 * Gets the unit of work active on the current thread.
+	 *
+	 * @return the active unit, or null if none
+	 */
+	public static UnitOfWork current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Gets the connection for this unit, borrowing it from the pool on first
+	 * use. Closing the returned connection has no effect; it is released by
+	 * {@link #end()}.
+	 *
+	 * @return the request-scoped connection
+	 * @throws SQLException           if no connection can be borrowed
+	 * @throws ClassNotFoundException if the JDBC driver class is not found
+	 */
+	public Connection getConnection() throws SQLException, ClassNotFoundException {
+		if (shared == null) {
+			leased = DbConfig.getPool().getConnection();
+			if (inTransaction) {
+				leased.setAutoCommit(false);
+			}
+			shared = createSharedView(leased);
+		}
+		return shared;
+	}
+
+	/**
+	 * Makes the rest of this unit run as one transaction. Work done by services
+	 * joins it and is committed by {@link #commit()} or when the unit ends
+	 * normally.
+	 *
+	 * @throws SQLException if auto-commit cannot be switched off
+	 */
+	public void beginTransaction() throws SQLException {
+		if (inTransaction) {
+			return;
+		}
+		inTransaction = true;
+		rollbackOnly = false;
+		if (leased != null) {
+			leased.setAutoCommit(false);
+		}
+	}
+
+	/**
+	 * Commits the unit's transaction, or rolls it back if a participating
+	 * service asked for a rollback.
+	 *
+	 * @throws SQLException if the commit fails or the transaction was marked
+	 *                      rollback-only
+	 */
+	public void commit() throws SQLException {
+		if (!inTransaction) {
+			return;
+		}
+		if (rollbackOnly) {
+			rollback();
+			throw new SQLException("Transaction was rolled back by a participating operation.");
+		}
+		try {
+			if (leased != null) {
+				leased.commit();
+			}
+		} finally {
+			finishTransaction();
+		}
+	}
+
+	/**
+	 * Rolls back the unit's transaction.
+	 *
+	 * @throws SQLException if the rollback fails
+	 */
+	public void rollback() throws SQLException {
+		if (!inTransaction) {
+			return;
+		}
+		try {
+			if (leased != null) {
+				leased.rollback();
+			}
+		} finally {
+			finishTransaction();
+		}
+	}
+
+	/**
+	 * Checks whether this unit has an open transaction.
+	 *
+	 * @return true if a transaction is open
+	 */
+	public boolean isInTransaction() {
+		return inTransaction;
+	}
+
+	/**
+	 * Checks whether this unit has borrowed its connection yet.
+	 *
+	 * @return true if the unit holds a pooled connection
+	 */
+	public boolean holdsConnection() {
+		return leased != null;
+	}
+
+	/**
+	 * Returns the unit's connection to the pool early, before slow work that
+	 * needs no database, such as password verification, so the request does not
+	 * hold a connection while it waits. The next getConnection() borrows a
+	 * connection again. Connections obtained earlier report themselves closed.
+	 * Does nothing while a transaction is open, since that must stay on its
+	 * connection.
+	 *
+	 * @return true if a connection was returned
+	 */
+	public boolean releaseConnection() {
+		if (leased == null || inTransaction) {
+			return false;
+		}
+		try {
+			leased.close();
+		} catch (SQLException e) {
+			LOG.error("Error releasing connection - {}", e.getMessage());
+		}
+		leased = null;
+		shared = null;
+		return true;
+	}
+
+	/**
+	 * Ends the unit: rolls back any transaction still open, returns the
+	 * connection to the pool and detaches the unit from the thread.
+	 */
+	public void end() {
+		try {
+			if (inTransaction) {
+				rollback();
+			}
+		} catch (SQLException e) {
+			LOG.error("Rollback on end failed - {}", e.getMessage());
+		} finally {
+			if (leased != null) {
+				try {
+					leased.close();
+				} catch (SQLException e) {
+					LOG.error("Error releasing connection - {}", e.getMessage());
+				}
+			}
+			leased = null;
+			shared = null;
+			if (CURRENT.get() == this) {
+				CURRENT.remove();
+			}
+		}
+	}
+
+	private void finishTransaction() throws SQLException {
+		inTransaction = false;
+		rollbackOnly = false;
+		if (leased != null) {
+			leased.setAutoCommit(true);
+		}
+	}
+
+	/**
+	 * Wraps the leased connection so services can keep their usual
+	 * close/commit/rollback handling. close() is ignored, and while the unit
+	 * owns a transaction, a service's own transaction calls join it: commit and
+	 * setAutoCommit are ignored and rollback marks the unit rollback-only.
+	 */
+	private Connection createSharedView(Connection target) {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					String name = method.getName();
+					int argc = method.getParameterCount();
+					if ("close".equals(name) && argc == 0) {
+						return null;
+					}
+					if ("isClosed".equals(name) && argc == 0) {
+						return shared != proxy || target.isClosed();
+					}
+					if ("equals".equals(name) && argc == 1) {
+						return proxy == args[0];
+					}
+					if ("hashCode".equals(name) && argc == 0) {
+						return System.identityHashCode(proxy);
+					}
+					if (inTransaction) {
+						if ("setAutoCommit".equals(name) || ("commit".equals(name) && argc == 0)) {
+							return null;
+						}
+						if ("getAutoCommit".equals(name)) {
+							return false;
+						}
+						if ("rollback".equals(name) && argc == 0) {
+							rollbackOnly = true;
+							return null;
+						}
+					}
+					try {
+						return method.invoke(target, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+	}
+}
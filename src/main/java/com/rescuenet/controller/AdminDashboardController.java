@@ -1,13 +1,19 @@
 package com.rescuenet.controller;
 
 import java.io.IOException;
+import java.sql.SQLException;
 
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.model.SessionPrincipal;
 import com.rescuenet.model.UserModel;
+import com.rescuenet.service.DashboardMetrics;
 import com.rescuenet.service.DashboardService;
+import com.rescuenet.service.UserProfileCache;
+import com.rescuenet.util.SessionUtil;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
@@ -21,8 +27,10 @@ import jakarta.servlet.http.HttpSession;
  * and forwards requests to the admin dashboard page.
  */
 @WebServlet(asyncSupported = true, urlPatterns = { "/admin" })
-public class AdminDashboardController extends HttpServlet {
+public class AdminDashboardController extends AsyncHttpServlet {
+
 	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LogManager.getLogger(AdminDashboardController.class);
 	private final DashboardService dashboardService;
 
 	/**
@@ -44,40 +52,47 @@ public class AdminDashboardController extends HttpServlet {
 	@Override
 	protected void doGet(HttpServletRequest request, HttpServletResponse response)
 			throws ServletException, IOException {
-		System.out.println("AdminDashboardController: doGet method called for /admin");
+		LOG.debug("doGet method called for /admin");
 
 		HttpSession session = request.getSession(false);
 		if (session == null) {
-			System.out.println("AdminDashboardController: No session found, redirecting to /login");
+			LOG.debug("No session found, redirecting to /login");
 			response.sendRedirect(request.getContextPath() + "/login");
 			return;
 		}
 
-		UserModel user = (UserModel) session.getAttribute("user");
-		if (user == null) {
-			System.out.println("AdminDashboardController: No user in session, redirecting to /login");
+		SessionPrincipal principal = SessionUtil.getUser(request);
+		if (principal == null) {
+			LOG.debug("No user in session, redirecting to /login");
 			response.sendRedirect(request.getContextPath() + "/login");
 			return;
 		}
 
-		System.out.println("AdminDashboardController: User found in session - " + user.getFullName());
+		UserModel user = null;
+		try {
+			user = UserProfileCache.getInstance().getProfile(principal.getUserId());
+		} catch (SQLException e) {
+			LOG.error("SQLException loading profile - {}", e.getMessage());
+		}
+		LOG.debug("User found in session - {}", principal.getUsername());
 		request.setAttribute("user", user);
 
-		// Fetch metrics using the service layer
-		int totalVehicles = dashboardService.getTotalVehicles();
-		int availableVehicles = dashboardService.getAvailableVehicles();
-		int vehiclesInService = dashboardService.getVehiclesInService();
+		// Fetch metrics using the service layer (served from memory after the first load)
+		DashboardMetrics.Snapshot counters = dashboardService.getCounters();
+		int totalVehicles = counters != null ? counters.getTotalVehicles() : 0;
+		int availableVehicles = counters != null ? counters.getAvailableVehicles() : 0;
+		int vehiclesInService = counters != null ? counters.getVehiclesInService() : 0;
 
 		// Debug output to check fetched values
-		System.out.println("Total Vehicles: " + totalVehicles);
-		System.out.println("Available Vehicles: " + availableVehicles);
-		System.out.println("Vehicles in Service: " + vehiclesInService);
+		LOG.debug("Total Vehicles: {}", totalVehicles);
+		LOG.debug("Available Vehicles: {}", availableVehicles);
+		LOG.debug("Vehicles in Service: {}", vehiclesInService);
 
 		request.setAttribute("totalVehicles", totalVehicles);
 		request.setAttribute("availableVehicles", availableVehicles);
 		request.setAttribute("vehiclesInService", vehiclesInService);
 
-		System.out.println("AdminDashboardController: Forwarding to admin_dashboard.jsp");
+		LOG.debug("Forwarding to admin_dashboard.jsp");
 		request.getRequestDispatcher("WEB-INF/pages/admin_dashboard.jsp").forward(request, response);
 	}
 
@@ -92,7 +107,7 @@ public class AdminDashboardController extends HttpServlet {
 	@Override
 	protected void doPost(HttpServletRequest request, HttpServletResponse response)
 			throws ServletException, IOException {
-		System.out.println("AdminDashboardController: doPost method called, delegating to doGet");
+		LOG.debug("doPost method called, delegating to doGet");
 		doGet(request, response);
 	}
 }
\ No newline at end of file
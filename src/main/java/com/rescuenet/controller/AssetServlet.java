@@ -0,0 +1,118 @@
+package com.rescuenet.controller;
+
+import java.io.IOException;
+
+import com.rescuenet.filter.CompressionFilter;
+import com.rescuenet.service.AssetRegistry;
+import com.rescuenet.service.AssetRegistry.Asset;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * AssetServlet serves the fingerprinted style sheets and system images under
+ * /assets/. It builds the AssetRegistry when the application starts and
+ * publishes the URL map that the JSPs link through. Current URLs are cached
+ * by browsers for a year without revalidation; an outdated fingerprint still
+ * gets the current file, but must be revalidated.
+ */
+@WebServlet(asyncSupported = true, urlPatterns = { "/assets/*" }, loadOnStartup = 1)
+public class AssetServlet extends HttpServlet {
+
+	private static final long serialVersionUID = 1L;
+	private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+	private static final String REVALIDATE = "no-cache";
+	private static final String GZIP_ETAG_SUFFIX = "-gz\"";
+
+	private transient AssetRegistry registry;
+
+	/**
+	 * Builds the asset registry and publishes it, and its URL map, as
+	 * application attributes.
+	 */
+	@Override
+	public void init() throws ServletException {
+		registry = AssetRegistry.build(getServletContext());
+		getServletContext().setAttribute(AssetRegistry.REGISTRY_ATTRIBUTE, registry);
+		getServletContext().setAttribute(AssetRegistry.URLS_ATTRIBUTE, registry.getUrls());
+	}
+
+	/**
+	 * Serves an asset, gzip-compressed when the client accepts it, or answers
+	 * 304 Not Modified when the client's copy is current.
+	 *
+	 * @param request  the HttpServletRequest object
+	 * @param response the HttpServletResponse object
+	 * @throws ServletException if a servlet-specific error occurs
+	 * @throws IOException      if an I/O error occurs
+	 */
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response)
+			throws ServletException, IOException {
+		String pathInfo = request.getPathInfo();
+		if (pathInfo == null || pathInfo.length() < 2) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		String urlPath = pathInfo.substring(1);
+		Asset asset = registry.findByUrlPath(urlPath);
+		boolean current = asset != null;
+		if (!current) {
+			asset = registry.findCurrent(urlPath);
+			if (asset == null) {
+				response.sendError(HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+		}
+
+		boolean gzip = asset.getGzipBody() != null && CompressionFilter.acceptsGzip(request);
+		String etag = gzip ? gzipEtag(asset) : asset.getEtag();
+		response.setHeader("Cache-Control", current ? IMMUTABLE : REVALIDATE);
+		response.setHeader("ETag", etag);
+		if (asset.getGzipBody() != null) {
+			response.setHeader("Vary", "Accept-Encoding");
+		}
+		if (matches(request.getHeader("If-None-Match"), asset)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		byte[] body = gzip ? asset.getGzipBody() : asset.getBody();
+		response.setContentType(asset.getContentType());
+		if (gzip) {
+			response.setHeader("Content-Encoding", "gzip");
+		}
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+
+	/**
+	 * Checks whether an If-None-Match header names either variant of the asset.
+	 */
+	private static boolean matches(String ifNoneMatch, Asset asset) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if ("*".equals(tag) || tag.equals(asset.getEtag()) || tag.equals(gzipEtag(asset))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String gzipEtag(Asset asset) {
+		String etag = asset.getEtag();
+		return etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX;
+	}
+}
@@ -0,0 +1,551 @@
+package com.rescuenet.controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.rescuenet.config.RequestExecutor;
+import com.rescuenet.config.UnitOfWork;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * AsyncHttpServlet is the base for controllers that talk to the database. It
+ * puts the request in asynchronous mode and runs doGet/doPost on the
+ * RequestExecutor, so the container thread goes straight back to serving
+ * other requests while this one waits on JDBC. A request that runs past its
+ * route's timeout is cancelled (its thread is interrupted) and answered with
+ * 503. Forwards, includes and requests through a filter without async support
+ * are handled inline as before.
+ *
+ * Interrupting does not stop a page that is already rendering, so the worker
+ * writes through a GuardedResponse. Whichever side finishes the request first
+ * (the worker, the timeout or an error) is the only one that writes the
+ * ending and completes it; from then on everything else the worker does to
+ * the response is dropped, so the two never touch it at the same time.
+ */
+public abstract class AsyncHttpServlet extends HttpServlet {
+
+	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LogManager.getLogger(AsyncHttpServlet.class);
+
+	/**
+	 * Hands the request to the RequestExecutor.
+	 *
+	 * @param req  the HttpServletRequest object
+	 * @param resp the HttpServletResponse object
+	 * @throws ServletException if a servlet-specific error occurs
+	 * @throws IOException      if an I/O error occurs
+	 */
+	@Override
+	protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		if (req.getDispatcherType() != DispatcherType.REQUEST || !req.isAsyncSupported() || req.isAsyncStarted()) {
+			super.service(req, resp);
+			return;
+		}
+
+		RequestExecutor executor = RequestExecutor.get();
+		AsyncContext async = req.startAsync(req, resp);
+		async.setTimeout(getTimeoutMillis(req));
+		GuardedResponse guarded = new GuardedResponse(resp);
+		AtomicReference<Future<?>> running = new AtomicReference<>();
+
+		async.addListener(new AsyncListener() {
+			@Override
+			public void onTimeout(AsyncEvent event) throws IOException {
+				if (guarded.finish()) {
+					cancel(running.get());
+					executor.recordTimeout();
+					LOG.warn("{} {} timed out after {} ms; cancelled.", req.getMethod(), req.getRequestURI(),
+							async.getTimeout());
+					sendUnavailable(resp, "The server took too long to respond. Please try again.");
+					async.complete();
+				}
+			}
+
+			@Override
+			public void onError(AsyncEvent event) {
+				// Usually the client went away: stop working on its behalf
+				if (guarded.finish()) {
+					cancel(running.get());
+					async.complete();
+				}
+			}
+
+			@Override
+			public void onComplete(AsyncEvent event) {
+			}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+			}
+		});
+
+		try {
+			running.set(executor.submit(() -> handle(req, guarded, async)));
+		} catch (RejectedExecutionException e) {
+			if (guarded.finish()) {
+				LOG.warn("Refusing {} {} - {}", req.getMethod(), req.getRequestURI(), e.getMessage());
+				sendUnavailable(resp, "The server is busy. Please try again in a moment.");
+				async.complete();
+			}
+		}
+	}
+
+	/**
+	 * Gets how long a request to this servlet may run before it is cancelled.
+	 * Controllers override this for routes that need more or less time.
+	 *
+	 * @param req the HttpServletRequest object
+	 * @return the timeout in milliseconds
+	 */
+	protected long getTimeoutMillis(HttpServletRequest req) {
+		return RequestExecutor.get().getDefaultTimeoutMillis();
+	}
+
+	/**
+	 * Runs doGet/doPost on an executor thread, inside its own UnitOfWork since
+	 * the one UnitOfWorkFilter opened belongs to the container thread.
+	 */
+	private void handle(HttpServletRequest req, GuardedResponse resp, AsyncContext async) {
+		UnitOfWork unit = UnitOfWork.begin();
+		try {
+			super.service(req, resp);
+			if (unit.isInTransaction()) {
+				unit.commit();
+			}
+		} catch (Exception e) {
+			if (resp.isFinished()) {
+				LOG.debug("{} {} ended after it was cancelled - {}", req.getMethod(), req.getRequestURI(),
+						e.toString());
+			} else {
+				LOG.error("Unhandled error in {} {}", req.getMethod(), req.getRequestURI(), e);
+				sendError(resp);
+			}
+		} finally {
+			unit.end(); // Rolls back anything left open and releases the connection
+			if (resp.finish()) {
+				async.complete();
+			}
+		}
+	}
+
+	private static void cancel(Future<?> future) {
+		if (future != null) {
+			future.cancel(true);
+		}
+	}
+
+	private static void sendUnavailable(HttpServletResponse resp, String message) {
+		try {
+			if (!resp.isCommitted()) {
+				resp.setHeader("Retry-After", "5");
+				resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, message);
+			}
+		} catch (IOException | IllegalStateException e) {
+			LOG.debug("Could not send 503 - {}", e.getMessage());
+		}
+	}
+
+	private static void sendError(HttpServletResponse resp) {
+		try {
+			if (!resp.isCommitted()) {
+				resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+			}
+		} catch (IOException | IllegalStateException e) {
+			LOG.debug("Could not send 500 - {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * The response a worker writes to. Every call that changes the response
+	 * runs under one lock and is dropped once the request is finished, and
+	 * finish() takes the same lock, so once a side has finished the request no
+	 * worker call is in progress or still to come.
+	 */
+	private static final class GuardedResponse extends HttpServletResponseWrapper {
+		private final Object lock = new Object();
+		private boolean finished;
+		private PrintWriter writer;
+		private ServletOutputStream stream;
+
+		GuardedResponse(HttpServletResponse response) {
+			super(response);
+		}
+
+		/**
+		 * Finishes the request, if no one has yet.
+		 *
+		 * @return true if the caller finished it and must write its ending and
+		 *         complete the request; false if another side already did
+		 */
+		boolean finish() {
+			synchronized (lock) {
+				if (finished) {
+					return false;
+				}
+				finished = true;
+				return true;
+			}
+		}
+
+		boolean isFinished() {
+			synchronized (lock) {
+				return finished;
+			}
+		}
+
+		// --- Body ---
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			synchronized (lock) {
+				if (writer == null) {
+					writer = new PrintWriter(
+							finished ? Writer.nullWriter() : new GuardedWriter(getResponse().getWriter()));
+				}
+				return writer;
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			synchronized (lock) {
+				if (stream == null) {
+					stream = new GuardedStream(finished ? null : getResponse().getOutputStream());
+				}
+				return stream;
+			}
+		}
+
+		@Override
+		public boolean isCommitted() {
+			synchronized (lock) {
+				return finished || super.isCommitted();
+			}
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			synchronized (lock) {
+				if (!finished) {
+					super.flushBuffer();
+				}
+			}
+		}
+
+		@Override
+		public void reset() {
+			synchronized (lock) {
+				if (!finished) {
+					super.reset();
+				}
+			}
+		}
+
+		@Override
+		public void resetBuffer() {
+			synchronized (lock) {
+				if (!finished) {
+					super.resetBuffer();
+				}
+			}
+		}
+
+		@Override
+		public void setBufferSize(int size) {
+			synchronized (lock) {
+				if (!finished) {
+					super.setBufferSize(size);
+				}
+			}
+		}
+
+		// --- Status and Headers ---
+
+		@Override
+		public void setStatus(int sc) {
+			synchronized (lock) {
+				if (!finished) {
+					super.setStatus(sc);
+				}
+			}
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			synchronized (lock) {
+				if (!finished) {
+					super.sendError(sc, msg);
+				}
+			}
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			synchronized (lock) {
+				if (!finished) {
+					super.sendError(sc);
+				}
+			}
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			synchronized (lock) {
+				if (!finished) {
+					super.sendRedirect(location);
+				}
+			}
+		}
+
+		@Override
+		public void setContentType(String type) {
+			synchronized (lock) {
+				if (!finished) {
+					super.setContentType(type);
+				}
+			}
+		}
+
+		@Override
+		public void setCharacterEncoding(String charset) {
+			synchronized (lock) {
+				if (!finished) {
+					super.setCharacterEncoding(charset);
+				}
+			}
+		}
+
+		@Override
+		public void setLocale(Locale locale) {
+			synchronized (lock) {
+				if (!finished) {
+					super.setLocale(locale);
+				}
+			}
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			synchronized (lock) {
+				if (!finished) {
+					super.setContentLength(len);
+				}
+			}
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			synchronized (lock) {
+				if (!finished) {
+					super.setContentLengthLong(len);
+				}
+			}
+		}
+
+		@Override
+		public void addCookie(Cookie cookie) {
+			synchronized (lock) {
+				if (!finished) {
+					super.addCookie(cookie);
+				}
+			}
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+			synchronized (lock) {
+				if (!finished) {
+					super.setHeader(name, value);
+				}
+			}
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+			synchronized (lock) {
+				if (!finished) {
+					super.addHeader(name, value);
+				}
+			}
+		}
+
+		@Override
+		public void setIntHeader(String name, int value) {
+			synchronized (lock) {
+				if (!finished) {
+					super.setIntHeader(name, value);
+				}
+			}
+		}
+
+		@Override
+		public void addIntHeader(String name, int value) {
+			synchronized (lock) {
+				if (!finished) {
+					super.addIntHeader(name, value);
+				}
+			}
+		}
+
+		@Override
+		public void setDateHeader(String name, long date) {
+			synchronized (lock) {
+				if (!finished) {
+					super.setDateHeader(name, date);
+				}
+			}
+		}
+
+		@Override
+		public void addDateHeader(String name, long date) {
+			synchronized (lock) {
+				if (!finished) {
+					super.addDateHeader(name, date);
+				}
+			}
+		}
+
+		/**
+		 * Passes characters on to the response's writer until the request is
+		 * finished.
+		 */
+		private final class GuardedWriter extends Writer {
+			private final PrintWriter target;
+
+			GuardedWriter(PrintWriter target) {
+				this.target = target;
+			}
+
+			@Override
+			public void write(int c) {
+				synchronized (lock) {
+					if (!finished) {
+						target.write(c);
+					}
+				}
+			}
+
+			@Override
+			public void write(char[] cbuf, int off, int len) {
+				synchronized (lock) {
+					if (!finished) {
+						target.write(cbuf, off, len);
+					}
+				}
+			}
+
+			@Override
+			public void write(String str, int off, int len) {
+				synchronized (lock) {
+					if (!finished) {
+						target.write(str, off, len);
+					}
+				}
+			}
+
+			@Override
+			public void flush() {
+				synchronized (lock) {
+					if (!finished) {
+						target.flush();
+					}
+				}
+			}
+
+			@Override
+			public void close() {
+				synchronized (lock) {
+					if (!finished) {
+						target.close();
+					}
+				}
+			}
+		}
+
+		/**
+		 * Passes bytes on to the response's stream until the request is
+		 * finished.
+		 */
+		private final class GuardedStream extends ServletOutputStream {
+			private final ServletOutputStream target;
+
+			GuardedStream(ServletOutputStream target) {
+				this.target = target;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				synchronized (lock) {
+					if (!finished) {
+						target.write(b);
+					}
+				}
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				synchronized (lock) {
+					if (!finished) {
+						target.write(b, off, len);
+					}
+				}
+			}
+
+			@Override
+			public void flush() throws IOException {
+				synchronized (lock) {
+					if (!finished) {
+						target.flush();
+					}
+				}
+			}
+
+			@Override
+			public void close() throws IOException {
+				synchronized (lock) {
+					if (!finished) {
+						target.close();
+					}
+				}
+			}
+
+			@Override
+			public boolean isReady() {
+				synchronized (lock) {
+					return finished || target.isReady();
+				}
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				synchronized (lock) {
+					if (!finished) {
+						target.setWriteListener(writeListener);
+					}
+				}
+			}
+		}
+	}
+}
@@ -1,17 +1,30 @@
 package com.rescuenet.controller;
 
-import com.rescuenet.model.UserModel;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.model.SessionPrincipal;
 import com.rescuenet.model.VehicleModel;
+import com.rescuenet.service.CatalogFragmentCache;
+import com.rescuenet.service.VehicleCatalogCache;
 import com.rescuenet.service.VehicleService;
 import com.rescuenet.util.SessionUtil;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.io.CharArrayWriter;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -19,13 +32,20 @@ import java.util.Map;
  */
 /**
  * HomeController handles requests for the home page in the RescueNet
- * application. It checks user roles, manages database connections, processes
- * search queries, and forwards requests to the home.jsp page with either search
+ * application. It checks user roles, processes search queries, and forwards requests to the home.jsp page with either search
  * results or categorized vehicle data.
+ *
+ * The categorized catalog is the same for every visitor, so its markup is
+ * rendered once per catalog version by home_catalog.jsp, kept in the
+ * CatalogFragmentCache, and copied into home.jsp as the "catalogHtml"
+ * attribute.
  */
 @WebServlet(asyncSupported = true, urlPatterns = { "/home" })
-public class HomeController extends HttpServlet {
+public class HomeController extends AsyncHttpServlet {
+
 	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LogManager.getLogger(HomeController.class);
+	private static final String CATALOG_JSP_PATH = "/WEB-INF/pages/home_catalog.jsp";
 	private VehicleService vehicleService;
 
 	/**
@@ -37,8 +57,7 @@ public class HomeController extends HttpServlet {
 		try {
 			this.vehicleService = new VehicleService();
 		} catch (Exception e) {
-			System.err.println("HomeController: CRITICAL - Failed to initialize VehicleService: " + e.getMessage());
-			e.printStackTrace();
+			LOG.error("Failed to initialize VehicleService: {}", e.getMessage(), e);
 			throw new ServletException("HomeController could not initialize VehicleService.", e);
 		}
 	}
@@ -57,59 +76,268 @@ public class HomeController extends HttpServlet {
 	protected void doGet(HttpServletRequest request, HttpServletResponse response)
 			throws ServletException, IOException {
 
-		System.out.println("HomeController: doGet called for path /home");
+		LOG.debug("doGet called for path /home");
 
-		UserModel loggedInUser = SessionUtil.getUser(request);
+		SessionPrincipal loggedInUser = SessionUtil.getUser(request);
 
 		// Redirect if user is admin
 		if (loggedInUser != null && loggedInUser.getRoleId() == 2) {
-			System.out.println("HomeController: Admin user (RoleID: " + loggedInUser.getRoleId()
-					+ ") detected, redirecting to /admin");
+			LOG.debug("Admin user (RoleID: {}) detected, redirecting to /admin", loggedInUser.getRoleId());
 			response.sendRedirect(request.getContextPath() + "/admin");
 			return;
 		}
 		// If loggedInUser is null, AuthenticationFilter should have already redirected
 		// to /login.
 
-		if (vehicleService.isConnectionError()) {
-			System.err.println("HomeController: VehicleService reported a database connection error. Last Msg: "
-					+ vehicleService.getLastErrorMessage());
-			request.setAttribute("errorMessage",
-					vehicleService.getLastErrorMessage() != null ? vehicleService.getLastErrorMessage()
-							: "Site experiencing technical difficulties. Please try again later.");
-			request.getRequestDispatcher("/WEB-INF/pages/home.jsp").forward(request, response);
-			return;
-		}
-
 		String searchQuery = request.getParameter("searchQuery");
 		String pageError = null; // For errors from service calls below
 
 		if (searchQuery != null && !searchQuery.trim().isEmpty()) {
-			System.out.println("HomeController: Performing search for query: '" + searchQuery + "'");
+			LOG.debug("Performing search for query: '{}'", searchQuery);
 			List<VehicleModel> searchResults = vehicleService.searchAvailableVehicles(searchQuery);
 			if (vehicleService.getLastErrorMessage() != null) {
 				pageError = vehicleService.getLastErrorMessage();
 			}
 			request.setAttribute("searchResults", searchResults);
 			request.setAttribute("searchQuery", searchQuery);
-			System.out.println("HomeController: Found " + (searchResults != null ? searchResults.size() : "null list")
-					+ " search results.");
+			LOG.debug("Found {} search results.", (searchResults != null ? searchResults.size() : "null list"));
 		} else {
-			System.out.println("HomeController: Fetching categorized available vehicles.");
-			Map<String, List<VehicleModel>> categorizedVehicles = vehicleService.getCategorizedAvailableVehicles();
+			LOG.debug("Fetching categorized available vehicles.");
+			VehicleCatalogCache.Snapshot snapshot = vehicleService.getCatalogSnapshot();
 			if (vehicleService.getLastErrorMessage() != null) {
 				pageError = vehicleService.getLastErrorMessage();
 			}
-			request.setAttribute("categorizedVehicles", categorizedVehicles);
-			System.out.println("HomeController: Found "
-					+ (categorizedVehicles != null ? categorizedVehicles.size() : "null map") + " categories.");
+			Map<String, List<VehicleModel>> categorizedVehicles = snapshot != null
+					? snapshot.getCategorizedVehicles()
+					: new LinkedHashMap<>();
+			request.setAttribute("catalogHtml", getCatalogHtml(request, snapshot, categorizedVehicles));
+			LOG.debug("Found {} categories.", categorizedVehicles.size());
 		}
 
+		if (vehicleService.isConnectionError()) {
+			LOG.warn("VehicleService reported a database connection error. Last Msg: {}",
+					vehicleService.getLastErrorMessage());
+			if (pageError == null) {
+				pageError = "Site experiencing technical difficulties. Please try again later.";
+			}
+		}
 		if (pageError != null) {
 			request.setAttribute("errorMessage", pageError);
 		}
 
-		System.out.println("HomeController: Forwarding to home.jsp");
+		LOG.debug("Forwarding to home.jsp");
 		request.getRequestDispatcher("/WEB-INF/pages/home.jsp").forward(request, response);
 	}
+
+	/**
+	 * Gets the rendered catalog markup for a snapshot, rendering
+	 * home_catalog.jsp only when no fragment is cached for the snapshot's
+	 * version. Without a snapshot (the catalog could not be loaded) the
+	 * fallback is rendered and not cached.
+	 */
+	private static String getCatalogHtml(HttpServletRequest request, VehicleCatalogCache.Snapshot snapshot,
+			Map<String, List<VehicleModel>> categorizedVehicles)
+			throws ServletException, IOException {
+		CatalogFragmentCache fragments = CatalogFragmentCache.getInstance();
+		String contextPath = request.getContextPath();
+		if (snapshot != null) {
+			String html = fragments.get(snapshot.getVersion(), contextPath);
+			if (html != null) {
+				return html;
+			}
+		}
+
+		// --- Render the Fragment ---
+		long start = System.nanoTime();
+		request.setAttribute("categorizedVehicles", categorizedVehicles);
+		CapturingResponse capture = new CapturingResponse();
+		request.getRequestDispatcher(CATALOG_JSP_PATH).include(request, capture);
+		request.removeAttribute("categorizedVehicles");
+		String html = capture.getContent();
+		if (snapshot != null) {
+			fragments.put(snapshot.getVersion(), contextPath, html);
+			LOG.info("Rendered catalog fragment for version {} ({} chars) in {} ms.", snapshot.getVersion(),
+					html.length(), (System.nanoTime() - start) / 1_000_000);
+		}
+		return html;
+	}
+
+	/**
+	 * Collects what an included page writes instead of sending it. It is a
+	 * response of its own rather than a wrapper of the live one: the container
+	 * slots its include wrapper in below the last wrapper it finds, and inside
+	 * an async request it leaves that wrapper in place afterwards, where it
+	 * would swallow the headers home.jsp sets when it is forwarded to. Headers,
+	 * status and buffer calls made by the included page are ignored, and URLs
+	 * are not encoded, since the fragment is shared by every session.
+	 */
+	private static final class CapturingResponse implements HttpServletResponse {
+		private final CharArrayWriter content = new CharArrayWriter(64 * 1_024);
+		private final PrintWriter writer = new PrintWriter(content);
+
+		@Override
+		public PrintWriter getWriter() {
+			return writer;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() {
+			throw new IllegalStateException("The catalog fragment is captured through getWriter()");
+		}
+
+		String getContent() {
+			writer.flush();
+			return content.toString();
+		}
+
+		// --- Buffer (the captured content only) ---
+
+		@Override
+		public void flushBuffer() {
+			writer.flush();
+		}
+
+		@Override
+		public boolean isCommitted() {
+			return false;
+		}
+
+		@Override
+		public void reset() {
+			resetBuffer();
+		}
+
+		@Override
+		public void resetBuffer() {
+			writer.flush();
+			content.reset();
+		}
+
+		@Override
+		public void setBufferSize(int size) {
+		}
+
+		@Override
+		public int getBufferSize() {
+			return content.size();
+		}
+
+		// --- Content Type and Locale ---
+
+		@Override
+		public String getCharacterEncoding() {
+			return StandardCharsets.UTF_8.name();
+		}
+
+		@Override
+		public String getContentType() {
+			return "text/html;charset=UTF-8";
+		}
+
+		@Override
+		public Locale getLocale() {
+			return Locale.getDefault();
+		}
+
+		@Override
+		public void setContentType(String type) {
+		}
+
+		@Override
+		public void setCharacterEncoding(String charset) {
+		}
+
+		@Override
+		public void setLocale(Locale locale) {
+		}
+
+		@Override
+		public void setContentLength(int len) {
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+		}
+
+		// --- Headers and Status (ignored) ---
+
+		@Override
+		public void addCookie(Cookie cookie) {
+		}
+
+		@Override
+		public boolean containsHeader(String name) {
+			return false;
+		}
+
+		@Override
+		public String getHeader(String name) {
+			return null;
+		}
+
+		@Override
+		public Collection<String> getHeaders(String name) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Collection<String> getHeaderNames() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+		}
+
+		@Override
+		public void setIntHeader(String name, int value) {
+		}
+
+		@Override
+		public void addIntHeader(String name, int value) {
+		}
+
+		@Override
+		public void setDateHeader(String name, long date) {
+		}
+
+		@Override
+		public void addDateHeader(String name, long date) {
+		}
+
+		@Override
+		public int getStatus() {
+			return SC_OK;
+		}
+
+		@Override
+		public void setStatus(int sc) {
+		}
+
+		@Override
+		public void sendError(int sc, String msg) {
+		}
+
+		@Override
+		public void sendError(int sc) {
+		}
+
+		@Override
+		public void sendRedirect(String location) {
+		}
+
+		@Override
+		public String encodeURL(String url) {
+			return url;
+		}
+
+		@Override
+		public String encodeRedirectURL(String url) {
+			return url;
+		}
+	}
 }
\ No newline at end of file
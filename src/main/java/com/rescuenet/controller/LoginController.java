@@ -7,15 +7,18 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import com.rescuenet.config.DbConfig;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
 import com.rescuenet.model.UserModel;
+import com.rescuenet.service.AuthRateLimiter;
 import com.rescuenet.service.LoginService;
+import com.rescuenet.service.UserProfileCache;
 import com.rescuenet.util.CookiesUtil;
 import com.rescuenet.util.SessionUtil;
 import com.rescuenet.util.ValidationUtil;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -29,11 +32,15 @@ import jakarta.servlet.http.HttpServletResponse;
  * page on failure.
  */
 @WebServlet(asyncSupported = true, urlPatterns = { "/login" })
-public class LoginController extends HttpServlet {
+public class LoginController extends AsyncHttpServlet {
+
 	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LogManager.getLogger(LoginController.class);
 	private ValidationUtil validationUtil;
 	private LoginService loginService;
 	private static final String LOGIN_JSP_PATH = "/WEB-INF/pages/login.jsp";
+	// Password checks are bounded by CredentialVerificationService, so a slow login is a stuck one
+	private static final long LOGIN_TIMEOUT_MILLIS = 10_000;
 
 	/**
 	 * Initializes the LoginController with instances of ValidationUtil and
@@ -47,6 +54,17 @@ public class LoginController extends HttpServlet {
 		this.loginService = new LoginService();
 	}
 
+	/**
+	 * Gives login requests a shorter timeout than the default.
+	 *
+	 * @param req the HttpServletRequest object
+	 * @return the timeout in milliseconds
+	 */
+	@Override
+	protected long getTimeoutMillis(HttpServletRequest req) {
+		return LOGIN_TIMEOUT_MILLIS;
+	}
+
 	/**
 	 * Handles GET requests for the login page. Clears previous session messages,
 	 * sets redirect messages, and forwards to login.jsp.
@@ -99,12 +117,14 @@ public class LoginController extends HttpServlet {
 			return;
 		}
 
-		// Check if LoginService had an issue during its initialization
-		if (loginService.isConnectionError()) {
-			System.err.println("LoginController: LoginService reported a connection error from its constructor.");
-			String serviceInitError = loginService.getLastErrorMessage();
+		// --- Rate Limit (before any database or password work) ---
+		long retryAfterSeconds = AuthRateLimiter.getInstance().tryAcquire(req.getRemoteAddr(), usernameFromForm);
+		if (retryAfterSeconds > 0) {
+			LOG.warn("Login attempt for {} from {} throttled.", usernameFromForm, req.getRemoteAddr());
+			resp.setStatus(429); // Too Many Requests
+			resp.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
 			req.setAttribute("error",
-					serviceInitError != null ? serviceInitError : "Login service initialization failed.");
+					"Too many login attempts. Please try again in " + retryAfterSeconds + " seconds.");
 			req.getRequestDispatcher(LOGIN_JSP_PATH).forward(req, resp);
 			return;
 		}
@@ -116,9 +136,8 @@ public class LoginController extends HttpServlet {
 			UserModel fullyPopulatedUser = fetchFullUserDetails(tempLoginUser.getUserId());
 
 			if (fullyPopulatedUser == null) {
-				System.err.println(
-						"LoginController: CRITICAL - LoginService reported success but could not fetch full user details for ID: "
-								+ tempLoginUser.getUserId());
+				LOG.error("LoginService reported success but could not fetch full user details for ID: {}",
+						tempLoginUser.getUserId());
 				req.setAttribute("error",
 						"Login successful but failed to retrieve your profile. Please try again or contact support.");
 				req.getRequestDispatcher(LOGIN_JSP_PATH).forward(req, resp);
@@ -133,10 +152,9 @@ public class LoginController extends HttpServlet {
 				stmt = conn.prepareStatement(updateSql);
 				stmt.setInt(1, fullyPopulatedUser.getUserId());
 				stmt.executeUpdate();
-				System.out
-						.println("LoginController: Updated last_login for user ID: " + fullyPopulatedUser.getUserId());
+				LOG.debug("Updated last_login for user ID: {}", fullyPopulatedUser.getUserId());
 			} catch (SQLException | ClassNotFoundException e) {
-				System.err.println("LoginController: Failed to update last_login - " + e.getMessage());
+				LOG.error("Failed to update last_login - {}", e.getMessage());
 			} finally {
 				try {
 					if (stmt != null)
@@ -150,23 +168,23 @@ public class LoginController extends HttpServlet {
 				}
 			}
 
+			UserProfileCache.getInstance().put(fullyPopulatedUser);
 			SessionUtil.setUser(req, fullyPopulatedUser);
-			System.out.println("LoginController: Full user object set in session. ID: " + fullyPopulatedUser.getUserId()
-					+ ", Username: " + fullyPopulatedUser.getUsername() + ", RoleID: "
-					+ fullyPopulatedUser.getRoleId());
+			LOG.debug("Session principal set. ID: {}, Username: {}, RoleID: {}",
+					fullyPopulatedUser.getUserId(), fullyPopulatedUser.getUsername(), fullyPopulatedUser.getRoleId());
 
 			req.getSession().setAttribute("successMessage", "Successfully logged in!"); // For display on next page
 
 			CookiesUtil.addCookie(resp, "username", fullyPopulatedUser.getUsername(), 30 * 24 * 60 * 60); // 30 days
-			System.out.println("LoginController: Username cookie set for: " + fullyPopulatedUser.getUsername());
+			LOG.debug("Username cookie set for: {}", fullyPopulatedUser.getUsername());
 
 			CookiesUtil.deleteCookie(resp, "role");
 
 			if (fullyPopulatedUser.getRoleId() == 2) { // Admin
-				System.out.println("LoginController: Redirecting admin to /admin");
+				LOG.debug("Redirecting admin to /admin");
 				resp.sendRedirect(req.getContextPath() + "/admin");
 			} else { // User
-				System.out.println("LoginController: Redirecting user to /home");
+				LOG.debug("Redirecting user to /home");
 				resp.sendRedirect(req.getContextPath() + "/home");
 			}
 		} else {
@@ -192,7 +210,7 @@ public class LoginController extends HttpServlet {
 		try {
 			conn = DbConfig.getDbConnection();
 			if (conn == null) {
-				System.err.println("LoginController (fetchFullUserDetails): DB Connection is null.");
+				LOG.warn("DB Connection is null.");
 				return null;
 			}
 			stmt = conn.prepareStatement(query);
@@ -209,30 +227,28 @@ public class LoginController extends HttpServlet {
 				user.setRoleId(rs.getInt("role_id"));
 				user.setActive(rs.getBoolean("is_active"));
 			} else {
-				System.out.println("LoginController (fetchFullUserDetails): No user found for ID: " + userId);
+				LOG.debug("No user found for ID: {}", userId);
 			}
 		} catch (SQLException | ClassNotFoundException e) {
-			System.err.println("LoginController (fetchFullUserDetails): Error fetching full user details for ID "
-					+ userId + " - " + e.getMessage());
-			e.printStackTrace();
+			LOG.error("Error fetching full user details for ID {} - {}", userId, e.getMessage(), e);
 		} finally {
 			try {
 				if (rs != null)
 					rs.close();
 			} catch (SQLException e) {
-				e.printStackTrace();
+				LOG.warn("Error closing JDBC resource - {}", e.getMessage());
 			}
 			try {
 				if (stmt != null)
 					stmt.close();
 			} catch (SQLException e) {
-				e.printStackTrace();
+				LOG.warn("Error closing JDBC resource - {}", e.getMessage());
 			}
 			try {
 				if (conn != null)
 					conn.close();
 			} catch (SQLException e) {
-				e.printStackTrace();
+				LOG.warn("Error closing JDBC resource - {}", e.getMessage());
 			}
 		}
 		return user;
@@ -256,18 +272,15 @@ public class LoginController extends HttpServlet {
 		if (wasConnectionError) {
 			displayErrorMessage = serviceMsg != null && !serviceMsg.isEmpty() ? serviceMsg
 					: "Login service unavailable. Please try again later.";
-			System.err.println(
-					"LoginController: Login failed due to service connection error. Service Msg: " + serviceMsg);
+			LOG.warn("Login failed due to service connection error. Service Msg: {}", serviceMsg);
 		} else if (loginStatusFlag == null) {
 			displayErrorMessage = serviceMsg != null && !serviceMsg.isEmpty() ? serviceMsg
 					: "An error occurred during login. Please try again.";
-			System.err.println("LoginController: Login failed due to service error (loginStatus is null). Service Msg: "
-					+ serviceMsg);
+			LOG.warn("Login failed due to service error (loginStatus is null). Service Msg: {}", serviceMsg);
 		} else {
 			displayErrorMessage = serviceMsg != null && !serviceMsg.isEmpty() ? serviceMsg
 					: "Invalid username or password.";
-			System.err.println(
-					"LoginController: Login failed - invalid credentials/user not found. Service Msg: " + serviceMsg);
+			LOG.warn("Login failed - invalid credentials/user not found. Service Msg: {}", serviceMsg);
 		}
 		req.setAttribute("error", displayErrorMessage);
 		req.getRequestDispatcher(LOGIN_JSP_PATH).forward(req, resp);
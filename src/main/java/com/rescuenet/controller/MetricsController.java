@@ -0,0 +1,54 @@
+package com.rescuenet.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.rescuenet.metrics.MetricsRegistry;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * MetricsController serves the application metrics (see MetricsRegistry) at
+ * /admin/metrics, which AuthenticationFilter limits to admins. The Prometheus
+ * text format is the default; ?format=json, or an Accept header asking for
+ * JSON, returns JSON instead. It runs on the container thread rather than the
+ * request executor, so the metrics stay readable when the executor is full.
+ */
+@WebServlet(asyncSupported = true, urlPatterns = { "/admin/metrics" })
+public class MetricsController extends HttpServlet {
+
+	private static final long serialVersionUID = 1L;
+	private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+	/**
+	 * Handles GET requests by writing the current metrics.
+	 *
+	 * @param request  the HttpServletRequest object
+	 * @param response the HttpServletResponse object
+	 * @throws ServletException if a servlet-specific error occurs
+	 * @throws IOException      if an I/O error occurs
+	 */
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response)
+			throws ServletException, IOException {
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		String format = request.getParameter("format");
+		String accept = request.getHeader("Accept");
+		boolean json = "json".equalsIgnoreCase(format)
+				|| (format == null && accept != null && accept.contains("application/json"));
+
+		byte[] body = (json ? registry.toJson() : registry.toPrometheus()).getBytes(StandardCharsets.UTF_8);
+		response.setContentType(json ? JSON_CONTENT_TYPE : PROMETHEUS_CONTENT_TYPE);
+		response.setHeader("Cache-Control", "no-store");
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+}
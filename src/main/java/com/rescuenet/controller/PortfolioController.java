@@ -2,16 +2,19 @@ package com.rescuenet.controller;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.model.SessionPrincipal;
 import com.rescuenet.model.UserModel;
+import com.rescuenet.service.ImageVariantService;
+import com.rescuenet.service.ImageVariantService.StoredImage;
 import com.rescuenet.service.PortfolioService;
+import com.rescuenet.service.UserProfileCache;
 import com.rescuenet.util.PasswordUtil;
 import com.rescuenet.util.ValidationUtil;
 import com.rescuenet.util.SessionUtil;
@@ -19,7 +22,6 @@ import com.rescuenet.util.SessionUtil;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.MultipartConfig;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.Part;
@@ -35,8 +37,10 @@ import jakarta.servlet.http.Part;
  */
 @WebServlet(asyncSupported = true, urlPatterns = { "/portfolio" })
 @MultipartConfig(fileSizeThreshold = 1024 * 1024 * 1, maxFileSize = 1024 * 1024 * 2, maxRequestSize = 1024 * 1024 * 5)
-public class PortfolioController extends HttpServlet {
+public class PortfolioController extends AsyncHttpServlet {
+
 	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LogManager.getLogger(PortfolioController.class);
 	private ValidationUtil validationUtil;
 	private PortfolioService portfolioService;
 	private static final String PROFILE_PIC_UPLOAD_DIR = "Uploads" + File.separator + "profile_pictures";
@@ -65,8 +69,8 @@ public class PortfolioController extends HttpServlet {
 	 */
 	@Override
 	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-		System.out.println("PortfolioController: GET request to /portfolio");
-		UserModel sessionUser = SessionUtil.getUser(req);
+		LOG.debug("GET request to /portfolio");
+		SessionPrincipal sessionUser = SessionUtil.getUser(req);
 		if (sessionUser == null) {
 			resp.sendRedirect(req.getContextPath() + "/login?message="
 					+ java.net.URLEncoder.encode("Please log in to view your portfolio.", "UTF-8"));
@@ -77,37 +81,28 @@ public class PortfolioController extends HttpServlet {
 		List<String> errorMessages = new ArrayList<>();
 
 		try {
-			userDetailsToDisplay = portfolioService.getUserDetails(sessionUser.getUserId());
-			if (userDetailsToDisplay == null && portfolioService.getLastErrorMessage() != null) {
-				errorMessages.add(portfolioService.getLastErrorMessage());
-			}
+			userDetailsToDisplay = UserProfileCache.getInstance().getProfile(sessionUser.getUserId());
 		} catch (SQLException e) {
-			System.err.println("PortfolioController (doGet): SQLException fetching user details - " + e.getMessage());
-			e.printStackTrace();
+			LOG.error("SQLException fetching user details - {}", e.getMessage(), e);
 			errorMessages.add("Could not load profile due to a database error. Please try again later.");
 		} catch (Exception e) {
-			System.err
-					.println("PortfolioController (doGet): Unexpected error fetching user details - " + e.getMessage());
-			e.printStackTrace();
+			LOG.error("Unexpected error fetching user details - {}", e.getMessage(), e);
 			errorMessages.add("An unexpected error occurred while loading your profile.");
 		}
 
 		if (userDetailsToDisplay == null) {
 			if (errorMessages.isEmpty()) {
-				errorMessages
-						.add(portfolioService.getLastErrorMessage() != null ? portfolioService.getLastErrorMessage()
-								: "Unable to load your profile at this time.");
+				errorMessages.add("Unable to load your profile at this time.");
 			}
 			req.setAttribute("errorMessagesList", errorMessages);
-			System.out.println(
-					"PortfolioController: Forwarding to portfolio.jsp with errors (user details null or fetch error).");
+			LOG.debug("Forwarding to portfolio.jsp with errors (user details null or fetch error).");
 			req.getRequestDispatcher(PORTFOLIO_JSP_PATH).forward(req, resp);
 			return;
 		}
 
 		req.setAttribute("user", userDetailsToDisplay);
-		System.out.println(
-				"PortfolioController: Forwarding to portfolio.jsp for user: " + userDetailsToDisplay.getUsername());
+		setProfileThumbnail(req);
+		LOG.debug("Forwarding to portfolio.jsp for user: {}", userDetailsToDisplay.getUsername());
 		req.getRequestDispatcher(PORTFOLIO_JSP_PATH).forward(req, resp);
 	}
 
@@ -122,8 +117,8 @@ public class PortfolioController extends HttpServlet {
 	 */
 	@Override
 	protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-		System.out.println("PortfolioController: POST request to /portfolio (update profile)");
-		UserModel sessionUser = SessionUtil.getUser(req);
+		LOG.debug("POST request to /portfolio (update profile)");
+		SessionPrincipal sessionUser = SessionUtil.getUser(req);
 
 		if (sessionUser == null) {
 			resp.sendRedirect(req.getContextPath() + "/login?message="
@@ -131,9 +126,22 @@ public class PortfolioController extends HttpServlet {
 			return;
 		}
 		int userId = sessionUser.getUserId();
-		String currentUsernameFromSession = sessionUser.getUsername();
-		String currentEmailFromSession = sessionUser.getEmail();
-		String currentProfilePicPath = sessionUser.getProfilePicturePath();
+		UserModel currentProfile = null;
+		try {
+			currentProfile = UserProfileCache.getInstance().getProfile(userId);
+		} catch (SQLException e) {
+			LOG.error("SQLException fetching current profile - {}", e.getMessage(), e);
+		}
+		if (currentProfile == null) {
+			List<String> errorMessages = new ArrayList<>();
+			errorMessages.add("Unable to load your profile at this time. Please try again later.");
+			req.setAttribute("errorMessagesList", errorMessages);
+			req.getRequestDispatcher(PORTFOLIO_JSP_PATH).forward(req, resp);
+			return;
+		}
+		String currentUsernameFromSession = currentProfile.getUsername();
+		String currentEmailFromSession = currentProfile.getEmail();
+		String currentProfilePicPath = currentProfile.getProfilePicturePath();
 
 		UserModel submittedUserValues = new UserModel();
 		submittedUserValues.setUserId(userId);
@@ -143,6 +151,7 @@ public class PortfolioController extends HttpServlet {
 		submittedUserValues.setPhoneNumber(req.getParameter("phone_number"));
 		submittedUserValues.setProfilePicturePath(currentProfilePicPath);
 		req.setAttribute("user", submittedUserValues);
+		setProfileThumbnail(req);
 
 		String newUsername = req.getParameter("username");
 		String fullName = req.getParameter("full_name");
@@ -180,7 +189,7 @@ public class PortfolioController extends HttpServlet {
 			}
 		} catch (SQLException e) {
 			errorMessages.add("Error checking username uniqueness. Please try again.");
-			System.err.println("SQL Error checking username: " + e.getMessage());
+			LOG.warn("SQL Error checking username: {}", e.getMessage());
 		}
 
 		if (fullName == null || fullName.trim().isEmpty())
@@ -198,7 +207,7 @@ public class PortfolioController extends HttpServlet {
 			}
 		} catch (SQLException e) {
 			errorMessages.add("Error checking email uniqueness. Please try again.");
-			System.err.println("SQL Error checking email: " + e.getMessage());
+			LOG.warn("SQL Error checking email: {}", e.getMessage());
 		}
 
 		if (phoneNumber != null && !phoneNumber.trim().isEmpty()
@@ -220,13 +229,13 @@ public class PortfolioController extends HttpServlet {
 					}
 				} catch (Exception e) {
 					errorMessages.add("Error processing new password.");
-					e.printStackTrace();
+					LOG.error("Error encrypting new password - {}", e.getMessage(), e);
 				}
 			}
 		}
 
 		String newProfilePictureDbPath = null;
-		String uniqueFileNameForProfilePic = null;
+		StoredImage storedProfilePic = null;
 		if (profilePicPart != null && profilePicPart.getSize() > 0) { // ... file upload logic ...
 			String contentType = profilePicPart.getContentType();
 			if (!contentType.startsWith("image/")) {
@@ -236,34 +245,14 @@ public class PortfolioController extends HttpServlet {
 				if (profilePicPart.getSize() > maxFileSize) {
 					errorMessages.add("New profile picture size cannot exceed 2MB.");
 				} else {
-					String originalFileName = Paths.get(profilePicPart.getSubmittedFileName()).getFileName().toString();
-					originalFileName = originalFileName.replaceAll("[^a-zA-Z0-9.\\-_]", "_");
-					uniqueFileNameForProfilePic = "user_" + userId + "_" + System.currentTimeMillis() + "_"
-							+ originalFileName;
-					newProfilePictureDbPath = PROFILE_PIC_UPLOAD_DIR.replace(File.separator, "/") + "/"
-							+ uniqueFileNameForProfilePic;
-					String uploadDirPathAbsolute = getServletContext().getRealPath("") + File.separator
-							+ PROFILE_PIC_UPLOAD_DIR;
-					File uploadDir = new File(uploadDirPathAbsolute);
-					if (!uploadDir.exists()) {
-						if (!uploadDir.mkdirs()) {
-							errorMessages.add("Server error creating storage for profile picture.");
-							newProfilePictureDbPath = null;
-						}
-					}
-					if (uploadDir.exists() && newProfilePictureDbPath != null) {
-						Path destinationFilePath = Paths.get(uploadDirPathAbsolute, uniqueFileNameForProfilePic);
-						try {
-							Files.copy(profilePicPart.getInputStream(), destinationFilePath,
-									StandardCopyOption.REPLACE_EXISTING);
-							if (currentProfilePicPath != null && !currentProfilePicPath.isEmpty()) {
-								cleanupUploadedFile(getServletContext().getRealPath(""), currentProfilePicPath);
-							}
-						} catch (IOException e) {
-							newProfilePictureDbPath = null;
-							errorMessages.add("Error saving new profile picture.");
-							e.printStackTrace();
-						}
+					// The previous picture is kept: stored files are shared by content
+					try (InputStream content = profilePicPart.getInputStream()) {
+						storedProfilePic = ImageVariantService.getInstance().store(content,
+								profilePicPart.getSubmittedFileName(), PROFILE_PIC_UPLOAD_DIR.replace(File.separator, "/"));
+						newProfilePictureDbPath = storedProfilePic.getPath();
+					} catch (IOException e) {
+						errorMessages.add("Error saving new profile picture.");
+						LOG.error("Error saving new profile picture - {}", e.getMessage(), e);
 					}
 				}
 			}
@@ -272,7 +261,8 @@ public class PortfolioController extends HttpServlet {
 		}
 
 		if (!errorMessages.isEmpty()) {
-			System.err.println("PortfolioController: Validation errors on update: " + errorMessages);
+			LOG.warn("Validation errors on update: {}", errorMessages);
+			ImageVariantService.getInstance().discard(storedProfilePic);
 			req.setAttribute("errorMessagesList", errorMessages);
 			req.getRequestDispatcher(PORTFOLIO_JSP_PATH).forward(req, resp);
 			return;
@@ -284,37 +274,24 @@ public class PortfolioController extends HttpServlet {
 					email.trim(), (phoneNumber != null ? phoneNumber.trim() : null), newProfilePictureDbPath,
 					newEncryptedPassword);
 		} catch (SQLException e) {
-			System.err.println("PortfolioController (doPost): SQLException during profile update - " + e.getMessage());
-			e.printStackTrace();
+			LOG.error("SQLException during profile update - {}", e.getMessage(), e);
 			errorMessages.add("A database error occurred while updating your profile. Please try again.");
-			if (newProfilePictureDbPath != null && !newProfilePictureDbPath.equals(currentProfilePicPath)
-					&& uniqueFileNameForProfilePic != null) {
-				cleanupUploadedFile(getServletContext().getRealPath("") + File.separator + PROFILE_PIC_UPLOAD_DIR,
-						uniqueFileNameForProfilePic);
-			}
+			ImageVariantService.getInstance().discard(storedProfilePic);
 		}
 
 		if (updateSuccess) {
 			req.setAttribute("success", "Profile updated successfully!");
 			UserModel updatedUserInSession = null;
 			try {
-				updatedUserInSession = portfolioService.getUserDetails(userId);
+				updatedUserInSession = UserProfileCache.getInstance().getProfile(userId);
 			} catch (SQLException e) {
-				System.err.println("PortfolioController (doPost): SQLException fetching updated user for session - "
-						+ e.getMessage());
+				LOG.error("SQLException fetching updated user for session - {}", e.getMessage());
 			}
 			if (updatedUserInSession != null) {
 				SessionUtil.setUser(req, updatedUserInSession);
 			} else {
-				sessionUser.setUsername(newUsername.trim());
-				sessionUser.setFullName(fullName.trim());
-				sessionUser.setEmail(email.trim());
-				sessionUser.setPhoneNumber(phoneNumber != null ? phoneNumber.trim() : null);
-				if (newProfilePictureDbPath != null)
-					sessionUser.setProfilePicturePath(newProfilePictureDbPath);
-				SessionUtil.setUser(req, sessionUser);
-				System.err.println(
-						"PortfolioController: Could not refresh full user in session, updated with form data.");
+				// The principal is stale now, so it is rebuilt on the next request
+				LOG.warn("Could not refresh the session principal after the update.");
 			}
 		} else {
 			if (errorMessages.isEmpty()) {
@@ -327,22 +304,27 @@ public class PortfolioController extends HttpServlet {
 
 		UserModel finalUserToDisplay = null;
 		try {
-			finalUserToDisplay = portfolioService.getUserDetails(userId);
+			finalUserToDisplay = UserProfileCache.getInstance().getProfile(userId);
 		} catch (SQLException e) {
-			System.err.println("Error fetching final user details: " + e.getMessage());
+			LOG.error("Error fetching final user details: {}", e.getMessage());
 		}
 
-		req.setAttribute("user", finalUserToDisplay != null ? finalUserToDisplay : sessionUser);
+		req.setAttribute("user", finalUserToDisplay != null ? finalUserToDisplay : currentProfile);
+		setProfileThumbnail(req);
 		req.getRequestDispatcher(PORTFOLIO_JSP_PATH).forward(req, resp);
 	}
 
 	/**
-	 * Cleans up an uploaded file from the server filesystem.
+	 * Exposes the thumbnail of the displayed user's profile picture, once it
+	 * has been generated, as the "profileThumbnailPath" request attribute.
 	 *
-	 * @param appRootPath      the application root path
-	 * @param relativeFilePath the relative file path to delete
+	 * @param req the HttpServletRequest holding the "user" attribute
 	 */
-	private void cleanupUploadedFile(String appRootPath, String relativeFilePath) {
-		// ... (keep this method as is) ...
+	private static void setProfileThumbnail(HttpServletRequest req) {
+		Object user = req.getAttribute("user");
+		if (user instanceof UserModel) {
+			req.setAttribute("profileThumbnailPath", ImageVariantService.getInstance()
+					.getVariantPath(((UserModel) user).getProfilePicturePath(), ImageVariantService.THUMBNAIL_WIDTH));
+		}
 	}
-}
\ No newline at end of file
+}
@@ -2,14 +2,16 @@ package com.rescuenet.controller;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
 import com.rescuenet.model.UserModel;
+import com.rescuenet.service.AuthRateLimiter;
+import com.rescuenet.service.ImageVariantService;
+import com.rescuenet.service.ImageVariantService.StoredImage;
 import com.rescuenet.service.RegisterService;
 import com.rescuenet.util.PasswordUtil;
 import com.rescuenet.util.RedirectionUtil;
@@ -18,7 +20,6 @@ import com.rescuenet.util.ValidationUtil;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.MultipartConfig;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.Part;
@@ -37,13 +38,16 @@ import jakarta.servlet.http.Part;
 		maxFileSize = 1024 * 1024 * 2, // 2MB (Max profile pic size)
 		maxRequestSize = 1024 * 1024 * 5 // Max total request size
 )
-public class RegisterController extends HttpServlet {
+public class RegisterController extends AsyncHttpServlet {
+
 	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LogManager.getLogger(RegisterController.class);
 	private ValidationUtil validationUtil;
 	private RegisterService registerService;
 	private RedirectionUtil redirectionUtil;
 	private static final String PROFILE_PIC_UPLOAD_DIR = "Uploads" + File.separator + "profile_pictures";
 	private static final String REGISTER_JSP_PATH = "/WEB-INF/pages/register.jsp";
+	private static final long UPLOAD_TIMEOUT_MILLIS = 60_000;
 
 	/**
 	 * Initializes the RegisterController with instances of ValidationUtil,
@@ -58,13 +62,24 @@ public class RegisterController extends HttpServlet {
 		this.redirectionUtil = new RedirectionUtil();
 	}
 
+	/**
+	 * Allows uploads more time than the default before the request is cancelled.
+	 *
+	 * @param req the HttpServletRequest object
+	 * @return the timeout in milliseconds
+	 */
+	@Override
+	protected long getTimeoutMillis(HttpServletRequest req) {
+		return "POST".equals(req.getMethod()) ? UPLOAD_TIMEOUT_MILLIS : super.getTimeoutMillis(req);
+	}
+
 	/**
 	 * Handles GET requests for the registration page. Forwards the request to the
 	 * register.jsp page for rendering.
 	 */
 	@Override
 	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-		System.out.println("RegisterController: GET request to /register");
+		LOG.debug("GET request to /register");
 		req.getRequestDispatcher(REGISTER_JSP_PATH).forward(req, resp);
 	}
 
@@ -75,7 +90,7 @@ public class RegisterController extends HttpServlet {
 	 */
 	@Override
 	protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-		System.out.println("RegisterController: POST request to /register");
+		LOG.debug("POST request to /register");
 
 		req.setAttribute("submittedFullName", req.getParameter("full_name"));
 		req.setAttribute("submittedUsername", req.getParameter("username"));
@@ -94,22 +109,25 @@ public class RegisterController extends HttpServlet {
 		String isActiveParam = req.getParameter("is_active");
 		Part profilePicPart = null;
 
-		try {
-			profilePicPart = req.getPart("profile_picture");
-		} catch (ServletException | IOException e) {
-			System.err.println("RegisterController: Error getting profile_picture part - " + e.getMessage());
+		// --- Rate Limit (before any image, database or password work) ---
+		long retryAfterSeconds = AuthRateLimiter.getInstance().tryAcquire(req.getRemoteAddr(), username);
+		if (retryAfterSeconds > 0) {
+			LOG.warn("Registration attempt for {} from {} throttled.", username, req.getRemoteAddr());
 			List<String> errorList = new ArrayList<>();
-			errorList.add("Error processing uploaded file. Please ensure it's a valid image and not too large.");
+			errorList.add("Too many registration attempts. Please try again in " + retryAfterSeconds + " seconds.");
+			resp.setStatus(429); // Too Many Requests
+			resp.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
 			req.setAttribute("errorMessagesList", errorList);
 			req.getRequestDispatcher(REGISTER_JSP_PATH).forward(req, resp);
 			return;
 		}
 
-		if (registerService.isConnectionError()) {
-			System.err.println("RegisterController: RegisterService reported a connection error from its constructor.");
+		try {
+			profilePicPart = req.getPart("profile_picture");
+		} catch (ServletException | IOException e) {
+			LOG.error("Error getting profile_picture part - {}", e.getMessage());
 			List<String> errorList = new ArrayList<>();
-			errorList.add(registerService.getLastErrorMessage() != null ? registerService.getLastErrorMessage()
-					: "Registration service initialization failed. Please try again later.");
+			errorList.add("Error processing uploaded file. Please ensure it's a valid image and not too large.");
 			req.setAttribute("errorMessagesList", errorList);
 			req.getRequestDispatcher(REGISTER_JSP_PATH).forward(req, resp);
 			return;
@@ -147,7 +165,7 @@ public class RegisterController extends HttpServlet {
 		boolean isActive = "true".equals(isActiveParam);
 
 		String profilePictureDbPath = null;
-		String uniqueFileNameForProfilePic = null;
+		StoredImage storedProfilePic = null;
 		if (profilePicPart != null && profilePicPart.getSize() > 0) {
 			String contentType = profilePicPart.getContentType();
 			if (!contentType.startsWith("image/")) {
@@ -157,69 +175,38 @@ public class RegisterController extends HttpServlet {
 				if (profilePicPart.getSize() > maxFileSize) {
 					errorList.add("Profile picture size cannot exceed 2MB.");
 				} else {
-					String originalFileName = Paths.get(profilePicPart.getSubmittedFileName()).getFileName().toString();
-					originalFileName = originalFileName.replaceAll("[^a-zA-Z0-9.\\-_]", "_");
-					uniqueFileNameForProfilePic = "profile_" + System.currentTimeMillis() + "_" + originalFileName;
-					profilePictureDbPath = PROFILE_PIC_UPLOAD_DIR.replace(File.separator, "/") + "/"
-							+ uniqueFileNameForProfilePic;
-					String uploadDirPathAbsolute = getServletContext().getRealPath("") + File.separator
-							+ PROFILE_PIC_UPLOAD_DIR;
-					File uploadDir = new File(uploadDirPathAbsolute);
-					System.out.println(
-							"RegisterController: Attempting to use/create upload directory: " + uploadDirPathAbsolute);
-					if (!uploadDir.exists()) {
-						if (!uploadDir.mkdirs()) {
-							System.err.println(
-									"RegisterController: Failed to create upload directory: " + uploadDirPathAbsolute);
-							errorList.add("Server error: Could not create storage for profile picture.");
-							profilePictureDbPath = null;
-						} else {
-							System.out
-									.println("RegisterController: Upload directory created: " + uploadDirPathAbsolute);
-						}
-					}
-					if (uploadDir.exists() && profilePictureDbPath != null) {
-						Path destinationFilePath = Paths.get(uploadDirPathAbsolute, uniqueFileNameForProfilePic);
-						try {
-							Files.copy(profilePicPart.getInputStream(), destinationFilePath,
-									StandardCopyOption.REPLACE_EXISTING);
-							System.out.println("RegisterController: Profile picture saved to " + destinationFilePath);
-						} catch (IOException e) {
-							profilePictureDbPath = null; // Failed to save
-							errorList.add("Error saving profile picture file: " + e.getMessage());
-							System.err.println(
-									"RegisterController: IOException saving profile picture: " + e.getMessage());
-							e.printStackTrace();
-						}
+					try (InputStream content = profilePicPart.getInputStream()) {
+						storedProfilePic = ImageVariantService.getInstance().store(content,
+								profilePicPart.getSubmittedFileName(), PROFILE_PIC_UPLOAD_DIR.replace(File.separator, "/"));
+						profilePictureDbPath = storedProfilePic.getPath();
+						LOG.debug("Profile picture stored as {}", profilePictureDbPath);
+					} catch (IOException e) {
+						errorList.add("Error saving profile picture file: " + e.getMessage());
+						LOG.error("IOException saving profile picture: {}", e.getMessage(), e);
 					}
 				}
 			}
 		}
 
 		if (!errorList.isEmpty()) {
-			System.err.println("RegisterController: Validation errors found: " + errorList);
+			LOG.warn("Validation errors found: {}", errorList);
 			req.setAttribute("errorMessagesList", errorList);
-			if (uniqueFileNameForProfilePic != null && (profilePictureDbPath == null || !errorList.isEmpty())) {
-				cleanupUploadedFile(getServletContext().getRealPath("") + File.separator + PROFILE_PIC_UPLOAD_DIR,
-						uniqueFileNameForProfilePic);
-			}
+			ImageVariantService.getInstance().discard(storedProfilePic);
 			req.getRequestDispatcher(REGISTER_JSP_PATH).forward(req, resp);
 			return;
 		}
 
 		String encryptedPassword;
 		try {
-			System.out.println("RegisterController: Encrypting password for user: " + username);
+			LOG.debug("Encrypting password for user: {}", username);
 			encryptedPassword = PasswordUtil.encrypt(username, password);
 			if (encryptedPassword == null) {
-				System.err.println("RegisterController: PasswordUtil.encrypt returned null for user: " + username);
+				LOG.warn("PasswordUtil.encrypt returned null for user: {}", username);
 				throw new Exception("Password encryption returned null.");
 			}
 		} catch (Exception e) {
-			cleanupUploadedFile(getServletContext().getRealPath("") + File.separator + PROFILE_PIC_UPLOAD_DIR,
-					uniqueFileNameForProfilePic);
-			System.err.println("RegisterController: Password encryption critical error - " + e.getMessage());
-			e.printStackTrace();
+			ImageVariantService.getInstance().discard(storedProfilePic);
+			LOG.error("Password encryption critical error - {}", e.getMessage(), e);
 			errorList.add("Registration processing error (P). Please try again.");
 			req.setAttribute("errorMessagesList", errorList);
 			req.getRequestDispatcher(REGISTER_JSP_PATH).forward(req, resp);
@@ -228,61 +215,34 @@ public class RegisterController extends HttpServlet {
 
 		UserModel userModel = new UserModel(username.trim(), encryptedPassword, roleId, fullName.trim(), email.trim(),
 				(phoneNumber != null ? phoneNumber.trim() : null), profilePictureDbPath, isActive);
-		System.out.println("RegisterController: UserModel created. Username: " + userModel.getUsername() + ", PicPath: "
-				+ userModel.getProfilePicturePath() + ", RoleID: " + userModel.getRoleId() + ", IsActive: "
-				+ userModel.isActive());
+		LOG.debug("UserModel created. Username: {}, PicPath: {}, RoleID: {}, IsActive: {}", userModel.getUsername(),
+				userModel.getProfilePicturePath(), userModel.getRoleId(), userModel.isActive());
 
 		Boolean isAdded = registerService.addUser(userModel);
-		System.out.println("RegisterController: Result of addUser from service: " + isAdded);
+		LOG.debug("Result of addUser from service: {}", isAdded);
 
 		if (isAdded == null) {
-			cleanupUploadedFile(getServletContext().getRealPath("") + File.separator + PROFILE_PIC_UPLOAD_DIR,
-					uniqueFileNameForProfilePic);
+			ImageVariantService.getInstance().discard(storedProfilePic);
 			String dbError = registerService.getLastErrorMessage();
-			System.err.println("RegisterController: addUser service returned null. Error: "
-					+ (dbError != null ? dbError : "Unknown DB error from service."));
+			LOG.warn("addUser service returned null. Error: {}",
+					(dbError != null ? dbError : "Unknown DB error from service."));
 			errorList.add(dbError != null ? dbError : "Database error occurred during registration. Please try again.");
 			req.setAttribute("errorMessagesList", errorList);
 			req.getRequestDispatcher(REGISTER_JSP_PATH).forward(req, resp);
 		} else if (isAdded) {
-			System.out.println("RegisterController: User registered successfully. Redirecting to login.");
+			LOG.debug("User registered successfully. Redirecting to login.");
 			// For success, use RedirectionUtil to send to login page with a success param
 			redirectionUtil.redirectToPage("success", "Your account is successfully created! Please log in.", "/login",
 					req, resp);
 		} else {
-			cleanupUploadedFile(getServletContext().getRealPath("") + File.separator + PROFILE_PIC_UPLOAD_DIR,
-					uniqueFileNameForProfilePic);
+			ImageVariantService.getInstance().discard(storedProfilePic);
 			String specificError = registerService.getLastErrorMessage();
-			System.err.println("RegisterController: addUser service returned false. Error: "
-					+ (specificError != null ? specificError : "Username/email exists."));
+			LOG.warn("addUser service returned false. Error: {}",
+					(specificError != null ? specificError : "Username/email exists."));
 			errorList.add(specificError != null ? specificError
 					: "Registration failed. Username or email may already be in use.");
 			req.setAttribute("errorMessagesList", errorList);
 			req.getRequestDispatcher(REGISTER_JSP_PATH).forward(req, resp);
 		}
 	}
-
-	/**
-	 * Cleans up an uploaded file from the server filesystem if registration fails.
-	 *
-	 * @param uploadDirPath the directory path where the file is stored
-	 * @param fileName      the name of the file to delete
-	 */
-	private void cleanupUploadedFile(String uploadDirPath, String fileName) {
-		if (fileName == null || uploadDirPath == null)
-			return;
-		try {
-			Path orphanedFilePath = Paths.get(uploadDirPath, fileName);
-			if (Files.exists(orphanedFilePath)) {
-				Files.delete(orphanedFilePath);
-				System.out.println("RegisterController: Cleaned up orphaned file: " + orphanedFilePath);
-			} else {
-				System.out.println("RegisterController: Orphaned file (" + fileName + ") not found for cleanup in "
-						+ uploadDirPath);
-			}
-		} catch (IOException e) {
-			System.err
-					.println("RegisterController: Error deleting orphaned file (" + fileName + ") - " + e.getMessage());
-		}
-	}
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.rescuenet.controller;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Base64;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.model.AvailabilityCalendar;
+import com.rescuenet.model.SessionPrincipal;
+import com.rescuenet.model.VehicleModel;
+import com.rescuenet.service.ReservationService;
+import com.rescuenet.util.JsonUtil;
+import com.rescuenet.util.SessionUtil;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ReservationCalendarController serves the fleet availability calendar to
+ * admin users as JSON: every vehicle with a bitmap of the days it is booked,
+ * for a range of up to a year, in one response. The range is given as
+ * ?from=YYYY-MM-DD&amp;to=YYYY-MM-DD or ?month=YYYY-MM, and defaults to the
+ * current month.
+ *
+ * Each vehicle's "booked" value is a base64 bitmap, least significant bit
+ * first: bit n (bit n % 8 of byte n / 8) is set when the vehicle has a
+ * confirmed reservation on "from" plus n days. Trailing free days are left
+ * out, so a vehicle with no bookings has an empty string. "bookedPerDay"
+ * counts the booked vehicles on each day.
+ */
+@WebServlet(asyncSupported = true, urlPatterns = { "/reservations/calendar" })
+public class ReservationCalendarController extends AsyncHttpServlet {
+
+	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LogManager.getLogger(ReservationCalendarController.class);
+	private ReservationService reservationService;
+
+	/**
+	 * Initializes the ReservationCalendarController with an instance of
+	 * ReservationService.
+	 *
+	 * @throws ServletException if an error occurs during initialization
+	 */
+	@Override
+	public void init() throws ServletException {
+		this.reservationService = new ReservationService();
+	}
+
+	/**
+	 * Handles GET requests by writing the availability calendar for the
+	 * requested range.
+	 *
+	 * @param request  the HttpServletRequest object
+	 * @param response the HttpServletResponse object
+	 * @throws ServletException if a servlet-specific error occurs
+	 * @throws IOException      if an I/O error occurs
+	 */
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response)
+			throws ServletException, IOException {
+		SessionPrincipal sessionUser = SessionUtil.getUser(request);
+		if (sessionUser == null || !sessionUser.isAdmin()) {
+			response.sendRedirect(request.getContextPath()
+					+ (sessionUser == null ? "/login?message=" + URLEncoder.encode("Please log in.", "UTF-8")
+							: "/home?error=" + URLEncoder.encode("Access Denied.", "UTF-8")));
+			return;
+		}
+
+		// --- Parse the Range ---
+		LocalDate from;
+		LocalDate to;
+		try {
+			String month = request.getParameter("month");
+			String fromParam = request.getParameter("from");
+			String toParam = request.getParameter("to");
+			if (fromParam != null && !fromParam.isBlank()) {
+				from = LocalDate.parse(fromParam.trim());
+				to = toParam != null && !toParam.isBlank() ? LocalDate.parse(toParam.trim())
+						: from.plusMonths(1).minusDays(1);
+			} else {
+				YearMonth yearMonth = month != null && !month.isBlank() ? YearMonth.parse(month.trim())
+						: YearMonth.now();
+				from = yearMonth.atDay(1);
+				to = yearMonth.atEndOfMonth();
+			}
+		} catch (DateTimeParseException e) {
+			respondWithError(response, "Invalid date. Use from=YYYY-MM-DD and to=YYYY-MM-DD, or month=YYYY-MM.");
+			return;
+		}
+		if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) + 1 > ReservationService.MAX_CALENDAR_DAYS) {
+			respondWithError(response, "The range must end on or after its start and cover at most "
+					+ ReservationService.MAX_CALENDAR_DAYS + " days.");
+			return;
+		}
+
+		// --- Build and Write the Calendar ---
+		AvailabilityCalendar calendar;
+		try {
+			calendar = reservationService.getAvailabilityCalendar(from, to);
+		} catch (SQLException e) {
+			LOG.error("SQLException occurred - {}", e.getMessage(), e);
+			response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+			JsonUtil.write(response, "{\"error\":\"A database error occurred. Please try again later.\"}");
+			return;
+		}
+		JsonUtil.write(response, toJson(calendar));
+	}
+
+	private static StringBuilder toJson(AvailabilityCalendar calendar) {
+		int dayCount = calendar.getDayCount();
+		int[] bookedPerDay = new int[dayCount];
+		Base64.Encoder base64 = Base64.getEncoder();
+
+		StringBuilder out = new StringBuilder(64 + calendar.getVehicles().size() * (96 + dayCount / 6));
+		out.append("{\"from\":\"").append(calendar.getFromDate());
+		out.append("\",\"to\":\"").append(calendar.getToDate());
+		out.append("\",\"days\":").append(dayCount);
+		out.append(",\"source\":\"").append(calendar.isFromIndex() ? "index" : "query");
+		out.append("\",\"vehicles\":[");
+		boolean first = true;
+		for (VehicleModel vehicle : calendar.getVehicles()) {
+			BitSet booked = calendar.getBookedDays(vehicle.getVehicleId());
+			for (int day = booked.nextSetBit(0); day >= 0 && day < dayCount; day = booked.nextSetBit(day + 1)) {
+				bookedPerDay[day]++;
+			}
+			out.append(first ? "" : ",");
+			first = false;
+			out.append("{\"id\":").append(vehicle.getVehicleId());
+			out.append(",\"serialNumber\":");
+			JsonUtil.appendString(out, vehicle.getSerialNumber());
+			out.append(",\"name\":");
+			JsonUtil.appendString(out, vehicle.getBrandName() + " " + vehicle.getModel());
+			out.append(",\"type\":");
+			JsonUtil.appendString(out, vehicle.getType());
+			out.append(",\"status\":");
+			JsonUtil.appendString(out, vehicle.getStatus());
+			out.append(",\"booked\":\"").append(base64.encodeToString(booked.toByteArray())).append("\"}");
+		}
+		out.append("],\"bookedPerDay\":[");
+		for (int day = 0; day < dayCount; day++) {
+			out.append(day == 0 ? "" : ",").append(bookedPerDay[day]);
+		}
+		return out.append("]}");
+	}
+
+	private static void respondWithError(HttpServletResponse response, String message) throws IOException {
+		response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+		StringBuilder out = new StringBuilder("{\"error\":");
+		JsonUtil.appendString(out, message);
+		JsonUtil.write(response, out.append('}'));
+	}
+}
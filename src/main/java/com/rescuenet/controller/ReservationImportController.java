@@ -0,0 +1,200 @@
+package com.rescuenet.controller;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.model.ReservationImportReport;
+import com.rescuenet.model.SessionPrincipal;
+import com.rescuenet.service.ImportFormat;
+import com.rescuenet.service.ReservationImportService;
+import com.rescuenet.util.JsonUtil;
+import com.rescuenet.util.SessionUtil;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.MultipartConfig;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ReservationImportController handles bulk reservation imports for admin
+ * users. A file uploaded from the reservations page (the "file" part of a
+ * multipart form) is imported and the report shown on the import results
+ * page. A CSV or JSON file can also be posted as the raw request body, in
+ * which case the report is returned as JSON.
+ */
+@WebServlet(asyncSupported = true, urlPatterns = { "/reservations/import" })
+@MultipartConfig(fileSizeThreshold = 1024 * 1024, // 1MB - smaller files are kept in memory
+		maxFileSize = 1024 * 1024 * 20, // 20MB - max size of an import file
+		maxRequestSize = 1024 * 1024 * 21 // 21MB - the file plus the form fields
+)
+public class ReservationImportController extends AsyncHttpServlet {
+
+	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LogManager.getLogger(ReservationImportController.class);
+	private static final String IMPORT_JSP_PATH = "/WEB-INF/pages/reservation_import.jsp";
+	private static final long IMPORT_TIMEOUT_MILLIS = 120_000;
+	private static final int MAX_JSON_ROWS = 1_000;
+
+	/**
+	 * Allows imports more time than the default before the request is cancelled.
+	 *
+	 * @param request the HttpServletRequest object
+	 * @return the timeout in milliseconds
+	 */
+	@Override
+	protected long getTimeoutMillis(HttpServletRequest request) {
+		return "POST".equals(request.getMethod()) ? IMPORT_TIMEOUT_MILLIS : super.getTimeoutMillis(request);
+	}
+
+	/**
+	 * Handles GET requests by redirecting to the reservations page, which holds
+	 * the import form.
+	 *
+	 * @param request  the HttpServletRequest object
+	 * @param response the HttpServletResponse object
+	 * @throws ServletException if a servlet-specific error occurs
+	 * @throws IOException      if an I/O error occurs
+	 */
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response)
+			throws ServletException, IOException {
+		response.sendRedirect(request.getContextPath() + "/reservations");
+	}
+
+	/**
+	 * Handles POST requests by importing the uploaded file.
+	 *
+	 * @param request  the HttpServletRequest object
+	 * @param response the HttpServletResponse object
+	 * @throws ServletException if a servlet-specific error occurs
+	 * @throws IOException      if an I/O error occurs
+	 */
+	@Override
+	protected void doPost(HttpServletRequest request, HttpServletResponse response)
+			throws ServletException, IOException {
+		SessionPrincipal sessionUser = SessionUtil.getUser(request);
+		if (sessionUser == null || !sessionUser.isAdmin()) {
+			response.sendRedirect(request.getContextPath()
+					+ (sessionUser == null ? "/login?message=" + URLEncoder.encode("Please log in.", "UTF-8")
+							: "/home?error=" + URLEncoder.encode("Access Denied.", "UTF-8")));
+			return;
+		}
+
+		String contentType = request.getContentType();
+		boolean multipart = contentType != null
+				&& contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data");
+		String accept = request.getHeader("Accept");
+		boolean json = !multipart || (accept != null && accept.contains("application/json"));
+
+		// --- Find the File and Its Format ---
+		Part filePart = null;
+		String fileName;
+		String fileType;
+		if (multipart) {
+			try {
+				filePart = request.getPart("file");
+			} catch (IllegalStateException e) {
+				respondWithError("The import file is too large.", json, request, response);
+				return;
+			}
+			if (filePart == null || filePart.getSize() == 0) {
+				respondWithError("Choose a CSV or JSON file to import.", json, request, response);
+				return;
+			}
+			fileName = filePart.getSubmittedFileName();
+			fileType = filePart.getContentType();
+		} else {
+			fileName = request.getParameter("name");
+			fileType = contentType;
+		}
+		ImportFormat format = ImportFormat.detect(fileName, fileType);
+		if (format == null) {
+			respondWithError("Unsupported import file. Upload a .csv or .json file.", json, request, response);
+			return;
+		}
+
+		// --- Import ---
+		ReservationImportService importService = new ReservationImportService();
+		ReservationImportReport report;
+		try (Reader reader = new InputStreamReader(
+				filePart != null ? filePart.getInputStream() : request.getInputStream(), StandardCharsets.UTF_8)) {
+			report = importService.importReservations(reader, format);
+		} finally {
+			if (filePart != null) {
+				filePart.delete();
+			}
+		}
+		LOG.info("User {} imported {} reservations from {} ({} rows).", sessionUser.getUsername(),
+				report.getImportedCount(), fileName != null ? fileName : "request body", report.getTotalCount());
+
+		if (json) {
+			writeJson(response, report);
+		} else {
+			request.setAttribute("report", report);
+			request.setAttribute("fileName", fileName);
+			request.getRequestDispatcher(IMPORT_JSP_PATH).forward(request, response);
+		}
+	}
+
+	private void respondWithError(String message, boolean json, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		LOG.warn("Import refused: {}", message);
+		if (json) {
+			response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+			StringBuilder out = new StringBuilder("{\"error\":");
+			JsonUtil.appendString(out, message);
+			JsonUtil.write(response, out.append('}'));
+		} else {
+			response.sendRedirect(request.getContextPath() + "/reservations?error="
+					+ URLEncoder.encode(message, "UTF-8"));
+		}
+	}
+
+	/**
+	 * Writes the report as JSON: the totals, then the rows that were not
+	 * imported (up to MAX_JSON_ROWS of them). Imported rows are left out to
+	 * keep large imports' responses small.
+	 */
+	private static void writeJson(HttpServletResponse response, ReservationImportReport report) throws IOException {
+		StringBuilder out = new StringBuilder(256);
+		out.append("{\"total\":").append(report.getTotalCount());
+		out.append(",\"imported\":").append(report.getImportedCount());
+		out.append(",\"rejected\":").append(report.getRejectedCount());
+		out.append(",\"failed\":").append(report.getFailedCount());
+		out.append(",\"elapsedMs\":").append(report.getElapsedMillis());
+		out.append(",\"error\":");
+		JsonUtil.appendString(out, report.getError());
+		out.append(",\"problems\":[");
+		int written = 0;
+		for (ReservationImportReport.Row row : report.getProblemRows()) {
+			if (written == MAX_JSON_ROWS) {
+				break;
+			}
+			out.append(written++ == 0 ? "" : ",");
+			out.append("{\"row\":").append(row.getRow());
+			out.append(",\"outcome\":\"").append(row.getOutcome()).append('"');
+			out.append(",\"vehicleId\":").append(row.getVehicleId());
+			out.append(",\"reservationDate\":");
+			JsonUtil.appendString(out, row.getReservationDate() != null ? row.getReservationDate().toString() : null);
+			out.append(",\"message\":");
+			JsonUtil.appendString(out, row.getMessage() != null ? row.getMessage() : "");
+			out.append('}');
+		}
+		out.append("]}");
+		if (report.getError() != null && report.getImportedCount() == 0) {
+			response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+		}
+		JsonUtil.write(response, out);
+	}
+}
@@ -3,11 +3,19 @@ package com.rescuenet.controller;
 import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.sql.SQLException;
 
+import com.rescuenet.config.QueryGroup;
+import com.rescuenet.config.QueryGroup.Branch;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.model.ReservationFilter;
 import com.rescuenet.model.ReservationModel;
+import com.rescuenet.model.ReservationPage;
+import com.rescuenet.model.SessionPrincipal;
 import com.rescuenet.model.UserModel;
 import com.rescuenet.model.VehicleModel;
 import com.rescuenet.service.ReservationService;
@@ -15,7 +23,6 @@ import com.rescuenet.util.SessionUtil;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -30,10 +37,14 @@ import jakarta.servlet.http.HttpServletResponse;
  */
 @WebServlet(asyncSupported = true, urlPatterns = { "/reservations", "/reservations/create", "/reservations/update",
 		"/reservations/delete" })
-public class ReservationsController extends HttpServlet {
+public class ReservationsController extends AsyncHttpServlet {
+
 	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LogManager.getLogger(ReservationsController.class);
 	private ReservationService reservationService;
 	private static final String RESERVATIONS_JSP_PATH = "/WEB-INF/pages/reservations.jsp";
+	private static final int DEFAULT_PAGE_SIZE = 25;
+	private static final int MAX_PAGE_SIZE = 100;
 
 	/**
 	 * Initializes the ReservationsController with an instance of
@@ -59,10 +70,10 @@ public class ReservationsController extends HttpServlet {
 	protected void doGet(HttpServletRequest request, HttpServletResponse response)
 			throws ServletException, IOException {
 		String path = request.getServletPath();
-		System.out.println("ReservationsController: doGet called for path - " + path);
+		LOG.debug("doGet called for path - {}", path);
 
-		UserModel sessionUser = SessionUtil.getUser(request);
-		if (sessionUser == null || sessionUser.getRoleId() != 2) {
+		SessionPrincipal sessionUser = SessionUtil.getUser(request);
+		if (sessionUser == null || !sessionUser.isAdmin()) {
 			response.sendRedirect(request.getContextPath()
 					+ (sessionUser == null ? "/login?message=" + java.net.URLEncoder.encode("Please log in.", "UTF-8")
 							: "/home?error=" + java.net.URLEncoder.encode("Access Denied.", "UTF-8")));
@@ -104,9 +115,10 @@ public class ReservationsController extends HttpServlet {
 				actionError = "Invalid page requested.";
 			}
 		} catch (SQLException e) {
-			System.err.println("ReservationsController (doGet): SQLException occurred - " + e.getMessage());
-			e.printStackTrace();
+			LOG.error("SQLException occurred - {}", e.getMessage(), e);
 			actionError = "A database error occurred. Please try again later.";
+		} finally {
+			reservationService.clearLastErrorMessage();
 		}
 
 		if (actionError != null) {
@@ -117,30 +129,97 @@ public class ReservationsController extends HttpServlet {
 	}
 
 	/**
-	 * Loads common data (reservations, vehicles, users) for the reservations JSP.
+	 * Loads common data (one page of reservations, vehicles, users) for the
+	 * reservations JSP. The three reads are independent, so they run at the
+	 * same time. The reservation page is required; if a dropdown list cannot
+	 * be loaded the page is still shown, with a message instead of that list.
 	 *
 	 * @param request the HttpServletRequest object
 	 * @return true if data is loaded successfully, false otherwise
 	 * @throws SQLException if a database error occurs
 	 */
 	private boolean loadCommonData(HttpServletRequest request) throws SQLException {
-		try {
-			List<ReservationModel> reservations = reservationService.getAllReservationsWithDetails();
-			request.setAttribute("reservations", reservations);
+		ReservationFilter filter = parseFilter(request);
+		int pageSize = parseInt(request.getParameter("size"), DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+
+		try (QueryGroup group = QueryGroup.open(QueryGroup.DEFAULT_DEADLINE_MILLIS)) {
+			Branch<ReservationPage> page = group.fork("reservations",
+					() -> reservationService.getReservationsPage(filter, pageSize));
+			Branch<List<VehicleModel>> availableVehicles = group.fork("availableVehicles",
+					reservationService::getAvailableVehiclesForDropdown);
+			Branch<List<UserModel>> users = group.fork("users", reservationService::getAllUsers);
+			group.join();
 
-			List<VehicleModel> availableVehicles = reservationService.getAvailableVehiclesForDropdown();
-			request.setAttribute("availableVehicles", availableVehicles);
+			ReservationPage reservationPage = page.get();
+			request.setAttribute("filter", filter);
+			request.setAttribute("reservationPage", reservationPage);
+			request.setAttribute("reservations", reservationPage.getReservations());
 
-			List<UserModel> users = reservationService.getAllUsers();
-			request.setAttribute("users", users);
+			request.setAttribute("availableVehicles", availableVehicles.getOrDefault(Collections.emptyList()));
+			request.setAttribute("users", users.getOrDefault(Collections.emptyList()));
+			if (!availableVehicles.isSuccess() || !users.isSuccess()) {
+				// Keep any error already set (e.g. why an action failed, from handleError)
+				Object existingError = request.getAttribute("error");
+				request.setAttribute("error", (existingError != null ? existingError + " Additionally, s" : "S")
+						+ "ome form options could not be loaded. Please refresh the page.");
+			}
 			return true; // Success
 		} catch (SQLException e) {
-			System.err.println("ReservationsController (loadCommonData): SQLException - " + e.getMessage());
-			e.printStackTrace();
+			LOG.error("SQLException - {}", e.getMessage(), e);
 			return false; // Indicate failure
 		}
 	}
 
+	/**
+	 * Reads the listing filters and keyset cursor from request parameters.
+	 * Missing or malformed values are treated as "no filter".
+	 *
+	 * @param request the HttpServletRequest object
+	 * @return the filter for the requested page
+	 */
+	private ReservationFilter parseFilter(HttpServletRequest request) {
+		ReservationFilter filter = new ReservationFilter();
+		String status = request.getParameter("filterStatus");
+		if (status != null && !status.trim().isEmpty()) {
+			filter.setStatus(status.trim());
+		}
+		filter.setVehicleId(parseId(request.getParameter("filterVehicleId")));
+		filter.setUserId(parseId(request.getParameter("filterUserId")));
+		filter.setFromDate(parseDate(request.getParameter("filterFrom")));
+		filter.setToDate(parseDate(request.getParameter("filterTo")));
+		filter.setAfterDate(parseDate(request.getParameter("afterDate")));
+		filter.setAfterId(parseId(request.getParameter("afterId")));
+		return filter;
+	}
+
+	private static Integer parseId(String value) {
+		if (value == null || value.trim().isEmpty()) {
+			return null;
+		}
+		try {
+			int id = Integer.parseInt(value.trim());
+			return id > 0 ? id : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static LocalDate parseDate(String value) {
+		if (value == null || value.trim().isEmpty()) {
+			return null;
+		}
+		try {
+			return LocalDate.parse(value.trim());
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	private static int parseInt(String value, int defaultValue, int max) {
+		Integer parsed = parseId(value);
+		return parsed == null ? defaultValue : Math.min(parsed, max);
+	}
+
 	/**
 	 * Handles POST requests for creating, updating, or deleting reservations.
 	 * Processes form submissions and redirects or forwards based on operation
@@ -155,10 +234,10 @@ public class ReservationsController extends HttpServlet {
 	protected void doPost(HttpServletRequest request, HttpServletResponse response)
 			throws ServletException, IOException {
 		String path = request.getServletPath();
-		System.out.println("ReservationsController: doPost called for path - " + path);
+		LOG.debug("doPost called for path - {}", path);
 
-		UserModel sessionUser = SessionUtil.getUser(request);
-		if (sessionUser == null || sessionUser.getRoleId() != 2) {
+		SessionPrincipal sessionUser = SessionUtil.getUser(request);
+		if (sessionUser == null || !sessionUser.isAdmin()) {
 			response.sendRedirect(request.getContextPath() + "/login?message="
 					+ java.net.URLEncoder.encode("Unauthorized action.", "UTF-8"));
 			return;
@@ -279,13 +358,13 @@ public class ReservationsController extends HttpServlet {
 			response.sendRedirect(redirectPath + "?error=Invalid+Action");
 
 		} catch (SQLException e) {
-			System.err.println("ReservationsController (doPost): SQLException occurred - " + e.getMessage());
-			e.printStackTrace();
+			LOG.error("SQLException occurred - {}", e.getMessage(), e);
 			handleError("A database error occurred: " + e.getMessage(), request, response);
 		} catch (Exception e) {
-			System.err.println("ReservationsController (doPost): Unexpected error - " + e.getMessage());
-			e.printStackTrace();
+			LOG.error("Unexpected error - {}", e.getMessage(), e);
 			handleError("An unexpected error occurred. Please try again.", request, response);
+		} finally {
+			reservationService.clearLastErrorMessage();
 		}
 	}
 
@@ -301,13 +380,12 @@ public class ReservationsController extends HttpServlet {
 	 */
 	private void handleError(String errorMessage, HttpServletRequest request, HttpServletResponse response)
 			throws ServletException, IOException {
-		System.err.println("ReservationsController Error: " + errorMessage);
+		LOG.warn("Error: {}", errorMessage);
 		request.setAttribute("error", errorMessage); // JSP checks for ${requestScope.error} or ${param.error}
 		try {
 			loadCommonData(request); // Attempt to reload data for dropdowns
 		} catch (Exception e) {
-			System.err.println(
-					"ReservationsController (handleError): Failed to reload common data. Error was: " + e.getMessage());
+			LOG.error("Failed to reload common data. Error was: {}", e.getMessage());
 			request.setAttribute("error",
 					(request.getAttribute("error") != null ? request.getAttribute("error") + " Additionally, " : "")
 							+ "could not fully load form data due to a subsequent error.");
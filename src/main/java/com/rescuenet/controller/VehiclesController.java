@@ -2,22 +2,22 @@ package com.rescuenet.controller;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
 import com.rescuenet.model.VehicleModel;
+import com.rescuenet.service.ImageVariantService;
+import com.rescuenet.service.ImageVariantService.StoredImage;
 import com.rescuenet.service.VehicleService;
 import com.rescuenet.util.CookiesUtil;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.MultipartConfig;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
@@ -37,10 +37,13 @@ import jakarta.servlet.http.Part;
 		maxFileSize = 1024 * 1024 * 5, // 5MB - max size of a single uploaded file
 		maxRequestSize = 1024 * 1024 * 10 // 10MB - max size of the entire multipart request
 )
-public class VehiclesController extends HttpServlet {
+public class VehiclesController extends AsyncHttpServlet {
+
 	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LogManager.getLogger(VehiclesController.class);
 	private final VehicleService vehicleService;
 	private static final String UPLOAD_DIR = "Uploads" + File.separator + "vehicles";
+	private static final long UPLOAD_TIMEOUT_MILLIS = 60_000;
 
 	/**
 	 * Initializes the VehiclesController with a VehicleService instance.
@@ -49,6 +52,17 @@ public class VehiclesController extends HttpServlet {
 		this.vehicleService = new VehicleService();
 	}
 
+	/**
+	 * Allows uploads more time than the default before the request is cancelled.
+	 *
+	 * @param request the HttpServletRequest object
+	 * @return the timeout in milliseconds
+	 */
+	@Override
+	protected long getTimeoutMillis(HttpServletRequest request) {
+		return "POST".equals(request.getMethod()) ? UPLOAD_TIMEOUT_MILLIS : super.getTimeoutMillis(request);
+	}
+
 	/**
 	 * Handles GET requests for vehicle-related actions. Processes requests to list
 	 * vehicles, checks for admin access, and forwards to vehicles.jsp.
@@ -62,14 +76,14 @@ public class VehiclesController extends HttpServlet {
 	protected void doGet(HttpServletRequest request, HttpServletResponse response)
 			throws ServletException, IOException {
 		String path = request.getServletPath();
-		System.out.println("VehiclesController: doGet called for path - " + path);
+		LOG.debug("doGet called for path - {}", path);
 
 		// --- Role Check ---
 		HttpSession session = request.getSession(false); // Do not create a new session if it doesn't exist
 		String role = (session != null && session.getAttribute("role") != null) ? (String) session.getAttribute("role")
 				: null;
 		if ("admin".equals(role)) {
-			System.out.println("HomeController: Admin user detected, redirecting to /admin");
+			LOG.debug("HomeController: Admin user detected, redirecting to /admin");
 			response.sendRedirect(request.getContextPath() + "/admin");
 			return;
 		}
@@ -77,16 +91,11 @@ public class VehiclesController extends HttpServlet {
 		// --- End Role Check ---
 
 		if (path.equals("/vehicles")) {
-			if (vehicleService.isConnectionError()) {
-				System.out.println("VehiclesController: Database connection error, setting error message");
-				// Set error message as request attribute for JSP display
-				request.setAttribute("error", vehicleService.getLastErrorMessage());
-			}
-			System.out.println("VehiclesController: Forwarding to vehicles.jsp");
+			LOG.debug("Forwarding to vehicles.jsp");
 			// Always forward to the JSP, let JSP handle displaying errors/form
 			request.getRequestDispatcher("/WEB-INF/pages/vehicles.jsp").forward(request, response);
 		} else {
-			System.out.println("VehiclesController: Unhandled GET path - " + path);
+			LOG.debug("Unhandled GET path - {}", path);
 			// Redirect back to the main vehicles page with an error
 			response.sendRedirect(request.getContextPath() + "/vehicles?error="
 					+ java.net.URLEncoder.encode("Invalid Page Requested", "UTF-8"));
@@ -107,26 +116,19 @@ public class VehiclesController extends HttpServlet {
 	protected void doPost(HttpServletRequest request, HttpServletResponse response)
 			throws ServletException, IOException {
 		String path = request.getServletPath();
-		System.out.println("VehiclesController: doPost called for path - " + path);
+		LOG.debug("doPost called for path - {}", path);
 
 		// --- Role Check (Keep as is) ---
 		String role = CookiesUtil.getCookie(request, "role") != null ? CookiesUtil.getCookie(request, "role").getValue()
 				: null;
 		if (!"admin".equals(role)) {
-			System.out.println("VehiclesController: Non-admin user, redirecting to /home");
+			LOG.debug("Non-admin user, redirecting to /home");
 			response.sendRedirect(request.getContextPath() + "/home");
 			return;
 		}
 		// --- End Role Check ---
 
 		if (path.equals("/vehicles/create")) {
-			if (vehicleService.isConnectionError()) {
-				System.out.println("VehiclesController: Database connection error, redirecting with error message");
-				response.sendRedirect(request.getContextPath() + "/vehicles?error="
-						+ java.net.URLEncoder.encode(vehicleService.getLastErrorMessage(), "UTF-8"));
-				return;
-			}
-
 			// Get parameters
 			String serialNumber = request.getParameter("serialNumber");
 			String brandName = request.getParameter("brandName");
@@ -141,7 +143,7 @@ public class VehiclesController extends HttpServlet {
 				filePart = request.getPart("image"); // Get the file part
 			} catch (ServletException e) {
 				// Handle cases where the request might not be multipart correctly
-				System.err.println("VehiclesController: Error getting file part - " + e.getMessage());
+				LOG.error("Error getting file part - {}", e.getMessage());
 				response.sendRedirect(request.getContextPath() + "/vehicles?error="
 						+ java.net.URLEncoder.encode("Error processing form data.", "UTF-8"));
 				return;
@@ -164,7 +166,7 @@ public class VehiclesController extends HttpServlet {
 
 			// --- Process Uploaded File ---
 			String imagePath = null; // This will store the RELATIVE path for the database
-			String uniqueFileName = null; // Holds the generated unique filename
+			StoredImage storedImage = null;
 
 			if (filePart != null && filePart.getSize() > 0) {
 				String contentType = filePart.getContentType();
@@ -174,45 +176,14 @@ public class VehiclesController extends HttpServlet {
 					return;
 				}
 
-				String originalFileName = Paths.get(filePart.getSubmittedFileName()).getFileName().toString();
-				// Sanitize filename to remove potentially harmful characters
-				originalFileName = originalFileName.replaceAll("[^a-zA-Z0-9.\\-_]", "_");
-
-				// Generate unique filename component ONCE
-				uniqueFileName = System.currentTimeMillis() + "_" + originalFileName;
-
-				// Build the RELATIVE path for the database (use forward slashes for web paths)
-				imagePath = UPLOAD_DIR.replace(File.separator, "/") + "/" + uniqueFileName; // Example:
-																							// "Uploads/vehicles/1716000000000_mycar.jpg"
-
-				// Get the ABSOLUTE directory path for saving on the server's filesystem
-				String uploadDirPath = getServletContext().getRealPath("") + File.separator + UPLOAD_DIR;
-				File uploadDir = new File(uploadDirPath);
-
-				// Create the directories if they don't exist
-				if (!uploadDir.exists()) {
-					boolean created = uploadDir.mkdirs(); // Create parent directories if needed
-					if (!created) {
-						System.err.println("VehiclesController: Failed to create upload directory: " + uploadDirPath);
-						response.sendRedirect(request.getContextPath() + "/vehicles?error="
-								+ java.net.URLEncoder.encode("Error creating storage directory on server.", "UTF-8"));
-						return; // Stop if directory cannot be created
-					}
-				}
-
-				// Build the ABSOLUTE file path for saving
-				Path destinationFilePath = Paths.get(uploadDirPath, uniqueFileName);
-
-				try {
-					// Write the file to the destination using the absolute path
-					Files.copy(filePart.getInputStream(), destinationFilePath, StandardCopyOption.REPLACE_EXISTING);
-					System.out.println("VehiclesController: File saved successfully to " + destinationFilePath);
+				// Stored under a content hash; resized copies are generated in the background
+				try (InputStream content = filePart.getInputStream()) {
+					storedImage = ImageVariantService.getInstance().store(content, filePart.getSubmittedFileName(),
+							UPLOAD_DIR.replace(File.separator, "/"));
+					imagePath = storedImage.getPath();
+					LOG.debug("Image stored as {} (new file: {})", imagePath, storedImage.isCreated());
 				} catch (IOException e) {
-					System.err.println("VehiclesController: Error writing uploaded file to " + destinationFilePath
-							+ " - " + e.getMessage());
-					e.printStackTrace();
-					// Don't save the path to DB if file write failed
-					imagePath = null;
+					LOG.error("Error storing uploaded image - {}", e.getMessage(), e);
 					response.sendRedirect(request.getContextPath() + "/vehicles?error="
 							+ java.net.URLEncoder.encode("Error saving uploaded file: " + e.getMessage(), "UTF-8"));
 					return; // Stop processing if file save fails
@@ -263,31 +234,22 @@ public class VehiclesController extends HttpServlet {
 
 			boolean success = vehicleService.addVehicle(vehicle);
 			if (success) {
-				System.out.println("VehiclesController: Vehicle added successfully. Redirecting...");
+				LOG.debug("Vehicle added successfully. Redirecting...");
 				response.sendRedirect(request.getContextPath() + "/vehicles?success=Vehicle+added+successfully");
 			} else {
 				String errorMessage = vehicleService.getLastErrorMessage() != null
 						? vehicleService.getLastErrorMessage()
 						: "Failed to add vehicle to database.";
-				System.err.println("VehiclesController: Failed to add vehicle - " + errorMessage);
-				// If saving failed, try to delete the orphaned uploaded file (best effort)
-				if (imagePath != null && uniqueFileName != null) {
-					try {
-						String uploadDirPath = getServletContext().getRealPath("") + File.separator + UPLOAD_DIR;
-						Path orphanedFilePath = Paths.get(uploadDirPath, uniqueFileName);
-						Files.deleteIfExists(orphanedFilePath);
-						System.out.println("VehiclesController: Cleaned up orphaned file: " + orphanedFilePath);
-					} catch (IOException e) {
-						System.err.println("VehiclesController: Error deleting orphaned file - " + e.getMessage());
-					}
-				}
+				LOG.warn("Failed to add vehicle - {}", errorMessage);
+				// If saving failed, delete the uploaded file unless another record already used it
+				ImageVariantService.getInstance().discard(storedImage);
 				response.sendRedirect(request.getContextPath() + "/vehicles?error="
 						+ java.net.URLEncoder.encode(errorMessage, "UTF-8"));
 			}
 			// --- End Create VehicleModel and Save ---
 
 		} else {
-			System.out.println("VehiclesController: Unhandled POST path - " + path);
+			LOG.debug("Unhandled POST path - {}", path);
 			response.sendRedirect(request.getContextPath() + "/vehicles?error="
 					+ java.net.URLEncoder.encode("Invalid Action Requested", "UTF-8"));
 		}
@@ -1,14 +1,22 @@
 package com.rescuenet.filter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
+import java.sql.SQLException;
+import java.util.Locale;
 import java.util.Set;
 
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.metrics.MetricsRegistry;
+import com.rescuenet.model.SessionPrincipal;
 import com.rescuenet.model.UserModel;
+import com.rescuenet.service.AssetRegistry;
+import com.rescuenet.service.UserProfileCache;
 import com.rescuenet.util.CookiesUtil;
 import com.rescuenet.util.SessionUtil;
 
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -16,6 +24,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletMapping;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
@@ -27,11 +36,14 @@ import jakarta.servlet.http.HttpSession;
  * AuthenticationFilter secures the RescueNet application by controlling access
  * to resources. It bypasses static resources, enforces login for protected
  * pages, restricts admin areas to admin users, and redirects users
- * appropriately based on authentication and authorization rules.
+ * appropriately based on authentication and authorization rules. It also times
+ * every dynamic request, by controller and by path, for /admin/metrics.
  */
 @WebFilter(asyncSupported = true, urlPatterns = { "/*" })
 public class AuthenticationFilter implements Filter {
 
+	private static final Logger LOG = LogManager.getLogger(AuthenticationFilter.class);
+
 	// --- Constants for Paths (Use relative paths from context root) ---
 	private static final String LOGIN_PATH = "/login";
 	private static final String REGISTER_PATH = "/register";
@@ -41,12 +53,19 @@ public class AuthenticationFilter implements Filter {
 	// private static final String PUBLIC_PAGE_PATH = "/public-info";
 
 	// --- Constants for Static Resources ---
-	private static final Set<String> STATIC_EXTENSIONS = new HashSet<>(Arrays.asList(".css", ".js", ".png", ".jpg",
-			".jpeg", ".gif", ".svg", ".ico", ".woff", ".woff2", ".ttf", ".eot"));
-	private static final Set<String> STATIC_PREFIXES = new HashSet<>(
-			Arrays.asList("/resources/", "/Uploads/", "/css/", "/js/"));
+	// Fingerprinted assets are by far the most requested, so they are checked first
+	private static final String ASSETS_PREFIX = AssetRegistry.URL_PREFIX;
+	private static final String[] STATIC_PREFIXES = { "/resources/", "/Uploads/", "/css/", "/js/" };
+	private static final Set<String> STATIC_EXTENSIONS = Set.of(".css", ".js", ".png", ".jpg", ".jpeg", ".gif",
+			".svg", ".ico", ".woff", ".woff2", ".ttf", ".eot");
 	// --- End Constants ---
 
+	// --- Constants for Metrics ---
+	private static final String CONTROLLER_METRIC = "rescuenet_controller_duration_seconds";
+	private static final String CONTROLLER_HELP = "Time to handle a request, by controller.";
+	private static final String PATH_METRIC = "rescuenet_request_duration_seconds";
+	private static final String PATH_HELP = "Time to handle a request, by method and servlet path.";
+
 	/**
 	 * Initializes the AuthenticationFilter.
 	 *
@@ -55,7 +74,7 @@ public class AuthenticationFilter implements Filter {
 	 */
 	@Override
 	public void init(FilterConfig filterConfig) throws ServletException {
-		System.out.println("AuthenticationFilter Initialized.");
+		LOG.info("AuthenticationFilter Initialized.");
 	}
 
 	/**
@@ -81,34 +100,30 @@ public class AuthenticationFilter implements Filter {
 		String pathWithinApp = requestURI.substring(contextPath.length());
 
 		// --- Step 1: Bypass filter entirely for static resources ---
-		boolean isStaticResource = false;
-		String lowerCasePath = pathWithinApp.toLowerCase();
-
-		for (String prefix : STATIC_PREFIXES) {
-			if (pathWithinApp.startsWith(prefix)) {
-				isStaticResource = true;
-				break;
-			}
-		}
-		if (!isStaticResource) {
-			for (String ext : STATIC_EXTENSIONS) {
-				if (lowerCasePath.endsWith(ext)) {
-					isStaticResource = true;
-					break;
-				}
-			}
-		}
-
-		if (isStaticResource) {
+		if (isStaticResource(pathWithinApp)) {
 			chain.doFilter(request, response);
 			return;
 		}
 		// --- End Static Resource Bypass ---
 
 		// --- Step 2: Process Dynamic Requests (Non-Static) ---
-		System.out.println("AuthenticationFilter: Processing dynamic request for path: " + pathWithinApp);
+		LOG.debug("Processing dynamic request for path: {}", pathWithinApp);
+		long start = System.nanoTime();
+		try {
+			authorize(req, res, chain, pathWithinApp);
+		} finally {
+			recordLatency(req, start);
+		}
+	}
 
-		UserModel loggedInUser = SessionUtil.getUser(req);
+	/**
+	 * Applies the authentication and authorization rules to a dynamic request.
+	 */
+	private void authorize(HttpServletRequest req, HttpServletResponse res, FilterChain chain, String pathWithinApp)
+			throws IOException, ServletException {
+		String contextPath = req.getContextPath();
+
+		SessionPrincipal loggedInUser = refreshIfStale(req, SessionUtil.getUser(req));
 		boolean isLoggedIn = (loggedInUser != null);
 
 		String role = null;
@@ -118,16 +133,15 @@ public class AuthenticationFilter implements Filter {
 			role = CookiesUtil.getCookie(req, "role") != null ? CookiesUtil.getCookie(req, "role").getValue() : null;
 		}
 
-		System.out.println(
-				"AuthenticationFilter: isLoggedIn=" + isLoggedIn + ", Role=" + role + ", Path=" + pathWithinApp);
+		LOG.debug("isLoggedIn={}, Role={}, Path={}", isLoggedIn, role, pathWithinApp);
 
 		// --- Step 3: Apply Authentication and Authorization Rules ---
 		if (!isLoggedIn) {
 			if (LOGIN_PATH.equals(pathWithinApp) || REGISTER_PATH.equals(pathWithinApp)) {
-				System.out.println("AuthenticationFilter: Allowing public access for logged-out user.");
-				chain.doFilter(request, response);
+				LOG.debug("Allowing public access for logged-out user.");
+				chain.doFilter(req, res);
 			} else {
-				System.out.println("AuthenticationFilter: Access denied (Not Logged In). Redirecting to " + LOGIN_PATH);
+				LOG.debug("Access denied (Not Logged In). Redirecting to {}", LOGIN_PATH);
 				res.sendRedirect(contextPath + LOGIN_PATH);
 			}
 		} else {
@@ -136,30 +150,125 @@ public class AuthenticationFilter implements Filter {
 				if ("admin".equals(role)) {
 					redirectTarget = ADMIN_ROOT_PATH;
 				}
-				System.out.println("AuthenticationFilter: Logged-in user (" + role + ") accessing " + pathWithinApp
-						+ ". Redirecting to " + redirectTarget);
+				LOG.debug("Logged-in user ({}) accessing {}. Redirecting to {}", role, pathWithinApp, redirectTarget);
 				res.sendRedirect(contextPath + redirectTarget);
 				return;
 			}
 
 			if (pathWithinApp.startsWith(ADMIN_ROOT_PATH) && !"admin".equals(role)) {
-				System.out.println("AuthenticationFilter: Access Denied (User Role '" + role
-						+ "' cannot access Admin Path '" + pathWithinApp + "'). Redirecting to " + HOME_PATH);
+				LOG.debug("Access Denied (User Role '{}' cannot access Admin Path '{}'). Redirecting to {}", role,
+						pathWithinApp, HOME_PATH);
 				res.sendRedirect(contextPath + HOME_PATH);
 				return;
 			}
 
-			System.out.println("AuthenticationFilter: Allowing access for logged-in user (" + role + ").");
-			chain.doFilter(request, response);
+			LOG.debug("Allowing access for logged-in user ({}).", role);
+			chain.doFilter(req, res);
 		}
 		// --- End Authentication and Authorization Rules ---
 	}
 
+	/**
+	 * Rebuilds a session principal whose user's profile has changed since it
+	 * was built (a username change, for example), so every session of that
+	 * user sees the change on its next request.
+	 */
+	private static SessionPrincipal refreshIfStale(HttpServletRequest req, SessionPrincipal principal) {
+		if (principal == null) {
+			return null;
+		}
+		UserProfileCache profiles = UserProfileCache.getInstance();
+		long version = profiles.getVersion(principal.getUserId());
+		if (principal.getVersion() == version) {
+			return principal;
+		}
+		try {
+			UserModel profile = profiles.getProfile(principal.getUserId());
+			if (profile == null) {
+				return principal;
+			}
+			SessionUtil.setUser(req, profile);
+			LOG.debug("Refreshed the session principal of user ID {}.", principal.getUserId());
+			return SessionUtil.getUser(req);
+		} catch (SQLException e) {
+			LOG.warn("Could not refresh the session principal of user ID {} - {}", principal.getUserId(),
+					e.getMessage());
+			return principal;
+		}
+	}
+
+	/**
+	 * Records a request's latency. Controllers that went asynchronous (see
+	 * AsyncHttpServlet) are still running, so their time is recorded when the
+	 * request completes.
+	 */
+	private static void recordLatency(HttpServletRequest req, long start) {
+		HttpServletMapping mapping = req.getHttpServletMapping();
+		String servletName = mapping.getServletName();
+		String controller = servletName.substring(servletName.lastIndexOf('.') + 1);
+		String path = mapping.getPattern().isEmpty() ? "/" : mapping.getPattern();
+		String method = req.getMethod();
+		if (req.isAsyncStarted()) {
+			try {
+				req.getAsyncContext().addListener(new AsyncListener() {
+					@Override
+					public void onComplete(AsyncEvent event) {
+						record(controller, method, path, start);
+					}
+
+					@Override
+					public void onTimeout(AsyncEvent event) {
+					}
+
+					@Override
+					public void onError(AsyncEvent event) {
+					}
+
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+					}
+				});
+				return;
+			} catch (IllegalStateException e) {
+				// Already completed; record it now
+			}
+		}
+		record(controller, method, path, start);
+	}
+
+	private static void record(String controller, String method, String path, long start) {
+		long elapsed = System.nanoTime() - start;
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		registry.histogram(CONTROLLER_METRIC, CONTROLLER_HELP, "controller", controller).record(elapsed);
+		registry.histogram(PATH_METRIC, PATH_HELP, "method", method, "path", path).record(elapsed);
+	}
+
+	/**
+	 * Checks whether a path is a static resource: a fingerprinted asset, a path
+	 * under one of the static folders, or a file with a static extension.
+	 *
+	 * @param pathWithinApp the request path without the context path
+	 * @return true if the request needs no authentication
+	 */
+	private static boolean isStaticResource(String pathWithinApp) {
+		if (pathWithinApp.startsWith(ASSETS_PREFIX)) {
+			return true;
+		}
+		for (String prefix : STATIC_PREFIXES) {
+			if (pathWithinApp.startsWith(prefix)) {
+				return true;
+			}
+		}
+		int dot = pathWithinApp.lastIndexOf('.');
+		return dot > pathWithinApp.lastIndexOf('/')
+				&& STATIC_EXTENSIONS.contains(pathWithinApp.substring(dot).toLowerCase(Locale.ROOT));
+	}
+
 	/**
 	 * Cleans up resources when the filter is destroyed.
 	 */
 	@Override
 	public void destroy() {
-		System.out.println("AuthenticationFilter Destroyed.");
+		LOG.info("AuthenticationFilter Destroyed.");
 	}
 }
\ No newline at end of file
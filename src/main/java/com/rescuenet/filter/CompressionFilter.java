@@ -0,0 +1,640 @@
+package com.rescuenet.filter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.metrics.Histogram;
+import com.rescuenet.metrics.MetricsRegistry;
+import com.rescuenet.service.AssetRegistry;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * CompressionFilter gzip-compresses HTML, JSON and other text responses for
+ * clients that accept it. The body is compressed as it is written, chunk by
+ * chunk, so a large page starts reaching the client before it has finished
+ * rendering and is never held in memory whole.
+ *
+ * Whether to compress is decided on the first write, once the controller or
+ * JSP has set the content type: responses that are not text, that already
+ * have a Content-Encoding, or that declare a length under MIN_COMPRESS_BYTES
+ * go out unchanged, as do responses that switch to non-blocking I/O before
+ * writing. Fingerprinted assets and uploads are skipped outright;
+ * AssetServlet serves its own precompressed copies. Each Deflater holds a few
+ * hundred kilobytes of native memory, so they are pooled and reused rather
+ * than created per response. The level is set by the compressionLevel
+ * context parameter.
+ */
+@WebFilter(asyncSupported = true, urlPatterns = { "/*" })
+public class CompressionFilter implements Filter {
+
+	private static final Logger LOG = LogManager.getLogger(CompressionFilter.class);
+
+	// --- Configuration ---
+	private static final int DEFAULT_LEVEL = 6;
+	private static final int MIN_COMPRESS_BYTES = 1_024;
+	private static final int BUFFER_SIZE = 8 * 1_024;
+	private static final int POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+	private static final String[] SKIPPED_PREFIXES = { AssetRegistry.URL_PREFIX, "/Uploads/" };
+	private static final Set<String> COMPRESSIBLE_TYPES = Set.of("text/html", "text/plain", "text/css",
+			"text/csv", "text/javascript", "text/xml", "application/json", "application/javascript",
+			"application/xml", "image/svg+xml");
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+	// --- Metrics ---
+	private static final LongAdder compressedResponses = new LongAdder();
+	private static final LongAdder uncompressedBytes = new LongAdder();
+	private static final LongAdder compressedBytes = new LongAdder();
+	private static final LongAdder compressionNanos = new LongAdder();
+	private static final Histogram compressionTime = MetricsRegistry.getInstance().histogram(
+			"rescuenet_compression_seconds", "Time spent compressing a response body, per response.");
+
+	private final BlockingQueue<Compressor> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+	private int level = DEFAULT_LEVEL;
+
+	/**
+	 * Reads the compression level from the compressionLevel context parameter.
+	 *
+	 * @param filterConfig the FilterConfig object
+	 * @throws ServletException if an error occurs during initialization
+	 */
+	@Override
+	public void init(FilterConfig filterConfig) throws ServletException {
+		String value = filterConfig.getServletContext().getInitParameter("compressionLevel");
+		if (value != null && !value.isBlank()) {
+			try {
+				int configured = Integer.parseInt(value.trim());
+				level = Math.max(Deflater.BEST_SPEED, Math.min(Deflater.BEST_COMPRESSION, configured));
+			} catch (NumberFormatException e) {
+				LOG.warn("Ignoring context parameter compressionLevel={} - not a number", value);
+			}
+		}
+		LOG.info("CompressionFilter Initialized (level {}).", level);
+	}
+
+	/**
+	 * Wraps dynamic responses so that their bodies can be compressed.
+	 *
+	 * @param request  the ServletRequest object
+	 * @param response the ServletResponse object
+	 * @param chain    the FilterChain for invoking the next filter or resource
+	 * @throws IOException      if an I/O error occurs
+	 * @throws ServletException if a servlet-specific error occurs
+	 */
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+			throws IOException, ServletException {
+		HttpServletRequest req = (HttpServletRequest) request;
+		if ("HEAD".equals(req.getMethod()) || isSkipped(req)) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		CompressingResponse wrapped = new CompressingResponse((HttpServletResponse) response, acceptsGzip(req));
+		boolean async = false;
+		try {
+			chain.doFilter(request, wrapped);
+			async = req.isAsyncStarted();
+		} finally {
+			if (async) {
+				finishOnComplete(req, wrapped);
+			} else {
+				wrapped.finish();
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the client lists gzip in Accept-Encoding without q=0.
+	 *
+	 * @param request the HttpServletRequest object
+	 * @return true if a gzip-encoded response may be sent
+	 */
+	public static boolean acceptsGzip(HttpServletRequest request) {
+		String acceptEncoding = request.getHeader("Accept-Encoding");
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+				return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Releases the pooled compressors.
+	 */
+	@Override
+	public void destroy() {
+		Compressor compressor;
+		while ((compressor = pool.poll()) != null) {
+			compressor.deflater.end();
+		}
+	}
+
+	private static boolean isSkipped(HttpServletRequest req) {
+		String path = req.getRequestURI().substring(req.getContextPath().length());
+		for (String prefix : SKIPPED_PREFIXES) {
+			if (path.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Controllers that went asynchronous (see AsyncHttpServlet) are still
+	 * writing, so the gzip trailer is written when the request completes.
+	 */
+	private static void finishOnComplete(HttpServletRequest req, CompressingResponse wrapped) throws IOException {
+		try {
+			req.getAsyncContext().addListener(new AsyncListener() {
+				@Override
+				public void onComplete(AsyncEvent event) throws IOException {
+					wrapped.finish();
+				}
+
+				@Override
+				public void onTimeout(AsyncEvent event) {
+				}
+
+				@Override
+				public void onError(AsyncEvent event) {
+				}
+
+				@Override
+				public void onStartAsync(AsyncEvent event) {
+				}
+			});
+		} catch (IllegalStateException e) {
+			// The request already completed
+			wrapped.finish();
+		}
+	}
+
+	private Compressor borrow() {
+		Compressor compressor = pool.poll();
+		return compressor != null ? compressor : new Compressor(level);
+	}
+
+	private void release(Compressor compressor) {
+		compressor.deflater.reset();
+		compressor.crc.reset();
+		if (!pool.offer(compressor)) {
+			compressor.deflater.end();
+		}
+	}
+
+	// --- Metrics Getters ---
+
+	/**
+	 * Gets the number of responses sent gzip-compressed.
+	 *
+	 * @return the compressed response count
+	 */
+	public static long getCompressedCount() {
+		return compressedResponses.sum();
+	}
+
+	/**
+	 * Gets the number of body bytes written to compressed responses, before
+	 * compression.
+	 *
+	 * @return the uncompressed byte count
+	 */
+	public static long getUncompressedBytes() {
+		return uncompressedBytes.sum();
+	}
+
+	/**
+	 * Gets the number of bytes sent for compressed responses, after
+	 * compression.
+	 *
+	 * @return the compressed byte count
+	 */
+	public static long getCompressedBytes() {
+		return compressedBytes.sum();
+	}
+
+	/**
+	 * Gets the time spent compressing, in nanoseconds. Compression never
+	 * waits on the network, so this is CPU time.
+	 *
+	 * @return the compression time
+	 */
+	public static long getCompressionNanos() {
+		return compressionNanos.sum();
+	}
+
+	/**
+	 * A Deflater with the checksum and output buffer used alongside it.
+	 */
+	private static final class Compressor {
+		private final Deflater deflater;
+		private final CRC32 crc = new CRC32();
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+
+		Compressor(int level) {
+			deflater = new Deflater(level, true); // Raw deflate: the gzip header and trailer are written here
+		}
+	}
+
+	/**
+	 * The response wrapper. Its stream (and the writer over it) passes bytes
+	 * straight through until it knows the response is to be compressed, then
+	 * sends them through a pooled Deflater.
+	 */
+	private final class CompressingResponse extends HttpServletResponseWrapper {
+		// The response this one wraps. Headers are set on it directly: while
+		// a JSP include runs, the container slots an include wrapper, which
+		// ignores headers, in between
+		private final HttpServletResponse original;
+		private final boolean gzipAccepted;
+		private ServletOutputStream target;
+		private CompressingStream stream;
+		private PrintWriter writer;
+		private Compressor compressor;
+		private boolean decided;
+		private boolean finished;
+		private boolean closing;
+		private long declaredLength = -1;
+		private long bytesIn;
+		private long bytesOut;
+		private long nanos;
+
+		CompressingResponse(HttpServletResponse response, boolean gzipAccepted) {
+			super(response);
+			this.original = response;
+			this.gzipAccepted = gzipAccepted;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (writer != null) {
+				throw new IllegalStateException("getWriter() has already been called for this response");
+			}
+			if (stream == null) {
+				stream = new CompressingStream();
+			}
+			return stream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (writer == null) {
+				if (stream != null) {
+					throw new IllegalStateException("getOutputStream() has already been called for this response");
+				}
+				// Fix the encoding now, as the container does when handing out its own writer
+				String encoding = getCharacterEncoding();
+				setCharacterEncoding(encoding);
+				stream = new CompressingStream();
+				writer = new PrintWriter(new OutputStreamWriter(stream, Charset.forName(encoding)));
+			}
+			return writer;
+		}
+
+		// --- Content Length ---
+
+		@Override
+		public void setContentLength(int len) {
+			setContentLengthLong(len);
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (!decided) {
+				declaredLength = len;
+			} else if (compressor == null) {
+				super.setContentLengthLong(len);
+			}
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+			if ("Content-Length".equalsIgnoreCase(name)) {
+				setContentLengthLong(value != null ? Long.parseLong(value.trim()) : -1);
+			} else {
+				super.setHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+			if ("Content-Length".equalsIgnoreCase(name)) {
+				setHeader(name, value);
+			} else {
+				super.addHeader(name, value);
+			}
+		}
+
+		@Override
+		public void setIntHeader(String name, int value) {
+			if ("Content-Length".equalsIgnoreCase(name)) {
+				setContentLengthLong(value);
+			} else {
+				super.setIntHeader(name, value);
+			}
+		}
+
+		// --- Buffer and Error Handling ---
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (writer != null) {
+				writer.flush();
+			} else if (stream != null) {
+				stream.flush();
+			} else {
+				super.flushBuffer();
+			}
+		}
+
+		@Override
+		public void resetBuffer() {
+			super.resetBuffer();
+			restart();
+			original.setHeader("Content-Encoding", null);
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			restart();
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			super.sendError(sc, msg);
+			abandon();
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			super.sendError(sc);
+			abandon();
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			super.sendRedirect(location);
+			abandon();
+		}
+
+		/**
+		 * Forgets what was written so far, after the buffer was discarded.
+		 */
+		private void restart() {
+			releaseCompressor();
+			decided = false;
+			declaredLength = -1;
+			bytesIn = 0;
+			bytesOut = 0;
+			nanos = 0;
+		}
+
+		/**
+		 * Stops writing: the container has taken over the response.
+		 */
+		private void abandon() {
+			releaseCompressor();
+			decided = true;
+			finished = true;
+		}
+
+		// --- Compression ---
+
+		/**
+		 * Decides, on the first write, whether the response is compressed.
+		 */
+		private void decide() throws IOException {
+			decided = true;
+			if (isCompressible() && gzipAccepted) {
+				compressor = borrow();
+				original.setHeader("Content-Encoding", "gzip");
+				target = original.getOutputStream();
+				target.write(GZIP_HEADER);
+				bytesOut = GZIP_HEADER.length;
+			} else {
+				passThrough();
+			}
+		}
+
+		/**
+		 * Sends the body out unchanged, with the length the application
+		 * declared.
+		 */
+		private void passThrough() throws IOException {
+			decided = true;
+			if (declaredLength >= 0) {
+				original.setContentLengthLong(declaredLength);
+			}
+			target = original.getOutputStream();
+		}
+
+		private boolean isCompressible() {
+			String contentType = original.getContentType();
+			if (contentType == null) {
+				return false;
+			}
+			int semicolon = contentType.indexOf(';');
+			String mediaType = (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType).trim()
+					.toLowerCase(Locale.ROOT);
+			if (!COMPRESSIBLE_TYPES.contains(mediaType)) {
+				return false;
+			}
+			// Vary whenever the encoding depends on the request, even if this one is not compressed
+			original.addHeader("Vary", "Accept-Encoding");
+			int status = original.getStatus();
+			return !original.isCommitted() && !original.containsHeader("Content-Encoding") && status != SC_NO_CONTENT
+					&& status != SC_NOT_MODIFIED && status != SC_PARTIAL_CONTENT
+					&& (declaredLength < 0 || declaredLength >= MIN_COMPRESS_BYTES);
+		}
+
+		private void write(byte[] b, int off, int len) throws IOException {
+			if (finished) {
+				return;
+			}
+			if (!decided) {
+				decide();
+			}
+			if (compressor == null) {
+				target.write(b, off, len);
+				return;
+			}
+			compressor.crc.update(b, off, len);
+			compressor.deflater.setInput(b, off, len);
+			bytesIn += len;
+			while (!compressor.deflater.needsInput()) {
+				drain(Deflater.NO_FLUSH);
+			}
+		}
+
+		private void flush() throws IOException {
+			if (finished || closing) {
+				return;
+			}
+			if (!decided) {
+				decide();
+			}
+			if (compressor != null) {
+				// Sync-flush so that everything written so far can be decompressed by the client
+				while (drain(Deflater.SYNC_FLUSH) == compressor.buffer.length) {
+					// The buffer filled up: there is more output to drain
+				}
+			}
+			target.flush();
+		}
+
+		/**
+		 * Moves compressed output from the Deflater to the client.
+		 */
+		private int drain(int flushMode) throws IOException {
+			long start = System.nanoTime();
+			int count = compressor.deflater.deflate(compressor.buffer, 0, compressor.buffer.length, flushMode);
+			nanos += System.nanoTime() - start;
+			if (count > 0) {
+				target.write(compressor.buffer, 0, count);
+				bytesOut += count;
+			}
+			return count;
+		}
+
+		/**
+		 * Writes out the rest of the compressed body and the gzip trailer, and
+		 * returns the Deflater to the pool. Called once the response is
+		 * complete; later calls do nothing.
+		 */
+		private void finish() throws IOException {
+			if (finished) {
+				return;
+			}
+			if (writer != null) {
+				closing = true; // Push out what the writer holds without a sync flush
+				writer.flush();
+			}
+			finished = true;
+			if (!decided && declaredLength >= 0) {
+				original.setContentLengthLong(declaredLength);
+			}
+			if (compressor == null) {
+				return;
+			}
+			try {
+				compressor.deflater.finish();
+				while (!compressor.deflater.finished()) {
+					drain(Deflater.NO_FLUSH);
+				}
+				writeTrailer((int) compressor.crc.getValue(), (int) bytesIn);
+			} finally {
+				releaseCompressor();
+				compressedResponses.increment();
+				uncompressedBytes.add(bytesIn);
+				compressedBytes.add(bytesOut);
+				compressionNanos.add(nanos);
+				compressionTime.record(nanos);
+			}
+		}
+
+		private void writeTrailer(int crc, int size) throws IOException {
+			byte[] trailer = { (byte) crc, (byte) (crc >> 8), (byte) (crc >> 16), (byte) (crc >> 24), (byte) size,
+					(byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24) };
+			target.write(trailer);
+			bytesOut += trailer.length;
+		}
+
+		private void releaseCompressor() {
+			if (compressor != null) {
+				release(compressor);
+				compressor = null;
+			}
+		}
+
+		/**
+		 * The stream handed to the application.
+		 */
+		private final class CompressingStream extends ServletOutputStream {
+			private final byte[] single = new byte[1];
+
+			@Override
+			public void write(int b) throws IOException {
+				single[0] = (byte) b;
+				CompressingResponse.this.write(single, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				CompressingResponse.this.write(b, off, len);
+			}
+
+			@Override
+			public void flush() throws IOException {
+				CompressingResponse.this.flush();
+			}
+
+			@Override
+			public void close() throws IOException {
+				boolean wasFinished = finished;
+				CompressingResponse.this.finish();
+				if (!wasFinished) {
+					(target != null ? target : original.getOutputStream()).close();
+				}
+			}
+
+			@Override
+			public boolean isReady() {
+				return target == null || target.isReady();
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				// The Deflater is driven by blocking writes, so a response switching to
+				// non-blocking I/O before its first write goes out uncompressed
+				if (!decided) {
+					try {
+						passThrough();
+					} catch (IOException e) {
+						throw new IllegalStateException("Could not open the response stream.", e);
+					}
+				}
+				if (compressor != null) {
+					throw new IllegalStateException("Compressed responses are written with blocking I/O.");
+				}
+				if (target == null) {
+					throw new IllegalStateException("The response has already been handed to the container.");
+				}
+				target.setWriteListener(writeListener);
+			}
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.rescuenet.filter;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import com.rescuenet.config.UnitOfWork;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * UnitOfWorkFilter opens a UnitOfWork for every request and ends it once the
+ * request has been handled, so all service calls made for one request share a
+ * single pooled connection that is always returned to the pool. A transaction
+ * opened on the unit is committed if the request completes normally and
+ * rolled back if it fails.
+ */
+@WebFilter(asyncSupported = true, urlPatterns = { "/*" })
+public class UnitOfWorkFilter implements Filter {
+
+	/**
+	 * Wraps the request in a unit of work.
+	 *
+	 * @param request  the ServletRequest object
+	 * @param response the ServletResponse object
+	 * @param chain    the FilterChain for invoking the next filter or resource
+	 * @throws IOException      if an I/O error occurs
+	 * @throws ServletException if a servlet-specific error occurs
+	 */
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+			throws IOException, ServletException {
+		UnitOfWork unit = UnitOfWork.begin();
+		try {
+			chain.doFilter(request, response);
+			if (unit.isInTransaction()) {
+				unit.commit();
+			}
+		} catch (SQLException e) {
+			throw new ServletException("Failed to commit request transaction.", e);
+		} finally {
+			unit.end(); // Rolls back anything left open and releases the connection
+		}
+	}
+}
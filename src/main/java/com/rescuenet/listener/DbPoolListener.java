@@ -0,0 +1,109 @@
+package com.rescuenet.listener;
+
+import java.nio.file.Paths;
+
+import com.rescuenet.config.DbConfig;
+import com.rescuenet.config.QueryGroup;
+import com.rescuenet.config.RequestExecutor;
+import com.rescuenet.logging.LogLevel;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.metrics.ApplicationMetrics;
+import com.rescuenet.metrics.MetricsRegistry;
+import com.rescuenet.service.AuthRateLimiter;
+import com.rescuenet.service.CatalogFragmentCache;
+import com.rescuenet.service.CredentialVerificationService;
+import com.rescuenet.service.DashboardMetrics;
+import com.rescuenet.service.ImageVariantService;
+import com.rescuenet.service.UserProfileCache;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * DbPoolListener starts the database connection pool when the RescueNet
+ * application is deployed and closes it when the application is stopped, so
+ * connections are opened once instead of on every query. It also applies the
+ * "logLevel" context parameter (unless -Drescuenet.log.level is set), starts
+ * the executor controllers run requests on, applies the login rate limits,
+ * registers the application metrics, and flushes the log writer on shutdown.
+ */
+@WebListener
+public class DbPoolListener implements ServletContextListener {
+
+	private static final Logger LOG = LogManager.getLogger(DbPoolListener.class);
+
+	/**
+	 * Applies the configured log level, starts the connection pool and the
+	 * request executor, points the image service at the upload directories,
+	 * sets the login rate limits, and registers the metrics reported at
+	 * /admin/metrics.
+	 *
+	 * @param sce the ServletContextEvent object
+	 */
+	@Override
+	public void contextInitialized(ServletContextEvent sce) {
+		String logLevel = sce.getServletContext().getInitParameter("logLevel");
+		if (logLevel != null && System.getProperty("rescuenet.log.level") == null) {
+			LogManager.setLevel(LogLevel.parse(logLevel, LogManager.getLevel()));
+		}
+		try {
+			DbConfig.initPool();
+		} catch (ClassNotFoundException e) {
+			// Services will report the error when they first ask for a connection.
+			LOG.error("JDBC driver not found - {}", e.getMessage());
+		}
+		ServletContext context = sce.getServletContext();
+		RequestExecutor.start(intParam(context, "requestThreads", RequestExecutor.DEFAULT_PLATFORM_THREADS),
+				intParam(context, "maxConcurrentRequests", RequestExecutor.DEFAULT_MAX_CONCURRENT),
+				intParam(context, "requestTimeoutMs", (int) RequestExecutor.DEFAULT_TIMEOUT_MILLIS),
+				!"false".equalsIgnoreCase(context.getInitParameter("virtualThreads")));
+		String webRoot = context.getRealPath("");
+		ImageVariantService.getInstance().start(webRoot != null ? Paths.get(webRoot) : null);
+		AuthRateLimiter.getInstance().configure(
+				intParam(context, "authAttemptsPerMinutePerAddress", AuthRateLimiter.DEFAULT_ADDRESS_PER_MINUTE),
+				intParam(context, "authBurstPerAddress", AuthRateLimiter.DEFAULT_ADDRESS_BURST),
+				intParam(context, "authAttemptsPerMinutePerUsername", AuthRateLimiter.DEFAULT_USERNAME_PER_MINUTE),
+				intParam(context, "authBurstPerUsername", AuthRateLimiter.DEFAULT_USERNAME_BURST));
+		ApplicationMetrics.register(MetricsRegistry.getInstance());
+	}
+
+	/**
+	 * Stops background work (request and query executors, dashboard
+	 * reconciliation, credential and image pools), closes the connection pool,
+	 * then writes out any queued log lines.
+	 *
+	 * @param sce the ServletContextEvent object
+	 */
+	@Override
+	public void contextDestroyed(ServletContextEvent sce) {
+		RequestExecutor.shutdown();
+		QueryGroup.shutdown();
+		DashboardMetrics.getInstance().shutdown();
+		CredentialVerificationService.getInstance().shutdown();
+		ImageVariantService.getInstance().shutdown();
+		UserProfileCache.getInstance().clear();
+		CatalogFragmentCache.getInstance().clear();
+		AuthRateLimiter.getInstance().clear();
+		DbConfig.shutdownPool();
+		LogManager.shutdown();
+	}
+
+	private static int intParam(ServletContext context, String name, int defaultValue) {
+		String value = context.getInitParameter(name);
+		if (value == null || value.isBlank()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			LOG.warn("Ignoring context parameter {}={} - not a number", name, value);
+			return defaultValue;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package com.rescuenet.logging;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * AsyncAppender writes log events from a single background thread. Request
+ * threads only place events in a lock-free ring buffer; formatting and the
+ * synchronized writes to stdout/stderr happen on the writer thread, in
+ * batches. If the buffer is full, DEBUG and INFO events are dropped (and
+ * counted) while WARN and ERROR events are written by the caller, so problems
+ * are never lost.
+ */
+final class AsyncAppender {
+
+	private static final int BUFFER_CAPACITY = 8192;
+	private static final int MAX_BATCH = 256;
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter
+			.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+	private final RingBuffer<LogEvent> buffer = new RingBuffer<>(BUFFER_CAPACITY);
+	private final PrintStream out;
+	private final PrintStream err;
+	private final Thread writer;
+	private final LongAdder dropped = new LongAdder();
+	private volatile boolean running = true;
+	private volatile boolean idle = false;
+
+	AsyncAppender(PrintStream out, PrintStream err) {
+		this.out = out;
+		this.err = err;
+		writer = new Thread(this::drainLoop, "rescuenet-log-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Queues an event for writing.
+	 *
+	 * @param event the event
+	 */
+	void append(LogEvent event) {
+		if (!running || !buffer.offer(event)) {
+			if (event.level.compareTo(LogLevel.WARN) >= 0 || !running) {
+				writeNow(event);
+			} else {
+				dropped.increment();
+			}
+			return;
+		}
+		if (idle) {
+			LockSupport.unpark(writer);
+		}
+	}
+
+	/**
+	 * Writes everything still queued and stops the writer thread.
+	 */
+	void shutdown() {
+		running = false;
+		LockSupport.unpark(writer);
+		try {
+			writer.join(TimeUnit.SECONDS.toMillis(2));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		drainBatch(Integer.MAX_VALUE); // Anything that raced past the writer's last pass
+	}
+
+	/**
+	 * Gets the number of events dropped because the buffer was full.
+	 *
+	 * @return the dropped event count
+	 */
+	long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	private void drainLoop() {
+		while (running) {
+			if (drainBatch(MAX_BATCH) == 0) {
+				idle = true;
+				if (buffer.isEmpty() && running) {
+					LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+				}
+				idle = false;
+			}
+		}
+		drainBatch(Integer.MAX_VALUE);
+	}
+
+	private int drainBatch(int max) {
+		StringBuilder outText = null;
+		StringBuilder errText = null;
+		int count = 0;
+		LogEvent event;
+		while (count < max && (event = buffer.poll()) != null) {
+			count++;
+			if (event.level.compareTo(LogLevel.WARN) >= 0) {
+				errText = format(event, errText != null ? errText : new StringBuilder());
+			} else {
+				outText = format(event, outText != null ? outText : new StringBuilder());
+			}
+		}
+		if (outText != null) {
+			out.print(outText);
+			out.flush();
+		}
+		if (errText != null) {
+			err.print(errText);
+			err.flush();
+		}
+		return count;
+	}
+
+	private void writeNow(LogEvent event) {
+		PrintStream stream = event.level.compareTo(LogLevel.WARN) >= 0 ? err : out;
+		stream.print(format(event, new StringBuilder()));
+		stream.flush();
+	}
+
+	private static StringBuilder format(LogEvent event, StringBuilder text) {
+		TIMESTAMP_FORMAT.formatTo(Instant.ofEpochMilli(event.timestamp), text);
+		text.append(' ').append(event.level.name());
+		for (int i = event.level.name().length(); i < 5; i++) {
+			text.append(' ');
+		}
+		text.append(" [").append(event.threadName).append("] ").append(event.loggerName).append(" - ");
+		MessageFormatter.appendTo(text, event.template, event.args);
+		text.append(System.lineSeparator());
+		if (event.throwable != null) {
+			StringWriter trace = new StringWriter();
+			event.throwable.printStackTrace(new PrintWriter(trace));
+			text.append(trace);
+		}
+		return text;
+	}
+}
@@ -0,0 +1,29 @@
+package com.rescuenet.logging;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * LogEvent is one captured log call. It holds the unformatted message
+ * template and its arguments; the message text is only built when the
+ * appender writes the event, off the calling thread.
+ */
+final class LogEvent {
+	final long timestamp;
+	final LogLevel level;
+	final String loggerName;
+	final String threadName;
+	final String template;
+	final Object[] args;
+	final Throwable throwable;
+
+	LogEvent(LogLevel level, String loggerName, String template, Object[] args, Throwable throwable) {
+		this.timestamp = System.currentTimeMillis();
+		this.level = level;
+		this.loggerName = loggerName;
+		this.threadName = Thread.currentThread().getName();
+		this.template = template;
+		this.args = args;
+		this.throwable = throwable;
+	}
+}
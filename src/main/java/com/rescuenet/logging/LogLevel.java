@@ -0,0 +1,31 @@
+package com.rescuenet.logging;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * LogLevel lists the severities a log message can have, from least to most
+ * severe. A logger writes a message only if its level is at or above the
+ * configured threshold.
+ */
+public enum LogLevel {
+	DEBUG, INFO, WARN, ERROR, OFF;
+
+	/**
+	 * Parses a level name, ignoring case.
+	 *
+	 * @param name         the level name, e.g. "debug"
+	 * @param defaultLevel the level to use if the name is missing or unknown
+	 * @return the parsed level
+	 */
+	public static LogLevel parse(String name, LogLevel defaultLevel) {
+		if (name == null || name.trim().isEmpty()) {
+			return defaultLevel;
+		}
+		try {
+			return valueOf(name.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return defaultLevel;
+		}
+	}
+}
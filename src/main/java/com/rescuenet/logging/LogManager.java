@@ -0,0 +1,75 @@
+package com.rescuenet.logging;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * LogManager owns the logging configuration and the shared asynchronous
+ * appender. The threshold level starts from the {@code rescuenet.log.level}
+ * system property (default INFO) and can be changed at runtime, e.g. from the
+ * {@code logLevel} context parameter in web.xml.
+ */
+public final class LogManager {
+
+	private static volatile LogLevel threshold = LogLevel.parse(System.getProperty("rescuenet.log.level"),
+			LogLevel.INFO);
+	private static final AsyncAppender APPENDER = new AsyncAppender(System.out, System.err);
+
+	private LogManager() {
+	}
+
+	/**
+	 * Gets a logger named after a class.
+	 *
+	 * @param type the class that logs
+	 * @return the logger
+	 */
+	public static Logger getLogger(Class<?> type) {
+		return new Logger(type.getSimpleName());
+	}
+
+	/**
+	 * Gets the current threshold level.
+	 *
+	 * @return the threshold
+	 */
+	public static LogLevel getLevel() {
+		return threshold;
+	}
+
+	/**
+	 * Sets the threshold level. Messages below it are discarded without being
+	 * formatted.
+	 *
+	 * @param level the new threshold
+	 */
+	public static void setLevel(LogLevel level) {
+		threshold = level;
+	}
+
+	/**
+	 * Gets the number of log events dropped because the writer fell behind.
+	 *
+	 * @return the dropped event count
+	 */
+	public static long getDroppedCount() {
+		return APPENDER.getDroppedCount();
+	}
+
+	/**
+	 * Writes all queued log events and stops the writer thread. Later events
+	 * are written directly by the calling thread. Called when the application
+	 * stops.
+	 */
+	public static void shutdown() {
+		APPENDER.shutdown();
+	}
+
+	static boolean isEnabled(LogLevel level) {
+		return level.compareTo(threshold) >= 0;
+	}
+
+	static void append(LogEvent event) {
+		APPENDER.append(event);
+	}
+}
@@ -0,0 +1,267 @@
+package com.rescuenet.logging;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * Logger writes leveled messages for one class. Messages are templates with
+ * "{}" placeholders filled from the arguments, e.g.
+ * {@code LOG.debug("Loaded {} vehicles for {}", count, username)}. A call
+ * below the threshold level returns after one comparison, without building
+ * the message; fixed-arity overloads avoid allocating a varargs array on that
+ * path. If the last argument is a Throwable with no placeholder of its own,
+ * its stack trace is written after the message.
+ * <p>
+ * Messages are formatted later on the writer thread, so arguments should be
+ * values that do not change after the call (strings, numbers, IDs).
+ */
+public final class Logger {
+
+	private final String name;
+
+	Logger(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Gets the logger's name (the simple name of the class that logs).
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	// --- Debug ---
+
+	/**
+	 * Checks whether DEBUG messages are written.
+	 *
+	 * @return true if DEBUG is enabled
+	 */
+	public boolean isDebugEnabled() {
+		return LogManager.isEnabled(LogLevel.DEBUG);
+	}
+
+	/**
+	 * Logs a DEBUG message.
+	 */
+	public void debug(String message) {
+		if (LogManager.isEnabled(LogLevel.DEBUG)) {
+			log(LogLevel.DEBUG, message, null);
+		}
+	}
+
+	/**
+	 * Logs a DEBUG message with one argument.
+	 */
+	public void debug(String template, Object arg) {
+		if (LogManager.isEnabled(LogLevel.DEBUG)) {
+			log(LogLevel.DEBUG, template, new Object[] { arg });
+		}
+	}
+
+	/**
+	 * Logs a DEBUG message with two arguments.
+	 */
+	public void debug(String template, Object arg1, Object arg2) {
+		if (LogManager.isEnabled(LogLevel.DEBUG)) {
+			log(LogLevel.DEBUG, template, new Object[] { arg1, arg2 });
+		}
+	}
+
+	/**
+	 * Logs a DEBUG message with three arguments.
+	 */
+	public void debug(String template, Object arg1, Object arg2, Object arg3) {
+		if (LogManager.isEnabled(LogLevel.DEBUG)) {
+			log(LogLevel.DEBUG, template, new Object[] { arg1, arg2, arg3 });
+		}
+	}
+
+	/**
+	 * Logs a DEBUG message with any number of arguments.
+	 */
+	public void debug(String template, Object... args) {
+		if (LogManager.isEnabled(LogLevel.DEBUG)) {
+			log(LogLevel.DEBUG, template, args);
+		}
+	}
+
+	// --- Info ---
+
+	/**
+	 * Checks whether INFO messages are written.
+	 *
+	 * @return true if INFO is enabled
+	 */
+	public boolean isInfoEnabled() {
+		return LogManager.isEnabled(LogLevel.INFO);
+	}
+
+	/**
+	 * Logs a INFO message.
+	 */
+	public void info(String message) {
+		if (LogManager.isEnabled(LogLevel.INFO)) {
+			log(LogLevel.INFO, message, null);
+		}
+	}
+
+	/**
+	 * Logs a INFO message with one argument.
+	 */
+	public void info(String template, Object arg) {
+		if (LogManager.isEnabled(LogLevel.INFO)) {
+			log(LogLevel.INFO, template, new Object[] { arg });
+		}
+	}
+
+	/**
+	 * Logs a INFO message with two arguments.
+	 */
+	public void info(String template, Object arg1, Object arg2) {
+		if (LogManager.isEnabled(LogLevel.INFO)) {
+			log(LogLevel.INFO, template, new Object[] { arg1, arg2 });
+		}
+	}
+
+	/**
+	 * Logs a INFO message with three arguments.
+	 */
+	public void info(String template, Object arg1, Object arg2, Object arg3) {
+		if (LogManager.isEnabled(LogLevel.INFO)) {
+			log(LogLevel.INFO, template, new Object[] { arg1, arg2, arg3 });
+		}
+	}
+
+	/**
+	 * Logs a INFO message with any number of arguments.
+	 */
+	public void info(String template, Object... args) {
+		if (LogManager.isEnabled(LogLevel.INFO)) {
+			log(LogLevel.INFO, template, args);
+		}
+	}
+
+	// --- Warn ---
+
+	/**
+	 * Checks whether WARN messages are written.
+	 *
+	 * @return true if WARN is enabled
+	 */
+	public boolean isWarnEnabled() {
+		return LogManager.isEnabled(LogLevel.WARN);
+	}
+
+	/**
+	 * Logs a WARN message.
+	 */
+	public void warn(String message) {
+		if (LogManager.isEnabled(LogLevel.WARN)) {
+			log(LogLevel.WARN, message, null);
+		}
+	}
+
+	/**
+	 * Logs a WARN message with one argument.
+	 */
+	public void warn(String template, Object arg) {
+		if (LogManager.isEnabled(LogLevel.WARN)) {
+			log(LogLevel.WARN, template, new Object[] { arg });
+		}
+	}
+
+	/**
+	 * Logs a WARN message with two arguments.
+	 */
+	public void warn(String template, Object arg1, Object arg2) {
+		if (LogManager.isEnabled(LogLevel.WARN)) {
+			log(LogLevel.WARN, template, new Object[] { arg1, arg2 });
+		}
+	}
+
+	/**
+	 * Logs a WARN message with three arguments.
+	 */
+	public void warn(String template, Object arg1, Object arg2, Object arg3) {
+		if (LogManager.isEnabled(LogLevel.WARN)) {
+			log(LogLevel.WARN, template, new Object[] { arg1, arg2, arg3 });
+		}
+	}
+
+	/**
+	 * Logs a WARN message with any number of arguments.
+	 */
+	public void warn(String template, Object... args) {
+		if (LogManager.isEnabled(LogLevel.WARN)) {
+			log(LogLevel.WARN, template, args);
+		}
+	}
+
+	// --- Error ---
+
+	/**
+	 * Checks whether ERROR messages are written.
+	 *
+	 * @return true if ERROR is enabled
+	 */
+	public boolean isErrorEnabled() {
+		return LogManager.isEnabled(LogLevel.ERROR);
+	}
+
+	/**
+	 * Logs a ERROR message.
+	 */
+	public void error(String message) {
+		if (LogManager.isEnabled(LogLevel.ERROR)) {
+			log(LogLevel.ERROR, message, null);
+		}
+	}
+
+	/**
+	 * Logs a ERROR message with one argument.
+	 */
+	public void error(String template, Object arg) {
+		if (LogManager.isEnabled(LogLevel.ERROR)) {
+			log(LogLevel.ERROR, template, new Object[] { arg });
+		}
+	}
+
+	/**
+	 * Logs a ERROR message with two arguments.
+	 */
+	public void error(String template, Object arg1, Object arg2) {
+		if (LogManager.isEnabled(LogLevel.ERROR)) {
+			log(LogLevel.ERROR, template, new Object[] { arg1, arg2 });
+		}
+	}
+
+	/**
+	 * Logs a ERROR message with three arguments.
+	 */
+	public void error(String template, Object arg1, Object arg2, Object arg3) {
+		if (LogManager.isEnabled(LogLevel.ERROR)) {
+			log(LogLevel.ERROR, template, new Object[] { arg1, arg2, arg3 });
+		}
+	}
+
+	/**
+	 * Logs a ERROR message with any number of arguments.
+	 */
+	public void error(String template, Object... args) {
+		if (LogManager.isEnabled(LogLevel.ERROR)) {
+			log(LogLevel.ERROR, template, args);
+		}
+	}
+
+	private void log(LogLevel level, String template, Object[] args) {
+		Throwable throwable = null;
+		if (args != null && args.length > 0 && args[args.length - 1] instanceof Throwable
+				&& MessageFormatter.countPlaceholders(template) < args.length) {
+			throwable = (Throwable) args[args.length - 1];
+		}
+		LogManager.append(new LogEvent(level, name, template, args, throwable));
+	}
+}
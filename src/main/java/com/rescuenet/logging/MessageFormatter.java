@@ -0,0 +1,57 @@
+package com.rescuenet.logging;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * MessageFormatter fills "{}" placeholders in a log message template with its
+ * arguments, in order. Surplus placeholders are left as they are.
+ */
+final class MessageFormatter {
+
+	private MessageFormatter() {
+	}
+
+	/**
+	 * Appends the formatted message to a builder.
+	 *
+	 * @param text     the builder to append to
+	 * @param template the message template
+	 * @param args     the arguments, or null
+	 */
+	static void appendTo(StringBuilder text, String template, Object[] args) {
+		if (template == null) {
+			text.append("null");
+			return;
+		}
+		if (args == null || args.length == 0) {
+			text.append(template);
+			return;
+		}
+		int from = 0;
+		int argIndex = 0;
+		int placeholder;
+		while (argIndex < args.length && (placeholder = template.indexOf("{}", from)) >= 0) {
+			text.append(template, from, placeholder).append(args[argIndex++]);
+			from = placeholder + 2;
+		}
+		text.append(template, from, template.length());
+	}
+
+	/**
+	 * Counts the "{}" placeholders in a template.
+	 *
+	 * @param template the message template
+	 * @return the placeholder count
+	 */
+	static int countPlaceholders(String template) {
+		int count = 0;
+		int from = 0;
+		int placeholder;
+		while (template != null && (placeholder = template.indexOf("{}", from)) >= 0) {
+			count++;
+			from = placeholder + 2;
+		}
+		return count;
+	}
+}
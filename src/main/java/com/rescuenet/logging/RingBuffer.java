@@ -0,0 +1,107 @@
+package com.rescuenet.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * RingBuffer is a bounded, lock-free, multi-producer multi-consumer queue
+ * (after Dmitry Vyukov's design). Every slot carries a sequence number that
+ * tells producers and consumers whether it is free or filled for their turn,
+ * so offer and poll need only one compare-and-set each and never block.
+ *
+ * @param <E> the element type
+ */
+final class RingBuffer<E> {
+
+	private final int mask;
+	private final Object[] slots;
+	private final AtomicLongArray sequences;
+	private final AtomicLong enqueuePosition = new AtomicLong();
+	private final AtomicLong dequeuePosition = new AtomicLong();
+
+	/**
+	 * Creates a ring buffer.
+	 *
+	 * @param capacity the number of slots, a power of two
+	 */
+	RingBuffer(int capacity) {
+		if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		}
+		mask = capacity - 1;
+		slots = new Object[capacity];
+		sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * Adds an element if there is room.
+	 *
+	 * @param element the element to add
+	 * @return false if the buffer is full
+	 */
+	boolean offer(E element) {
+		long position = enqueuePosition.get();
+		int index;
+		while (true) {
+			index = (int) (position & mask);
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (enqueuePosition.compareAndSet(position, position + 1)) {
+					break;
+				}
+				position = enqueuePosition.get();
+			} else if (difference < 0) {
+				return false; // The slot still holds an element from one lap ago
+			} else {
+				position = enqueuePosition.get(); // Another producer took this slot
+			}
+		}
+		slots[index] = element;
+		sequences.set(index, position + 1); // Publishes the element to consumers
+		return true;
+	}
+
+	/**
+	 * Removes the oldest element.
+	 *
+	 * @return the element, or null if the buffer is empty
+	 */
+	@SuppressWarnings("unchecked")
+	E poll() {
+		long position = dequeuePosition.get();
+		int index;
+		while (true) {
+			index = (int) (position & mask);
+			long difference = sequences.get(index) - (position + 1);
+			if (difference == 0) {
+				if (dequeuePosition.compareAndSet(position, position + 1)) {
+					break;
+				}
+				position = dequeuePosition.get();
+			} else if (difference < 0) {
+				return null; // Nothing published in this slot yet
+			} else {
+				position = dequeuePosition.get(); // Another consumer took this slot
+			}
+		}
+		E element = (E) slots[index];
+		slots[index] = null;
+		sequences.set(index, position + mask + 1); // Frees the slot for the next lap
+		return element;
+	}
+
+	/**
+	 * Checks whether the buffer looks empty. Only a hint under concurrency.
+	 *
+	 * @return true if no element is waiting
+	 */
+	boolean isEmpty() {
+		return dequeuePosition.get() >= enqueuePosition.get();
+	}
+}
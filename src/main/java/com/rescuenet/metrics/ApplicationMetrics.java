@@ -0,0 +1,172 @@
+package com.rescuenet.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+
+import com.rescuenet.config.ConnectionPool;
+import com.rescuenet.config.DbConfig;
+import com.rescuenet.config.QueryGroup;
+import com.rescuenet.config.RequestExecutor;
+import com.rescuenet.filter.CompressionFilter;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.service.AuthRateLimiter;
+import com.rescuenet.service.CatalogFragmentCache;
+import com.rescuenet.service.CredentialVerificationService;
+import com.rescuenet.service.ImageVariantService;
+import com.rescuenet.service.UserProfileCache;
+import com.rescuenet.service.VehicleCatalogCache;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ApplicationMetrics registers the gauges and counters that report on the
+ * application's shared resources: the connection pool, the request and query
+ * executors, the catalog, catalog fragment, credential and profile caches, the
+ * credential and image queues, response compression, the login rate limiter,
+ * and the log writer. Each one reads a counter the component already keeps,
+ * so nothing is computed until /admin/metrics is requested.
+ */
+public final class ApplicationMetrics {
+
+	private ApplicationMetrics() {
+	}
+
+	/**
+	 * Registers the application metrics. Called when the application starts.
+	 *
+	 * @param registry the registry to add them to
+	 */
+	public static void register(MetricsRegistry registry) {
+		registerPool(registry);
+		registerExecutors(registry);
+		registerCaches(registry);
+		registerQueues(registry);
+		registerCompression(registry);
+		registerRateLimiter(registry);
+
+		// --- Logging and JVM ---
+		registry.counter("rescuenet_log_dropped_total", "Log events dropped because the log writer fell behind.",
+				LogManager::getDroppedCount);
+		registry.gauge("rescuenet_jvm_heap_used_bytes", "Heap memory in use.",
+				() -> ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+		registry.gauge("rescuenet_jvm_threads", "Live JVM threads.",
+				() -> ManagementFactory.getThreadMXBean().getThreadCount());
+	}
+
+	private static void registerPool(MetricsRegistry registry) {
+		registry.gauge("rescuenet_db_pool_connections", "Database connections by state.",
+				pool(ConnectionPool::getActiveConnections), "state", "active");
+		registry.gauge("rescuenet_db_pool_connections", "Database connections by state.",
+				pool(ConnectionPool::getIdleConnections), "state", "idle");
+		registry.gauge("rescuenet_db_pool_max_connections", "The most database connections the pool opens.",
+				pool(ConnectionPool::getMaxSize));
+		registry.gauge("rescuenet_db_pool_saturation", "Borrowed connections as a fraction of the maximum.",
+				pool(p -> (double) p.getActiveConnections() / p.getMaxSize()));
+		registry.gauge("rescuenet_db_pool_waiting_threads", "Callers waiting for a free connection.",
+				pool(ConnectionPool::getWaitingThreads));
+		registry.counter("rescuenet_db_pool_timeouts_total", "Borrows that timed out waiting for a connection.",
+				pool(ConnectionPool::getTimeoutCount));
+	}
+
+	private static void registerExecutors(MetricsRegistry registry) {
+		registry.gauge("rescuenet_requests_active", "Requests running or waiting on the request executor.",
+				executor(RequestExecutor::getActiveCount));
+		registry.gauge("rescuenet_requests_queued", "Requests waiting for a request thread.",
+				executor(RequestExecutor::getQueuedCount));
+		registry.counter("rescuenet_requests_rejected_total", "Requests refused because the executor was full.",
+				executor(RequestExecutor::getRejectedCount));
+		registry.counter("rescuenet_requests_timed_out_total", "Requests cancelled at their timeout.",
+				executor(RequestExecutor::getTimedOutCount));
+		registry.counter("rescuenet_queries_total", "Page queries run by QueryGroup, by where they ran.",
+				QueryGroup::getForkedCount, "mode", "forked");
+		registry.counter("rescuenet_queries_total", "Page queries run by QueryGroup, by where they ran.",
+				QueryGroup::getInlineCount, "mode", "inline");
+		registry.counter("rescuenet_queries_timed_out_total", "Page queries cancelled at their group's deadline.",
+				QueryGroup::getTimedOutCount);
+	}
+
+	private static void registerCaches(MetricsRegistry registry) {
+		VehicleCatalogCache catalog = VehicleCatalogCache.getInstance();
+		CredentialVerificationService credentials = CredentialVerificationService.getInstance();
+		UserProfileCache profiles = UserProfileCache.getInstance();
+		CatalogFragmentCache fragments = CatalogFragmentCache.getInstance();
+		cache(registry, "catalog", catalog::getHitCount, catalog::getMissCount);
+		cache(registry, "credential", credentials::getCacheHitCount, credentials::getCacheMissCount);
+		cache(registry, "profile", profiles::getHitCount, profiles::getMissCount);
+		cache(registry, "catalog_fragment", fragments::getHitCount, fragments::getMissCount);
+	}
+
+	private static void registerQueues(MetricsRegistry registry) {
+		CredentialVerificationService credentials = CredentialVerificationService.getInstance();
+		ImageVariantService images = ImageVariantService.getInstance();
+		registry.gauge("rescuenet_queue_depth", "Tasks waiting for a worker thread, by queue.",
+				credentials::getQueueDepth, "queue", "credential");
+		registry.gauge("rescuenet_queue_depth", "Tasks waiting for a worker thread, by queue.", images::getQueueDepth,
+				"queue", "image");
+		registry.gauge("rescuenet_credential_active", "Password verifications being derived right now.",
+				credentials::getActiveCount);
+		registry.counter("rescuenet_queue_rejected_total", "Tasks turned away because their queue was full.",
+				credentials::getRejectionCount, "queue", "credential");
+		registry.counter("rescuenet_queue_rejected_total", "Tasks turned away because their queue was full.",
+				images::getRejectionCount, "queue", "image");
+		registry.counter("rescuenet_credential_timeouts_total", "Password verifications that timed out.",
+				credentials::getTimeoutCount);
+	}
+
+	private static void registerCompression(MetricsRegistry registry) {
+		registry.counter("rescuenet_compressed_responses_total", "Responses sent gzip-compressed.",
+				CompressionFilter::getCompressedCount);
+		registry.counter("rescuenet_compression_bytes_total", "Body bytes of compressed responses, by side.",
+				CompressionFilter::getUncompressedBytes, "side", "in");
+		registry.counter("rescuenet_compression_bytes_total", "Body bytes of compressed responses, by side.",
+				CompressionFilter::getCompressedBytes, "side", "out");
+		registry.gauge("rescuenet_compression_ratio", "Compressed bytes as a fraction of the uncompressed bytes.",
+				() -> {
+					long in = CompressionFilter.getUncompressedBytes();
+					return in == 0 ? Double.NaN : (double) CompressionFilter.getCompressedBytes() / in;
+				});
+		registry.counter("rescuenet_compression_cpu_seconds_total", "CPU time spent compressing responses.",
+				() -> CompressionFilter.getCompressionNanos() / 1e9);
+	}
+
+	private static void registerRateLimiter(MetricsRegistry registry) {
+		AuthRateLimiter limiter = AuthRateLimiter.getInstance();
+		registry.counter("rescuenet_auth_attempts_total", "Login and registration attempts, by rate limit outcome.",
+				limiter::getAllowedCount, "outcome", "allowed");
+		registry.counter("rescuenet_auth_attempts_total", "Login and registration attempts, by rate limit outcome.",
+				limiter::getThrottledByAddressCount, "outcome", "throttled_address");
+		registry.counter("rescuenet_auth_attempts_total", "Login and registration attempts, by rate limit outcome.",
+				limiter::getThrottledByUsernameCount, "outcome", "throttled_username");
+		registry.gauge("rescuenet_auth_rate_limit_keys", "Addresses and usernames with a partly used rate limit.",
+				limiter::getTrackedKeyCount);
+	}
+
+	private static void cache(MetricsRegistry registry, String name, LongSupplier hits, LongSupplier misses) {
+		registry.counter("rescuenet_cache_hits_total", "Cache reads served from the cache.", hits::getAsLong,
+				"cache", name);
+		registry.counter("rescuenet_cache_misses_total", "Cache reads that had to load.", misses::getAsLong,
+				"cache", name);
+		registry.gauge("rescuenet_cache_hit_ratio", "Hits as a fraction of all reads since startup.", () -> {
+			long hit = hits.getAsLong();
+			long total = hit + misses.getAsLong();
+			return total == 0 ? Double.NaN : (double) hit / total;
+		}, "cache", name);
+	}
+
+	private static DoubleSupplier pool(ToDoubleFunction<ConnectionPool> reader) {
+		return () -> {
+			ConnectionPool pool = DbConfig.getPoolIfStarted();
+			return pool != null ? reader.applyAsDouble(pool) : 0;
+		};
+	}
+
+	private static DoubleSupplier executor(ToDoubleFunction<RequestExecutor> reader) {
+		return () -> {
+			RequestExecutor executor = RequestExecutor.getIfStarted();
+			return executor != null ? reader.applyAsDouble(executor) : 0;
+		};
+	}
+}
@@ -0,0 +1,165 @@
+package com.rescuenet.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * Histogram records latencies into log-linear buckets, the way HdrHistogram
+ * does: every power of two is split into 16 equal sub-buckets, so any recorded
+ * value is reported within about 6% of its true value, from 1 microsecond up
+ * to several hours, in a fixed 4 KB of counters. Recording is a handful of
+ * atomic increments with no locks or allocation, so it is safe to call on
+ * every request and every SQL statement.
+ */
+public final class Histogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	// Values are microseconds; anything from 2^36 us (about 19 hours) up lands in the top bucket
+	private static final int MAX_MAGNITUDE = 35;
+	private static final int BUCKETS = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+	private static final long MAX_TRACKABLE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sumMicros = new LongAdder();
+	private final AtomicLong maxMicros = new AtomicLong();
+
+	Histogram() {
+	}
+
+	/**
+	 * Records one duration.
+	 *
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void record(long nanos) {
+		long micros = Math.min(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)), MAX_TRACKABLE);
+		counts.incrementAndGet(indexOf(micros));
+		count.increment();
+		sumMicros.add(micros);
+		long max = maxMicros.get();
+		while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+			max = maxMicros.get();
+		}
+	}
+
+	/**
+	 * Records the time elapsed since a start time taken with
+	 * System.nanoTime().
+	 *
+	 * @param startNanos the start time
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Takes a copy of the counts. Recording continues while the copy is made,
+	 * so a snapshot may include part of a concurrent update; the percentiles
+	 * are computed from the copied buckets alone and stay consistent.
+	 *
+	 * @return the current distribution
+	 */
+	public Snapshot snapshot() {
+		long[] copy = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			copy[i] = counts.get(i);
+			total += copy[i];
+		}
+		return new Snapshot(copy, total, sumMicros.sum(), maxMicros.get());
+	}
+
+	static int indexOf(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+		int subBucket = (int) (micros >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return SUB_BUCKETS + (magnitude - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Gets the highest value that maps to a bucket.
+	 */
+	static long highestValueIn(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+		long lowest = (long) (SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * A point-in-time copy of a histogram. Durations are in seconds, the unit
+	 * Prometheus expects.
+	 */
+	public static final class Snapshot {
+		private final long[] counts;
+		private final long count;
+		private final long sumMicros;
+		private final long maxMicros;
+
+		private Snapshot(long[] counts, long count, long sumMicros, long maxMicros) {
+			this.counts = counts;
+			this.count = count;
+			this.sumMicros = sumMicros;
+			this.maxMicros = maxMicros;
+		}
+
+		/**
+		 * Gets the number of recorded values.
+		 *
+		 * @return the sample count
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Gets the total of all recorded values.
+		 *
+		 * @return the sum in seconds
+		 */
+		public double getSum() {
+			return sumMicros / 1e6;
+		}
+
+		/**
+		 * Gets the largest recorded value.
+		 *
+		 * @return the maximum in seconds
+		 */
+		public double getMax() {
+			return maxMicros / 1e6;
+		}
+
+		/**
+		 * Gets the value below which the given fraction of samples fall.
+		 *
+		 * @param quantile a fraction between 0 and 1, e.g. 0.99
+		 * @return the quantile in seconds, or 0 if nothing was recorded
+		 */
+		public double getQuantile(double quantile) {
+			if (count == 0) {
+				return 0;
+			}
+			long rank = Math.max(1, (long) Math.ceil(quantile * count));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return Math.min(highestValueIn(i), maxMicros) / 1e6;
+				}
+			}
+			return getMax();
+		}
+	}
+}
@@ -0,0 +1,337 @@
+package com.rescuenet.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * MetricsRegistry holds the application's metrics and renders them for the
+ * /admin/metrics endpoint, in the Prometheus text format or as JSON. There are
+ * two kinds of metric: latency histograms, recorded by the code being
+ * measured, and gauges and counters, read on demand from the counters the
+ * services already keep. Each metric is a named family of series told apart
+ * by labels, e.g. rescuenet_sql_duration_seconds{statement="..."}.
+ *
+ * A family holds at most MAX_SERIES label combinations; further combinations
+ * are folded into one series labelled "other", so unexpected input (such as
+ * unusual SQL) cannot grow the registry without bound.
+ */
+public final class MetricsRegistry {
+
+	private static final Logger LOG = LogManager.getLogger(MetricsRegistry.class);
+
+	private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+	/** The most label combinations kept per metric family. */
+	public static final int MAX_SERIES = 500;
+
+	private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+	private static final String[] QUANTILE_KEYS = { "p50Ms", "p90Ms", "p99Ms", "p999Ms" };
+	private static final String OVERFLOW_LABEL = "other";
+
+	/** The kind of a metric family, as named in the Prometheus format. */
+	enum Type {
+		SUMMARY, GAUGE, COUNTER;
+
+		String prometheusName() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+	}
+
+	// Sorted by name so the output is stable between scrapes
+	private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+	private MetricsRegistry() {
+	}
+
+	/**
+	 * Gets the shared registry.
+	 *
+	 * @return the application-wide instance
+	 */
+	public static MetricsRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	// --- Registration ---
+
+	/**
+	 * Gets the latency histogram for a series, creating it on first use.
+	 * Callers on hot paths may keep the returned histogram.
+	 *
+	 * @param name   the family name, ending in _seconds
+	 * @param help   a one-line description of the family
+	 * @param labels label names and values, alternating
+	 * @return the series' histogram
+	 */
+	public Histogram histogram(String name, String help, String... labels) {
+		Series series = family(name, help, Type.SUMMARY).series(labels, null);
+		return series.histogram;
+	}
+
+	/**
+	 * Registers a gauge: a value that can go up and down, such as a queue
+	 * depth. Registering the same series again replaces its supplier.
+	 *
+	 * @param name   the family name
+	 * @param help   a one-line description of the family
+	 * @param value  reads the current value
+	 * @param labels label names and values, alternating
+	 */
+	public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+		family(name, help, Type.GAUGE).series(labels, value);
+	}
+
+	/**
+	 * Registers a counter: a total that only goes up, such as a hit count.
+	 * Registering the same series again replaces its supplier.
+	 *
+	 * @param name   the family name, ending in _total
+	 * @param help   a one-line description of the family
+	 * @param value  reads the current total
+	 * @param labels label names and values, alternating
+	 */
+	public void counter(String name, String help, DoubleSupplier value, String... labels) {
+		family(name, help, Type.COUNTER).series(labels, value);
+	}
+
+	private Family family(String name, String help, Type type) {
+		Family family = families.computeIfAbsent(name, n -> new Family(n, help, type));
+		if (family.type != type) {
+			throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+		}
+		return family;
+	}
+
+	// --- Rendering ---
+
+	/**
+	 * Renders every metric in the Prometheus text exposition format (version
+	 * 0.0.4). Histograms are exposed as summaries with the 50th, 90th, 99th
+	 * and 99.9th percentiles.
+	 *
+	 * @return the exposition text
+	 */
+	public String toPrometheus() {
+		StringBuilder out = new StringBuilder(8192);
+		for (Family family : families.values()) {
+			out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+			out.append("# TYPE ").append(family.name).append(' ').append(family.type.prometheusName()).append('\n');
+			for (Series series : family.sortedSeries()) {
+				if (series.histogram != null) {
+					Histogram.Snapshot snapshot = series.histogram.snapshot();
+					for (double quantile : QUANTILES) {
+						String labels = series.labelText.isEmpty() ? "quantile=\"" + quantile + "\""
+								: series.labelText + ",quantile=\"" + quantile + "\"";
+						sample(out, family.name, labels, snapshot.getQuantile(quantile));
+					}
+					sample(out, family.name + "_sum", series.labelText, snapshot.getSum());
+					sample(out, family.name + "_count", series.labelText, snapshot.getCount());
+				} else {
+					sample(out, family.name, series.labelText, series.read());
+				}
+			}
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Renders every metric as JSON. Durations are in milliseconds, and each
+	 * histogram carries its count, mean, maximum and percentiles.
+	 *
+	 * @return the JSON document
+	 */
+	public String toJson() {
+		StringBuilder out = new StringBuilder(8192).append("{\"metrics\":[");
+		boolean firstFamily = true;
+		for (Family family : families.values()) {
+			out.append(firstFamily ? "" : ",").append("{\"name\":");
+			firstFamily = false;
+			jsonString(out, family.name);
+			out.append(",\"type\":\"").append(family.type.prometheusName()).append("\",\"help\":");
+			jsonString(out, family.help);
+			out.append(",\"series\":[");
+			boolean firstSeries = true;
+			for (Series series : family.sortedSeries()) {
+				out.append(firstSeries ? "" : ",").append("{\"labels\":{");
+				firstSeries = false;
+				for (int i = 0; i < series.labels.length; i += 2) {
+					out.append(i == 0 ? "" : ",");
+					jsonString(out, series.labels[i]);
+					out.append(':');
+					jsonString(out, series.labels[i + 1]);
+				}
+				out.append('}');
+				if (series.histogram != null) {
+					Histogram.Snapshot snapshot = series.histogram.snapshot();
+					out.append(",\"count\":").append(snapshot.getCount());
+					out.append(",\"meanMs\":");
+					jsonNumber(out, snapshot.getCount() == 0 ? 0 : snapshot.getSum() * 1000 / snapshot.getCount());
+					out.append(",\"maxMs\":");
+					jsonNumber(out, snapshot.getMax() * 1000);
+					for (int i = 0; i < QUANTILES.length; i++) {
+						out.append(",\"").append(QUANTILE_KEYS[i]).append("\":");
+						jsonNumber(out, snapshot.getQuantile(QUANTILES[i]) * 1000);
+					}
+				} else {
+					out.append(",\"value\":");
+					jsonNumber(out, series.read());
+				}
+				out.append('}');
+			}
+			out.append("]}");
+		}
+		return out.append("]}").toString();
+	}
+
+	private static void sample(StringBuilder out, String name, String labels, double value) {
+		out.append(name);
+		if (!labels.isEmpty()) {
+			out.append('{').append(labels).append('}');
+		}
+		out.append(' ');
+		if (Double.isNaN(value)) {
+			out.append("NaN");
+		} else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			out.append((long) value);
+		} else {
+			out.append(value);
+		}
+		out.append('\n');
+	}
+
+	private static void jsonNumber(StringBuilder out, double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			out.append("null");
+		} else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			out.append((long) value);
+		} else {
+			out.append(Math.round(value * 1000) / 1000.0);
+		}
+	}
+
+	private static void jsonString(StringBuilder out, String value) {
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				out.append('\\').append(c);
+			} else if (c < 0x20) {
+				out.append(String.format("\\u%04x", (int) c));
+			} else {
+				out.append(c);
+			}
+		}
+		out.append('"');
+	}
+
+	private static String labelText(String[] labels) {
+		if (labels.length % 2 != 0) {
+			throw new IllegalArgumentException("Labels must be name/value pairs.");
+		}
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < labels.length; i += 2) {
+			text.append(i == 0 ? "" : ",").append(labels[i]).append("=\"");
+			String value = labels[i + 1] != null ? labels[i + 1] : "";
+			for (int j = 0; j < value.length(); j++) {
+				char c = value.charAt(j);
+				if (c == '"' || c == '\\') {
+					text.append('\\').append(c);
+				} else if (c == '\n') {
+					text.append("\\n");
+				} else {
+					text.append(c);
+				}
+			}
+			text.append('"');
+		}
+		return text.toString();
+	}
+
+	/**
+	 * A named group of series of one type.
+	 */
+	private static final class Family {
+		private final String name;
+		private final String help;
+		private final Type type;
+		private final Map<String, Series> series = new ConcurrentHashMap<>();
+		private volatile boolean overflowReported;
+
+		Family(String name, String help, Type type) {
+			this.name = name;
+			this.help = help;
+			this.type = type;
+		}
+
+		Series series(String[] labels, DoubleSupplier value) {
+			String key = labelText(labels);
+			Series existing = series.get(key);
+			if (existing != null && value == null) {
+				return existing;
+			}
+			if (existing == null && series.size() >= MAX_SERIES) {
+				if (!overflowReported) {
+					overflowReported = true;
+					LOG.warn("Metric {} reached {} series; folding further label values into '{}'.", name,
+							MAX_SERIES, OVERFLOW_LABEL);
+				}
+				String[] folded = labels.clone();
+				for (int i = 1; i < folded.length; i += 2) {
+					folded[i] = OVERFLOW_LABEL;
+				}
+				labels = folded;
+				key = labelText(folded);
+			}
+			String[] finalLabels = labels;
+			if (value != null) {
+				Series registered = new Series(finalLabels, key, null, value);
+				series.put(key, registered);
+				return registered;
+			}
+			return series.computeIfAbsent(key, k -> new Series(finalLabels, k, new Histogram(), null));
+		}
+
+		List<Series> sortedSeries() {
+			List<Series> sorted = new ArrayList<>(series.values());
+			sorted.sort((a, b) -> a.labelText.compareTo(b.labelText));
+			return sorted;
+		}
+	}
+
+	/**
+	 * One labelled series: either a histogram or a supplier of its value.
+	 */
+	private static final class Series {
+		private final String[] labels;
+		private final String labelText;
+		private final Histogram histogram;
+		private final DoubleSupplier value;
+
+		Series(String[] labels, String labelText, Histogram histogram, DoubleSupplier value) {
+			this.labels = labels;
+			this.labelText = labelText;
+			this.histogram = histogram;
+			this.value = value;
+		}
+
+		double read() {
+			try {
+				return value.getAsDouble();
+			} catch (RuntimeException e) {
+				LOG.debug("Metric read failed - {}", e.getMessage());
+				return Double.NaN;
+			}
+		}
+	}
+}
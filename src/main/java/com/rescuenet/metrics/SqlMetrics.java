@@ -0,0 +1,119 @@
+package com.rescuenet.metrics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * SqlMetrics times every SQL statement the service layer runs. The connection
+ * pool passes each statement it creates through {@link #wrap}, and every
+ * execute call on it is recorded in rescuenet_sql_duration_seconds, labelled
+ * with the statement's SQL. The SQL is normalized first (whitespace collapsed,
+ * lists of placeholders shortened) so each distinct query shape gets one
+ * series. The time measured is the execute call itself: the round trip and
+ * the first batch of rows, not the service's work reading the result. Calls
+ * slower than SLOW_STATEMENT_MILLIS are also logged. This is the only place
+ * SQL is timed; Jdbc and the services leave it to the proxy.
+ */
+public final class SqlMetrics {
+
+	private static final Logger LOG = LogManager.getLogger(SqlMetrics.class);
+
+	/** Execute calls that take longer than this are logged as slow. */
+	public static final long SLOW_STATEMENT_MILLIS = 1_000;
+
+	private static final long SLOW_STATEMENT_NANOS = TimeUnit.MILLISECONDS.toNanos(SLOW_STATEMENT_MILLIS);
+
+	private static final String DURATION_METRIC = "rescuenet_sql_duration_seconds";
+	private static final String DURATION_HELP = "Time spent executing SQL statements, by statement.";
+	private static final int MAX_LABEL_LENGTH = 500;
+	private static final int MAX_CACHED_SHAPES = 1_000;
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+	// Raw SQL -> its series, so a statement prepared again skips normalization
+	private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+	private SqlMetrics() {
+	}
+
+	/**
+	 * Wraps a statement so that its execute calls are timed.
+	 *
+	 * @param statement the statement to wrap
+	 * @param type      the statement interface to expose (Statement,
+	 *                  PreparedStatement or CallableStatement)
+	 * @param sql       the SQL it was prepared with, or null for a plain
+	 *                  Statement that receives its SQL on execute
+	 * @return the timed statement
+	 */
+	public static Statement wrap(Statement statement, Class<?> type, String sql) {
+		Histogram prepared = sql != null ? histogramFor(sql) : null;
+		return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> {
+					String name = method.getName();
+					if (!name.startsWith("execute")) {
+						return invoke(method, statement, args);
+					}
+					String executed = sql;
+					Histogram histogram = prepared;
+					if (args != null && args.length > 0 && args[0] instanceof String) {
+						executed = (String) args[0];
+						histogram = histogramFor(executed);
+					}
+					long start = System.nanoTime();
+					try {
+						return invoke(method, statement, args);
+					} finally {
+						long elapsed = System.nanoTime() - start;
+						if (histogram != null) {
+							histogram.record(elapsed);
+						}
+						if (elapsed > SLOW_STATEMENT_NANOS && executed != null) {
+							LOG.warn("Slow statement took {} ms: {}", TimeUnit.NANOSECONDS.toMillis(elapsed),
+									normalize(executed));
+						}
+					}
+				});
+	}
+
+	private static Object invoke(Method method, Statement target, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static Histogram histogramFor(String sql) {
+		Histogram histogram = HISTOGRAMS.get(sql);
+		if (histogram == null) {
+			histogram = MetricsRegistry.getInstance().histogram(DURATION_METRIC, DURATION_HELP, "statement",
+					normalize(sql));
+			if (HISTOGRAMS.size() < MAX_CACHED_SHAPES) {
+				HISTOGRAMS.put(sql, histogram);
+			}
+		}
+		return histogram;
+	}
+
+	/**
+	 * Reduces a statement to its shape, for use as a label value.
+	 */
+	static String normalize(String sql) {
+		String shape = PLACEHOLDER_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("?, ...");
+		return shape.length() > MAX_LABEL_LENGTH ? shape.substring(0, MAX_LABEL_LENGTH) + "..." : shape;
+	}
+}
@@ -0,0 +1,98 @@
+package com.rescuenet.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * AvailabilityCalendar is the fleet's booking matrix for a range of dates: for
+ * every vehicle, a bitmap in which bit n is set when the vehicle has a
+ * confirmed reservation on the first date plus n days.
+ */
+public class AvailabilityCalendar {
+	private final LocalDate fromDate;
+	private final LocalDate toDate;
+	private final List<VehicleModel> vehicles;
+	private final Map<Integer, BitSet> bookedDays;
+	private final boolean fromIndex;
+
+	/**
+	 * Constructor for AvailabilityCalendar.
+	 *
+	 * @param fromDate   the first date (inclusive)
+	 * @param toDate     the last date (inclusive)
+	 * @param vehicles   the vehicles, in display order
+	 * @param bookedDays each vehicle's booked-day bitmap, by vehicle ID
+	 * @param fromIndex  whether the bookings came from the in-memory index
+	 *                   rather than a database query
+	 */
+	public AvailabilityCalendar(LocalDate fromDate, LocalDate toDate, List<VehicleModel> vehicles,
+			Map<Integer, BitSet> bookedDays, boolean fromIndex) {
+		this.fromDate = fromDate;
+		this.toDate = toDate;
+		this.vehicles = vehicles;
+		this.bookedDays = bookedDays;
+		this.fromIndex = fromIndex;
+	}
+
+	/**
+	 * Gets the first date of the calendar.
+	 *
+	 * @return the first date
+	 */
+	public LocalDate getFromDate() {
+		return fromDate;
+	}
+
+	/**
+	 * Gets the last date of the calendar.
+	 *
+	 * @return the last date
+	 */
+	public LocalDate getToDate() {
+		return toDate;
+	}
+
+	/**
+	 * Gets the number of days the calendar covers.
+	 *
+	 * @return the day count, counting both ends
+	 */
+	public int getDayCount() {
+		return (int) ChronoUnit.DAYS.between(fromDate, toDate) + 1;
+	}
+
+	/**
+	 * Gets the vehicles in the calendar.
+	 *
+	 * @return the vehicles, in display order
+	 */
+	public List<VehicleModel> getVehicles() {
+		return vehicles;
+	}
+
+	/**
+	 * Gets a vehicle's booked days.
+	 *
+	 * @param vehicleId the ID of the vehicle
+	 * @return a bitmap where bit n means the first date plus n days is booked
+	 */
+	public BitSet getBookedDays(int vehicleId) {
+		BitSet days = bookedDays.get(vehicleId);
+		return days != null ? days : new BitSet();
+	}
+
+	/**
+	 * Checks whether the bookings came from the in-memory availability index.
+	 *
+	 * @return true for the index, false for a database query
+	 */
+	public boolean isFromIndex() {
+		return fromIndex;
+	}
+}
@@ -0,0 +1,16 @@
+package com.rescuenet.model;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ImportOutcome is what happened to one row of a bulk import file.
+ */
+public enum ImportOutcome {
+	/** The record was created. */
+	IMPORTED,
+	/** The row was invalid or conflicted with existing data; nothing was written. */
+	REJECTED,
+	/** The database failed while writing the row's batch; nothing was written. */
+	FAILED
+}
@@ -0,0 +1,164 @@
+package com.rescuenet.model;
+
+import java.time.LocalDate;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ReservationFilter holds the criteria for one page of the admin reservation
+ * listing: optional status, vehicle, user and date-range filters, and the
+ * keyset cursor (the date and ID of the last reservation on the previous
+ * page). Null fields are not filtered on.
+ */
+public class ReservationFilter {
+	private String status;
+	private Integer vehicleId;
+	private Integer userId;
+	private LocalDate fromDate;
+	private LocalDate toDate;
+
+	private LocalDate afterDate; // Keyset cursor: last row of the previous page
+	private Integer afterId;
+
+	/**
+	 * Default constructor for ReservationFilter (no filters, first page).
+	 */
+	public ReservationFilter() {
+	}
+
+	/**
+	 * Gets the status to filter on.
+	 *
+	 * @return the status, or null for any status
+	 */
+	public String getStatus() {
+		return status;
+	}
+
+	/**
+	 * Sets the status to filter on.
+	 *
+	 * @param status the status, or null for any status
+	 */
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	/**
+	 * Gets the vehicle ID to filter on.
+	 *
+	 * @return the vehicle ID, or null for any vehicle
+	 */
+	public Integer getVehicleId() {
+		return vehicleId;
+	}
+
+	/**
+	 * Sets the vehicle ID to filter on.
+	 *
+	 * @param vehicleId the vehicle ID, or null for any vehicle
+	 */
+	public void setVehicleId(Integer vehicleId) {
+		this.vehicleId = vehicleId;
+	}
+
+	/**
+	 * Gets the user ID to filter on.
+	 *
+	 * @return the user ID, or null for any user
+	 */
+	public Integer getUserId() {
+		return userId;
+	}
+
+	/**
+	 * Sets the user ID to filter on.
+	 *
+	 * @param userId the user ID, or null for any user
+	 */
+	public void setUserId(Integer userId) {
+		this.userId = userId;
+	}
+
+	/**
+	 * Gets the earliest reservation date to include.
+	 *
+	 * @return the start date (inclusive), or null for no lower bound
+	 */
+	public LocalDate getFromDate() {
+		return fromDate;
+	}
+
+	/**
+	 * Sets the earliest reservation date to include.
+	 *
+	 * @param fromDate the start date (inclusive), or null for no lower bound
+	 */
+	public void setFromDate(LocalDate fromDate) {
+		this.fromDate = fromDate;
+	}
+
+	/**
+	 * Gets the latest reservation date to include.
+	 *
+	 * @return the end date (inclusive), or null for no upper bound
+	 */
+	public LocalDate getToDate() {
+		return toDate;
+	}
+
+	/**
+	 * Sets the latest reservation date to include.
+	 *
+	 * @param toDate the end date (inclusive), or null for no upper bound
+	 */
+	public void setToDate(LocalDate toDate) {
+		this.toDate = toDate;
+	}
+
+	/**
+	 * Gets the reservation date of the last row on the previous page.
+	 *
+	 * @return the cursor date, or null for the first page
+	 */
+	public LocalDate getAfterDate() {
+		return afterDate;
+	}
+
+	/**
+	 * Sets the reservation date of the last row on the previous page.
+	 *
+	 * @param afterDate the cursor date, or null for the first page
+	 */
+	public void setAfterDate(LocalDate afterDate) {
+		this.afterDate = afterDate;
+	}
+
+	/**
+	 * Gets the reservation ID of the last row on the previous page.
+	 *
+	 * @return the cursor ID, or null for the first page
+	 */
+	public Integer getAfterId() {
+		return afterId;
+	}
+
+	/**
+	 * Sets the reservation ID of the last row on the previous page.
+	 *
+	 * @param afterId the cursor ID, or null for the first page
+	 */
+	public void setAfterId(Integer afterId) {
+		this.afterId = afterId;
+	}
+
+	/**
+	 * Checks whether this filter continues from a previous page.
+	 *
+	 * @return true if both cursor fields are set
+	 */
+	public boolean hasCursor() {
+		return afterDate != null && afterId != null;
+	}
+}
@@ -0,0 +1,227 @@
+package com.rescuenet.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ReservationImportReport is the result of a bulk reservation import: one
+ * entry per row read, saying whether it was imported (with its new ID),
+ * rejected by validation, or lost to a database failure, plus the totals.
+ */
+public class ReservationImportReport {
+
+	private final List<Row> rows = new ArrayList<>();
+	private int importedCount;
+	private int rejectedCount;
+	private int failedCount;
+	private String error;
+	private long elapsedMillis;
+
+	/**
+	 * Adds a row's result and updates the totals.
+	 *
+	 * @param row the row's result
+	 */
+	public void add(Row row) {
+		rows.add(row);
+		switch (row.getOutcome()) {
+		case IMPORTED:
+			importedCount++;
+			break;
+		case REJECTED:
+			rejectedCount++;
+			break;
+		default:
+			failedCount++;
+		}
+	}
+
+	/**
+	 * Gets every row's result, in file order.
+	 *
+	 * @return the row results
+	 */
+	public List<Row> getRows() {
+		return Collections.unmodifiableList(rows);
+	}
+
+	/**
+	 * Gets the results of the rows that were not imported, in file order.
+	 *
+	 * @return the rejected and failed rows
+	 */
+	public List<Row> getProblemRows() {
+		List<Row> problems = new ArrayList<>();
+		for (Row row : rows) {
+			if (row.getOutcome() != ImportOutcome.IMPORTED) {
+				problems.add(row);
+			}
+		}
+		return problems;
+	}
+
+	/**
+	 * Gets the number of rows read.
+	 *
+	 * @return the row count
+	 */
+	public int getTotalCount() {
+		return rows.size();
+	}
+
+	/**
+	 * Gets the number of reservations created.
+	 *
+	 * @return the imported row count
+	 */
+	public int getImportedCount() {
+		return importedCount;
+	}
+
+	/**
+	 * Gets the number of rows rejected by validation.
+	 *
+	 * @return the rejected row count
+	 */
+	public int getRejectedCount() {
+		return rejectedCount;
+	}
+
+	/**
+	 * Gets the number of rows lost to a database failure.
+	 *
+	 * @return the failed row count
+	 */
+	public int getFailedCount() {
+		return failedCount;
+	}
+
+	/**
+	 * Gets the error that stopped the import early, if any.
+	 *
+	 * @return the error message, or null if every row was processed
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * Sets the error that stopped the import early.
+	 *
+	 * @param error the error message
+	 */
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	/**
+	 * Gets how long the import took.
+	 *
+	 * @return the duration in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	/**
+	 * Sets how long the import took.
+	 *
+	 * @param elapsedMillis the duration in milliseconds
+	 */
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * The result for one row of the import file.
+	 */
+	public static class Row {
+		private final int row;
+		private final ImportOutcome outcome;
+		private final int reservationId;
+		private final Integer vehicleId;
+		private final LocalDate reservationDate;
+		private final String message;
+
+		/**
+		 * Constructor for Row.
+		 *
+		 * @param row             the row number: the line number in a CSV file,
+		 *                        or the position of the object in a JSON file
+		 * @param outcome         what happened to the row
+		 * @param reservationId   the new reservation's ID, or 0 if none was
+		 *                        created
+		 * @param vehicleId       the vehicle the row names, if it could be read
+		 * @param reservationDate the date the row names, if it could be read
+		 * @param message         why the row was not imported, or null
+		 */
+		public Row(int row, ImportOutcome outcome, int reservationId, Integer vehicleId, LocalDate reservationDate,
+				String message) {
+			this.row = row;
+			this.outcome = outcome;
+			this.reservationId = reservationId;
+			this.vehicleId = vehicleId;
+			this.reservationDate = reservationDate;
+			this.message = message;
+		}
+
+		/**
+		 * Gets the row number.
+		 *
+		 * @return the line number (CSV) or object position (JSON)
+		 */
+		public int getRow() {
+			return row;
+		}
+
+		/**
+		 * Gets what happened to the row.
+		 *
+		 * @return the outcome
+		 */
+		public ImportOutcome getOutcome() {
+			return outcome;
+		}
+
+		/**
+		 * Gets the ID of the reservation the row created.
+		 *
+		 * @return the new reservation ID, or 0 if none was created
+		 */
+		public int getReservationId() {
+			return reservationId;
+		}
+
+		/**
+		 * Gets the vehicle the row names.
+		 *
+		 * @return the vehicle ID, or null if it could not be read
+		 */
+		public Integer getVehicleId() {
+			return vehicleId;
+		}
+
+		/**
+		 * Gets the date the row names.
+		 *
+		 * @return the reservation date, or null if it could not be read
+		 */
+		public LocalDate getReservationDate() {
+			return reservationDate;
+		}
+
+		/**
+		 * Gets why the row was not imported.
+		 *
+		 * @return the message, or null for imported rows
+		 */
+		public String getMessage() {
+			return message;
+		}
+	}
+}
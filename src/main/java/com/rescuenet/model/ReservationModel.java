@@ -2,6 +2,9 @@ package com.rescuenet.model;
 
 import java.time.LocalDate;
 
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
 /**
  * @author Prayash Rawal
  */
@@ -12,6 +15,9 @@ import java.time.LocalDate;
  * information fetched via database joins.
  */
 public class ReservationModel {
+
+	private static final Logger LOG = LogManager.getLogger(ReservationModel.class);
+
 	private int reservationId;
 	private int userId;
 	private int vehicleId;
@@ -118,7 +124,7 @@ public class ReservationModel {
 			try {
 				this.reservationDate = LocalDate.parse(dateString);
 			} catch (java.time.format.DateTimeParseException e) {
-				System.err.println("Error parsing date string: " + dateString);
+				LOG.warn("Error parsing date string: {}", dateString);
 				this.reservationDate = null;
 			}
 		} else {
@@ -0,0 +1,76 @@
+package com.rescuenet.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ReservationPage is one page of the admin reservation listing, newest first.
+ * When more rows follow, it carries the keyset cursor (date and ID of its
+ * last reservation) used to request the next page.
+ */
+public class ReservationPage {
+	private final List<ReservationModel> reservations;
+	private final boolean hasNext;
+	private final int pageSize;
+
+	/**
+	 * Constructor for ReservationPage.
+	 *
+	 * @param reservations the reservations on this page
+	 * @param hasNext      whether more reservations follow this page
+	 * @param pageSize     the maximum number of reservations per page
+	 */
+	public ReservationPage(List<ReservationModel> reservations, boolean hasNext, int pageSize) {
+		this.reservations = reservations;
+		this.hasNext = hasNext;
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Gets the reservations on this page.
+	 *
+	 * @return the reservations, newest first
+	 */
+	public List<ReservationModel> getReservations() {
+		return reservations;
+	}
+
+	/**
+	 * Checks whether more reservations follow this page.
+	 *
+	 * @return true if there is a next page
+	 */
+	public boolean isHasNext() {
+		return hasNext;
+	}
+
+	/**
+	 * Gets the maximum number of reservations per page.
+	 *
+	 * @return the page size
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Gets the cursor date for the next page.
+	 *
+	 * @return the date of the last reservation on this page, or null if empty
+	 */
+	public LocalDate getNextAfterDate() {
+		return reservations.isEmpty() ? null : reservations.get(reservations.size() - 1).getReservationDate();
+	}
+
+	/**
+	 * Gets the cursor ID for the next page.
+	 *
+	 * @return the ID of the last reservation on this page, or null if empty
+	 */
+	public Integer getNextAfterId() {
+		return reservations.isEmpty() ? null : reservations.get(reservations.size() - 1).getReservationId();
+	}
+}
@@ -0,0 +1,173 @@
+package com.rescuenet.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * SessionPrincipal is what the session keeps about the logged-in user: the
+ * user ID, role, username and the profile version it was built from. It is
+ * immutable, holds no password hash or profile details (those are loaded on
+ * demand through UserProfileCache), and serializes through a small proxy that
+ * writes just those four fields, so a replicated or persisted session costs a
+ * few dozen bytes per user.
+ */
+public final class SessionPrincipal implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The role ID of administrators. */
+	public static final int ADMIN_ROLE_ID = 2;
+
+	private final int userId;
+	private final int roleId;
+	private final String username;
+	private final long version;
+
+	/**
+	 * Constructor for SessionPrincipal.
+	 *
+	 * @param userId   the user's ID
+	 * @param roleId   the user's role ID
+	 * @param username the user's username
+	 * @param version  the profile version the principal was built from
+	 */
+	public SessionPrincipal(int userId, int roleId, String username, long version) {
+		this.userId = userId;
+		this.roleId = roleId;
+		this.username = username;
+		this.version = version;
+	}
+
+	/**
+	 * Builds the principal for a user.
+	 *
+	 * @param user    the user's profile
+	 * @param version the profile version the profile was read at
+	 * @return the principal
+	 */
+	public static SessionPrincipal of(UserModel user, long version) {
+		return new SessionPrincipal(user.getUserId(), user.getRoleId(), user.getUsername(), version);
+	}
+
+	/**
+	 * Gets the user's ID.
+	 *
+	 * @return the user ID
+	 */
+	public int getUserId() {
+		return userId;
+	}
+
+	/**
+	 * Gets the user's role ID.
+	 *
+	 * @return the role ID
+	 */
+	public int getRoleId() {
+		return roleId;
+	}
+
+	/**
+	 * Checks whether the user is an administrator.
+	 *
+	 * @return true for administrators
+	 */
+	public boolean isAdmin() {
+		return roleId == ADMIN_ROLE_ID;
+	}
+
+	/**
+	 * Gets the user's username.
+	 *
+	 * @return the username
+	 */
+	public String getUsername() {
+		return username;
+	}
+
+	/**
+	 * Gets the profile version the principal was built from. A principal older
+	 * than the user's current profile version is refreshed on its next request.
+	 *
+	 * @return the profile version
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public String toString() {
+		return "SessionPrincipal[userId=" + userId + ", roleId=" + roleId + ", username=" + username + "]";
+	}
+
+	// --- Serialization ---
+
+	private Object writeReplace() {
+		return new SerializedForm(this);
+	}
+
+	private void readObject(ObjectInputStream in) throws InvalidObjectException {
+		throw new InvalidObjectException("SessionPrincipal is serialized through its proxy.");
+	}
+
+	/**
+	 * The serialized form of a principal: its four fields, written directly
+	 * with no class descriptors for the fields.
+	 */
+	private static final class SerializedForm implements Externalizable {
+		private static final long serialVersionUID = 1L;
+		private static final byte FORMAT = 1;
+
+		private SessionPrincipal principal;
+
+		/**
+		 * Constructor used by deserialization.
+		 */
+		public SerializedForm() {
+		}
+
+		SerializedForm(SessionPrincipal principal) {
+			this.principal = principal;
+		}
+
+		@Override
+		public void writeExternal(ObjectOutput out) throws IOException {
+			write(out, principal);
+		}
+
+		@Override
+		public void readExternal(ObjectInput in) throws IOException {
+			principal = read(in);
+		}
+
+		private Object readResolve() {
+			return principal;
+		}
+
+		private static void write(DataOutput out, SessionPrincipal principal) throws IOException {
+			out.writeByte(FORMAT);
+			out.writeInt(principal.userId);
+			out.writeInt(principal.roleId);
+			out.writeUTF(principal.username != null ? principal.username : "");
+			out.writeLong(principal.version);
+		}
+
+		private static SessionPrincipal read(DataInput in) throws IOException {
+			byte format = in.readByte();
+			if (format != FORMAT) {
+				throw new InvalidObjectException("Unknown SessionPrincipal format " + format + ".");
+			}
+			return new SessionPrincipal(in.readInt(), in.readInt(), in.readUTF(), in.readLong());
+		}
+	}
+}
@@ -22,6 +22,8 @@ public class VehicleModel {
 	private String status;
 	private LocalDate manufacturedDate;
 	private String imagePath;
+	private String thumbnailPath;
+	private String mediumPath;
 	private String description;
 	private BigDecimal price;
 
@@ -175,6 +177,42 @@ public class VehicleModel {
 		this.imagePath = imagePath;
 	}
 
+	/**
+	 * Gets the path of the 320 px wide copy of the image.
+	 *
+	 * @return the thumbnail path, or null if there is none (yet)
+	 */
+	public String getThumbnailPath() {
+		return thumbnailPath;
+	}
+
+	/**
+	 * Sets the path of the 320 px wide copy of the image.
+	 *
+	 * @param thumbnailPath the thumbnail path to set
+	 */
+	public void setThumbnailPath(String thumbnailPath) {
+		this.thumbnailPath = thumbnailPath;
+	}
+
+	/**
+	 * Gets the path of the 800 px wide copy of the image.
+	 *
+	 * @return the medium path, or null if there is none (yet)
+	 */
+	public String getMediumPath() {
+		return mediumPath;
+	}
+
+	/**
+	 * Sets the path of the 800 px wide copy of the image.
+	 *
+	 * @param mediumPath the medium path to set
+	 */
+	public void setMediumPath(String mediumPath) {
+		this.mediumPath = mediumPath;
+	}
+
 	/**
 	 * Gets the description.
 	 *
@@ -0,0 +1,266 @@
+package com.rescuenet.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
+import jakarta.servlet.ServletContext;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * AssetRegistry is the static asset pipeline. At startup it reads the style
+ * sheets and system images out of the web application, names each one after
+ * a hash of its content (css/header.css becomes
+ * /assets/css/header.1a2b3c4d5e.css) and keeps the bytes, plus a gzip copy of
+ * the text formats, in memory. Because a changed file gets a new URL, those
+ * URLs can be cached by browsers forever.
+ */
+public final class AssetRegistry {
+
+	private static final Logger LOG = LogManager.getLogger(AssetRegistry.class);
+
+	/** The URL prefix the asset servlet is mapped to. */
+	public static final String URL_PREFIX = "/assets/";
+
+	/** The application attribute holding the logical path to URL map used by the JSPs. */
+	public static final String URLS_ATTRIBUTE = "assets";
+
+	/** The application attribute holding the registry itself. */
+	public static final String REGISTRY_ATTRIBUTE = AssetRegistry.class.getName();
+
+	// --- Pipeline Configuration ---
+	private static final String[] ROOTS = { "/css/", "/resources/images/system/" };
+	private static final Set<String> COMPRESSIBLE = Set.of("css", "js", "svg", "ico", "json", "txt");
+	private static final int HASH_LENGTH = 10;
+	// The fingerprint inserted before the extension: name.<hash>.ext
+	private static final Pattern FINGERPRINT = Pattern.compile("\\.[0-9a-f]{" + HASH_LENGTH + "}(?=\\.[^./]+$)");
+
+	private final Map<String, Asset> byUrlPath = new HashMap<>();
+	private final Map<String, Asset> byLogicalPath = new HashMap<>();
+	private final Map<String, String> urls = new TreeMap<>();
+
+	private AssetRegistry() {
+	}
+
+	/**
+	 * Builds the registry from the files under the asset roots.
+	 *
+	 * @param context the servlet context to read the files from
+	 * @return the registry
+	 */
+	public static AssetRegistry build(ServletContext context) {
+		AssetRegistry registry = new AssetRegistry();
+		long start = System.nanoTime();
+		long rawBytes = 0;
+		long gzipBytes = 0;
+		for (String root : ROOTS) {
+			for (String resourcePath : listFiles(context, root)) {
+				try {
+					Asset asset = registry.add(context, resourcePath);
+					rawBytes += asset.body.length;
+					gzipBytes += asset.gzipBody != null ? asset.gzipBody.length : asset.body.length;
+				} catch (IOException e) {
+					LOG.warn("Skipping asset {} - {}", resourcePath, e.getMessage());
+				}
+			}
+		}
+		LOG.info("Fingerprinted {} assets ({} bytes, {} bytes compressed) in {} ms.", registry.byUrlPath.size(),
+				rawBytes, gzipBytes, (System.nanoTime() - start) / 1_000_000);
+		return registry;
+	}
+
+	/**
+	 * Gets the map from logical path (such as "css/header.css") to fingerprinted
+	 * URL, relative to the context path.
+	 *
+	 * @return an unmodifiable map of asset URLs
+	 */
+	public Map<String, String> getUrls() {
+		return Collections.unmodifiableMap(urls);
+	}
+
+	/**
+	 * Finds an asset by its fingerprinted path.
+	 *
+	 * @param urlPath the path below the /assets/ prefix
+	 * @return the asset, or null if no asset has that fingerprint
+	 */
+	public Asset findByUrlPath(String urlPath) {
+		return byUrlPath.get(urlPath);
+	}
+
+	/**
+	 * Finds the current version of an asset from a possibly outdated
+	 * fingerprinted path, as requested by a page cached before a redeploy.
+	 *
+	 * @param urlPath the path below the /assets/ prefix
+	 * @return the current asset, or null if there is no such file
+	 */
+	public Asset findCurrent(String urlPath) {
+		return byLogicalPath.get(FINGERPRINT.matcher(urlPath).replaceFirst(""));
+	}
+
+	/**
+	 * Gets the number of registered assets.
+	 *
+	 * @return the asset count
+	 */
+	public int size() {
+		return byUrlPath.size();
+	}
+
+	private Asset add(ServletContext context, String resourcePath) throws IOException {
+		byte[] body;
+		try (InputStream in = context.getResourceAsStream(resourcePath)) {
+			if (in == null) {
+				throw new IOException("not readable");
+			}
+			body = in.readAllBytes();
+		}
+		String logicalPath = resourcePath.substring(1);
+		String hash = sha256(body).substring(0, HASH_LENGTH);
+		int dot = logicalPath.lastIndexOf('.');
+		int slash = logicalPath.lastIndexOf('/');
+		String extension = dot > slash ? logicalPath.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+		String urlPath = dot > slash ? logicalPath.substring(0, dot) + "." + hash + logicalPath.substring(dot)
+				: logicalPath + "." + hash;
+
+		String contentType = context.getMimeType(resourcePath);
+		if (contentType == null) {
+			contentType = "application/octet-stream";
+		} else if (contentType.startsWith("text/") && !contentType.contains("charset")) {
+			contentType += ";charset=UTF-8";
+		}
+		byte[] gzipBody = COMPRESSIBLE.contains(extension) ? gzip(body) : null;
+		if (gzipBody != null && gzipBody.length >= body.length * 9 / 10) {
+			gzipBody = null; // Not worth the decompression on the client
+		}
+
+		Asset asset = new Asset(logicalPath, contentType, body, gzipBody, "\"" + hash + "\"");
+		byUrlPath.put(urlPath, asset);
+		byLogicalPath.put(logicalPath, asset);
+		urls.put(logicalPath, URL_PREFIX + urlPath);
+		return asset;
+	}
+
+	private static Set<String> listFiles(ServletContext context, String directory) {
+		Set<String> files = new TreeSet<>();
+		Set<String> entries = context.getResourcePaths(directory);
+		if (entries == null) {
+			return files;
+		}
+		for (String entry : entries) {
+			if (entry.endsWith("/")) {
+				files.addAll(listFiles(context, entry));
+			} else {
+				files.add(entry);
+			}
+		}
+		return files;
+	}
+
+	private static String sha256(byte[] body) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static byte[] gzip(byte[] body) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 2 + 64);
+		// Compressed once at startup, so the slowest level costs nothing per request
+		try (GZIPOutputStream out = new GZIPOutputStream(buffer) {
+			{
+				def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			out.write(body);
+		}
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * A fingerprinted static file held in memory.
+	 */
+	public static final class Asset {
+		private final String logicalPath;
+		private final String contentType;
+		private final byte[] body;
+		private final byte[] gzipBody;
+		private final String etag;
+
+		private Asset(String logicalPath, String contentType, byte[] body, byte[] gzipBody, String etag) {
+			this.logicalPath = logicalPath;
+			this.contentType = contentType;
+			this.body = body;
+			this.gzipBody = gzipBody;
+			this.etag = etag;
+		}
+
+		/**
+		 * Gets the path of the file within the web application, without the
+		 * leading slash.
+		 *
+		 * @return the logical path
+		 */
+		public String getLogicalPath() {
+			return logicalPath;
+		}
+
+		/**
+		 * Gets the MIME type of the file.
+		 *
+		 * @return the content type
+		 */
+		public String getContentType() {
+			return contentType;
+		}
+
+		/**
+		 * Gets the file content. The array is shared and must not be modified.
+		 *
+		 * @return the uncompressed bytes
+		 */
+		public byte[] getBody() {
+			return body;
+		}
+
+		/**
+		 * Gets the gzip-compressed content. The array is shared and must not be
+		 * modified.
+		 *
+		 * @return the gzip bytes, or null if the file is not worth compressing
+		 */
+		public byte[] getGzipBody() {
+			return gzipBody;
+		}
+
+		/**
+		 * Gets the entity tag of the uncompressed content.
+		 *
+		 * @return the quoted content hash
+		 */
+		public String getEtag() {
+			return etag;
+		}
+	}
+}
@@ -0,0 +1,231 @@
+package com.rescuenet.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * AuthRateLimiter throttles login and registration attempts before they reach
+ * the database or the password key derivation, so a scripted burst of
+ * attempts cannot tie up the CPU. Every attempt takes a token from two
+ * buckets, one for the client's address and one for the username it names,
+ * and is refused while either is empty. Each bucket refills at a steady rate
+ * up to its burst size; the rates and bursts are context parameters (see
+ * web.xml).
+ *
+ * A bucket is a single AtomicLong holding the time at which it will be full
+ * again, updated with compare-and-set, so attempts never wait on a lock. A
+ * bucket that has refilled completely holds no information and is dropped by
+ * the next sweep. At most MAX_TRACKED_KEYS buckets are kept; once that many
+ * are in use, attempts for addresses or usernames without a bucket share one
+ * overflow bucket per kind until a sweep frees room.
+ */
+public final class AuthRateLimiter {
+
+	private static final Logger LOG = LogManager.getLogger(AuthRateLimiter.class);
+
+	// --- Defaults (see web.xml) ---
+	/** Attempts per minute allowed from one client address. */
+	public static final int DEFAULT_ADDRESS_PER_MINUTE = 30;
+	/** Attempts one client address may make back to back. */
+	public static final int DEFAULT_ADDRESS_BURST = 10;
+	/** Attempts per minute allowed for one username. */
+	public static final int DEFAULT_USERNAME_PER_MINUTE = 6;
+	/** Attempts for one username that may be made back to back. */
+	public static final int DEFAULT_USERNAME_BURST = 5;
+
+	private static final int MAX_TRACKED_KEYS = 50_000;
+
+	private static final AuthRateLimiter INSTANCE = new AuthRateLimiter();
+
+	// Bucket key ("a:" + address or "u:" + username) -> the time it is full again
+	private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+	private final AtomicLong addressOverflow = new AtomicLong(System.nanoTime());
+	private final AtomicLong usernameOverflow = new AtomicLong(System.nanoTime());
+	private final AtomicBoolean sweeping = new AtomicBoolean();
+
+	private volatile Limit addressLimit = new Limit(DEFAULT_ADDRESS_PER_MINUTE, DEFAULT_ADDRESS_BURST);
+	private volatile Limit usernameLimit = new Limit(DEFAULT_USERNAME_PER_MINUTE, DEFAULT_USERNAME_BURST);
+
+	// --- Metrics ---
+	private final LongAdder allowed = new LongAdder();
+	private final LongAdder throttledByAddress = new LongAdder();
+	private final LongAdder throttledByUsername = new LongAdder();
+
+	private AuthRateLimiter() {
+	}
+
+	/**
+	 * Gets the shared rate limiter.
+	 *
+	 * @return the application-wide instance
+	 */
+	public static AuthRateLimiter getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Sets the limits. Called by DbPoolListener when the application starts;
+	 * values below one are raised to one.
+	 *
+	 * @param addressPerMinute  attempts per minute allowed from one address
+	 * @param addressBurst      attempts one address may make back to back
+	 * @param usernamePerMinute attempts per minute allowed for one username
+	 * @param usernameBurst     attempts for one username that may be made back
+	 *                          to back
+	 */
+	public void configure(int addressPerMinute, int addressBurst, int usernamePerMinute, int usernameBurst) {
+		addressLimit = new Limit(addressPerMinute, addressBurst);
+		usernameLimit = new Limit(usernamePerMinute, usernameBurst);
+		LOG.info("Login rate limits: {}/min (burst {}) per address, {}/min (burst {}) per username.",
+				addressLimit.perMinute, addressLimit.burst, usernameLimit.perMinute, usernameLimit.burst);
+	}
+
+	/**
+	 * Records a login or registration attempt, if the limits allow it.
+	 *
+	 * @param clientAddress the address the attempt came from
+	 * @param username      the username it names, or null if none was given
+	 * @return 0 if the attempt may go ahead, otherwise the number of seconds
+	 *         after which it may be retried
+	 */
+	public long tryAcquire(String clientAddress, String username) {
+		long now = System.nanoTime();
+		long wait = take("a:" + clientAddress, addressLimit, addressOverflow, now);
+		if (wait > 0) {
+			throttledByAddress.increment();
+			return toRetrySeconds(wait);
+		}
+		if (username != null && !username.isBlank()) {
+			wait = take("u:" + username.trim().toLowerCase(Locale.ROOT), usernameLimit, usernameOverflow, now);
+			if (wait > 0) {
+				throttledByUsername.increment();
+				return toRetrySeconds(wait);
+			}
+		}
+		allowed.increment();
+		return 0;
+	}
+
+	/**
+	 * Takes a token from a bucket.
+	 *
+	 * @return 0 if a token was taken, otherwise the nanoseconds until one is
+	 *         available
+	 */
+	private long take(String key, Limit limit, AtomicLong overflow, long now) {
+		AtomicLong bucket = buckets.get(key);
+		if (bucket == null) {
+			if (buckets.size() >= MAX_TRACKED_KEYS) {
+				sweep(now);
+			}
+			bucket = buckets.size() < MAX_TRACKED_KEYS ? buckets.computeIfAbsent(key, k -> new AtomicLong(now))
+					: overflow;
+		}
+		while (true) {
+			long fullAt = bucket.get();
+			long next = Math.max(fullAt, now) + limit.intervalNanos;
+			long excess = next - now - limit.capacityNanos;
+			if (excess > 0) {
+				return excess;
+			}
+			if (bucket.compareAndSet(fullAt, next)) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * Drops the buckets that have refilled completely. Only one thread sweeps
+	 * at a time; the others carry on. A bucket dropped just as it is taken from
+	 * loses that one token.
+	 */
+	private void sweep(long now) {
+		if (sweeping.compareAndSet(false, true)) {
+			try {
+				buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+			} finally {
+				sweeping.set(false);
+			}
+		}
+	}
+
+	private static long toRetrySeconds(long waitNanos) {
+		return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+	}
+
+	/**
+	 * Forgets every bucket. Called when the application stops.
+	 */
+	public void clear() {
+		buckets.clear();
+	}
+
+	// --- Metrics Getters ---
+
+	/**
+	 * Gets the number of attempts allowed through.
+	 *
+	 * @return the allowed count
+	 */
+	public long getAllowedCount() {
+		return allowed.sum();
+	}
+
+	/**
+	 * Gets the number of attempts refused because their address was over its
+	 * limit.
+	 *
+	 * @return the count throttled by address
+	 */
+	public long getThrottledByAddressCount() {
+		return throttledByAddress.sum();
+	}
+
+	/**
+	 * Gets the number of attempts refused because their username was over its
+	 * limit.
+	 *
+	 * @return the count throttled by username
+	 */
+	public long getThrottledByUsernameCount() {
+		return throttledByUsername.sum();
+	}
+
+	/**
+	 * Gets the number of buckets currently kept.
+	 *
+	 * @return the tracked key count
+	 */
+	public int getTrackedKeyCount() {
+		return buckets.size();
+	}
+
+	/**
+	 * A rate and burst size, as the nanoseconds one token takes to refill and
+	 * the nanoseconds a full bucket takes to refill.
+	 */
+	private static final class Limit {
+		private final int perMinute;
+		private final int burst;
+		private final long intervalNanos;
+		private final long capacityNanos;
+
+		Limit(int perMinute, int burst) {
+			this.perMinute = Math.max(1, perMinute);
+			this.burst = Math.max(1, burst);
+			this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / this.perMinute;
+			this.capacityNanos = intervalNanos * this.burst;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package com.rescuenet.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * CatalogFragmentCache holds the rendered HTML of the home page's categorized
+ * catalog, so that the home page copies in ready-made markup instead of
+ * re-running the JSP loops over every vehicle for every visitor. A fragment
+ * is keyed by the VehicleCatalogCache version it was rendered from and by
+ * the context path its links contain. Vehicle and reservation changes bump
+ * the catalog version, so a fragment is replaced once the catalog it shows
+ * has been rebuilt; only the latest fragment per context path is kept.
+ */
+public final class CatalogFragmentCache {
+
+	private static final CatalogFragmentCache INSTANCE = new CatalogFragmentCache();
+
+	// Context path -> the latest fragment rendered for it
+	private final Map<String, Fragment> fragments = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private CatalogFragmentCache() {
+	}
+
+	/**
+	 * Gets the shared fragment cache.
+	 *
+	 * @return the application-wide instance
+	 */
+	public static CatalogFragmentCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Gets the fragment rendered for a catalog version.
+	 *
+	 * @param version     the catalog snapshot's version
+	 * @param contextPath the context path the fragment's links use
+	 * @return the HTML, or null if it has not been rendered for this version
+	 */
+	public String get(long version, String contextPath) {
+		Fragment fragment = fragments.get(contextPath);
+		if (fragment != null && fragment.version == version) {
+			hits.increment();
+			return fragment.html;
+		}
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * Stores a rendered fragment. A fragment for an older version than the one
+	 * already cached is ignored.
+	 *
+	 * @param version     the catalog snapshot's version
+	 * @param contextPath the context path the fragment's links use
+	 * @param html        the rendered HTML
+	 */
+	public void put(long version, String contextPath, String html) {
+		fragments.merge(contextPath, new Fragment(version, html),
+				(existing, rendered) -> rendered.version >= existing.version ? rendered : existing);
+	}
+
+	/**
+	 * Drops every fragment. Called when the application stops.
+	 */
+	public void clear() {
+		fragments.clear();
+	}
+
+	/**
+	 * Gets the number of home page views served a cached fragment.
+	 *
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of home page views that had to render the fragment.
+	 *
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * A rendered fragment and the catalog version it shows.
+	 */
+	private static final class Fragment {
+		private final long version;
+		private final String html;
+
+		Fragment(long version, String html) {
+			this.version = version;
+			this.html = html;
+		}
+	}
+}
@@ -0,0 +1,314 @@
+package com.rescuenet.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.metrics.Histogram;
+import com.rescuenet.metrics.MetricsRegistry;
+import com.rescuenet.util.PasswordUtil;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * CredentialVerificationService checks a login password against the stored
+ * password hash. The expensive key derivation runs on a small dedicated pool
+ * instead of the request thread, so a burst of logins queues here (and is
+ * turned away once the queue is full) rather than occupying every Tomcat
+ * worker. Successful verifications are remembered for a few minutes, keyed by
+ * the stored hash, so re-authenticating with the same password skips the key
+ * derivation. The cache holds only a keyed MAC of the password, never the
+ * password itself.
+ */
+public final class CredentialVerificationService {
+
+	private static final Logger LOG = LogManager.getLogger(CredentialVerificationService.class);
+
+	// --- Pool Configuration ---
+	private static final int POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
+	private static final int QUEUE_CAPACITY = 64;
+	private static final long VERIFY_TIMEOUT_MS = 3_000;
+
+	// --- Cache Configuration ---
+	private static final int CACHE_MAX_ENTRIES = 1_000;
+	private static final long CACHE_TTL_MS = 5 * 60_000;
+
+	// Declared after the configuration above, which the constructor reads
+	private static final CredentialVerificationService INSTANCE = new CredentialVerificationService();
+
+	/**
+	 * The outcome of a verification.
+	 */
+	public enum Result {
+		/** The password matches the stored hash. */
+		MATCH,
+		/** The password does not match, or the stored hash could not be decrypted. */
+		MISMATCH,
+		/** Too many verifications are queued; the caller should retry later. */
+		BUSY,
+		/** The verification did not finish in time. */
+		TIMEOUT
+	}
+
+	private final ThreadPoolExecutor executor;
+	private final Map<String, CachedVerification> cache = new LinkedHashMap<>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedVerification> eldest) {
+			return size() > CACHE_MAX_ENTRIES;
+		}
+	};
+	private final byte[] macKey = PasswordUtil.getRandomNonce(32);
+
+	// --- Metrics ---
+	private final LongAdder verifications = new LongAdder();
+	private final LongAdder cacheHits = new LongAdder();
+	private final LongAdder cacheMisses = new LongAdder();
+	private final LongAdder rejections = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder derivationNanos = new LongAdder();
+	private final Histogram queueWait = MetricsRegistry.getInstance().histogram(
+			"rescuenet_credential_queue_wait_seconds", "Time verifications wait for a credential pool thread.");
+	private final Histogram derivationTime = MetricsRegistry.getInstance().histogram(
+			"rescuenet_credential_derivation_seconds", "Time spent deriving a key to verify a password.");
+
+	private CredentialVerificationService() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+					Thread thread = new Thread(r, "rescuenet-credential-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Gets the shared verification service.
+	 *
+	 * @return the application-wide instance
+	 */
+	public static CredentialVerificationService getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Verifies a password against a stored hash.
+	 *
+	 * @param storedHash the Base64 hash from the users table
+	 * @param username   the username the hash was encrypted with
+	 * @param password   the plain password entered by the user
+	 * @return the outcome of the verification
+	 */
+	public Result verify(String storedHash, String username, String password) {
+		verifications.increment();
+		byte[] fingerprint = fingerprint(username, password);
+
+		// --- Recently Verified? ---
+		if (fingerprint != null && isCached(storedHash, fingerprint)) {
+			cacheHits.increment();
+			return Result.MATCH;
+		}
+		cacheMisses.increment();
+
+		// --- Derive on the Credential Pool ---
+		Future<Boolean> future;
+		long submittedAt = System.nanoTime();
+		try {
+			future = executor.submit(() -> {
+				long start = System.nanoTime();
+				queueWait.record(start - submittedAt);
+				try {
+					String decrypted = PasswordUtil.decrypt(storedHash, username);
+					return decrypted != null && decrypted.equals(password);
+				} finally {
+					long elapsed = System.nanoTime() - start;
+					derivationNanos.add(elapsed);
+					derivationTime.record(elapsed);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			rejections.increment();
+			LOG.warn("Queue full, rejecting verification for {}", username);
+			return Result.BUSY;
+		}
+
+		boolean matches;
+		try {
+			matches = future.get(VERIFY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			timeouts.increment();
+			LOG.warn("Verification timed out for {}", username);
+			return Result.TIMEOUT;
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			return Result.TIMEOUT;
+		} catch (ExecutionException e) {
+			LOG.error("Verification failed for {} - {}", username, e.getCause().getMessage());
+			return Result.MISMATCH;
+		}
+
+		if (matches && fingerprint != null) {
+			synchronized (cache) {
+				cache.put(storedHash, new CachedVerification(fingerprint, System.currentTimeMillis() + CACHE_TTL_MS));
+			}
+		}
+		return matches ? Result.MATCH : Result.MISMATCH;
+	}
+
+	/**
+	 * Stops the credential pool. Called when the application stops.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	private boolean isCached(String storedHash, byte[] fingerprint) {
+		synchronized (cache) {
+			CachedVerification cached = cache.get(storedHash);
+			if (cached == null) {
+				return false;
+			}
+			if (cached.expiresAt < System.currentTimeMillis()) {
+				cache.remove(storedHash);
+				return false;
+			}
+			return MessageDigest.isEqual(cached.fingerprint, fingerprint);
+		}
+	}
+
+	/**
+	 * Computes an HMAC-SHA256 of the credentials under a key that exists only
+	 * in this process, so cached entries are useless outside it.
+	 */
+	private byte[] fingerprint(String username, String password) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(macKey, "HmacSHA256"));
+			mac.update(username.getBytes(StandardCharsets.UTF_8));
+			mac.update((byte) 0);
+			return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+		} catch (Exception e) {
+			LOG.error("Cannot fingerprint credentials - {}", e.getMessage());
+			return null; // Verify without the cache
+		}
+	}
+
+	// --- Metrics Getters ---
+
+	/**
+	 * Gets the number of verifications requested.
+	 *
+	 * @return the verification count
+	 */
+	public long getVerificationCount() {
+		return verifications.sum();
+	}
+
+	/**
+	 * Gets the number of verifications answered from the cache.
+	 *
+	 * @return the cache hit count
+	 */
+	public long getCacheHitCount() {
+		return cacheHits.sum();
+	}
+
+	/**
+	 * Gets the number of verifications that needed a key derivation.
+	 *
+	 * @return the cache miss count
+	 */
+	public long getCacheMissCount() {
+		return cacheMisses.sum();
+	}
+
+	/**
+	 * Gets the number of verifications turned away because the queue was full.
+	 *
+	 * @return the rejection count
+	 */
+	public long getRejectionCount() {
+		return rejections.sum();
+	}
+
+	/**
+	 * Gets the number of verifications that timed out.
+	 *
+	 * @return the timeout count
+	 */
+	public long getTimeoutCount() {
+		return timeouts.sum();
+	}
+
+	/**
+	 * Gets the total time spent deriving keys, in nanoseconds.
+	 *
+	 * @return the cumulative derivation time
+	 */
+	public long getDerivationNanos() {
+		return derivationNanos.sum();
+	}
+
+	/**
+	 * Gets the number of verifications waiting for a pool thread.
+	 *
+	 * @return the current queue depth
+	 */
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * Gets the number of pool threads currently deriving keys.
+	 *
+	 * @return the active thread count
+	 */
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	/**
+	 * Gets the number of cached verifications, including expired ones not yet
+	 * evicted.
+	 *
+	 * @return the cache size
+	 */
+	public int getCacheSize() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	private static final class CachedVerification {
+		private final byte[] fingerprint;
+		private final long expiresAt;
+
+		private CachedVerification(byte[] fingerprint, long expiresAt) {
+			this.fingerprint = fingerprint;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package com.rescuenet.service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * DashboardMetrics holds the fleet counters shown on the admin dashboard. The
+ * counters are computed once from the database, then kept current in memory
+ * from committed vehicle changes (see FleetEvents), so loading the dashboard
+ * costs no database round trips. A background task recomputes them
+ * periodically to correct any drift and to refresh the date-dependent
+ * in-service count. A change that would leave an impossible count (fewer
+ * than zero, or more available vehicles than vehicles) means the counters
+ * have drifted, so they are dropped and recomputed on the next read.
+ */
+public final class DashboardMetrics {
+
+	private static final Logger LOG = LogManager.getLogger(DashboardMetrics.class);
+
+	private static final DashboardMetrics INSTANCE = new DashboardMetrics();
+	private static final long RECONCILE_INTERVAL_MINUTES = 5;
+
+	private final AtomicReference<Snapshot> current = new AtomicReference<>();
+	private final AtomicLong mutations = new AtomicLong();
+	private ScheduledExecutorService reconciler;
+
+	private DashboardMetrics() {
+	}
+
+	/**
+	 * Gets the shared dashboard counters.
+	 *
+	 * @return the application-wide instance
+	 */
+	public static DashboardMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Gets the current counters, computing them with the loader on first use.
+	 * The first successful load also starts periodic reconciliation with the
+	 * same loader.
+	 *
+	 * @param loader computes the counters from the database, returning null on
+	 *               failure
+	 * @return the current counters, or null if none could be loaded
+	 */
+	public Snapshot getSnapshot(Supplier<Snapshot> loader) {
+		Snapshot snapshot = current.get();
+		if (snapshot != null) {
+			return snapshot;
+		}
+		synchronized (this) {
+			if (current.get() == null && reconcile(loader) && reconciler == null) {
+				reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+					Thread thread = new Thread(r, "rescuenet-dashboard-reconciler");
+					thread.setDaemon(true);
+					return thread;
+				});
+				reconciler.scheduleWithFixedDelay(() -> reconcile(loader), RECONCILE_INTERVAL_MINUTES,
+						RECONCILE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+			}
+		}
+		return current.get();
+	}
+
+	/**
+	 * Stops periodic reconciliation. Called when the application stops.
+	 */
+	public synchronized void shutdown() {
+		if (reconciler != null) {
+			reconciler.shutdownNow();
+			reconciler = null;
+		}
+		current.set(null);
+	}
+
+	/**
+	 * Counts a newly added vehicle.
+	 *
+	 * @param status the new vehicle's status
+	 */
+	public void onVehicleAdded(String status) {
+		int availableDelta = isAvailable(status) ? 1 : 0;
+		apply(s -> new Snapshot(s.totalVehicles + 1, s.availableVehicles + availableDelta, s.vehiclesInService));
+	}
+
+	/**
+	 * Moves a vehicle between the available and unavailable counts.
+	 *
+	 * @param previousStatus the vehicle's status before the change
+	 * @param status         the vehicle's new status
+	 */
+	public void onVehicleStatusChanged(String previousStatus, String status) {
+		int delta = (isAvailable(status) ? 1 : 0) - (isAvailable(previousStatus) ? 1 : 0);
+		if (delta == 0) {
+			return;
+		}
+		apply(s -> new Snapshot(s.totalVehicles, s.availableVehicles + delta, s.vehiclesInService));
+	}
+
+	/**
+	 * Applies a change to the counters, or drops them if the change leaves an
+	 * impossible count, so the next read recomputes them.
+	 */
+	private void apply(UnaryOperator<Snapshot> change) {
+		mutations.incrementAndGet();
+		Snapshot existing;
+		Snapshot updated;
+		do {
+			existing = current.get();
+			if (existing == null) {
+				return;
+			}
+			updated = change.apply(existing);
+			if (!updated.isPossible()) {
+				updated = null;
+			}
+		} while (!current.compareAndSet(existing, updated));
+		if (updated == null) {
+			LOG.warn("Dashboard counters drifted (total {}, available {}); recomputing them.",
+					existing.totalVehicles, existing.availableVehicles);
+		}
+	}
+
+	/**
+	 * Recomputes the counters. The result is discarded if a change was applied
+	 * while the query ran, since it may or may not include that change; the
+	 * next run picks it up.
+	 */
+	private boolean reconcile(Supplier<Snapshot> loader) {
+		long before = mutations.get();
+		Snapshot loaded = loader.get();
+		if (loaded == null) {
+			return false;
+		}
+		Snapshot existing = current.get();
+		if (existing == null || mutations.get() == before) {
+			if (existing != null && (existing.totalVehicles != loaded.totalVehicles
+					|| existing.availableVehicles != loaded.availableVehicles)) {
+				LOG.debug("Reconciled drifted counters (total {} -> {}, available {} -> {}).",
+						existing.totalVehicles, loaded.totalVehicles, existing.availableVehicles,
+						loaded.availableVehicles);
+			}
+			current.compareAndSet(existing, loaded);
+		}
+		return true;
+	}
+
+	private static boolean isAvailable(String status) {
+		return "Available".equalsIgnoreCase(status);
+	}
+
+	/**
+	 * An immutable set of dashboard counters.
+	 */
+	public static final class Snapshot {
+		private final int totalVehicles;
+		private final int availableVehicles;
+		private final int vehiclesInService;
+
+		/**
+		 * Constructor for Snapshot.
+		 *
+		 * @param totalVehicles     the number of vehicles in the fleet
+		 * @param availableVehicles the number of vehicles with status Available
+		 * @param vehiclesInService the number of current or upcoming services
+		 */
+		public Snapshot(int totalVehicles, int availableVehicles, int vehiclesInService) {
+			this.totalVehicles = totalVehicles;
+			this.availableVehicles = availableVehicles;
+			this.vehiclesInService = vehiclesInService;
+		}
+
+		private boolean isPossible() {
+			return totalVehicles >= 0 && availableVehicles >= 0 && availableVehicles <= totalVehicles
+					&& vehiclesInService >= 0;
+		}
+
+		/**
+		 * Gets the number of vehicles in the fleet.
+		 *
+		 * @return the total vehicle count
+		 */
+		public int getTotalVehicles() {
+			return totalVehicles;
+		}
+
+		/**
+		 * Gets the number of vehicles with status Available.
+		 *
+		 * @return the available vehicle count
+		 */
+		public int getAvailableVehicles() {
+			return availableVehicles;
+		}
+
+		/**
+		 * Gets the number of services dated today or later.
+		 *
+		 * @return the in-service count
+		 */
+		public int getVehiclesInService() {
+			return vehiclesInService;
+		}
+	}
+}
@@ -6,77 +6,52 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import com.rescuenet.config.DbConfig;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
 
 /**
  * @author Prayash Rawal
  */
 /**
- * DashboardService provides methods to retrieve vehicle statistics for the
- * RescueNet application's dashboard. It interacts with the database to count
- * total vehicles, available vehicles, and vehicles in service.
+ * DashboardService provides the vehicle statistics for the RescueNet
+ * application's dashboard: total vehicles, available vehicles, and vehicles in
+ * service. The counters are served from DashboardMetrics and computed from the
+ * database in a single aggregate query only when needed.
  */
 public class DashboardService {
 
-	/**
-	 * Retrieves the total number of vehicles in the database.
-	 *
-	 * @return the total number of vehicles
-	 */
-	public int getTotalVehicles() {
-		return getCount("SELECT COUNT(*) FROM vehicles");
-	}
+	private static final Logger LOG = LogManager.getLogger(DashboardService.class);
 
-	/**
-	 * Retrieves the number of vehicles with an 'available' status.
-	 *
-	 * @return the number of available vehicles
-	 */
-	public int getAvailableVehicles() {
-		return getCount("SELECT COUNT(*) FROM vehicles WHERE status = 'available'");
-	}
+	private static final String COUNTERS_QUERY = "SELECT "
+			+ "(SELECT COUNT(*) FROM vehicles) AS total_vehicles, "
+			+ "(SELECT COUNT(*) FROM vehicles WHERE status = 'Available') AS available_vehicles, "
+			+ "(SELECT COUNT(*) FROM services WHERE service_date >= CURDATE()) AS vehicles_in_service";
 
 	/**
-	 * Retrieves the number of vehicles currently in service based on active service
-	 * dates.
+	 * Retrieves the current dashboard counters.
 	 *
-	 * @return the number of vehicles in service
+	 * @return the counters, or null if they could not be computed
 	 */
-	public int getVehiclesInService() {
-		return getCount("SELECT COUNT(*) FROM services WHERE service_date >= CURDATE()");
+	public DashboardMetrics.Snapshot getCounters() {
+		return DashboardMetrics.getInstance().getSnapshot(DashboardService::loadCounters);
 	}
 
 	/**
-	 * Executes a SQL query to retrieve a count from the database.
+	 * Computes all dashboard counters in one query.
 	 *
-	 * @param query the SQL query to execute
-	 * @return the count result from the query, or 0 if an error occurs
+	 * @return the counters, or null if an error occurs
 	 */
-	private int getCount(String query) {
-		int count = 0;
-		Connection conn = null;
-		try {
-			conn = DbConfig.getDbConnection();
-			if (conn == null) {
-				System.err.println("Failed to establish database connection.");
-				return count;
-			}
-			try (PreparedStatement stmt = conn.prepareStatement(query); ResultSet rs = stmt.executeQuery()) {
-				if (rs.next()) {
-					count = rs.getInt(1);
-				}
+	private static DashboardMetrics.Snapshot loadCounters() {
+		try (Connection conn = DbConfig.getDbConnection();
+				PreparedStatement stmt = conn.prepareStatement(COUNTERS_QUERY);
+				ResultSet rs = stmt.executeQuery()) {
+			if (rs.next()) {
+				return new DashboardMetrics.Snapshot(rs.getInt("total_vehicles"), rs.getInt("available_vehicles"),
+						rs.getInt("vehicles_in_service"));
 			}
 		} catch (SQLException | ClassNotFoundException e) {
-			System.err.println("Error executing query: " + e.getMessage());
-			e.printStackTrace();
-		} finally {
-			if (conn != null) {
-				try {
-					conn.close();
-				} catch (SQLException e) {
-					System.err.println("Error closing connection: " + e.getMessage());
-				}
-			}
+			LOG.error("Error executing query: {}", e.getMessage(), e);
 		}
-		return count;
+		return null;
 	}
-}
\ No newline at end of file
+}
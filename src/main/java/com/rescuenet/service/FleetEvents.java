@@ -0,0 +1,71 @@
+package com.rescuenet.service;
+
+import com.rescuenet.model.ReservationModel;
+import com.rescuenet.model.VehicleModel;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * FleetEvents tells the in-memory views of the fleet (the catalog cache, the
+ * search index, the availability index and the dashboard counters) about
+ * committed vehicle and reservation changes. Services call these
+ * methods only after the change has been committed, so the views never show
+ * state that could still be rolled back.
+ */
+public final class FleetEvents {
+
+	private FleetEvents() {
+	}
+
+	/**
+	 * Publishes a newly added vehicle.
+	 *
+	 * @param vehicle the vehicle, with its generated ID set
+	 */
+	public static void vehicleAdded(VehicleModel vehicle) {
+		VehicleCatalogCache.getInstance().invalidate();
+		VehicleSearchIndex.getInstance().onVehicleAdded(vehicle);
+		DashboardMetrics.getInstance().onVehicleAdded(vehicle.getStatus());
+	}
+
+	/**
+	 * Publishes a change to a vehicle's status. Nothing is published if the
+	 * status did not actually change.
+	 *
+	 * @param vehicleId      the ID of the vehicle
+	 * @param previousStatus the vehicle's status before the change
+	 * @param status         the vehicle's new status
+	 */
+	public static void vehicleStatusChanged(int vehicleId, String previousStatus, String status) {
+		if (status.equalsIgnoreCase(previousStatus)) {
+			return;
+		}
+		VehicleCatalogCache.getInstance().invalidate();
+		VehicleSearchIndex.getInstance().onVehicleStatusChanged(vehicleId, status);
+		DashboardMetrics.getInstance().onVehicleStatusChanged(previousStatus, status);
+	}
+
+	/**
+	 * Publishes newly generated copies of an uploaded image, so vehicles showing
+	 * it switch to the smaller files.
+	 *
+	 * @param imagePath     the original image path
+	 * @param thumbnailPath the thumbnail path
+	 * @param mediumPath    the medium path, or null if the original is smaller
+	 */
+	public static void imageVariantsReady(String imagePath, String thumbnailPath, String mediumPath) {
+		VehicleCatalogCache.getInstance().invalidate();
+		VehicleSearchIndex.getInstance().onImageVariantsReady(imagePath, thumbnailPath, mediumPath);
+	}
+
+	/**
+	 * Publishes a created, updated or deleted reservation.
+	 *
+	 * @param before the reservation before the change, or null if it was created
+	 * @param after  the reservation after the change, or null if it was deleted
+	 */
+	public static void reservationChanged(ReservationModel before, ReservationModel after) {
+		ReservationAvailabilityIndex.getInstance().onReservationChanged(before, after);
+	}
+}
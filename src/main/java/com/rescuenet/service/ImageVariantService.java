@@ -0,0 +1,486 @@
+package com.rescuenet.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ImageVariantService stores uploaded images and produces the smaller copies
+ * the pages show. An upload is written once under a name derived from its
+ * content, so uploading the same picture again reuses the existing file. A
+ * 320 px thumbnail and an 800 px medium JPEG are then generated on a small
+ * background pool; until they exist, pages fall back to the original. Images
+ * uploaded before this service existed get their variants the first time they
+ * are displayed.
+ */
+public final class ImageVariantService {
+
+	private static final Logger LOG = LogManager.getLogger(ImageVariantService.class);
+
+	/** Width of the thumbnail variant, in pixels. */
+	public static final int THUMBNAIL_WIDTH = 320;
+	/** Width of the medium variant, in pixels. */
+	public static final int MEDIUM_WIDTH = 800;
+
+	// --- Pipeline Configuration ---
+	private static final int[] WIDTHS = { THUMBNAIL_WIDTH, MEDIUM_WIDTH };
+	private static final float JPEG_QUALITY = 0.82f;
+	private static final int HASH_LENGTH = 32;
+	private static final int POOL_SIZE = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+	private static final int QUEUE_CAPACITY = 32;
+	private static final Set<String> EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "webp", "bmp");
+
+	// Declared after the configuration above, which the constructor reads
+	private static final ImageVariantService INSTANCE = new ImageVariantService();
+
+	private final ThreadPoolExecutor executor;
+	// Original image path -> its variants, once generation has finished
+	private final Map<String, Variants> variants = new ConcurrentHashMap<>();
+	private final Set<String> pending = ConcurrentHashMap.newKeySet();
+	private volatile Path webRoot;
+
+	// --- Metrics ---
+	private final LongAdder stored = new LongAdder();
+	private final LongAdder deduplicated = new LongAdder();
+	private final LongAdder generated = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+
+	private ImageVariantService() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+					Thread thread = new Thread(r, "rescuenet-image-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					thread.setPriority(Thread.NORM_PRIORITY - 1); // Never ahead of request threads
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Gets the shared image service.
+	 *
+	 * @return the application-wide instance
+	 */
+	public static ImageVariantService getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Sets the directory that upload paths are relative to. Called when the
+	 * application starts.
+	 *
+	 * @param webRoot the web application's root directory, or null if the
+	 *                application is not deployed to a directory
+	 */
+	public void start(Path webRoot) {
+		this.webRoot = webRoot;
+		if (webRoot == null) {
+			LOG.warn("No web root directory; uploaded images cannot be stored.");
+		}
+	}
+
+	/**
+	 * Stops the image pool. Called when the application stops.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Stores an uploaded image under a name derived from its content and
+	 * queues generation of its variants.
+	 *
+	 * @param content           the uploaded bytes
+	 * @param submittedFileName the file name sent by the browser, for the
+	 *                          extension
+	 * @param uploadDir         the directory to store it in, relative to the
+	 *                          web root, with forward slashes
+	 * @return the stored image
+	 * @throws IOException if the image cannot be written
+	 */
+	public StoredImage store(InputStream content, String submittedFileName, String uploadDir) throws IOException {
+		Path root = webRoot;
+		if (root == null) {
+			throw new IOException("Upload storage is not available.");
+		}
+		byte[] bytes = content.readAllBytes();
+		String relativePath = uploadDir + "/" + sha256(bytes).substring(0, HASH_LENGTH) + "."
+				+ extensionOf(submittedFileName);
+		Path target = root.resolve(relativePath);
+
+		// --- Write Once, Named by Content ---
+		boolean created = false;
+		if (!Files.exists(target)) {
+			Files.createDirectories(target.getParent());
+			Path temp = tempSibling(target);
+			try {
+				Files.write(temp, bytes);
+				moveIntoPlace(temp, target);
+				created = true;
+			} catch (FileAlreadyExistsException e) {
+				// The same picture was uploaded concurrently; theirs is identical
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		}
+		if (created) {
+			stored.increment();
+		} else {
+			deduplicated.increment();
+		}
+
+		scheduleVariants(relativePath);
+		return new StoredImage(relativePath, created);
+	}
+
+	/**
+	 * Deletes an image stored by this request, along with any variants, when
+	 * the record that would have referenced it was not saved. Images that
+	 * already existed are left alone, since other records may use them.
+	 *
+	 * @param image the stored image, or null
+	 */
+	public void discard(StoredImage image) {
+		Path root = webRoot;
+		if (image == null || !image.isCreated() || root == null) {
+			return;
+		}
+		variants.remove(image.getPath());
+		try {
+			Files.deleteIfExists(root.resolve(image.getPath()));
+			for (int width : WIDTHS) {
+				Files.deleteIfExists(root.resolve(variantPath(image.getPath(), width)));
+			}
+		} catch (IOException e) {
+			LOG.warn("Error deleting discarded image {} - {}", image.getPath(), e.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the path of a resized variant of an image. If the variants have
+	 * never been generated, generation is queued and null is returned.
+	 *
+	 * @param imagePath the original image path, relative to the web root
+	 * @param width     THUMBNAIL_WIDTH or MEDIUM_WIDTH
+	 * @return the variant path, or null if there is no such variant (yet)
+	 */
+	public String getVariantPath(String imagePath, int width) {
+		if (imagePath == null || imagePath.isEmpty()) {
+			return null;
+		}
+		Variants known = variants.get(imagePath);
+		if (known == null) {
+			known = findExisting(imagePath);
+			if (known == null) {
+				scheduleVariants(imagePath);
+				return null;
+			}
+			variants.putIfAbsent(imagePath, known);
+		}
+		return width == THUMBNAIL_WIDTH ? known.thumbnailPath : known.mediumPath;
+	}
+
+	// --- Variant Generation ---
+
+	private void scheduleVariants(String imagePath) {
+		if (webRoot == null || variants.containsKey(imagePath) || !pending.add(imagePath)) {
+			return;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					generateVariants(imagePath);
+				} finally {
+					pending.remove(imagePath);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			pending.remove(imagePath);
+			rejected.increment();
+			LOG.debug("Image queue full, variants for {} deferred to its next display.", imagePath);
+		}
+	}
+
+	private void generateVariants(String imagePath) {
+		Path root = webRoot;
+		Path original = root.resolve(imagePath);
+		try {
+			BufferedImage source = ImageIO.read(original.toFile());
+			if (source == null) {
+				// No ImageIO reader for this format (WebP, for example): keep serving the original
+				variants.put(imagePath, Variants.NONE);
+				LOG.debug("No decoder for {}; serving the original only.", imagePath);
+				return;
+			}
+			String[] paths = new String[WIDTHS.length];
+			for (int i = 0; i < WIDTHS.length; i++) {
+				if (source.getWidth() > WIDTHS[i]) {
+					paths[i] = variantPath(imagePath, WIDTHS[i]);
+					writeJpeg(resize(source, WIDTHS[i]), root.resolve(paths[i]));
+					generated.increment();
+				}
+			}
+			Variants result = new Variants(paths[0], paths[1]);
+			variants.put(imagePath, result);
+			if (result.thumbnailPath != null) {
+				FleetEvents.imageVariantsReady(imagePath, result.thumbnailPath, result.mediumPath);
+			}
+		} catch (IOException | RuntimeException e) {
+			failed.increment();
+			variants.put(imagePath, Variants.NONE); // Don't retry a broken image on every page view
+			LOG.warn("Could not generate variants for {} - {}", imagePath, e.getMessage());
+		}
+	}
+
+	/**
+	 * Looks for variants generated by an earlier run of the application.
+	 */
+	private Variants findExisting(String imagePath) {
+		Path root = webRoot;
+		if (root == null) {
+			return Variants.NONE;
+		}
+		String thumbnail = variantPath(imagePath, THUMBNAIL_WIDTH);
+		if (!Files.exists(root.resolve(thumbnail))) {
+			return null;
+		}
+		String medium = variantPath(imagePath, MEDIUM_WIDTH);
+		return new Variants(thumbnail, Files.exists(root.resolve(medium)) ? medium : null);
+	}
+
+	/**
+	 * Scales an image to a width, halving repeatedly first so that large
+	 * reductions stay smooth with bilinear filtering. Transparent areas become
+	 * white, since the result is a JPEG.
+	 */
+	private static BufferedImage resize(BufferedImage source, int width) {
+		BufferedImage current = source;
+		int currentWidth = source.getWidth();
+		int currentHeight = source.getHeight();
+		while (currentWidth / 2 >= width) {
+			currentWidth /= 2;
+			currentHeight = Math.max(1, currentHeight / 2);
+			current = draw(current, currentWidth, currentHeight);
+		}
+		int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+		return currentWidth == width ? current : draw(current, width, height);
+	}
+
+	private static BufferedImage draw(BufferedImage source, int width, int height) {
+		BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = target.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.setColor(Color.WHITE);
+			graphics.fillRect(0, 0, width, height);
+			graphics.drawImage(source, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+		return target;
+	}
+
+	private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+		Path temp = tempSibling(target);
+		try {
+			try (OutputStream out = Files.newOutputStream(temp);
+					ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+				ImageWriteParam param = writer.getDefaultWriteParam();
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				param.setCompressionQuality(JPEG_QUALITY);
+				param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT); // Renders coarse-to-fine on slow links
+				writer.setOutput(imageOut);
+				writer.write(null, new IIOImage(image, null, null), param);
+			}
+			moveIntoPlace(temp, target);
+		} catch (FileAlreadyExistsException e) {
+			// Written by an earlier run; same source, same result
+		} finally {
+			writer.dispose();
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	// --- Helpers ---
+
+	private static void moveIntoPlace(Path temp, Path target) throws IOException {
+		try {
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, target);
+		}
+	}
+
+	/**
+	 * Names a temporary file next to the target. Unlike Files.createTempFile it
+	 * keeps the default permissions, so the web server can read the result.
+	 */
+	private static Path tempSibling(Path target) {
+		return target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+	}
+
+	private static String variantPath(String imagePath, int width) {
+		int dot = imagePath.lastIndexOf('.');
+		String base = dot > imagePath.lastIndexOf('/') ? imagePath.substring(0, dot) : imagePath;
+		return base + "-" + width + ".jpg";
+	}
+
+	private static String extensionOf(String fileName) {
+		if (fileName != null) {
+			int dot = fileName.lastIndexOf('.');
+			String extension = dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+			if (EXTENSIONS.contains(extension)) {
+				return extension;
+			}
+		}
+		return "img";
+	}
+
+	private static String sha256(byte[] bytes) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	// --- Metrics Getters ---
+
+	/**
+	 * Gets the number of uploads written as new files.
+	 *
+	 * @return the stored image count
+	 */
+	public long getStoredCount() {
+		return stored.sum();
+	}
+
+	/**
+	 * Gets the number of uploads that matched an existing file.
+	 *
+	 * @return the deduplicated upload count
+	 */
+	public long getDeduplicatedCount() {
+		return deduplicated.sum();
+	}
+
+	/**
+	 * Gets the number of variants generated.
+	 *
+	 * @return the generated variant count
+	 */
+	public long getGeneratedCount() {
+		return generated.sum();
+	}
+
+	/**
+	 * Gets the number of generation requests turned away because the queue was
+	 * full.
+	 *
+	 * @return the rejection count
+	 */
+	public long getRejectionCount() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Gets the number of images whose variants could not be generated.
+	 *
+	 * @return the failure count
+	 */
+	public long getFailureCount() {
+		return failed.sum();
+	}
+
+	/**
+	 * Gets the number of images waiting for a pool thread.
+	 *
+	 * @return the current queue depth
+	 */
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * An image written by {@link #store}.
+	 */
+	public static final class StoredImage {
+		private final String path;
+		private final boolean created;
+
+		private StoredImage(String path, boolean created) {
+			this.path = path;
+			this.created = created;
+		}
+
+		/**
+		 * Gets the image path to save in the database, relative to the web root.
+		 *
+		 * @return the stored path
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * Checks whether this upload created the file, as opposed to matching
+		 * one that was already stored.
+		 *
+		 * @return true if the file is new
+		 */
+		public boolean isCreated() {
+			return created;
+		}
+	}
+
+	private static final class Variants {
+		private static final Variants NONE = new Variants(null, null);
+
+		private final String thumbnailPath;
+		private final String mediumPath;
+
+		private Variants(String thumbnailPath, String mediumPath) {
+			this.thumbnailPath = thumbnailPath;
+			this.mediumPath = mediumPath;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.rescuenet.service;
+
+import java.util.Locale;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ImportFormat is the file format of a bulk import: CSV with a header row, or
+ * JSON objects (a JSON array, or one object per line).
+ */
+public enum ImportFormat {
+	CSV, JSON;
+
+	/**
+	 * Works out a file's format from its name, falling back to its content type.
+	 *
+	 * @param fileName    the uploaded file's name, or null
+	 * @param contentType the uploaded file's content type, or null
+	 * @return the format, or null if it is neither CSV nor JSON
+	 */
+	public static ImportFormat detect(String fileName, String contentType) {
+		String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+		String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+		if (name.endsWith(".csv") || type.startsWith("text/csv")) {
+			return CSV;
+		}
+		if (name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson") || type.contains("json")) {
+			return JSON;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,269 @@
+package com.rescuenet.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ImportRecordReader reads a bulk import file one record at a time, so a file
+ * of any size is streamed rather than held in memory. Each record maps field
+ * names, reduced by fieldKey, to their text. Shared by the reservation and
+ * vehicle imports.
+ */
+interface ImportRecordReader {
+
+	/**
+	 * Reads the next record, with field names reduced by fieldKey.
+	 *
+	 * @return the record, or null at the end of the file
+	 * @throws IOException if the file cannot be read or is malformed
+	 */
+	Map<String, String> next() throws IOException;
+
+	/**
+	 * Gets the row number of the record last read: its line number in a CSV
+	 * file, or its position in a JSON file.
+	 *
+	 * @return the row number
+	 */
+	int getRow();
+
+	/**
+	 * Opens a reader for a file.
+	 *
+	 * @param input  the file's contents
+	 * @param format the file's format
+	 * @return the reader
+	 */
+	static ImportRecordReader open(Reader input, ImportFormat format) {
+		return format == ImportFormat.JSON ? new JsonRecordReader(input) : new CsvRecordReader(input);
+	}
+
+	/**
+	 * Reduces a field name to lower case letters, so vehicleId, vehicle_id and
+	 * "Vehicle ID" all match.
+	 */
+	static String fieldKey(String name) {
+		return name.replaceAll("[^A-Za-z]", "").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Reads CSV: a header line, then one record per line. Fields may be quoted
+	 * with double quotes (a doubled quote inside stands for one quote), but
+	 * may not span lines.
+	 */
+	final class CsvRecordReader implements ImportRecordReader {
+		private final BufferedReader in;
+		private List<String> header;
+		private int line;
+
+		CsvRecordReader(Reader input) {
+			this.in = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+		}
+
+		@Override
+		public Map<String, String> next() throws IOException {
+			String text;
+			while ((text = in.readLine()) != null) {
+				line++;
+				if (text.isBlank()) {
+					continue;
+				}
+				List<String> fields = split(text);
+				if (header == null) {
+					header = new ArrayList<>();
+					for (String name : fields) {
+						header.add(fieldKey(name));
+					}
+					continue;
+				}
+				Map<String, String> record = new HashMap<>();
+				for (int i = 0; i < header.size() && i < fields.size(); i++) {
+					record.put(header.get(i), fields.get(i));
+				}
+				return record;
+			}
+			return null;
+		}
+
+		@Override
+		public int getRow() {
+			return line;
+		}
+
+		private static List<String> split(String text) {
+			List<String> fields = new ArrayList<>();
+			StringBuilder field = new StringBuilder();
+			boolean quoted = false;
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (quoted) {
+					if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+						field.append('"');
+						i++;
+					} else if (c == '"') {
+						quoted = false;
+					} else {
+						field.append(c);
+					}
+				} else if (c == '"') {
+					quoted = true;
+				} else if (c == ',') {
+					fields.add(field.toString().trim());
+					field.setLength(0);
+				} else {
+					field.append(c);
+				}
+			}
+			fields.add(field.toString().trim());
+			return fields;
+		}
+	}
+
+	/**
+	 * Reads JSON records: flat objects whose values are strings, numbers,
+	 * booleans or null, either inside one array or one after another (JSON
+	 * Lines). Objects are parsed as they are reached, so the file is never
+	 * held in memory.
+	 */
+	final class JsonRecordReader implements ImportRecordReader {
+		private final PushbackReader in;
+		private boolean started;
+		private int count;
+
+		JsonRecordReader(Reader input) {
+			this.in = new PushbackReader(input instanceof BufferedReader ? input : new BufferedReader(input));
+		}
+
+		@Override
+		public Map<String, String> next() throws IOException {
+			int c = skipWhitespace();
+			if (!started) {
+				started = true;
+				if (c == '[') {
+					c = skipWhitespace();
+				}
+			} else if (c == ',') {
+				c = skipWhitespace();
+			}
+			if (c == -1 || c == ']') {
+				return null;
+			}
+			count++;
+			if (c != '{') {
+				throw new IOException("record " + count + " is not a JSON object");
+			}
+			Map<String, String> record = new HashMap<>();
+			c = skipWhitespace();
+			while (c != '}') {
+				if (c != '"') {
+					throw new IOException("record " + count + ": expected a field name");
+				}
+				String name = readString();
+				if (skipWhitespace() != ':') {
+					throw new IOException("record " + count + ": expected ':' after \"" + name + "\"");
+				}
+				record.put(fieldKey(name), readValue());
+				c = skipWhitespace();
+				if (c == ',') {
+					c = skipWhitespace();
+				} else if (c != '}') {
+					throw new IOException("record " + count + ": expected ',' or '}'");
+				}
+			}
+			return record;
+		}
+
+		@Override
+		public int getRow() {
+			return count;
+		}
+
+		private String readValue() throws IOException {
+			int c = skipWhitespace();
+			if (c == '"') {
+				return readString();
+			}
+			if (c == '{' || c == '[') {
+				throw new IOException("record " + count + ": nested objects and arrays are not supported");
+			}
+			StringBuilder literal = new StringBuilder();
+			while (c != -1 && c != ',' && c != '}' && !Character.isWhitespace(c)) {
+				literal.append((char) c);
+				c = in.read();
+			}
+			if (c != -1) {
+				in.unread(c);
+			}
+			String value = literal.toString();
+			return "null".equals(value) ? null : value;
+		}
+
+		private String readString() throws IOException {
+			StringBuilder value = new StringBuilder();
+			while (true) {
+				int c = in.read();
+				if (c == -1) {
+					throw new IOException("record " + count + ": unterminated string");
+				}
+				if (c == '"') {
+					return value.toString();
+				}
+				if (c == '\\') {
+					int escaped = in.read();
+					switch (escaped) {
+					case 'n':
+						value.append('\n');
+						break;
+					case 't':
+						value.append('\t');
+						break;
+					case 'r':
+						value.append('\r');
+						break;
+					case 'b':
+						value.append('\b');
+						break;
+					case 'f':
+						value.append('\f');
+						break;
+					case 'u':
+						char[] hex = new char[4];
+						for (int i = 0; i < 4; i++) {
+							hex[i] = (char) in.read();
+						}
+						try {
+							value.append((char) Integer.parseInt(new String(hex), 16));
+						} catch (NumberFormatException e) {
+							throw new IOException("record " + count + ": bad \\u escape");
+						}
+						break;
+					case -1:
+						throw new IOException("record " + count + ": unterminated string");
+					default:
+						value.append((char) escaped);
+					}
+				} else {
+					value.append((char) c);
+				}
+			}
+		}
+
+		private int skipWhitespace() throws IOException {
+			int c;
+			do {
+				c = in.read();
+			} while (c != -1 && Character.isWhitespace(c));
+			return c;
+		}
+	}
+}
@@ -6,8 +6,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import com.rescuenet.config.DbConfig;
+import com.rescuenet.config.UnitOfWork;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
 import com.rescuenet.model.UserModel;
-import com.rescuenet.util.PasswordUtil;
 
 /**
  * @author Prayash Rawal
@@ -15,61 +17,26 @@ import com.rescuenet.util.PasswordUtil;
 
 /**
  * Service class for handling login operations in the RescueNet application.
- * Connects to the database, verifies user credentials, and returns login
- * status.
+ * Borrows a connection per call, verifies user credentials, and returns login
+ * status. A single instance is safely shared by concurrent requests.
  */
 public class LoginService {
 
-	private Connection dbConn; // This instance variable can lead to issues in a multi-threaded environment.
-	// Consider getting a fresh connection in each method or using a connection
-	// pool.
-	private boolean isConnectionError = false;
-	private String lastErrorMessage = null;
+	private static final Logger LOG = LogManager.getLogger(LoginService.class);
 
-	/**
-	 * Initializes the database connection for login operations. Sets the connection
-	 * error flag and message if the connection fails. This constructor does NOT
-	 * throw SQLException.
-	 */
-	public LoginService() {
-		try {
-			this.dbConn = DbConfig.getDbConnection(); // This might throw ClassNotFoundException or SQLException
-			if (this.dbConn == null) { // Defensive check if DbConfig returns null
-				this.isConnectionError = true;
-				this.lastErrorMessage = "Database connection could not be established (DbConfig returned null).";
-				System.err.println("LoginService Constructor: " + this.lastErrorMessage);
-			} else {
-				System.out.println("LoginService Constructor: Database connection appears to be established.");
-			}
-		} catch (ClassNotFoundException e) {
-			this.isConnectionError = true;
-			this.lastErrorMessage = "LoginService: Database driver not found - " + e.getMessage();
-			System.err.println(this.lastErrorMessage);
-			e.printStackTrace();
-			this.dbConn = null; // Ensure dbConn is null on this critical error
-		} catch (SQLException e) {
-			this.isConnectionError = true;
-			this.lastErrorMessage = "LoginService: Failed to initialize database connection - " + e.getMessage();
-			System.err.println(this.lastErrorMessage);
-			e.printStackTrace();
-			this.dbConn = null; // Ensure dbConn is null
-		} catch (Exception e) { // Catch any other unexpected runtime errors
-			this.isConnectionError = true;
-			this.lastErrorMessage = "LoginService: Unexpected error during initialization - " + e.getMessage();
-			System.err.println(this.lastErrorMessage);
-			e.printStackTrace();
-			this.dbConn = null;
-		}
-	}
+	// Services are shared by all request threads, so error state is kept per
+	// thread; each request reads back the outcome of its own call.
+	private final ThreadLocal<Boolean> connectionError = ThreadLocal.withInitial(() -> false);
+	private final ThreadLocal<String> lastErrorMessage = new ThreadLocal<>();
 
-	// Getter for connection error flag (for controller to check)
+	// Getter for connection error flag (for controller to check after a call)
 	public boolean isConnectionError() {
-		return isConnectionError;
+		return connectionError.get();
 	}
 
 	// Getter for last error message (for controller to use)
 	public String getLastErrorMessage() {
-		return lastErrorMessage;
+		return lastErrorMessage.get();
 	}
 
 	/**
@@ -83,109 +50,90 @@ public class LoginService {
 	 *         during the login attempt.
 	 */
 	public Boolean loginUser(UserModel userModelFromController) {
-		this.lastErrorMessage = null; // Reset for this specific login attempt
+		lastErrorMessage.remove(); // Reset for this specific login attempt
+		connectionError.set(false);
 
-		// Check flag set by constructor OR if dbConn is null for any other reason
-		if (this.isConnectionError || this.dbConn == null) {
-			if (this.lastErrorMessage == null) { // If constructor error wasn't set but dbConn is null
-				this.lastErrorMessage = "Database connection not available for login operation.";
-			}
-			System.err.println("LoginService (loginUser): " + this.lastErrorMessage);
+		String query = "SELECT user_id, username, password_hash, role_id FROM users WHERE username = ? AND is_active = 1";
+		LOG.debug("Attempting to login user: {}", userModelFromController.getUsername());
+
+		// --- Borrow a Connection for This Call ---
+		Connection conn;
+		try {
+			conn = DbConfig.getDbConnection();
+		} catch (SQLException | ClassNotFoundException e) {
+			connectionError.set(true);
+			lastErrorMessage.set("Database connection not available for login operation.");
+			LOG.error("{} - {}", lastErrorMessage.get(), e.getMessage());
 			return null; // Indicate system-level error
 		}
 
-		String query = "SELECT user_id, username, password_hash, role_id FROM users WHERE username = ? AND is_active = 1";
-		System.out.println(
-				"LoginService (loginUser): Attempting to login user: " + userModelFromController.getUsername());
-
-		// Using try-with-resources for PreparedStatement and ResultSet for auto-closing
-		try (PreparedStatement stmt = this.dbConn.prepareStatement(query)) {
+		String dbUsername;
+		String dbPasswordHash;
+		try (conn; PreparedStatement stmt = conn.prepareStatement(query)) {
 			stmt.setString(1, userModelFromController.getUsername());
 			try (ResultSet result = stmt.executeQuery()) {
-				if (result.next()) {
-					System.out.println(
-							"LoginService (loginUser): User found in DB: " + userModelFromController.getUsername());
-					// Populate the passed-in userModel with id and roleId from DB
-					userModelFromController.setUserId(result.getInt("user_id"));
-					userModelFromController.setRoleId(result.getInt("role_id"));
-					// Perform password validation
-					return validatePassword(result, userModelFromController);
-				} else {
-					this.lastErrorMessage = "No active user found for username: "
-							+ userModelFromController.getUsername();
-					System.err.println("LoginService (loginUser): " + this.lastErrorMessage);
+				if (!result.next()) {
+					lastErrorMessage.set("No active user found for username: " + userModelFromController.getUsername());
+					LOG.warn(lastErrorMessage.get());
 					return false; // User not found or inactive
 				}
+				LOG.debug("User found in DB: {}", userModelFromController.getUsername());
+				// Populate the passed-in userModel with id and roleId from DB
+				userModelFromController.setUserId(result.getInt("user_id"));
+				userModelFromController.setRoleId(result.getInt("role_id"));
+				dbUsername = result.getString("username");
+				dbPasswordHash = result.getString("password_hash");
 			}
 		} catch (SQLException e) {
-			// Don't override isConnectionError if it was already true from constructor.
-			// However, a new SQLException during query could also indicate a connection
-			// issue.
-			// For simplicity here, we'll set a specific message.
-			this.lastErrorMessage = "Database error during login query for username: "
-					+ userModelFromController.getUsername() + " - " + e.getMessage();
-			System.err.println("LoginService (loginUser): " + this.lastErrorMessage);
-			e.printStackTrace();
+			lastErrorMessage.set("Database error during login query for username: "
+					+ userModelFromController.getUsername() + " - " + e.getMessage());
+			LOG.error("{}", lastErrorMessage.get(), e);
 			return null; // Indicate system error during this login attempt
 		}
-		// Note on dbConn: If this.dbConn is a class member initialized in the
-		// constructor,
-		// it should NOT be closed here if the LoginService instance is long-lived or
-		// reused.
-		// It should be closed when the LoginService itself is destroyed or no longer
-		// needed.
-		// For web applications, it's often better to get and close a connection within
-		// each method
-		// or use a connection pool managed by DbConfig.
+
+		// Inside a request the connection above is the unit's shared one, which
+		// close() leaves leased; hand it back so it is not held while verification
+		// waits its turn on the verification pool
+		UnitOfWork unit = UnitOfWork.current();
+		if (unit != null) {
+			unit.releaseConnection();
+		}
+
+		// Perform password validation
+		return validatePassword(dbUsername, dbPasswordHash, userModelFromController);
 	}
 
 	/**
-	 * Validates the provided password against the stored password hash.
+	 * Validates the provided password against the stored password hash on the
+	 * shared CredentialVerificationService.
 	 *
-	 * @param resultFromDb      the ResultSet containing database user data
+	 * @param dbUsername        the username as stored (the hash's key)
+	 * @param dbPasswordHash    the stored password hash
 	 * @param userModelFromForm the UserModel object with user-provided credentials
-	 * @return true if the password matches, false otherwise
-	 * @throws SQLException if a database access error occurs (from
-	 *                      result.getString)
+	 * @return true if the password matches, false if it does not, null if the
+	 *         verification could not be completed (busy or timed out)
 	 */
-	private boolean validatePassword(ResultSet resultFromDb, UserModel userModelFromForm) throws SQLException {
-		String dbUsername = resultFromDb.getString("username");
-		String dbPasswordHash = resultFromDb.getString("password_hash");
+	private Boolean validatePassword(String dbUsername, String dbPasswordHash, UserModel userModelFromForm) {
 		String plainPasswordFromForm = userModelFromForm.getPasswordHash(); // This is the plain password
 
-		System.out.println("LoginService (validatePassword): Validating password for DB user: " + dbUsername);
-
-		String decryptedDbPassword = null;
-		try {
-			decryptedDbPassword = PasswordUtil.decrypt(dbPasswordHash, dbUsername);
-			if (decryptedDbPassword == null) {
-				this.lastErrorMessage = "Password decryption failed for user: " + dbUsername
-						+ ". Stored hash or key (username) might be incorrect.";
-				System.err.println("LoginService (validatePassword): " + this.lastErrorMessage);
-				return false; // Decryption itself failed
-			}
-		} catch (Exception e) {
-			// Catching a broader Exception in case PasswordUtil.decrypt throws something
-			// unexpected
-			this.lastErrorMessage = "An unexpected error occurred during password decryption for user: " + dbUsername
-					+ " - " + e.getMessage();
-			System.err.println("LoginService (validatePassword): " + this.lastErrorMessage);
-			e.printStackTrace();
-			return false;
-		}
+		LOG.debug("Validating password for DB user: {}", dbUsername);
 
 		// Username match is implicitly handled by the SQL query using `WHERE username =
 		// ?`.
-		// An extra check like `dbUsername.equals(userModelFromForm.getUsername())` is
-		// redundant here.
-		boolean passwordsMatch = decryptedDbPassword.equals(plainPasswordFromForm);
-		if (passwordsMatch) {
-			System.out.println("LoginService (validatePassword): Password match successful for " + dbUsername);
+		CredentialVerificationService.Result result = CredentialVerificationService.getInstance()
+				.verify(dbPasswordHash, dbUsername, plainPasswordFromForm);
+		switch (result) {
+		case MATCH:
+			LOG.debug("Password match successful for {}", dbUsername);
 			return true;
-		} else {
-			this.lastErrorMessage = "Password mismatch for user: " + dbUsername;
-			System.err.println("LoginService (validatePassword): " + this.lastErrorMessage);
+		case MISMATCH:
+			lastErrorMessage.set("Password mismatch for user: " + dbUsername);
+			LOG.warn(lastErrorMessage.get());
 			return false;
+		default: // BUSY or TIMEOUT
+			lastErrorMessage.set("Login service is busy. Please try again in a moment.");
+			LOG.warn("Verification {} for {}", result, dbUsername);
+			return null;
 		}
 	}
-}
\ No newline at end of file
+}
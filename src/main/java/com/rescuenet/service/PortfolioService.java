@@ -8,6 +8,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.rescuenet.config.DbConfig;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
 import com.rescuenet.model.UserModel;
 import com.rescuenet.util.PasswordUtil;
 
@@ -23,6 +25,8 @@ import com.rescuenet.util.PasswordUtil;
  */
 public class PortfolioService {
 
+	private static final Logger LOG = LogManager.getLogger(PortfolioService.class);
+
 	private String lastErrorMessage;
 
 	/**
@@ -56,7 +60,7 @@ public class PortfolioService {
 			conn = DbConfig.getDbConnection();
 			if (conn == null) {
 				lastErrorMessage = "Failed to connect to database.";
-				System.err.println("PortfolioService: " + lastErrorMessage);
+				LOG.warn(lastErrorMessage);
 				return null;
 			}
 
@@ -79,11 +83,11 @@ public class PortfolioService {
 				user.setActive(rs.getBoolean("is_active"));
 			} else {
 				lastErrorMessage = "User not found for ID: " + userId;
-				System.err.println("PortfolioService: " + lastErrorMessage);
+				LOG.warn(lastErrorMessage);
 			}
 		} catch (SQLException | ClassNotFoundException e) {
 			lastErrorMessage = "Error fetching user details: " + e.getMessage();
-			System.err.println("PortfolioService: " + lastErrorMessage);
+			LOG.error(lastErrorMessage);
 			throw new SQLException("Failed to fetch user details", e);
 		} finally {
 			// --- Clean Up Resources ---
@@ -91,19 +95,19 @@ public class PortfolioService {
 				if (rs != null)
 					rs.close();
 			} catch (SQLException e) {
-				System.err.println("PortfolioService: Error closing ResultSet - " + e.getMessage());
+				LOG.warn("Error closing ResultSet - {}", e.getMessage());
 			}
 			try {
 				if (stmt != null)
 					stmt.close();
 			} catch (SQLException e) {
-				System.err.println("PortfolioService: Error closing PreparedStatement - " + e.getMessage());
+				LOG.warn("Error closing PreparedStatement - {}", e.getMessage());
 			}
 			try {
 				if (conn != null)
 					conn.close();
 			} catch (SQLException e) {
-				System.err.println("PortfolioService: Error closing Connection - " + e.getMessage());
+				LOG.warn("Error closing Connection - {}", e.getMessage());
 			}
 		}
 		return user;
@@ -163,13 +167,13 @@ public class PortfolioService {
 		params.add(userId);
 
 		String finalQuery = queryBuilder.toString();
-		System.out.println("PortfolioService: Executing update for user ID: " + userId + ". Query: " + finalQuery);
+		LOG.debug("Executing update for user ID: {}. Query: {}", userId, finalQuery);
 
 		// --- Check for No Changes ---
 		if (params.size() == 5 && newProfilePicturePath == null
 				&& (newEncryptedPassword == null || newEncryptedPassword.isEmpty())) {
 			lastErrorMessage = "No changes to update.";
-			System.out.println("PortfolioService: No fields marked for update.");
+			LOG.debug("No fields marked for update.");
 			return true; // Consider no changes as a successful operation
 		}
 
@@ -180,7 +184,7 @@ public class PortfolioService {
 			conn = DbConfig.getDbConnection();
 			if (conn == null) {
 				lastErrorMessage = "Failed to connect to database.";
-				System.err.println("PortfolioService: " + lastErrorMessage);
+				LOG.warn(lastErrorMessage);
 				return false;
 			}
 
@@ -189,7 +193,10 @@ public class PortfolioService {
 				stmt.setObject(i + 1, params.get(i));
 			}
 			int rowsAffected = stmt.executeUpdate();
-			System.out.println("PortfolioService: Rows affected by update: " + rowsAffected);
+			LOG.debug("Rows affected by update: {}", rowsAffected);
+			if (rowsAffected > 0) {
+				UserProfileCache.getInstance().invalidate(userId);
+			}
 			return rowsAffected > 0;
 
 		} catch (SQLException | ClassNotFoundException e) {
@@ -206,7 +213,7 @@ public class PortfolioService {
 			} else {
 				lastErrorMessage = "Error updating user profile: " + e.getMessage();
 			}
-			System.err.println("PortfolioService: " + lastErrorMessage);
+			LOG.warn(lastErrorMessage);
 			throw new SQLException(lastErrorMessage, e);
 		} finally {
 			// --- Clean Up Resources ---
@@ -214,13 +221,13 @@ public class PortfolioService {
 				if (stmt != null)
 					stmt.close();
 			} catch (SQLException e) {
-				System.err.println("PortfolioService: Error closing PreparedStatement - " + e.getMessage());
+				LOG.warn("Error closing PreparedStatement - {}", e.getMessage());
 			}
 			try {
 				if (conn != null)
 					conn.close();
 			} catch (SQLException e) {
-				System.err.println("PortfolioService: Error closing Connection - " + e.getMessage());
+				LOG.warn("Error closing Connection - {}", e.getMessage());
 			}
 		}
 	}
@@ -246,7 +253,7 @@ public class PortfolioService {
 			conn = DbConfig.getDbConnection();
 			if (conn == null) {
 				lastErrorMessage = "Failed to connect to database.";
-				System.err.println("PortfolioService: " + lastErrorMessage);
+				LOG.warn(lastErrorMessage);
 				return true; // Conservative approach: assume taken on connection failure
 			}
 			stmt = conn.prepareStatement(query);
@@ -256,12 +263,12 @@ public class PortfolioService {
 			boolean isTaken = rs.next();
 			if (isTaken) {
 				lastErrorMessage = "Username '" + username + "' is already taken.";
-				System.out.println("PortfolioService: " + lastErrorMessage);
+				LOG.debug(lastErrorMessage);
 			}
 			return isTaken;
 		} catch (SQLException | ClassNotFoundException e) {
 			lastErrorMessage = "Error checking username availability: " + e.getMessage();
-			System.err.println("PortfolioService: " + lastErrorMessage);
+			LOG.error(lastErrorMessage);
 			throw new SQLException(lastErrorMessage, e);
 		} finally {
 			// --- Clean Up Resources ---
@@ -269,19 +276,19 @@ public class PortfolioService {
 				if (rs != null)
 					rs.close();
 			} catch (SQLException e) {
-				System.err.println("PortfolioService: Error closing ResultSet - " + e.getMessage());
+				LOG.warn("Error closing ResultSet - {}", e.getMessage());
 			}
 			try {
 				if (stmt != null)
 					stmt.close();
 			} catch (SQLException e) {
-				System.err.println("PortfolioService: Error closing PreparedStatement - " + e.getMessage());
+				LOG.warn("Error closing PreparedStatement - {}", e.getMessage());
 			}
 			try {
 				if (conn != null)
 					conn.close();
 			} catch (SQLException e) {
-				System.err.println("PortfolioService: Error closing Connection - " + e.getMessage());
+				LOG.warn("Error closing Connection - {}", e.getMessage());
 			}
 		}
 	}
@@ -307,7 +314,7 @@ public class PortfolioService {
 			conn = DbConfig.getDbConnection();
 			if (conn == null) {
 				lastErrorMessage = "Failed to connect to database.";
-				System.err.println("PortfolioService: " + lastErrorMessage);
+				LOG.warn(lastErrorMessage);
 				return true; // Conservative approach: assume taken on connection failure
 			}
 			stmt = conn.prepareStatement(query);
@@ -317,12 +324,12 @@ public class PortfolioService {
 			boolean isTaken = rs.next();
 			if (isTaken) {
 				lastErrorMessage = "Email '" + email + "' is already registered.";
-				System.out.println("PortfolioService: " + lastErrorMessage);
+				LOG.debug(lastErrorMessage);
 			}
 			return isTaken;
 		} catch (SQLException | ClassNotFoundException e) {
 			lastErrorMessage = "Error checking email availability: " + e.getMessage();
-			System.err.println("PortfolioService: " + lastErrorMessage);
+			LOG.error(lastErrorMessage);
 			throw new SQLException(lastErrorMessage, e);
 		} finally {
 			// --- Clean Up Resources ---
@@ -330,19 +337,19 @@ public class PortfolioService {
 				if (rs != null)
 					rs.close();
 			} catch (SQLException e) {
-				System.err.println("PortfolioService: Error closing ResultSet - " + e.getMessage());
+				LOG.warn("Error closing ResultSet - {}", e.getMessage());
 			}
 			try {
 				if (stmt != null)
 					stmt.close();
 			} catch (SQLException e) {
-				System.err.println("PortfolioService: Error closing PreparedStatement - " + e.getMessage());
+				LOG.warn("Error closing PreparedStatement - {}", e.getMessage());
 			}
 			try {
 				if (conn != null)
 					conn.close();
 			} catch (SQLException e) {
-				System.err.println("PortfolioService: Error closing Connection - " + e.getMessage());
+				LOG.warn("Error closing Connection - {}", e.getMessage());
 			}
 		}
 	}
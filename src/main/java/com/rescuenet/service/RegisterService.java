@@ -6,6 +6,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import com.rescuenet.config.DbConfig;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
 import com.rescuenet.model.UserModel;
 
 /**
@@ -14,65 +16,51 @@ import com.rescuenet.model.UserModel;
 
 /**
  * Service class for handling user registration in the RescueNet application.
- * Validates username and email uniqueness and adds new users to the database.
+ * Validates username and email uniqueness and adds new users to the database,
+ * borrowing a connection per call so one instance can serve concurrent requests.
  */
 public class RegisterService {
 
-    private Connection dbConn; // Instance variable for connection
-    private String lastErrorMessage;
-    private boolean isConnectionError = false; // Initialize to false
+    private static final Logger LOG = LogManager.getLogger(RegisterService.class);
+
+    // Services are shared by all request threads, so error state is kept per
+    // thread; each request reads back the outcome of its own call.
+    private final ThreadLocal<String> lastErrorMessage = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> connectionError = ThreadLocal.withInitial(() -> false);
 
     /**
-     * Retrieves the last error message encountered during a service operation.
+     * Retrieves the last error message encountered by the calling thread.
      *
      * @return the last error message, or null if no error occurred
      */
     public String getLastErrorMessage() {
-        return lastErrorMessage;
+        return lastErrorMessage.get();
     }
 
     /**
-     * Checks if a database connection error occurred during service initialization.
+     * Checks if the last call on this thread failed to obtain a database connection.
      *
      * @return true if a connection error was detected, false otherwise.
      */
     public boolean isConnectionError() {
-        return isConnectionError;
+        return connectionError.get();
     }
 
     /**
-     * Initializes the database connection for registration operations.
-     * Handles exceptions internally and sets flags.
-     * This constructor does NOT throw SQLException.
+     * Borrows a connection for a single call, recording a connection error if none is available.
+     *
+     * @param operation the calling operation, used in the error message
+     * @return a connection that the caller must close, or null if unavailable
      */
-    public RegisterService() { // <<<< REMOVED 'throws SQLException'
+    private Connection openConnection(String operation) {
         try {
-            this.dbConn = DbConfig.getDbConnection(); // This might throw ClassNotFoundException or SQLException
-            if (this.dbConn == null) { // Defensive check if DbConfig returns null
-                this.isConnectionError = true;
-                this.lastErrorMessage = "Database connection could not be established (DbConfig returned null).";
-                System.err.println("RegisterService Constructor: " + this.lastErrorMessage);
-            } else {
-                System.out.println("RegisterService Constructor: Database connection appears to be established.");
-            }
-        } catch (ClassNotFoundException e) {
-            this.isConnectionError = true;
-            this.lastErrorMessage = "RegisterService: Database driver not found - " + e.getMessage();
-            System.err.println(this.lastErrorMessage);
-            e.printStackTrace();
-            this.dbConn = null; // Ensure dbConn is null on this critical error
-        } catch (SQLException e) {
-            this.isConnectionError = true;
-            this.lastErrorMessage = "RegisterService: Failed to initialize database connection - " + e.getMessage();
-            System.err.println(this.lastErrorMessage);
-            e.printStackTrace();
-            this.dbConn = null; // Ensure dbConn is null
-        } catch (Exception e) { // Catch any other unexpected runtime errors
-            this.isConnectionError = true;
-            this.lastErrorMessage = "RegisterService: Unexpected error during initialization - " + e.getMessage();
-            System.err.println(this.lastErrorMessage);
-            e.printStackTrace();
-            this.dbConn = null;
+            connectionError.set(false);
+            return DbConfig.getDbConnection();
+        } catch (SQLException | ClassNotFoundException e) {
+            connectionError.set(true);
+            lastErrorMessage.set("DB connection unavailable (" + operation + ").");
+            LOG.error("{} - {}", lastErrorMessage.get(), e.getMessage());
+            return null;
         }
     }
 
@@ -85,31 +73,29 @@ public class RegisterService {
      *         false otherwise.
      */
     public boolean isUsernameExists(String username) { // <<<< REMOVED 'throws SQLException'
-        lastErrorMessage = null;
-        if (this.isConnectionError || this.dbConn == null) {
-            this.lastErrorMessage = "DB connection unavailable (isUsernameExists).";
-            System.err.println("RegisterService: " + this.lastErrorMessage);
-            return true; // Fail safe: assume exists to prevent issues if called before addUser
-        }
+        lastErrorMessage.remove();
         if (username == null || username.trim().isEmpty()) {
-            this.lastErrorMessage = "Username cannot be empty for existence check.";
-            System.err.println("RegisterService: " + this.lastErrorMessage);
+            lastErrorMessage.set("Username cannot be empty for existence check.");
+            LOG.warn(lastErrorMessage.get());
             return false;
         }
+        Connection conn = openConnection("isUsernameExists");
+        if (conn == null) {
+            return true; // Fail safe: assume exists to prevent issues if called before addUser
+        }
 
         String query = "SELECT COUNT(*) FROM users WHERE username = ?";
-        try (PreparedStatement stmt = this.dbConn.prepareStatement(query)) {
+        try (conn; PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setString(1, username.trim());
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 boolean exists = rs.getInt(1) > 0;
-                System.out.println("RegisterService: Username '" + username + "' exists: " + exists);
+                LOG.debug("Username '{}' exists: {}", username, exists);
                 return exists;
             }
         } catch (SQLException e) {
-            this.lastErrorMessage = "Error checking username availability: " + e.getMessage();
-            System.err.println("RegisterService: " + this.lastErrorMessage);
-            e.printStackTrace();
+            lastErrorMessage.set("Error checking username availability: " + e.getMessage());
+            LOG.error("{}", lastErrorMessage.get(), e);
             return true; // Fail safe
         }
         return false;
@@ -124,31 +110,29 @@ public class RegisterService {
      *         false otherwise.
      */
     public boolean isEmailExists(String email) { // <<<< REMOVED 'throws SQLException'
-        lastErrorMessage = null;
-        if (this.isConnectionError || this.dbConn == null) {
-            this.lastErrorMessage = "DB connection unavailable (isEmailExists).";
-            System.err.println("RegisterService: " + this.lastErrorMessage);
-            return true; // Fail safe
-        }
+        lastErrorMessage.remove();
         if (email == null || email.trim().isEmpty()) {
-            this.lastErrorMessage = "Email cannot be empty for existence check.";
-            System.err.println("RegisterService: " + this.lastErrorMessage);
+            lastErrorMessage.set("Email cannot be empty for existence check.");
+            LOG.warn(lastErrorMessage.get());
             return false;
         }
+        Connection conn = openConnection("isEmailExists");
+        if (conn == null) {
+            return true; // Fail safe
+        }
 
         String query = "SELECT COUNT(*) FROM users WHERE email = ?";
-        try (PreparedStatement stmt = this.dbConn.prepareStatement(query)) {
+        try (conn; PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setString(1, email.trim());
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 boolean exists = rs.getInt(1) > 0;
-                System.out.println("RegisterService: Email '" + email + "' exists: " + exists);
+                LOG.debug("Email '{}' exists: {}", email, exists);
                 return exists;
             }
         } catch (SQLException e) {
-            this.lastErrorMessage = "Error checking email availability: " + e.getMessage();
-            System.err.println("RegisterService: " + this.lastErrorMessage);
-            e.printStackTrace();
+            lastErrorMessage.set("Error checking email availability: " + e.getMessage());
+            LOG.error("{}", lastErrorMessage.get(), e);
             return true; // Fail safe
         }
         return false;
@@ -162,41 +146,46 @@ public class RegisterService {
      * @return Boolean: true if success, false if username/email exists, null if DB/system error.
      */
     public Boolean addUser(UserModel userModel) { // <<<< REMOVED 'throws SQLException'
-        lastErrorMessage = null;
-
-        if (this.isConnectionError || this.dbConn == null) {
-            this.lastErrorMessage = "Database connection unavailable for addUser.";
-            System.err.println("RegisterService: " + this.lastErrorMessage);
-            return null;
-        }
+        lastErrorMessage.remove();
 
         // These calls to isUsernameExists and isEmailExists will now use the versions
         // that don't throw SQLException but set lastErrorMessage.
         if (isUsernameExists(userModel.getUsername())) {
-            if (this.lastErrorMessage == null) { // If isUsernameExists itself didn't have a DB problem
-                this.lastErrorMessage = "Username '" + userModel.getUsername() + "' already exists.";
+            if (isConnectionError()) {
+                return null;
             }
-            System.err.println("RegisterService (addUser): " + this.lastErrorMessage);
+            if (lastErrorMessage.get() == null) { // If isUsernameExists itself didn't have a DB problem
+                lastErrorMessage.set("Username '" + userModel.getUsername() + "' already exists.");
+            }
+            LOG.warn(lastErrorMessage.get());
             return false;
         }
-        lastErrorMessage = null; // Reset if first check was ok
+        lastErrorMessage.remove(); // Reset if first check was ok
 
         if (userModel.getEmail() != null && !userModel.getEmail().trim().isEmpty()) {
             if (isEmailExists(userModel.getEmail())) {
-                if (this.lastErrorMessage == null) {
-                    this.lastErrorMessage = "Email '" + userModel.getEmail() + "' already registered.";
+                if (isConnectionError()) {
+                    return null;
+                }
+                if (lastErrorMessage.get() == null) {
+                    lastErrorMessage.set("Email '" + userModel.getEmail() + "' already registered.");
                 }
-                System.err.println("RegisterService (addUser): " + this.lastErrorMessage);
+                LOG.warn(lastErrorMessage.get());
                 return false;
             }
-            lastErrorMessage = null; // Reset if second check was ok
+            lastErrorMessage.remove(); // Reset if second check was ok
+        }
+
+        Connection conn = openConnection("addUser");
+        if (conn == null) {
+            return null;
         }
 
         String insertQuery = "INSERT INTO users (username, password_hash, role_id, full_name, email, phone_number, profile_picture_path, created_at, is_active) "
                 + "VALUES (?, ?, ?, ?, ?, ?, ?, NOW(), ?)";
-        try (PreparedStatement insertStmt = this.dbConn.prepareStatement(insertQuery)) {
+        try (conn; PreparedStatement insertStmt = conn.prepareStatement(insertQuery)) {
             insertStmt.setString(1, userModel.getUsername());
-			insertStmt.setString(2, userModel.getPasswordHash());
+            insertStmt.setString(2, userModel.getPasswordHash());
             insertStmt.setInt(3, userModel.getRoleId());
             insertStmt.setString(4, userModel.getFullName());
             insertStmt.setString(5, userModel.getEmail());
@@ -205,23 +194,18 @@ public class RegisterService {
             insertStmt.setBoolean(8, userModel.isActive());
 
             int rowsAffected = insertStmt.executeUpdate();
-            System.out.println("RegisterService: Rows affected by insert: " + rowsAffected);
+            LOG.debug("Rows affected by insert: {}", rowsAffected);
             if (rowsAffected > 0) {
                 return true;
             } else {
-                this.lastErrorMessage = "User registration failed: no rows were inserted into the database.";
-                System.err.println("RegisterService: " + this.lastErrorMessage);
+                lastErrorMessage.set("User registration failed: no rows were inserted into the database.");
+                LOG.warn(lastErrorMessage.get());
                 return false;
             }
         } catch (SQLException e) {
-            this.lastErrorMessage = "Database error during user insertion: " + e.getMessage();
-            System.err.println("RegisterService: " + this.lastErrorMessage);
-            e.printStackTrace();
+            lastErrorMessage.set("Database error during user insertion: " + e.getMessage());
+            LOG.error("{}", lastErrorMessage.get(), e);
             return null; // System error
         }
-        // Note on dbConn: Connection management needs to be consistent.
-        // If this is a request-scoped service, the connection should be closed.
-        // If it's application-scoped (singleton), this dbConn member is problematic.
-        // Assuming for now that it's managed by DbConfig or this instance is short-lived.
     }
 }
\ No newline at end of file
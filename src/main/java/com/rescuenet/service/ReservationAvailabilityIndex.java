@@ -0,0 +1,288 @@
+package com.rescuenet.service;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.model.ReservationModel;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ReservationAvailabilityIndex keeps, for every vehicle, a bitmap of the dates
+ * on which it has a confirmed reservation. Bit n of a vehicle's bitmap stands
+ * for BASE_DATE plus n days, so a conflict check is a single bit test. A
+ * bitmap spans every day from BASE_DATE to the vehicle's latest booking, about
+ * 46 bytes for each year since BASE_DATE (some 370 bytes for a vehicle booked
+ * into 2027), whether or not the vehicle was booked in those years.
+ *
+ * Only the days a vehicle is booked more than once have an entry in the count
+ * map, so that removing one of two reservations on the same day leaves the
+ * day booked; bookings dated before BASE_DATE, which have no bit, are counted
+ * in a map of their own. The index is loaded once from the database and then
+ * kept in step with reservation create, update and delete.
+ */
+public final class ReservationAvailabilityIndex {
+
+	private static final Logger LOG = LogManager.getLogger(ReservationAvailabilityIndex.class);
+
+	private static final ReservationAvailabilityIndex INSTANCE = new ReservationAvailabilityIndex();
+
+	/** Day 0 of every bitmap. Earlier dates are still counted, just not bitmapped. */
+	public static final LocalDate BASE_DATE = LocalDate.of(2020, 1, 1);
+	private static final long BASE_EPOCH_DAY = BASE_DATE.toEpochDay();
+
+	private final Map<Integer, BitSet> bookedDays = new HashMap<>();
+	// (vehicle ID << 32 | epoch day) -> confirmed reservations beyond the first, for booked bits only
+	private final Map<Long, Integer> extraBookings = new HashMap<>();
+	// (vehicle ID << 32 | epoch day) -> confirmed reservations, for dates before BASE_DATE
+	private final Map<Long, Integer> earlyBookings = new HashMap<>();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile boolean loaded = false;
+
+	private ReservationAvailabilityIndex() {
+	}
+
+	/**
+	 * Gets the shared availability index.
+	 *
+	 * @return the application-wide index instance
+	 */
+	public static ReservationAvailabilityIndex getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Loads the index from the database if that has not happened yet.
+	 *
+	 * @param loader loads every confirmed reservation (vehicle ID and date are
+	 *               enough), returning null on failure
+	 * @return true if the index is loaded and can answer queries
+	 */
+	public boolean ensureLoaded(Supplier<List<ReservationModel>> loader) {
+		if (loaded) {
+			return true;
+		}
+		lock.writeLock().lock();
+		try {
+			if (!loaded) {
+				List<ReservationModel> confirmed = loader.get();
+				if (confirmed == null) {
+					return false;
+				}
+				for (ReservationModel reservation : confirmed) {
+					add(reservation.getVehicleId(), reservation.getReservationDate());
+				}
+				loaded = true;
+				LOG.info("Indexed {} confirmed reservations across {} vehicles.", confirmed.size(), bookedDays.size());
+			}
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Counts the confirmed reservations a vehicle has on a date.
+	 *
+	 * @param vehicleId the ID of the vehicle
+	 * @param date      the date to check
+	 * @return the number of confirmed reservations
+	 */
+	public int countBookings(int vehicleId, LocalDate date) {
+		lock.readLock().lock();
+		try {
+			int offset = offset(date);
+			if (offset < 0) {
+				return earlyBookings.getOrDefault(key(vehicleId, date), 0);
+			}
+			BitSet days = bookedDays.get(vehicleId);
+			if (days == null || !days.get(offset)) {
+				return 0;
+			}
+			return extraBookings.isEmpty() ? 1 : 1 + extraBookings.getOrDefault(key(vehicleId, date), 0);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Checks whether a vehicle has a confirmed reservation on a date.
+	 *
+	 * @param vehicleId the ID of the vehicle
+	 * @param date      the date to check
+	 * @return true if the vehicle is booked that day
+	 */
+	public boolean isBooked(int vehicleId, LocalDate date) {
+		lock.readLock().lock();
+		try {
+			return isBookedLocked(vehicleId, date);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds which of the given vehicles have no confirmed reservation on a date.
+	 *
+	 * @param date       the date to check
+	 * @param vehicleIds the candidate vehicles
+	 * @return the free vehicle IDs, in the order given
+	 */
+	public Set<Integer> freeVehicles(LocalDate date, Collection<Integer> vehicleIds) {
+		Set<Integer> free = new LinkedHashSet<>();
+		lock.readLock().lock();
+		try {
+			for (Integer vehicleId : vehicleIds) {
+				if (!isBookedLocked(vehicleId, date)) {
+					free.add(vehicleId);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return free;
+	}
+
+	/**
+	 * Gets a copy of a vehicle's booked days between two dates.
+	 *
+	 * @param vehicleId the ID of the vehicle
+	 * @param from      the first date (inclusive), not before BASE_DATE
+	 * @param to        the last date (inclusive)
+	 * @return a bitmap where bit n means {@code from} plus n days is booked
+	 */
+	public BitSet getBookedDays(int vehicleId, LocalDate from, LocalDate to) {
+		int start = offset(from);
+		int end = offset(to) + 1;
+		if (start < 0 || end <= start) {
+			throw new IllegalArgumentException("Date range must start on or after " + BASE_DATE + " and be ordered.");
+		}
+		lock.readLock().lock();
+		try {
+			BitSet days = bookedDays.get(vehicleId);
+			return days != null ? days.get(start, end) : new BitSet();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets copies of several vehicles' booked days between two dates, read
+	 * under one lock so they form a consistent snapshot.
+	 *
+	 * @param vehicleIds the IDs of the vehicles
+	 * @param from       the first date (inclusive), not before BASE_DATE
+	 * @param to         the last date (inclusive)
+	 * @return each vehicle's bitmap, where bit n means {@code from} plus n days
+	 *         is booked
+	 */
+	public Map<Integer, BitSet> getBookedDays(Collection<Integer> vehicleIds, LocalDate from, LocalDate to) {
+		int start = offset(from);
+		int end = offset(to) + 1;
+		if (start < 0 || end <= start) {
+			throw new IllegalArgumentException("Date range must start on or after " + BASE_DATE + " and be ordered.");
+		}
+		Map<Integer, BitSet> booked = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			for (Integer vehicleId : vehicleIds) {
+				BitSet days = bookedDays.get(vehicleId);
+				booked.put(vehicleId, days != null ? days.get(start, end) : new BitSet());
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return booked;
+	}
+
+	/**
+	 * Applies a committed reservation change. Pass null as {@code before} for a
+	 * new reservation and null as {@code after} for a deleted one; only
+	 * confirmed reservations occupy a date.
+	 *
+	 * @param before the reservation as it was, or null
+	 * @param after  the reservation as it is now, or null
+	 */
+	public void onReservationChanged(ReservationModel before, ReservationModel after) {
+		lock.writeLock().lock();
+		try {
+			if (!loaded) {
+				return; // The first load reads committed state, including this change
+			}
+			if (isConfirmed(before)) {
+				remove(before.getVehicleId(), before.getReservationDate());
+			}
+			if (isConfirmed(after)) {
+				add(after.getVehicleId(), after.getReservationDate());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private boolean isBookedLocked(int vehicleId, LocalDate date) {
+		int offset = offset(date);
+		if (offset < 0) {
+			return earlyBookings.containsKey(key(vehicleId, date));
+		}
+		BitSet days = bookedDays.get(vehicleId);
+		return days != null && days.get(offset);
+	}
+
+	private void add(int vehicleId, LocalDate date) {
+		int offset = offset(date);
+		if (offset < 0) {
+			earlyBookings.merge(key(vehicleId, date), 1, Integer::sum);
+			return;
+		}
+		BitSet days = bookedDays.computeIfAbsent(vehicleId, k -> new BitSet());
+		if (days.get(offset)) {
+			extraBookings.merge(key(vehicleId, date), 1, Integer::sum);
+		} else {
+			days.set(offset);
+		}
+	}
+
+	private void remove(int vehicleId, LocalDate date) {
+		int offset = offset(date);
+		if (offset < 0) {
+			earlyBookings.computeIfPresent(key(vehicleId, date), (k, count) -> count > 1 ? count - 1 : null);
+			return;
+		}
+		BitSet days = bookedDays.get(vehicleId);
+		if (days == null || !days.get(offset)) {
+			return;
+		}
+		long key = key(vehicleId, date);
+		if (extraBookings.containsKey(key)) {
+			extraBookings.computeIfPresent(key, (k, extra) -> extra > 1 ? extra - 1 : null);
+		} else {
+			days.clear(offset);
+		}
+	}
+
+	private static boolean isConfirmed(ReservationModel reservation) {
+		return reservation != null && reservation.getReservationDate() != null
+				&& "Confirmed".equalsIgnoreCase(reservation.getStatus());
+	}
+
+	private static int offset(LocalDate date) {
+		long offset = date.toEpochDay() - BASE_EPOCH_DAY;
+		return offset < 0 || offset > Integer.MAX_VALUE ? -1 : (int) offset;
+	}
+
+	private static long key(int vehicleId, LocalDate date) {
+		return ((long) vehicleId << 32) | (date.toEpochDay() & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,454 @@
+package com.rescuenet.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.rescuenet.config.DbConfig;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.model.ImportOutcome;
+import com.rescuenet.model.ReservationImportReport;
+import com.rescuenet.model.ReservationModel;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * ReservationImportService loads reservations in bulk from a CSV or JSON file.
+ * The file is read one record at a time and each row is validated in memory
+ * against a snapshot taken when the import starts (vehicle statuses, active
+ * users and the confirmed bookings in ReservationAvailabilityIndex) and
+ * against the rows before it. Valid rows are written in batches of BATCH_SIZE,
+ * each batch in its own transaction: its vehicles are locked, the bookings are
+ * re-checked in the database, the reservations are inserted with one JDBC
+ * batch, and the vehicles that become reserved are updated in a single
+ * statement. Every row gets an entry in the returned report.
+ *
+ * CSV files need a header naming the columns vehicleId, userId,
+ * reservationDate and status (in any order; vehicle_id and similar spellings
+ * are accepted). JSON files hold one object per record with the same fields,
+ * either as a JSON array or as one object per line.
+ */
+public class ReservationImportService {
+
+	private static final Logger LOG = LogManager.getLogger(ReservationImportService.class);
+
+	/** The rows written per transaction. */
+	public static final int BATCH_SIZE = 500;
+
+	/** The most rows read from one file. */
+	public static final int MAX_ROWS = 50_000;
+
+	private static final Set<String> STATUSES = Set.of("Pending", "Confirmed", "Cancelled", "Completed");
+
+	private final ReservationService reservationService = new ReservationService();
+	private String lastErrorMessage;
+
+	/**
+	 * Retrieves the last error message encountered during an import.
+	 *
+	 * @return the last error message, or null if no error occurred
+	 */
+	public String getLastErrorMessage() {
+		return lastErrorMessage;
+	}
+
+	/**
+	 * Imports the reservations in a file. Rows are committed batch by batch, so
+	 * an import stopped by an error keeps the batches written before it.
+	 *
+	 * @param input  the file's contents
+	 * @param format the file's format
+	 * @return the per-row report
+	 */
+	public ReservationImportReport importReservations(Reader input, ImportFormat format) {
+		lastErrorMessage = null;
+		long start = System.currentTimeMillis();
+		ReservationImportReport report = new ReservationImportReport();
+		List<PendingRow> batch = new ArrayList<>(BATCH_SIZE);
+		try {
+			// --- Snapshot the Data Rows Are Checked Against ---
+			Snapshot snapshot = loadSnapshot();
+
+			// --- Read, Validate and Write Batch by Batch ---
+			ImportRecordReader records = ImportRecordReader.open(input, format);
+			Map<String, String> record;
+			while ((record = records.next()) != null) {
+				if (report.getTotalCount() + batch.size() >= MAX_ROWS) {
+					fail(report, "Import stopped after " + MAX_ROWS + " rows; split the file and import the rest.");
+					break;
+				}
+				// Rejected rows join the batch too, so the report stays in file order
+				batch.add(validate(records.getRow(), record, snapshot));
+				if (batch.size() == BATCH_SIZE && !writeBatch(report, batch)) {
+					break;
+				}
+			}
+			if (!batch.isEmpty()) {
+				writeBatch(report, batch);
+			}
+		} catch (IOException e) {
+			fail(report, "Could not read the import file: " + e.getMessage());
+			// The rows read before the bad record are still written
+			if (!batch.isEmpty()) {
+				writeBatch(report, batch);
+			}
+		} catch (SQLException | ClassNotFoundException e) {
+			fail(report, "Could not load the data to check rows against: " + e.getMessage());
+		}
+		report.setElapsedMillis(System.currentTimeMillis() - start);
+		LOG.info("Imported {} of {} reservation rows in {} ms ({} rejected, {} failed).", report.getImportedCount(),
+				report.getTotalCount(), report.getElapsedMillis(), report.getRejectedCount(),
+				report.getFailedCount());
+		return report;
+	}
+
+	// --- Validation ---
+
+	/**
+	 * Checks one record against the snapshot and the rows accepted before it.
+	 */
+	private PendingRow validate(int rowNumber, Map<String, String> record, Snapshot snapshot) {
+		PendingRow row = new PendingRow(rowNumber);
+		String vehicleId = record.get("vehicleid");
+		String userId = record.get("userid");
+		String date = record.containsKey("reservationdate") ? record.get("reservationdate") : record.get("date");
+		String status = record.get("status");
+		if (isBlank(vehicleId) || isBlank(userId) || isBlank(date) || isBlank(status)) {
+			return row.reject("Vehicle, User, Reservation Date, and Status are required.");
+		}
+		try {
+			row.reservation.setVehicleId(Integer.parseInt(vehicleId.trim()));
+			row.reservation.setUserId(Integer.parseInt(userId.trim()));
+		} catch (NumberFormatException e) {
+			return row.reject("Invalid Vehicle or User ID format.");
+		}
+		try {
+			row.reservation.setReservationDate(LocalDate.parse(date.trim()));
+		} catch (DateTimeParseException e) {
+			return row.reject("Invalid Reservation Date format. Use YYYY-MM-DD.");
+		}
+		String canonicalStatus = canonicalStatus(status);
+		if (canonicalStatus == null) {
+			return row.reject("Invalid status '" + status.trim() + "'. Use one of " + STATUSES + ".");
+		}
+		row.reservation.setStatus(canonicalStatus);
+
+		int vehicle = row.reservation.getVehicleId();
+		String vehicleStatus = snapshot.vehicleStatuses.get(vehicle);
+		if (vehicleStatus == null) {
+			return row.reject("Vehicle not found for ID: " + vehicle);
+		}
+		if (!"Available".equalsIgnoreCase(vehicleStatus) && !"Reserved".equalsIgnoreCase(vehicleStatus)) {
+			return row.reject("Vehicle ID " + vehicle + " is not available (Status: " + vehicleStatus + ").");
+		}
+		if (!snapshot.activeUserIds.contains(row.reservation.getUserId())) {
+			return row.reject("User not found for ID: " + row.reservation.getUserId());
+		}
+		String key = bookingKey(vehicle, row.reservation.getReservationDate());
+		if (snapshot.bookedInFile.contains(key) || (snapshot.index != null
+				&& snapshot.index.countBookings(vehicle, row.reservation.getReservationDate()) > 0)) {
+			return row.reject("Vehicle ID " + vehicle + " is reserved for " + row.reservation.getReservationDate() + ".");
+		}
+		if ("Confirmed".equals(canonicalStatus)) {
+			snapshot.bookedInFile.add(key);
+		}
+		return row;
+	}
+
+	private Snapshot loadSnapshot() throws SQLException, ClassNotFoundException {
+		Snapshot snapshot = new Snapshot();
+		try (Connection conn = DbConfig.getDbConnection()) {
+			try (PreparedStatement stmt = conn.prepareStatement("SELECT vehicle_id, status FROM Vehicles");
+					ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					snapshot.vehicleStatuses.put(rs.getInt("vehicle_id"), rs.getString("status"));
+				}
+			}
+			try (PreparedStatement stmt = conn.prepareStatement("SELECT user_id FROM Users WHERE is_active = 1");
+					ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					snapshot.activeUserIds.add(rs.getInt("user_id"));
+				}
+			}
+		}
+		ReservationAvailabilityIndex index = ReservationAvailabilityIndex.getInstance();
+		if (index.ensureLoaded(reservationService::loadConfirmedReservations)) {
+			snapshot.index = index;
+		} else {
+			// Not fatal: each batch checks the database itself
+			LOG.warn("Availability index unavailable; relying on the per-batch database check.");
+		}
+		return snapshot;
+	}
+
+	private static String canonicalStatus(String status) {
+		for (String candidate : STATUSES) {
+			if (candidate.equalsIgnoreCase(status.trim())) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	// --- Writing ---
+
+	/**
+	 * Writes the pending rows in one transaction and reports them. Rows whose
+	 * vehicle or date was taken since the snapshot are rejected; the rest are
+	 * inserted.
+	 *
+	 * @return false if the database failed and the import should stop
+	 */
+	private boolean writeBatch(ReservationImportReport report, List<PendingRow> batch) {
+		Set<Integer> vehicleIds = new TreeSet<>();
+		LocalDate from = null;
+		LocalDate to = null;
+		for (PendingRow row : batch) {
+			if (row.rejection != null) {
+				continue;
+			}
+			vehicleIds.add(row.reservation.getVehicleId());
+			LocalDate date = row.reservation.getReservationDate();
+			from = from == null || date.isBefore(from) ? date : from;
+			to = to == null || date.isAfter(to) ? date : to;
+		}
+
+		if (vehicleIds.isEmpty()) {
+			report(report, batch, Set.of());
+			return true;
+		}
+
+		Connection conn = null;
+		List<PendingRow> toInsert = new ArrayList<>(batch.size());
+		Set<Integer> newlyReserved = new TreeSet<>();
+		try {
+			conn = DbConfig.getDbConnection();
+			conn.setAutoCommit(false);
+
+			// --- Lock the Vehicles and Re-Check Against the Database ---
+			Map<Integer, String> statuses = reservationService.lockVehicles(conn, vehicleIds);
+			Set<String> booked = loadBookings(conn, vehicleIds, from, to);
+			for (PendingRow row : batch) {
+				if (row.rejection != null) {
+					continue;
+				}
+				int vehicleId = row.reservation.getVehicleId();
+				String status = statuses.get(vehicleId);
+				String key = bookingKey(vehicleId, row.reservation.getReservationDate());
+				if (status == null || (!"Available".equalsIgnoreCase(status) && !"Reserved".equalsIgnoreCase(status))) {
+					row.reject("Vehicle ID " + vehicleId + " is no longer available"
+							+ (status != null ? " (Status: " + status + ")." : "."));
+				} else if (booked.contains(key)) {
+					row.reject("Vehicle ID " + vehicleId + " was reserved for " + row.reservation.getReservationDate()
+							+ " during the import.");
+				} else {
+					toInsert.add(row);
+					if ("Confirmed".equals(row.reservation.getStatus())) {
+						booked.add(key);
+						if ("Available".equalsIgnoreCase(status)) {
+							newlyReserved.add(vehicleId);
+						}
+					}
+				}
+			}
+
+			insert(conn, toInsert);
+			markReserved(conn, newlyReserved);
+			conn.commit();
+		} catch (SQLException | ClassNotFoundException e) {
+			lastErrorMessage = "Error importing reservations: " + e.getMessage();
+			LOG.error(lastErrorMessage);
+			try {
+				if (conn != null)
+					conn.rollback();
+			} catch (SQLException ex) {
+				LOG.error("Rollback failed: {}", ex.getMessage());
+			}
+			for (PendingRow row : batch) {
+				if (row.rejection != null) {
+					report.add(rejected(row));
+				} else {
+					report.add(new ReservationImportReport.Row(row.row, ImportOutcome.FAILED, 0,
+							row.reservation.getVehicleId(), row.reservation.getReservationDate(),
+							"Not imported: " + e.getMessage()));
+				}
+			}
+			batch.clear();
+			report.setError(lastErrorMessage);
+			return false;
+		} finally {
+			try {
+				if (conn != null) {
+					conn.setAutoCommit(true);
+					conn.close();
+				}
+			} catch (SQLException ex) {
+				LOG.error("Failed to release connection: {}", ex.getMessage());
+			}
+		}
+
+		report(report, batch, newlyReserved);
+		return true;
+	}
+
+	/**
+	 * Reports a written batch in file order and publishes its changes.
+	 */
+	private static void report(ReservationImportReport report, List<PendingRow> batch, Set<Integer> newlyReserved) {
+		for (PendingRow row : batch) {
+			if (row.rejection != null) {
+				report.add(rejected(row));
+			} else {
+				report.add(new ReservationImportReport.Row(row.row, ImportOutcome.IMPORTED,
+						row.reservation.getReservationId(), row.reservation.getVehicleId(),
+						row.reservation.getReservationDate(), null));
+				FleetEvents.reservationChanged(null, row.reservation);
+			}
+		}
+		for (Integer vehicleId : newlyReserved) {
+			FleetEvents.vehicleStatusChanged(vehicleId, "Available", "Reserved");
+		}
+		batch.clear();
+	}
+
+	private static Set<String> loadBookings(Connection conn, Set<Integer> vehicleIds, LocalDate from, LocalDate to)
+			throws SQLException {
+		Set<String> booked = new HashSet<>();
+		String sql = "SELECT vehicle_id, reservation_date FROM Reservations WHERE status = ? AND vehicle_id IN ("
+				+ String.join(", ", Collections.nCopies(vehicleIds.size(), "?"))
+				+ ") AND reservation_date BETWEEN ? AND ?";
+		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+			int index = 1;
+			stmt.setString(index++, "Confirmed");
+			for (Integer vehicleId : vehicleIds) {
+				stmt.setInt(index++, vehicleId);
+			}
+			stmt.setDate(index++, Date.valueOf(from));
+			stmt.setDate(index, Date.valueOf(to));
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					booked.add(bookingKey(rs.getInt("vehicle_id"), rs.getDate("reservation_date").toLocalDate()));
+				}
+			}
+		}
+		return booked;
+	}
+
+	/**
+	 * Inserts the rows with one JDBC batch (sent as a single multi-row INSERT
+	 * when the driver rewrites batches, see DbConfig) and sets their new IDs.
+	 */
+	private static void insert(Connection conn, List<PendingRow> rows) throws SQLException {
+		if (rows.isEmpty()) {
+			return;
+		}
+		String sql = "INSERT INTO Reservations (user_id, vehicle_id, reservation_date, status) VALUES (?, ?, ?, ?)";
+		try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			for (PendingRow row : rows) {
+				stmt.setInt(1, row.reservation.getUserId());
+				stmt.setInt(2, row.reservation.getVehicleId());
+				stmt.setDate(3, Date.valueOf(row.reservation.getReservationDate()));
+				stmt.setString(4, row.reservation.getStatus());
+				stmt.addBatch();
+			}
+			for (int count : stmt.executeBatch()) {
+				if (count == 0) {
+					throw new SQLException("A reservation row was not inserted.");
+				}
+			}
+			try (ResultSet keys = stmt.getGeneratedKeys()) {
+				for (int i = 0; i < rows.size() && keys.next(); i++) {
+					rows.get(i).reservation.setReservationId(keys.getInt(1));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks vehicles Reserved in one statement.
+	 */
+	private static void markReserved(Connection conn, Set<Integer> vehicleIds) throws SQLException {
+		if (vehicleIds.isEmpty()) {
+			return;
+		}
+		String sql = "UPDATE Vehicles SET status = ? WHERE status = ? AND vehicle_id IN ("
+				+ String.join(", ", Collections.nCopies(vehicleIds.size(), "?")) + ")";
+		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+			int index = 1;
+			stmt.setString(index++, "Reserved");
+			stmt.setString(index++, "Available");
+			for (Integer vehicleId : vehicleIds) {
+				stmt.setInt(index++, vehicleId);
+			}
+			stmt.executeUpdate();
+		}
+	}
+
+	// --- Helpers ---
+
+	private static ReservationImportReport.Row rejected(PendingRow row) {
+		return new ReservationImportReport.Row(row.row, ImportOutcome.REJECTED, 0,
+				row.reservation.getVehicleId() != 0 ? row.reservation.getVehicleId() : null,
+				row.reservation.getReservationDate(), row.rejection);
+	}
+
+	private void fail(ReservationImportReport report, String message) {
+		lastErrorMessage = message;
+		LOG.warn(lastErrorMessage);
+		report.setError(message);
+	}
+
+	private static String bookingKey(int vehicleId, LocalDate date) {
+		return vehicleId + "@" + date;
+	}
+
+	private static boolean isBlank(String value) {
+		return value == null || value.trim().isEmpty();
+	}
+
+	/**
+	 * The data rows are validated against, taken when the import starts.
+	 */
+	private static final class Snapshot {
+		private final Map<Integer, String> vehicleStatuses = new HashMap<>();
+		private final Set<Integer> activeUserIds = new HashSet<>();
+		// Confirmed bookings made by earlier rows of the same file
+		private final Set<String> bookedInFile = new HashSet<>();
+		private ReservationAvailabilityIndex index;
+	}
+
+	/**
+	 * A row waiting to be written, or rejected with a reason.
+	 */
+	private static final class PendingRow {
+		private final int row;
+		private final ReservationModel reservation = new ReservationModel();
+		private String rejection;
+
+		PendingRow(int row) {
+			this.row = row;
+		}
+
+		PendingRow reject(String reason) {
+			rejection = reason;
+			return this;
+		}
+	}
+}
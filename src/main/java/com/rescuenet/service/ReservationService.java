@@ -1,16 +1,31 @@
 package com.rescuenet.service;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Date;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import com.rescuenet.config.DbConfig;
+import com.rescuenet.config.Jdbc;
+import com.rescuenet.config.RowMapper;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.model.AvailabilityCalendar;
+import com.rescuenet.model.ReservationFilter;
 import com.rescuenet.model.ReservationModel;
+import com.rescuenet.model.ReservationPage;
 import com.rescuenet.model.UserModel;
 import com.rescuenet.model.VehicleModel;
 
@@ -26,62 +41,211 @@ import com.rescuenet.model.VehicleModel;
  */
 public class ReservationService {
 
-	private String lastErrorMessage;
+	private static final Logger LOG = LogManager.getLogger(ReservationService.class);
+
+	/** The most days one availability calendar covers, counting its first and last. */
+	public static final int MAX_CALENDAR_DAYS = 366;
+
+	// --- Row Mappers ---
+
+	private static final RowMapper<ReservationModel> RESERVATION = rs -> {
+		int reservationId = rs.findColumn("reservation_id");
+		int userId = rs.findColumn("user_id");
+		int vehicleId = rs.findColumn("vehicle_id");
+		int reservationDate = rs.findColumn("reservation_date");
+		int status = rs.findColumn("status");
+		return row -> {
+			ReservationModel reservation = new ReservationModel();
+			reservation.setReservationId(row.getInt(reservationId));
+			reservation.setUserId(row.getInt(userId));
+			reservation.setVehicleId(row.getInt(vehicleId));
+			Date sqlDate = row.getDate(reservationDate);
+			if (sqlDate != null) {
+				reservation.setReservationDate(sqlDate.toLocalDate());
+			}
+			reservation.setStatus(row.getString(status));
+			return reservation;
+		};
+	};
+
+	// A reservation with its username and vehicle label. The label is built
+	// once per vehicle per result set, since a page often lists one vehicle
+	// many times.
+	private static final RowMapper<ReservationModel> RESERVATION_DETAILS = rs -> {
+		RowMapper.RowReader<ReservationModel> reservations = RESERVATION.bind(rs);
+		int username = rs.findColumn("username");
+		int brandName = rs.findColumn("brand_name");
+		int model = rs.findColumn("model");
+		int serialNumber = rs.findColumn("serial_number");
+		Map<Integer, String> vehicleInfos = new HashMap<>();
+		return row -> {
+			ReservationModel reservation = reservations.read(row);
+			reservation.setUsername(row.getString(username));
+			String vehicleInfo = vehicleInfos.get(reservation.getVehicleId());
+			if (vehicleInfo == null) {
+				vehicleInfo = row.getString(brandName) + " " + row.getString(model) + " ("
+						+ row.getString(serialNumber) + ")";
+				vehicleInfos.put(reservation.getVehicleId(), vehicleInfo);
+			}
+			reservation.setVehicleInfo(vehicleInfo);
+			return reservation;
+		};
+	};
+
+	// The vehicle and date of a confirmed reservation; only used by queries
+	// that select confirmed reservations. A row without a date is mapped with
+	// a null date rather than failing the whole query
+	private static final RowMapper<ReservationModel> BOOKING = rs -> {
+		int vehicleId = rs.findColumn("vehicle_id");
+		int reservationDate = rs.findColumn("reservation_date");
+		return row -> {
+			ReservationModel booking = new ReservationModel();
+			booking.setVehicleId(row.getInt(vehicleId));
+			Date sqlDate = row.getDate(reservationDate);
+			if (sqlDate != null) {
+				booking.setReservationDate(sqlDate.toLocalDate());
+			}
+			booking.setStatus("Confirmed");
+			return booking;
+		};
+	};
+
+	private static final RowMapper<VehicleModel> VEHICLE_STATUS = rs -> {
+		int vehicleId = rs.findColumn("vehicle_id");
+		int status = rs.findColumn("status");
+		return row -> {
+			VehicleModel vehicle = new VehicleModel();
+			vehicle.setVehicleId(row.getInt(vehicleId));
+			vehicle.setStatus(row.getString(status));
+			return vehicle;
+		};
+	};
+
+	private static final RowMapper<VehicleModel> VEHICLE_OPTION = rs -> {
+		int vehicleId = rs.findColumn("vehicle_id");
+		int brandName = rs.findColumn("brand_name");
+		int model = rs.findColumn("model");
+		int serialNumber = rs.findColumn("serial_number");
+		return row -> {
+			VehicleModel vehicle = new VehicleModel();
+			vehicle.setVehicleId(row.getInt(vehicleId));
+			vehicle.setBrandName(row.getString(brandName));
+			vehicle.setModel(row.getString(model));
+			vehicle.setSerialNumber(row.getString(serialNumber));
+			return vehicle;
+		};
+	};
+
+	private static final RowMapper<VehicleModel> VEHICLE_CALENDAR_ROW = rs -> {
+		RowMapper.RowReader<VehicleModel> options = VEHICLE_OPTION.bind(rs);
+		int type = rs.findColumn("type");
+		int status = rs.findColumn("status");
+		return row -> {
+			VehicleModel vehicle = options.read(row);
+			vehicle.setType(row.getString(type));
+			vehicle.setStatus(row.getString(status));
+			return vehicle;
+		};
+	};
+
+	private static final RowMapper<UserModel> USER_OPTION = rs -> {
+		int userId = rs.findColumn("user_id");
+		int username = rs.findColumn("username");
+		int fullName = rs.findColumn("full_name");
+		return row -> {
+			UserModel user = new UserModel();
+			user.setUserId(row.getInt(userId));
+			user.setUsername(row.getString(username));
+			user.setFullName(row.getString(fullName));
+			return user;
+		};
+	};
+
+	// Per thread: the servlet shares one service instance across requests, and
+	// QueryGroup runs its reads on several threads at once
+	private final ThreadLocal<String> lastErrorMessage = new ThreadLocal<>();
 
 	/**
-	 * Retrieves the last error message encountered during a service operation.
+	 * Retrieves the last error message encountered during a service operation
+	 * on the calling thread.
 	 *
 	 * @return the last error message, or null if no error occurred
 	 */
 	public String getLastErrorMessage() {
-		return lastErrorMessage;
+		return lastErrorMessage.get();
+	}
+
+	/**
+	 * Clears the calling thread's error message. Controllers call this when
+	 * they finish a request, since executor threads are reused.
+	 */
+	public void clearLastErrorMessage() {
+		lastErrorMessage.remove();
 	}
 
 	/**
-	 * Retrieves all reservations with associated user and vehicle details.
+	 * Retrieves one page of reservations with associated user and vehicle
+	 * details, newest first. Uses keyset pagination on (reservation_date,
+	 * reservation_id): each page continues strictly after the filter's cursor,
+	 * so the cost of a page does not grow with how far back it is.
 	 *
-	 * @return a list of ReservationModel objects with populated details
+	 * @param filter   the filters and cursor to apply
+	 * @param pageSize the maximum number of reservations to return
+	 * @return the requested page
 	 * @throws SQLException if a database access error occurs
 	 */
-	public List<ReservationModel> getAllReservationsWithDetails() throws SQLException {
-		List<ReservationModel> reservations = new ArrayList<>();
-		String sql = "SELECT r.reservation_id, r.user_id, r.vehicle_id, r.reservation_date, r.status, "
-				+ "u.username, v.brand_name, v.model, v.serial_number " + "FROM Reservations r "
-				+ "JOIN Users u ON r.user_id = u.user_id " + "JOIN Vehicles v ON r.vehicle_id = v.vehicle_id "
-				+ "ORDER BY r.reservation_date DESC, r.reservation_id DESC";
-
-		Connection conn = null;
-		PreparedStatement stmt = null;
-		ResultSet rs = null;
+	public ReservationPage getReservationsPage(ReservationFilter filter, int pageSize) throws SQLException {
+		lastErrorMessage.remove();
+		List<Object> params = new ArrayList<>();
+		StringBuilder sql = new StringBuilder(SqlCatalog.RESERVATION_PAGE.getSql());
+
+		// --- Build Filters ---
+		if (filter.getStatus() != null) {
+			sql.append(" AND r.status = ?");
+			params.add(filter.getStatus());
+		}
+		if (filter.getVehicleId() != null) {
+			sql.append(" AND r.vehicle_id = ?");
+			params.add(filter.getVehicleId());
+		}
+		if (filter.getUserId() != null) {
+			sql.append(" AND r.user_id = ?");
+			params.add(filter.getUserId());
+		}
+		if (filter.getFromDate() != null) {
+			sql.append(" AND r.reservation_date >= ?");
+			params.add(Date.valueOf(filter.getFromDate()));
+		}
+		if (filter.getToDate() != null) {
+			sql.append(" AND r.reservation_date <= ?");
+			params.add(Date.valueOf(filter.getToDate()));
+		}
+		if (filter.hasCursor()) {
+			sql.append(" AND (r.reservation_date < ? OR (r.reservation_date = ? AND r.reservation_id < ?))");
+			params.add(Date.valueOf(filter.getAfterDate()));
+			params.add(Date.valueOf(filter.getAfterDate()));
+			params.add(filter.getAfterId());
+		}
+		// One extra row tells us whether a next page exists
+		sql.append(" ORDER BY r.reservation_date DESC, r.reservation_id DESC LIMIT ?");
+		params.add(pageSize + 1);
 
 		// --- Query Reservations ---
+		List<ReservationModel> reservations;
 		try {
-			conn = DbConfig.getDbConnection();
-			stmt = conn.prepareStatement(sql);
-			rs = stmt.executeQuery();
-			while (rs.next()) {
-				ReservationModel reservation = new ReservationModel();
-				reservation.setReservationId(rs.getInt("reservation_id"));
-				reservation.setUserId(rs.getInt("user_id"));
-				reservation.setVehicleId(rs.getInt("vehicle_id"));
-				Date sqlDate = rs.getDate("reservation_date");
-				if (sqlDate != null) {
-					reservation.setReservationDate(sqlDate.toLocalDate());
-				}
-				reservation.setStatus(rs.getString("status"));
-				reservation.setUsername(rs.getString("username"));
-				reservation.setVehicleInfo(rs.getString("brand_name") + " " + rs.getString("model") + " ("
-						+ rs.getString("serial_number") + ")");
-				reservations.add(reservation);
-			}
-		} catch (SQLException | ClassNotFoundException e) {
-			lastErrorMessage = "Error fetching reservations: " + e.getMessage();
-			System.err.println("ReservationService: " + lastErrorMessage);
-			throw new SQLException(lastErrorMessage, e);
-		} finally {
-			closeResources(conn, stmt, rs);
+			reservations = Jdbc.query(SqlCatalog.RESERVATION_PAGE.withSql(sql.toString()), RESERVATION_DETAILS,
+					params.toArray());
+		} catch (SQLException e) {
+			lastErrorMessage.set("Error fetching reservations: " + e.getMessage());
+			LOG.error(lastErrorMessage.get());
+			throw new SQLException(lastErrorMessage.get(), e);
+		}
+
+		boolean hasNext = reservations.size() > pageSize;
+		if (hasNext) {
+			reservations.remove(pageSize);
 		}
-		return reservations;
+		return new ReservationPage(reservations, hasNext, pageSize);
 	}
 
 	/**
@@ -93,44 +257,15 @@ public class ReservationService {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public ReservationModel getReservationById(int reservationId) throws SQLException {
-		ReservationModel reservation = null;
-		String sql = "SELECT r.reservation_id, r.user_id, r.vehicle_id, r.reservation_date, r.status, "
-				+ "u.username, v.brand_name, v.model, v.serial_number " + "FROM Reservations r "
-				+ "JOIN Users u ON r.user_id = u.user_id " + "JOIN Vehicles v ON r.vehicle_id = v.vehicle_id "
-				+ "WHERE r.reservation_id = ?";
-
-		Connection conn = null;
-		PreparedStatement stmt = null;
-		ResultSet rs = null;
-
+		lastErrorMessage.remove();
 		// --- Query Reservation ---
 		try {
-			conn = DbConfig.getDbConnection();
-			stmt = conn.prepareStatement(sql);
-			stmt.setInt(1, reservationId);
-			rs = stmt.executeQuery();
-			if (rs.next()) {
-				reservation = new ReservationModel();
-				reservation.setReservationId(rs.getInt("reservation_id"));
-				reservation.setUserId(rs.getInt("user_id"));
-				reservation.setVehicleId(rs.getInt("vehicle_id"));
-				Date sqlDate = rs.getDate("reservation_date");
-				if (sqlDate != null) {
-					reservation.setReservationDate(sqlDate.toLocalDate());
-				}
-				reservation.setStatus(rs.getString("status"));
-				reservation.setUsername(rs.getString("username"));
-				reservation.setVehicleInfo(rs.getString("brand_name") + " " + rs.getString("model") + " ("
-						+ rs.getString("serial_number") + ")");
-			}
-		} catch (SQLException | ClassNotFoundException e) {
-			lastErrorMessage = "Error fetching reservation by ID: " + e.getMessage();
-			System.err.println("ReservationService: " + lastErrorMessage);
-			throw new SQLException(lastErrorMessage, e);
-		} finally {
-			closeResources(conn, stmt, rs);
+			return Jdbc.queryOne(SqlCatalog.RESERVATION_BY_ID, RESERVATION_DETAILS, reservationId);
+		} catch (SQLException e) {
+			lastErrorMessage.set("Error fetching reservation by ID: " + e.getMessage());
+			LOG.error(lastErrorMessage.get());
+			throw new SQLException(lastErrorMessage.get(), e);
 		}
-		return reservation;
 	}
 
 	/**
@@ -141,312 +276,439 @@ public class ReservationService {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public boolean createReservation(ReservationModel reservation) throws SQLException {
-		// --- Validate Vehicle Availability ---
-		if (!isVehicleAvailableForDate(reservation.getVehicleId(), reservation.getReservationDate(), -1)) {
-			return false;
+		return createReservations(Collections.singletonList(reservation));
+	}
+
+	/**
+	 * Creates a batch of reservations in one transaction: either all of them are
+	 * booked or none are. The vehicles involved are locked, checked for status
+	 * and date conflicts (including conflicts within the batch), and the
+	 * reservations are inserted and vehicle statuses updated on the same
+	 * connection, so concurrent bookings cannot double-book a vehicle. Generated
+	 * reservation IDs are set on the given models.
+	 *
+	 * @param reservations the reservations to create
+	 * @return true if every reservation was created, false if any was rejected
+	 * @throws SQLException if a database access error occurs
+	 */
+	public boolean createReservations(List<ReservationModel> reservations) throws SQLException {
+		lastErrorMessage.remove();
+		if (reservations.isEmpty()) {
+			return true;
+		}
+
+		// --- Fast Pre-Check Against the In-Memory Indexes ---
+		for (ReservationModel reservation : reservations) {
+			if (!precheckAvailability(reservation, null)) {
+				return false;
+			}
 		}
 
-		String sql = "INSERT INTO Reservations (user_id, vehicle_id, reservation_date, status) VALUES (?, ?, ?, ?)";
 		Connection conn = null;
-		PreparedStatement stmt = null;
-		boolean success = false;
+		Set<Integer> reservedVehicleIds = new TreeSet<>();
+		Map<Integer, String> previousStatuses;
 
-		// --- Create Reservation ---
+		// --- Lock, Check and Insert in One Transaction ---
 		try {
 			conn = DbConfig.getDbConnection();
 			conn.setAutoCommit(false);
-			stmt = conn.prepareStatement(sql);
-			stmt.setInt(1, reservation.getUserId());
-			stmt.setInt(2, reservation.getVehicleId());
-			stmt.setDate(3, Date.valueOf(reservation.getReservationDate()));
-			stmt.setString(4, reservation.getStatus());
-
-			int rows = stmt.executeUpdate();
-			success = rows > 0;
-
-			if (success && "Confirmed".equalsIgnoreCase(reservation.getStatus())) {
-				// --- Update Vehicle Status ---
-				if (!updateVehicleStatus(conn, reservation.getVehicleId(), "Reserved")) {
+
+			Set<Integer> vehicleIds = new TreeSet<>();
+			for (ReservationModel reservation : reservations) {
+				vehicleIds.add(reservation.getVehicleId());
+			}
+			previousStatuses = lockBookableVehicles(conn, vehicleIds);
+			if (previousStatuses == null || findConflict(conn, reservations, -1) != null) {
+				conn.rollback();
+				return false;
+			}
+
+			List<Object[]> rows = new ArrayList<>(reservations.size());
+			for (ReservationModel reservation : reservations) {
+				rows.add(new Object[] { reservation.getUserId(), reservation.getVehicleId(),
+						reservation.getReservationDate(), reservation.getStatus() });
+				if ("Confirmed".equalsIgnoreCase(reservation.getStatus())) {
+					reservedVehicleIds.add(reservation.getVehicleId());
+				}
+			}
+			int[] keys = Jdbc.insertBatch(conn, SqlCatalog.RESERVATION_INSERT, rows);
+			if (keys == null) {
+				conn.rollback();
+				lastErrorMessage.set("Failed to create reservation.");
+				LOG.warn(lastErrorMessage.get());
+				return false;
+			}
+			for (int i = 0; i < keys.length; i++) {
+				reservations.get(i).setReservationId(keys[i]);
+			}
+
+			// --- Update Vehicle Status ---
+			for (Integer vehicleId : reservedVehicleIds) {
+				if (!updateVehicleStatus(conn, vehicleId, "Reserved")) {
 					conn.rollback();
-					lastErrorMessage = "Failed to update vehicle status after creating reservation.";
-					System.err.println("ReservationService: " + lastErrorMessage);
+					lastErrorMessage.set("Failed to update vehicle status after creating reservation.");
+					LOG.warn(lastErrorMessage.get());
 					return false;
 				}
-				conn.commit();
-			} else if (!success) {
-				conn.rollback();
-				lastErrorMessage = "Failed to create reservation.";
-				System.err.println("ReservationService: " + lastErrorMessage);
-			} else {
-				conn.commit();
 			}
+			conn.commit();
 		} catch (SQLException | ClassNotFoundException e) {
-			lastErrorMessage = "Error creating reservation: " + e.getMessage();
-			System.err.println("ReservationService: " + lastErrorMessage);
+			lastErrorMessage.set("Error creating reservation: " + e.getMessage());
+			LOG.error(lastErrorMessage.get());
 			try {
 				if (conn != null)
 					conn.rollback();
 			} catch (SQLException ex) {
-				System.err.println("ReservationService: Rollback failed: " + ex.getMessage());
+				LOG.error("Rollback failed: {}", ex.getMessage());
 			}
-			throw new SQLException(lastErrorMessage, e);
+			throw new SQLException(lastErrorMessage.get(), e);
 		} finally {
-			try {
-				if (conn != null)
-					conn.setAutoCommit(true);
-			} catch (SQLException ex) {
-				System.err.println("ReservationService: Failed to reset auto-commit: " + ex.getMessage());
-			}
-			closeResources(conn, stmt, null);
+			closeConnection(conn);
+		}
+
+		// --- Publish Committed Changes ---
+		for (ReservationModel reservation : reservations) {
+			FleetEvents.reservationChanged(null, reservation);
+		}
+		for (Integer vehicleId : reservedVehicleIds) {
+			FleetEvents.vehicleStatusChanged(vehicleId, previousStatuses.get(vehicleId), "Reserved");
 		}
-		return success;
+		return true;
 	}
 
 	/**
-	 * Updates an existing reservation with new details.
+	 * Updates an existing reservation with new details. The reservation and the
+	 * vehicles involved are locked, the new date is checked for conflicts, and
+	 * the reservation and vehicle statuses are updated in one transaction.
 	 *
 	 * @param reservation the ReservationModel object with updated details
 	 * @return true if the reservation was updated successfully, false otherwise
 	 * @throws SQLException if a database access error occurs
 	 */
 	public boolean updateReservation(ReservationModel reservation) throws SQLException {
-		// --- Validate Vehicle Availability ---
-		if (!isVehicleAvailableForDate(reservation.getVehicleId(), reservation.getReservationDate(),
-				reservation.getReservationId())) {
-			return false;
-		}
-
-		// --- Fetch Previous Vehicle ID ---
-		ReservationModel oldReservation = getReservationById(reservation.getReservationId());
-		if (oldReservation == null) {
-			lastErrorMessage = "Reservation not found for update.";
-			System.err.println("ReservationService: " + lastErrorMessage);
-			return false;
-		}
-		int previousVehicleId = oldReservation.getVehicleId();
-
-		String sql = "UPDATE Reservations SET user_id = ?, vehicle_id = ?, reservation_date = ?, status = ? WHERE reservation_id = ?";
+		lastErrorMessage.remove();
 		Connection conn = null;
-		PreparedStatement stmt = null;
-		boolean success = false;
+		ReservationModel oldReservation;
+		Map<Integer, String> previousStatuses;
+		Map<Integer, String> newStatuses = new LinkedHashMap<>();
 
-		// --- Update Reservation ---
+		// --- Lock, Check and Update in One Transaction ---
 		try {
 			conn = DbConfig.getDbConnection();
 			conn.setAutoCommit(false);
-			stmt = conn.prepareStatement(sql);
-			stmt.setInt(1, reservation.getUserId());
-			stmt.setInt(2, reservation.getVehicleId());
-			stmt.setDate(3, Date.valueOf(reservation.getReservationDate()));
-			stmt.setString(4, reservation.getStatus());
-			stmt.setInt(5, reservation.getReservationId());
-
-			int rows = stmt.executeUpdate();
-			success = rows > 0;
-
-			if (success) {
-				boolean statusUpdateOk = true;
-				// --- Update Vehicle Statuses ---
-				if (previousVehicleId != reservation.getVehicleId()) {
-					if (!updateVehicleStatusBasedOnOtherReservations(conn, previousVehicleId)) {
-						statusUpdateOk = false;
-					}
-				}
-				if (statusUpdateOk) {
-					String targetStatus = "Confirmed".equalsIgnoreCase(reservation.getStatus()) ? "Reserved"
-							: "Available";
-					if (!updateVehicleStatus(conn, reservation.getVehicleId(), targetStatus)) {
-						statusUpdateOk = false;
-					}
-				}
-				if (statusUpdateOk) {
-					conn.commit();
-				} else {
+
+			oldReservation = lockReservation(conn, reservation.getReservationId());
+			if (oldReservation == null) {
+				conn.rollback();
+				lastErrorMessage.set("Reservation not found for update.");
+				LOG.warn(lastErrorMessage.get());
+				return false;
+			}
+			if (!precheckAvailability(reservation, oldReservation)) {
+				conn.rollback();
+				return false;
+			}
+
+			Set<Integer> vehicleIds = new TreeSet<>();
+			vehicleIds.add(oldReservation.getVehicleId());
+			vehicleIds.add(reservation.getVehicleId());
+			previousStatuses = lockVehicles(conn, vehicleIds);
+			if (!isBookable(reservation.getVehicleId(), previousStatuses.get(reservation.getVehicleId()))
+					|| findConflict(conn, Collections.singletonList(reservation),
+							reservation.getReservationId()) != null) {
+				conn.rollback();
+				return false;
+			}
+
+			if (Jdbc.update(conn, SqlCatalog.RESERVATION_UPDATE, reservation.getUserId(), reservation.getVehicleId(),
+					reservation.getReservationDate(), reservation.getStatus(), reservation.getReservationId()) == 0) {
+				conn.rollback();
+				lastErrorMessage.set("Failed to update reservation.");
+				LOG.warn(lastErrorMessage.get());
+				return false;
+			}
+
+			// --- Update Vehicle Statuses ---
+			for (Integer vehicleId : vehicleIds) {
+				String newStatus = updateVehicleStatusBasedOnOtherReservations(conn, vehicleId);
+				if (newStatus == null) {
 					conn.rollback();
-					lastErrorMessage = "Failed to update vehicle status during reservation update.";
-					System.err.println("ReservationService: " + lastErrorMessage);
-					success = false;
+					lastErrorMessage.set("Failed to update vehicle status during reservation update.");
+					LOG.warn(lastErrorMessage.get());
+					return false;
 				}
-			} else {
-				conn.rollback();
-				lastErrorMessage = "Failed to update reservation.";
-				System.err.println("ReservationService: " + lastErrorMessage);
+				newStatuses.put(vehicleId, newStatus);
 			}
+			conn.commit();
 		} catch (SQLException | ClassNotFoundException e) {
-			lastErrorMessage = "Error updating reservation: " + e.getMessage();
-			System.err.println("ReservationService: " + lastErrorMessage);
+			lastErrorMessage.set("Error updating reservation: " + e.getMessage());
+			LOG.error(lastErrorMessage.get());
 			try {
 				if (conn != null)
 					conn.rollback();
 			} catch (SQLException ex) {
-				System.err.println("ReservationService: Rollback failed: " + ex.getMessage());
+				LOG.error("Rollback failed: {}", ex.getMessage());
 			}
-			throw new SQLException(lastErrorMessage, e);
+			throw new SQLException(lastErrorMessage.get(), e);
 		} finally {
-			try {
-				if (conn != null)
-					conn.setAutoCommit(true);
-			} catch (SQLException ex) {
-				System.err.println("ReservationService: Failed to reset auto-commit: " + ex.getMessage());
-			}
-			closeResources(conn, stmt, null);
+			closeConnection(conn);
+		}
+
+		// --- Publish Committed Changes ---
+		FleetEvents.reservationChanged(oldReservation, reservation);
+		for (Map.Entry<Integer, String> entry : newStatuses.entrySet()) {
+			FleetEvents.vehicleStatusChanged(entry.getKey(), previousStatuses.get(entry.getKey()), entry.getValue());
 		}
-		return success;
+		return true;
 	}
 
 	/**
-	 * Deletes a reservation by its ID and updates the vehicle status if necessary.
+	 * Deletes a reservation by its ID and updates the vehicle status if necessary,
+	 * in one transaction.
 	 *
 	 * @param reservationId the ID of the reservation to delete
 	 * @return true if the reservation was deleted successfully, false otherwise
 	 * @throws SQLException if a database access error occurs
 	 */
 	public boolean deleteReservation(int reservationId) throws SQLException {
-		// --- Fetch Reservation Details ---
-		ReservationModel reservation = getReservationById(reservationId);
-		if (reservation == null) {
-			lastErrorMessage = "Reservation not found for deletion.";
-			System.err.println("ReservationService: " + lastErrorMessage);
-			return false;
-		}
-		int vehicleId = reservation.getVehicleId();
-
-		String sql = "DELETE FROM Reservations WHERE reservation_id = ?";
+		lastErrorMessage.remove();
 		Connection conn = null;
-		PreparedStatement stmt = null;
-		boolean success = false;
+		ReservationModel reservation;
+		String previousStatus;
+		String newStatus;
 
-		// --- Delete Reservation ---
+		// --- Lock and Delete in One Transaction ---
 		try {
 			conn = DbConfig.getDbConnection();
 			conn.setAutoCommit(false);
-			stmt = conn.prepareStatement(sql);
-			stmt.setInt(1, reservationId);
 
-			int rows = stmt.executeUpdate();
-			success = rows > 0;
+			reservation = lockReservation(conn, reservationId);
+			if (reservation == null) {
+				conn.rollback();
+				lastErrorMessage.set("Reservation not found for deletion.");
+				LOG.warn(lastErrorMessage.get());
+				return false;
+			}
+			previousStatus = lockVehicles(conn, Collections.singleton(reservation.getVehicleId()))
+					.get(reservation.getVehicleId());
 
-			if (success) {
-				// --- Update Vehicle Status ---
-				if (!updateVehicleStatusBasedOnOtherReservations(conn, vehicleId)) {
-					conn.rollback();
-					lastErrorMessage = "Failed to update vehicle status after deletion.";
-					System.err.println("ReservationService: " + lastErrorMessage);
-					success = false;
-				} else {
-					conn.commit();
-				}
-			} else {
+			if (Jdbc.update(conn, SqlCatalog.RESERVATION_DELETE, reservationId) == 0) {
 				conn.rollback();
-				lastErrorMessage = "Failed to delete reservation.";
-				System.err.println("ReservationService: " + lastErrorMessage);
+				lastErrorMessage.set("Failed to delete reservation.");
+				LOG.warn(lastErrorMessage.get());
+				return false;
 			}
+
+			// --- Update Vehicle Status ---
+			newStatus = updateVehicleStatusBasedOnOtherReservations(conn, reservation.getVehicleId());
+			if (newStatus == null) {
+				conn.rollback();
+				lastErrorMessage.set("Failed to update vehicle status after deletion.");
+				LOG.warn(lastErrorMessage.get());
+				return false;
+			}
+			conn.commit();
 		} catch (SQLException | ClassNotFoundException e) {
-			lastErrorMessage = "Error deleting reservation: " + e.getMessage();
-			System.err.println("ReservationService: " + lastErrorMessage);
+			lastErrorMessage.set("Error deleting reservation: " + e.getMessage());
+			LOG.error(lastErrorMessage.get());
 			try {
 				if (conn != null)
 					conn.rollback();
 			} catch (SQLException ex) {
-				System.err.println("ReservationService: Rollback failed: " + ex.getMessage());
+				LOG.error("Rollback failed: {}", ex.getMessage());
 			}
-			throw new SQLException(lastErrorMessage, e);
+			throw new SQLException(lastErrorMessage.get(), e);
 		} finally {
-			try {
-				if (conn != null)
-					conn.setAutoCommit(true);
-			} catch (SQLException ex) {
-				System.err.println("ReservationService: Failed to reset auto-commit: " + ex.getMessage());
-			}
-			closeResources(conn, stmt, null);
+			closeConnection(conn);
 		}
-		return success;
+
+		// --- Publish Committed Changes ---
+		FleetEvents.reservationChanged(reservation, null);
+		FleetEvents.vehicleStatusChanged(reservation.getVehicleId(), previousStatus, newStatus);
+		return true;
 	}
 
 	/**
-	 * Checks if a vehicle is available for reservation on a specific date.
+	 * Rejects a reservation early, without touching the database, if the
+	 * in-memory indexes already show that its vehicle cannot be booked. The
+	 * locked check inside the booking transaction has the final say.
 	 *
-	 * @param vehicleId            the ID of the vehicle to check
-	 * @param date                 the reservation date
-	 * @param excludeReservationId the ID of the reservation to exclude (for
-	 *                             updates), or -1
-	 * @return true if the vehicle is available, false otherwise
-	 * @throws SQLException if a database access error occurs
+	 * @param reservation the reservation to check
+	 * @param existing    the reservation being updated (it does not conflict with
+	 *                    itself), or null for a new reservation
+	 * @return false if the reservation certainly cannot be booked
 	 */
-	private boolean isVehicleAvailableForDate(int vehicleId, LocalDate date, int excludeReservationId)
-			throws SQLException {
-		// --- Check Vehicle Status ---
-		String vehicleStatus = getVehicleStatus(vehicleId);
-		if (!"Available".equalsIgnoreCase(vehicleStatus) && !"Reserved".equalsIgnoreCase(vehicleStatus)) {
-			lastErrorMessage = "Vehicle ID " + vehicleId + " is not available (Status: " + vehicleStatus + ").";
-			System.err.println("ReservationService: " + lastErrorMessage);
+	private boolean precheckAvailability(ReservationModel reservation, ReservationModel existing) {
+		int vehicleId = reservation.getVehicleId();
+		LocalDate date = reservation.getReservationDate();
+
+		// --- Check Vehicle Status (if the search index knows it) ---
+		String vehicleStatus = VehicleSearchIndex.getInstance().getStatus(vehicleId);
+		if (vehicleStatus != null && !isBookable(vehicleId, vehicleStatus)) {
 			return false;
 		}
 
 		// --- Check for Conflicting Reservations ---
-		Connection conn = null;
-		PreparedStatement stmt = null;
-		ResultSet rs = null;
-		try {
-			conn = DbConfig.getDbConnection();
-			String sql = "SELECT COUNT(*) FROM Reservations "
-					+ "WHERE vehicle_id = ? AND reservation_date = ? AND status = ? AND reservation_id != ?";
-			stmt = conn.prepareStatement(sql);
-			stmt.setInt(1, vehicleId);
-			stmt.setDate(2, Date.valueOf(date));
-			stmt.setString(3, "Confirmed");
-			stmt.setInt(4, excludeReservationId > 0 ? excludeReservationId : -1);
-
-			rs = stmt.executeQuery();
-			if (rs.next() && rs.getInt(1) > 0) {
-				lastErrorMessage = "Vehicle ID " + vehicleId + " is reserved for " + date + ".";
-				System.err.println("ReservationService: " + lastErrorMessage);
-				return false;
-			}
-		} catch (SQLException | ClassNotFoundException e) {
-			lastErrorMessage = "Error checking vehicle availability: " + e.getMessage();
-			System.err.println("ReservationService: " + lastErrorMessage);
-			throw new SQLException(lastErrorMessage, e);
-		} finally {
-			closeResources(conn, stmt, rs);
+		ReservationAvailabilityIndex index = ReservationAvailabilityIndex.getInstance();
+		if (!index.ensureLoaded(this::loadConfirmedReservations)) {
+			lastErrorMessage.remove(); // Not fatal: the transaction checks the database itself
+			return true;
+		}
+		int bookings = index.countBookings(vehicleId, date);
+		if (existing != null && existing.getVehicleId() == vehicleId && date.equals(existing.getReservationDate())
+				&& "Confirmed".equalsIgnoreCase(existing.getStatus())) {
+			bookings--; // The reservation being updated already holds this date
+		}
+		if (bookings > 0) {
+			lastErrorMessage.set("Vehicle ID " + vehicleId + " is reserved for " + date + ".");
+			LOG.warn(lastErrorMessage.get());
+			return false;
 		}
 		return true;
 	}
 
 	/**
-	 * Retrieves the status of a vehicle by its ID.
+	 * Checks that a vehicle's status allows new reservations, recording an error
+	 * if not.
 	 *
 	 * @param vehicleId the ID of the vehicle
-	 * @return the vehicle status, or null if not found or an error occurs
+	 * @param status    the vehicle's status, or null if it was not found
+	 * @return true if the vehicle is Available or Reserved
+	 */
+	private boolean isBookable(int vehicleId, String status) {
+		if (status == null) {
+			lastErrorMessage.set("Vehicle not found for ID: " + vehicleId);
+			LOG.warn(lastErrorMessage.get());
+			return false;
+		}
+		if (!"Available".equalsIgnoreCase(status) && !"Reserved".equalsIgnoreCase(status)) {
+			lastErrorMessage.set("Vehicle ID " + vehicleId + " is not available (Status: " + status + ").");
+			LOG.warn(lastErrorMessage.get());
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Locks vehicle rows for the rest of the transaction and checks that each
+	 * one can be booked.
+	 *
+	 * @param conn       the database connection (within a transaction)
+	 * @param vehicleIds the vehicles to lock
+	 * @return the locked status of each vehicle, or null if any vehicle is
+	 *         missing or not bookable
 	 * @throws SQLException if a database access error occurs
 	 */
-	private String getVehicleStatus(int vehicleId) throws SQLException {
-		Connection conn = null;
-		PreparedStatement stmt = null;
-		ResultSet rs = null;
-		String status = null;
+	private Map<Integer, String> lockBookableVehicles(Connection conn, Set<Integer> vehicleIds) throws SQLException {
+		Map<Integer, String> statuses = lockVehicles(conn, vehicleIds);
+		for (Integer vehicleId : vehicleIds) {
+			if (!isBookable(vehicleId, statuses.get(vehicleId))) {
+				return null;
+			}
+		}
+		return statuses;
+	}
 
-		// --- Query Vehicle Status ---
-		try {
-			conn = DbConfig.getDbConnection();
-			String sql = "SELECT status FROM Vehicles WHERE vehicle_id = ?";
-			stmt = conn.prepareStatement(sql);
-			stmt.setInt(1, vehicleId);
-			rs = stmt.executeQuery();
-			if (rs.next()) {
-				status = rs.getString("status");
-			} else {
-				lastErrorMessage = "Vehicle not found for ID: " + vehicleId;
-				System.err.println("ReservationService: " + lastErrorMessage);
+	/**
+	 * Locks vehicle rows with SELECT ... FOR UPDATE in ascending ID order, so
+	 * concurrent bookings of the same vehicle wait for each other and
+	 * overlapping batches cannot deadlock.
+	 *
+	 * @param conn       the database connection (within a transaction)
+	 * @param vehicleIds the vehicles to lock
+	 * @return the status of each vehicle found, keyed by vehicle ID
+	 * @throws SQLException if a database access error occurs
+	 */
+	Map<Integer, String> lockVehicles(Connection conn, Collection<Integer> vehicleIds) throws SQLException {
+		Set<Integer> orderedIds = new TreeSet<>(vehicleIds);
+		Map<Integer, String> statuses = new LinkedHashMap<>();
+		for (VehicleModel vehicle : Jdbc.query(conn, SqlCatalog.VEHICLE_LOCK.expand(orderedIds.size()),
+				VEHICLE_STATUS, orderedIds.toArray())) {
+			statuses.put(vehicle.getVehicleId(), vehicle.getStatus());
+		}
+		return statuses;
+	}
+
+	/**
+	 * Locks a reservation row for the rest of the transaction and reads it.
+	 *
+	 * @param conn          the database connection (within a transaction)
+	 * @param reservationId the ID of the reservation
+	 * @return the reservation as stored, or null if not found
+	 * @throws SQLException if a database access error occurs
+	 */
+	private ReservationModel lockReservation(Connection conn, int reservationId) throws SQLException {
+		return Jdbc.queryOne(conn, SqlCatalog.RESERVATION_LOCK, RESERVATION, reservationId);
+	}
+
+	/**
+	 * Finds the first reservation that clashes with a confirmed reservation,
+	 * either one already stored or an earlier confirmed one in the same list.
+	 * Every vehicle in the list must already be locked, so the answer cannot
+	 * change before the transaction commits. Checks all pairs in one query.
+	 *
+	 * @param conn                 the database connection (within a transaction)
+	 * @param reservations         the reservations about to be written
+	 * @param excludeReservationId a stored reservation to ignore (the one being
+	 *                             updated), or -1
+	 * @return the first conflicting reservation, or null if there is none
+	 * @throws SQLException if a database access error occurs
+	 */
+	private ReservationModel findConflict(Connection conn, List<ReservationModel> reservations,
+			int excludeReservationId) throws SQLException {
+		Set<Integer> vehicleIds = new TreeSet<>();
+		Set<LocalDate> dates = new TreeSet<>();
+		for (ReservationModel reservation : reservations) {
+			vehicleIds.add(reservation.getVehicleId());
+			dates.add(reservation.getReservationDate());
+		}
+
+		// --- Load Confirmed Bookings for the Vehicles and Dates Involved ---
+		List<Object> params = new ArrayList<>(2 + vehicleIds.size() + dates.size());
+		params.add("Confirmed");
+		params.add(excludeReservationId);
+		params.addAll(vehicleIds);
+		params.addAll(dates);
+		Set<String> booked = new HashSet<>();
+		for (ReservationModel booking : Jdbc.query(conn,
+				SqlCatalog.RESERVATION_CONFLICTS.expand(vehicleIds.size(), dates.size()), BOOKING,
+				params.toArray())) {
+			booked.add(booking.getVehicleId() + "@" + booking.getReservationDate());
+		}
+
+		// --- Check Each Reservation in Order ---
+		for (ReservationModel reservation : reservations) {
+			String key = reservation.getVehicleId() + "@" + reservation.getReservationDate();
+			if (booked.contains(key)) {
+				lastErrorMessage.set("Vehicle ID " + reservation.getVehicleId() + " is reserved for "
+						+ reservation.getReservationDate() + ".");
+				LOG.warn(lastErrorMessage.get());
+				return reservation;
 			}
-		} catch (SQLException | ClassNotFoundException e) {
-			lastErrorMessage = "Error checking vehicle status: " + e.getMessage();
-			System.err.println("ReservationService: " + lastErrorMessage);
-			throw new SQLException(lastErrorMessage, e);
-		} finally {
-			closeResources(conn, stmt, rs);
+			if ("Confirmed".equalsIgnoreCase(reservation.getStatus())) {
+				booked.add(key);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Loads the vehicle and date of every confirmed reservation, for the
+	 * availability index.
+	 *
+	 * @return the confirmed reservations, or null if the query failed
+	 */
+	List<ReservationModel> loadConfirmedReservations() {
+		// --- Query Confirmed Reservations ---
+		try {
+			List<ReservationModel> bookings = Jdbc.query(SqlCatalog.RESERVATION_BOOKINGS, BOOKING, "Confirmed");
+			bookings.removeIf(booking -> booking.getReservationDate() == null); // Nothing to index
+			return bookings;
+		} catch (SQLException e) {
+			lastErrorMessage.set("Error loading reservation availability: " + e.getMessage());
+			LOG.error(lastErrorMessage.get());
+			return null;
 		}
-		return status;
 	}
 
 	/**
@@ -459,26 +721,11 @@ public class ReservationService {
 	 * @throws SQLException if a database access error occurs
 	 */
 	private boolean updateVehicleStatus(Connection conn, int vehicleId, String status) throws SQLException {
-		PreparedStatement stmt = null;
-		try {
-			String sql = "UPDATE Vehicles SET status = ? WHERE vehicle_id = ?";
-			stmt = conn.prepareStatement(sql);
-			stmt.setString(1, status);
-			stmt.setInt(2, vehicleId);
-			int rows = stmt.executeUpdate();
-			if (rows == 0) {
-				System.err.println("ReservationService: No rows updated for vehicle ID " + vehicleId);
-			}
-			return rows > 0;
-		} finally {
-			if (stmt != null) {
-				try {
-					stmt.close();
-				} catch (SQLException e) {
-					System.err.println("ReservationService: Error closing PreparedStatement: " + e.getMessage());
-				}
-			}
+		int rows = Jdbc.update(conn, SqlCatalog.VEHICLE_UPDATE_STATUS, status, vehicleId);
+		if (rows == 0) {
+			LOG.warn("No rows updated for vehicle ID {}", vehicleId);
 		}
+		return rows > 0;
 	}
 
 	/**
@@ -487,42 +734,18 @@ public class ReservationService {
 	 *
 	 * @param conn      the database connection (within a transaction)
 	 * @param vehicleId the ID of the vehicle to update
-	 * @return true if the update was successful, false otherwise
+	 * @return the status that was set, or null if the update failed
 	 * @throws SQLException if a database access error occurs
 	 */
-	private boolean updateVehicleStatusBasedOnOtherReservations(Connection conn, int vehicleId) throws SQLException {
-		PreparedStatement stmt = null;
-		ResultSet rs = null;
-		try {
-			// --- Check for Other Reservations ---
-			String sqlCheck = "SELECT 1 FROM Reservations WHERE vehicle_id = ? AND status = ? LIMIT 1";
-			stmt = conn.prepareStatement(sqlCheck);
-			stmt.setInt(1, vehicleId);
-			stmt.setString(2, "Confirmed");
-			rs = stmt.executeQuery();
-			boolean hasOtherReservations = rs.next();
-
-			// --- Update Vehicle Status ---
-			String targetStatus = hasOtherReservations ? "Reserved" : "Available";
-			System.out.println(
-					"ReservationService: Setting vehicle ID " + vehicleId + " status to '" + targetStatus + "'.");
-			return updateVehicleStatus(conn, vehicleId, targetStatus);
-		} finally {
-			if (rs != null) {
-				try {
-					rs.close();
-				} catch (SQLException e) {
-					System.err.println("ReservationService: Error closing ResultSet: " + e.getMessage());
-				}
-			}
-			if (stmt != null) {
-				try {
-					stmt.close();
-				} catch (SQLException e) {
-					System.err.println("ReservationService: Error closing PreparedStatement: " + e.getMessage());
-				}
-			}
-		}
+	private String updateVehicleStatusBasedOnOtherReservations(Connection conn, int vehicleId) throws SQLException {
+		// --- Check for Other Reservations ---
+		boolean hasOtherReservations = Jdbc.exists(conn, SqlCatalog.RESERVATION_EXISTS_FOR_VEHICLE, vehicleId,
+				"Confirmed");
+
+		// --- Update Vehicle Status ---
+		String targetStatus = hasOtherReservations ? "Reserved" : "Available";
+		LOG.debug("Setting vehicle ID {} status to '{}'.", vehicleId, targetStatus);
+		return updateVehicleStatus(conn, vehicleId, targetStatus) ? targetStatus : null;
 	}
 
 	/**
@@ -532,34 +755,15 @@ public class ReservationService {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public List<VehicleModel> getAvailableVehiclesForDropdown() throws SQLException {
-		List<VehicleModel> vehicles = new ArrayList<>();
-		String sql = "SELECT vehicle_id, brand_name, model, serial_number FROM Vehicles WHERE status = 'Available' ORDER BY brand_name, model";
-
-		Connection conn = null;
-		PreparedStatement stmt = null;
-		ResultSet rs = null;
-
+		lastErrorMessage.remove();
 		// --- Query Available Vehicles ---
 		try {
-			conn = DbConfig.getDbConnection();
-			stmt = conn.prepareStatement(sql);
-			rs = stmt.executeQuery();
-			while (rs.next()) {
-				VehicleModel vehicle = new VehicleModel();
-				vehicle.setVehicleId(rs.getInt("vehicle_id"));
-				vehicle.setBrandName(rs.getString("brand_name"));
-				vehicle.setModel(rs.getString("model"));
-				vehicle.setSerialNumber(rs.getString("serial_number"));
-				vehicles.add(vehicle);
-			}
-		} catch (SQLException | ClassNotFoundException e) {
-			lastErrorMessage = "Error fetching available vehicles: " + e.getMessage();
-			System.err.println("ReservationService: " + lastErrorMessage);
-			throw new SQLException(lastErrorMessage, e);
-		} finally {
-			closeResources(conn, stmt, rs);
+			return Jdbc.query(SqlCatalog.VEHICLE_AVAILABLE_OPTIONS, VEHICLE_OPTION);
+		} catch (SQLException e) {
+			lastErrorMessage.set("Error fetching available vehicles: " + e.getMessage());
+			LOG.error(lastErrorMessage.get());
+			throw new SQLException(lastErrorMessage.get(), e);
 		}
-		return vehicles;
 	}
 
 	/**
@@ -569,64 +773,92 @@ public class ReservationService {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public List<UserModel> getAllUsers() throws SQLException {
-		List<UserModel> users = new ArrayList<>();
-		String sql = "SELECT user_id, username, full_name FROM Users WHERE is_active = 1 ORDER BY username";
-
-		Connection conn = null;
-		PreparedStatement stmt = null;
-		ResultSet rs = null;
-
+		lastErrorMessage.remove();
 		// --- Query Active Users ---
 		try {
-			conn = DbConfig.getDbConnection();
-			stmt = conn.prepareStatement(sql);
-			rs = stmt.executeQuery();
-			while (rs.next()) {
-				UserModel user = new UserModel();
-				user.setUserId(rs.getInt("user_id"));
-				user.setUsername(rs.getString("username"));
-				user.setFullName(rs.getString("full_name"));
-				users.add(user);
-			}
-		} catch (SQLException | ClassNotFoundException e) {
-			lastErrorMessage = "Error fetching users: " + e.getMessage();
-			System.err.println("ReservationService: " + lastErrorMessage);
-			throw new SQLException(lastErrorMessage, e);
-		} finally {
-			closeResources(conn, stmt, rs);
+			return Jdbc.query(SqlCatalog.USER_ACTIVE_OPTIONS, USER_OPTION);
+		} catch (SQLException e) {
+			lastErrorMessage.set("Error fetching users: " + e.getMessage());
+			LOG.error(lastErrorMessage.get());
+			throw new SQLException(lastErrorMessage.get(), e);
 		}
-		return users;
 	}
 
 	/**
-	 * Closes database resources, preserving connections used in transactions.
+	 * Builds the fleet's availability calendar for a range of dates: every
+	 * vehicle with a bitmap of the days it has a confirmed reservation. The
+	 * bookings come from ReservationAvailabilityIndex when it is loaded, and
+	 * otherwise from one range query over Reservations, so the whole matrix
+	 * costs at most two queries however many vehicles and days it covers.
 	 *
-	 * @param conn the database connection, or null if managed externally
-	 * @param stmt the prepared statement to close, or null
-	 * @param rs   the result set to close, or null
+	 * @param from the first date (inclusive)
+	 * @param to   the last date (inclusive), at most MAX_CALENDAR_DAYS days
+	 *             from {@code from} counting both
+	 * @return the calendar
+	 * @throws SQLException if a database access error occurs
 	 */
-	private void closeResources(Connection conn, PreparedStatement stmt, ResultSet rs) {
-		if (rs != null) {
-			try {
-				rs.close();
-			} catch (SQLException e) {
-				System.err.println("ReservationService: Error closing ResultSet: " + e.getMessage());
-			}
+	public AvailabilityCalendar getAvailabilityCalendar(LocalDate from, LocalDate to) throws SQLException {
+		lastErrorMessage.remove();
+		if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) + 1 > MAX_CALENDAR_DAYS) {
+			throw new IllegalArgumentException(
+					"The calendar must end on or after its start and cover at most " + MAX_CALENDAR_DAYS + " days.");
 		}
-		if (stmt != null) {
-			try {
-				stmt.close();
-			} catch (SQLException e) {
-				System.err.println("ReservationService: Error closing PreparedStatement: " + e.getMessage());
+		List<VehicleModel> vehicles;
+		Map<Integer, BitSet> bookedDays;
+		boolean fromIndex = false;
+
+		// --- Query Vehicles ---
+		try (Connection conn = DbConfig.getDbConnection()) {
+			vehicles = Jdbc.query(conn, SqlCatalog.VEHICLE_CALENDAR_ROWS, VEHICLE_CALENDAR_ROW);
+			List<Integer> vehicleIds = new ArrayList<>(vehicles.size());
+			for (VehicleModel vehicle : vehicles) {
+				vehicleIds.add(vehicle.getVehicleId());
 			}
+
+			// --- Bookings: From the Index, or One Range Query ---
+			ReservationAvailabilityIndex index = ReservationAvailabilityIndex.getInstance();
+			if (!from.isBefore(ReservationAvailabilityIndex.BASE_DATE)
+					&& index.ensureLoaded(this::loadConfirmedReservations)) {
+				bookedDays = index.getBookedDays(vehicleIds, from, to);
+				fromIndex = true;
+			} else {
+				bookedDays = new HashMap<>();
+				long firstDay = from.toEpochDay();
+				for (ReservationModel booking : Jdbc.query(conn, SqlCatalog.RESERVATION_BOOKINGS_BETWEEN, BOOKING,
+						"Confirmed", from, to)) {
+					bookedDays.computeIfAbsent(booking.getVehicleId(), k -> new BitSet())
+							.set((int) (booking.getReservationDate().toEpochDay() - firstDay));
+				}
+			}
+		} catch (SQLException | ClassNotFoundException e) {
+			lastErrorMessage.set("Error loading the availability calendar: " + e.getMessage());
+			LOG.error(lastErrorMessage.get());
+			throw new SQLException(lastErrorMessage.get(), e);
+		}
+		return new AvailabilityCalendar(from, to, vehicles, bookedDays, fromIndex);
+	}
+
+	/**
+	 * Restores auto-commit on a connection used for a transaction and returns
+	 * it. The connection is closed even if the reset fails, e.g. after it broke
+	 * or was chosen as a deadlock victim; the pool then discards it. Inside a
+	 * UnitOfWork transaction the reset and the close are both left to the unit.
+	 *
+	 * @param conn the database connection, or null if none was obtained
+	 */
+	private void closeConnection(Connection conn) {
+		if (conn == null) {
+			return;
 		}
-		if (conn != null) {
+		try {
+			conn.setAutoCommit(true);
+		} catch (SQLException e) {
+			LOG.error("Failed to reset auto-commit: {}", e.getMessage());
+		} finally {
 			try {
-				if (conn.getAutoCommit()) {
-					conn.close();
-				}
+				conn.close();
 			} catch (SQLException e) {
-				System.err.println("ReservationService: Error closing Connection: " + e.getMessage());
+				LOG.warn("Error closing Connection: {}", e.getMessage());
 			}
 		}
 	}
@@ -0,0 +1,93 @@
+package com.rescuenet.service;
+
+import static com.rescuenet.config.SqlStatement.FETCH_BULK;
+import static com.rescuenet.config.SqlStatement.FETCH_PAGE;
+import static com.rescuenet.config.SqlStatement.FETCH_SINGLE;
+
+import com.rescuenet.config.SqlStatement;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * SqlCatalog is the list of SQL statements the service layer runs through
+ * Jdbc, each with the name it is timed under and a fetch size suited to the
+ * number of rows it reads. Keeping the SQL text in one place means each
+ * statement is one constant string, so the driver's statement cache and the
+ * SQL metrics see the same text on every call.
+ */
+final class SqlCatalog {
+
+	private SqlCatalog() {
+	}
+
+	// --- Reservations ---
+
+	/** Reservations with user and vehicle details; filters and paging are appended at run time. */
+	static final SqlStatement RESERVATION_PAGE = SqlStatement.of("reservation.page",
+			"SELECT r.reservation_id, r.user_id, r.vehicle_id, r.reservation_date, r.status, "
+					+ "u.username, v.brand_name, v.model, v.serial_number FROM Reservations r "
+					+ "JOIN Users u ON r.user_id = u.user_id JOIN Vehicles v ON r.vehicle_id = v.vehicle_id "
+					+ "WHERE 1 = 1",
+			FETCH_PAGE);
+
+	static final SqlStatement RESERVATION_BY_ID = SqlStatement.of("reservation.by_id",
+			"SELECT r.reservation_id, r.user_id, r.vehicle_id, r.reservation_date, r.status, "
+					+ "u.username, v.brand_name, v.model, v.serial_number FROM Reservations r "
+					+ "JOIN Users u ON r.user_id = u.user_id JOIN Vehicles v ON r.vehicle_id = v.vehicle_id "
+					+ "WHERE r.reservation_id = ?",
+			FETCH_SINGLE);
+
+	static final SqlStatement RESERVATION_LOCK = SqlStatement.of("reservation.lock",
+			"SELECT reservation_id, user_id, vehicle_id, reservation_date, status FROM Reservations "
+					+ "WHERE reservation_id = ? FOR UPDATE",
+			FETCH_SINGLE);
+
+	static final SqlStatement RESERVATION_INSERT = SqlStatement.of("reservation.insert",
+			"INSERT INTO Reservations (user_id, vehicle_id, reservation_date, status) VALUES (?, ?, ?, ?)");
+
+	static final SqlStatement RESERVATION_UPDATE = SqlStatement.of("reservation.update",
+			"UPDATE Reservations SET user_id = ?, vehicle_id = ?, reservation_date = ?, status = ? "
+					+ "WHERE reservation_id = ?");
+
+	static final SqlStatement RESERVATION_DELETE = SqlStatement.of("reservation.delete",
+			"DELETE FROM Reservations WHERE reservation_id = ?");
+
+	/** Confirmed bookings of some vehicles on some dates, other than one reservation. */
+	static final SqlStatement RESERVATION_CONFLICTS = SqlStatement.of("reservation.conflicts",
+			"SELECT vehicle_id, reservation_date FROM Reservations WHERE status = ? AND reservation_id <> ? "
+					+ "AND vehicle_id IN (?*) AND reservation_date IN (?*)");
+
+	static final SqlStatement RESERVATION_EXISTS_FOR_VEHICLE = SqlStatement.of("reservation.exists_for_vehicle",
+			"SELECT 1 FROM Reservations WHERE vehicle_id = ? AND status = ? LIMIT 1", FETCH_SINGLE);
+
+	static final SqlStatement RESERVATION_BOOKINGS = SqlStatement.of("reservation.bookings",
+			"SELECT vehicle_id, reservation_date FROM Reservations WHERE status = ?", FETCH_BULK);
+
+	static final SqlStatement RESERVATION_BOOKINGS_BETWEEN = SqlStatement.of("reservation.bookings_between",
+			"SELECT vehicle_id, reservation_date FROM Reservations WHERE status = ? "
+					+ "AND reservation_date BETWEEN ? AND ?",
+			FETCH_BULK);
+
+	// --- Vehicles ---
+
+	static final SqlStatement VEHICLE_LOCK = SqlStatement.of("vehicle.lock",
+			"SELECT vehicle_id, status FROM Vehicles WHERE vehicle_id IN (?*) ORDER BY vehicle_id FOR UPDATE");
+
+	static final SqlStatement VEHICLE_UPDATE_STATUS = SqlStatement.of("vehicle.update_status",
+			"UPDATE Vehicles SET status = ? WHERE vehicle_id = ?");
+
+	static final SqlStatement VEHICLE_AVAILABLE_OPTIONS = SqlStatement.of("vehicle.available_options",
+			"SELECT vehicle_id, brand_name, model, serial_number FROM Vehicles WHERE status = 'Available' "
+					+ "ORDER BY brand_name, model",
+			FETCH_PAGE);
+
+	static final SqlStatement VEHICLE_CALENDAR_ROWS = SqlStatement.of("vehicle.calendar_rows",
+			"SELECT vehicle_id, serial_number, brand_name, model, type, status FROM Vehicles ORDER BY vehicle_id",
+			FETCH_BULK);
+
+	// --- Users ---
+
+	static final SqlStatement USER_ACTIVE_OPTIONS = SqlStatement.of("user.active_options",
+			"SELECT user_id, username, full_name FROM Users WHERE is_active = 1 ORDER BY username", FETCH_PAGE);
+}
@@ -0,0 +1,188 @@
+package com.rescuenet.service;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.rescuenet.model.UserModel;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * UserProfileCache holds recently used user profiles, so pages that show a
+ * user's name, email or picture do not query the users table on every
+ * request. The session keeps only a SessionPrincipal; anything more is read
+ * from here.
+ *
+ * Each user has a profile version that starts at zero and is bumped whenever
+ * their profile changes. Invalidating a user drops their cached profile and
+ * bumps the version, which marks every session principal built from the old
+ * profile as stale (see AuthenticationFilter). Cached profiles never hold the
+ * password hash, and callers get their own copy.
+ */
+public final class UserProfileCache {
+
+	// --- Cache Configuration ---
+	private static final int CACHE_MAX_ENTRIES = 10_000;
+	private static final long CACHE_TTL_MS = 5 * 60_000;
+
+	private static final UserProfileCache INSTANCE = new UserProfileCache();
+
+	private final Map<Integer, CachedProfile> cache = new LinkedHashMap<>(256, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, CachedProfile> eldest) {
+			return size() > CACHE_MAX_ENTRIES;
+		}
+	};
+	private final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+
+	// --- Metrics ---
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private UserProfileCache() {
+	}
+
+	/**
+	 * Gets the shared profile cache.
+	 *
+	 * @return the application-wide instance
+	 */
+	public static UserProfileCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Gets a user's profile, loading it from the database when it is not
+	 * cached.
+	 *
+	 * @param userId the ID of the user
+	 * @return a copy of the profile, without the password hash, or null if the
+	 *         user does not exist
+	 * @throws SQLException if a database access error occurs
+	 */
+	public UserModel getProfile(int userId) throws SQLException {
+		synchronized (cache) {
+			CachedProfile cached = cache.get(userId);
+			if (cached != null && cached.expiresAt >= System.currentTimeMillis()) {
+				hits.increment();
+				return copy(cached.profile);
+			}
+			cache.remove(userId);
+		}
+		misses.increment();
+
+		// Read the version first: if the profile changes while loading, the
+		// loaded copy may be stale and is not cached
+		long version = getVersion(userId);
+		UserModel profile = new PortfolioService().getUserDetails(userId);
+		if (profile == null) {
+			return null;
+		}
+		cache(copy(profile), version);
+		return copy(profile);
+	}
+
+	/**
+	 * Caches a profile that was just read from the database, such as the one
+	 * loaded at login.
+	 *
+	 * @param profile the user's profile
+	 */
+	public void put(UserModel profile) {
+		cache(copy(profile), getVersion(profile.getUserId()));
+	}
+
+	/**
+	 * Drops a user's cached profile and bumps their profile version. Called
+	 * after the user's row changes.
+	 *
+	 * @param userId the ID of the user
+	 */
+	public void invalidate(int userId) {
+		versions.merge(userId, 1L, Long::sum);
+		synchronized (cache) {
+			cache.remove(userId);
+		}
+	}
+
+	/**
+	 * Gets a user's current profile version.
+	 *
+	 * @param userId the ID of the user
+	 * @return the version, zero until the profile first changes
+	 */
+	public long getVersion(int userId) {
+		return versions.getOrDefault(userId, 0L);
+	}
+
+	/**
+	 * Empties the cache. Called when the application stops.
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	private void cache(UserModel profile, long version) {
+		synchronized (cache) {
+			if (getVersion(profile.getUserId()) == version) {
+				cache.put(profile.getUserId(), new CachedProfile(profile, System.currentTimeMillis() + CACHE_TTL_MS));
+			}
+		}
+	}
+
+	private static UserModel copy(UserModel source) {
+		UserModel user = new UserModel();
+		user.setUserId(source.getUserId());
+		user.setUsername(source.getUsername());
+		user.setRoleId(source.getRoleId());
+		user.setFullName(source.getFullName());
+		user.setEmail(source.getEmail());
+		user.setPhoneNumber(source.getPhoneNumber());
+		user.setProfilePicturePath(source.getProfilePicturePath());
+		user.setLastLogin(source.getLastLogin());
+		user.setCreatedAt(source.getCreatedAt());
+		user.setActive(source.isActive());
+		return user;
+	}
+
+	// --- Metrics Getters ---
+
+	/**
+	 * Gets the number of profile reads served from the cache.
+	 *
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of profile reads that went to the database.
+	 *
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * A cached profile and the time it expires.
+	 */
+	private static final class CachedProfile {
+		private final UserModel profile;
+		private final long expiresAt;
+
+		CachedProfile(UserModel profile, long expiresAt) {
+			this.profile = profile;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
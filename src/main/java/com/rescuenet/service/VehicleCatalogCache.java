@@ -0,0 +1,170 @@
+package com.rescuenet.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.rescuenet.model.VehicleModel;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * VehicleCatalogCache holds an immutable, versioned snapshot of the available
+ * vehicles grouped by type, as shown on the home page. The snapshot is rebuilt
+ * only after it has been invalidated by a vehicle or reservation change, and
+ * is swapped in atomically: while one request rebuilds it, other requests keep
+ * reading the previous snapshot instead of waiting.
+ */
+public final class VehicleCatalogCache {
+
+	private static final VehicleCatalogCache INSTANCE = new VehicleCatalogCache();
+
+	private final AtomicReference<Snapshot> current = new AtomicReference<>();
+	private final AtomicLong requiredVersion = new AtomicLong(1);
+	private final ReentrantLock rebuildLock = new ReentrantLock();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private VehicleCatalogCache() {
+	}
+
+	/**
+	 * Gets the shared catalog cache.
+	 *
+	 * @return the application-wide cache instance
+	 */
+	public static VehicleCatalogCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Gets the current catalog snapshot, rebuilding it with the loader if it
+	 * has been invalidated. Only the very first load blocks concurrent readers;
+	 * later rebuilds let them read the previous snapshot.
+	 *
+	 * @param loader loads the categorized vehicles from the database, returning
+	 *               null if the load failed
+	 * @return the current snapshot, or null if none could be loaded
+	 */
+	public Snapshot getSnapshot(Supplier<Map<String, List<VehicleModel>>> loader) {
+		Snapshot snapshot = current.get();
+		if (snapshot != null && snapshot.getVersion() >= requiredVersion.get()) {
+			hits.increment();
+			return snapshot;
+		}
+		misses.increment();
+
+		if (snapshot != null) {
+			// --- Stale: one thread rebuilds, the rest serve the old snapshot ---
+			if (rebuildLock.tryLock()) {
+				try {
+					rebuildIfStale(loader);
+				} finally {
+					rebuildLock.unlock();
+				}
+			}
+			return current.get();
+		}
+
+		// --- Cold Start: nothing to serve yet, so wait for the first load ---
+		rebuildLock.lock();
+		try {
+			rebuildIfStale(loader);
+		} finally {
+			rebuildLock.unlock();
+		}
+		return current.get();
+	}
+
+	/**
+	 * Marks the current snapshot as out of date. The next reader rebuilds it.
+	 */
+	public void invalidate() {
+		requiredVersion.incrementAndGet();
+	}
+
+	/**
+	 * Gets the version the catalog must have to be considered current.
+	 * Increases by one on every invalidation.
+	 *
+	 * @return the current catalog version
+	 */
+	public long getVersion() {
+		return requiredVersion.get();
+	}
+
+	/**
+	 * Gets the number of reads served from a current snapshot.
+	 *
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of reads that found the snapshot missing or stale.
+	 *
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	private void rebuildIfStale(Supplier<Map<String, List<VehicleModel>>> loader) {
+		// Read the target version before loading, so an invalidation that
+		// arrives during the load leaves the new snapshot stale again.
+		long version = requiredVersion.get();
+		Snapshot existing = current.get();
+		if (existing != null && existing.getVersion() >= version) {
+			return;
+		}
+		Map<String, List<VehicleModel>> loaded = loader.get();
+		if (loaded != null) {
+			current.set(new Snapshot(version, loaded));
+		}
+	}
+
+	/**
+	 * An immutable view of the categorized catalog at one version.
+	 */
+	public static final class Snapshot {
+		private final long version;
+		private final Map<String, List<VehicleModel>> categorizedVehicles;
+
+		private Snapshot(long version, Map<String, List<VehicleModel>> categorizedVehicles) {
+			this.version = version;
+			Map<String, List<VehicleModel>> copy = new LinkedHashMap<>();
+			for (Map.Entry<String, List<VehicleModel>> entry : categorizedVehicles.entrySet()) {
+				copy.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+			}
+			this.categorizedVehicles = Collections.unmodifiableMap(copy);
+		}
+
+		/**
+		 * Gets the catalog version this snapshot was built for.
+		 *
+		 * @return the snapshot version
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * Gets the available vehicles grouped by type, in display order.
+		 *
+		 * @return an unmodifiable map of vehicle type to vehicles
+		 */
+		public Map<String, List<VehicleModel>> getCategorizedVehicles() {
+			return categorizedVehicles;
+		}
+	}
+}
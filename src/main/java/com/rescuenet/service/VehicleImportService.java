@@ -0,0 +1,489 @@
+package com.rescuenet.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import com.rescuenet.config.DbConfig;
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.model.ImportOutcome;
+import com.rescuenet.model.VehicleImportReport;
+import com.rescuenet.model.VehicleModel;
+import com.rescuenet.service.ImageVariantService.StoredImage;
+import com.rescuenet.util.ValidationUtil;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * VehicleImportService adds vehicles in bulk from a CSV or JSON file, with an
+ * optional zip file of their images. The zip is read first: each image is
+ * handed to a small bounded pool that stores it through ImageVariantService
+ * while the next one is read, and rows name their image by its file name in
+ * the zip. The records file is then read one record at a time, each row is
+ * checked with the same ValidationUtil rules as the vehicle form plus the
+ * serial numbers already in use, and valid rows are inserted in batches of
+ * BATCH_SIZE, one transaction and one JDBC batch per batch. Every row gets an
+ * entry in the returned report.
+ *
+ * Records use the fields serialNumber, brandName, model, type, status,
+ * manufacturedDate, description, price and image; see ImportRecordReader for
+ * the accepted spellings and file layouts.
+ */
+public class VehicleImportService {
+
+	private static final Logger LOG = LogManager.getLogger(VehicleImportService.class);
+
+	/** The rows written per transaction. */
+	public static final int BATCH_SIZE = 500;
+
+	/** The most rows read from one file. */
+	public static final int MAX_ROWS = 50_000;
+
+	/** The largest image accepted from the zip file, as for a single upload. */
+	public static final int MAX_IMAGE_BYTES = 5 * 1024 * 1024;
+
+	private static final String UPLOAD_DIR = "Uploads/vehicles";
+	private static final int MAX_DESCRIPTION_LENGTH = 2_000;
+	private static final int MAX_TYPE_LENGTH = 50;
+	private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "webp", "bmp");
+
+	// --- Image Pool Configuration ---
+	private static final int IMAGE_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	// Images read but not yet stored; bounds the memory one import holds
+	private static final int IMAGE_QUEUE_CAPACITY = 8;
+
+	private final ValidationUtil validationUtil = new ValidationUtil();
+	private String lastErrorMessage;
+
+	/**
+	 * Retrieves the last error message encountered during an import.
+	 *
+	 * @return the last error message, or null if no error occurred
+	 */
+	public String getLastErrorMessage() {
+		return lastErrorMessage;
+	}
+
+	/**
+	 * Imports the vehicles in a file. Rows are committed batch by batch, so an
+	 * import stopped by an error keeps the batches written before it. Images
+	 * from the zip that no imported vehicle uses are deleted afterwards.
+	 *
+	 * @param input  the records file's contents
+	 * @param format the records file's format
+	 * @param images the zip file of images, or null if there is none
+	 * @return the per-row report
+	 */
+	public VehicleImportReport importVehicles(Reader input, ImportFormat format, InputStream images) {
+		lastErrorMessage = null;
+		long start = System.currentTimeMillis();
+		VehicleImportReport report = new VehicleImportReport();
+		Map<String, Future<StoredImage>> storedImages = new HashMap<>();
+		Set<String> usedImages = new HashSet<>();
+		ThreadPoolExecutor imagePool = images != null ? newImagePool() : null;
+		List<PendingRow> batch = new ArrayList<>(BATCH_SIZE);
+		try {
+			// --- Store the Images ---
+			if (images != null) {
+				storeImages(images, imagePool, storedImages);
+			}
+
+			// --- Read, Validate and Write Batch by Batch ---
+			Set<String> serialNumbers = loadSerialNumbers();
+			ImportRecordReader records = ImportRecordReader.open(input, format);
+			Map<String, String> record;
+			while ((record = records.next()) != null) {
+				if (report.getTotalCount() + batch.size() >= MAX_ROWS) {
+					fail(report, "Import stopped after " + MAX_ROWS + " rows; split the file and import the rest.");
+					break;
+				}
+				// Rejected rows join the batch too, so the report stays in file order
+				batch.add(validate(records.getRow(), record, serialNumbers, storedImages, images != null));
+				if (batch.size() == BATCH_SIZE && !writeBatch(report, batch, usedImages)) {
+					break;
+				}
+			}
+			if (!batch.isEmpty()) {
+				writeBatch(report, batch, usedImages);
+			}
+		} catch (IOException e) {
+			fail(report, "Could not read the import file: " + e.getMessage());
+			// The rows read before the bad record are still written
+			if (!batch.isEmpty()) {
+				writeBatch(report, batch, usedImages);
+			}
+		} catch (SQLException | ClassNotFoundException e) {
+			fail(report, "Could not load the existing serial numbers: " + e.getMessage());
+		} finally {
+			if (imagePool != null) {
+				imagePool.shutdown();
+			}
+			report.setImageCount(discardUnused(storedImages, usedImages));
+		}
+		report.setElapsedMillis(System.currentTimeMillis() - start);
+		LOG.info("Imported {} of {} vehicle rows and {} images in {} ms ({} rejected, {} failed).",
+				report.getImportedCount(), report.getTotalCount(), report.getImageCount(), report.getElapsedMillis(),
+				report.getRejectedCount(), report.getFailedCount());
+		return report;
+	}
+
+	// --- Images ---
+
+	/**
+	 * Reads the zip one entry at a time and stores each image on the pool.
+	 * When the pool's queue is full the reading thread stores the image
+	 * itself, which pauses reading until the pool catches up.
+	 */
+	private void storeImages(InputStream images, ThreadPoolExecutor pool, Map<String, Future<StoredImage>> stored)
+			throws IOException {
+		ImageVariantService imageService = ImageVariantService.getInstance();
+		try (ZipInputStream zip = new ZipInputStream(images)) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				String name = imageKey(entry.getName());
+				if (entry.isDirectory() || entry.getName().startsWith("__MACOSX/") || !isImageName(name)) {
+					continue;
+				}
+				byte[] bytes = readEntry(zip);
+				if (bytes == null) {
+					LOG.warn("Skipping image {}: larger than {} bytes.", entry.getName(), MAX_IMAGE_BYTES);
+					stored.put(name, CompletableFuture.failedFuture(new IOException("image too large")));
+					continue;
+				}
+				String fileName = name;
+				stored.put(name, pool.submit(() -> imageService.store(new ByteArrayInputStream(bytes), fileName,
+						UPLOAD_DIR)));
+			}
+		}
+	}
+
+	/**
+	 * Reads the current zip entry.
+	 *
+	 * @return its bytes, or null if it is larger than MAX_IMAGE_BYTES
+	 */
+	private static byte[] readEntry(ZipInputStream zip) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = zip.read(buffer)) != -1) {
+			if (out.size() + read > MAX_IMAGE_BYTES) {
+				return null; // getNextEntry skips the rest
+			}
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Waits for the images to be stored, deletes the ones no vehicle was saved
+	 * with, and counts the rest.
+	 */
+	private static int discardUnused(Map<String, Future<StoredImage>> stored, Set<String> usedImages) {
+		ImageVariantService imageService = ImageVariantService.getInstance();
+		int kept = 0;
+		for (Future<StoredImage> future : stored.values()) {
+			StoredImage image = awaitImage(future);
+			if (image == null) {
+				continue;
+			}
+			if (usedImages.contains(image.getPath())) {
+				kept++;
+			} else {
+				imageService.discard(image);
+			}
+		}
+		return kept;
+	}
+
+	private static StoredImage awaitImage(Future<StoredImage> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			return null;
+		}
+	}
+
+	private static ThreadPoolExecutor newImagePool() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		return new ThreadPoolExecutor(IMAGE_THREADS, IMAGE_THREADS, 0, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(IMAGE_QUEUE_CAPACITY), r -> {
+					Thread thread = new Thread(r, "rescuenet-import-image-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	/**
+	 * Reduces an image name to the lower-case file name rows refer to it by.
+	 */
+	private static String imageKey(String name) {
+		String fileName = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+		return fileName.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static boolean isImageName(String name) {
+		int dot = name.lastIndexOf('.');
+		return dot > 0 && IMAGE_EXTENSIONS.contains(name.substring(dot + 1));
+	}
+
+	// --- Validation ---
+
+	/**
+	 * Checks one record with the vehicle form's rules, against the serial
+	 * numbers already in use and the images in the zip.
+	 */
+	private PendingRow validate(int rowNumber, Map<String, String> record, Set<String> serialNumbers,
+			Map<String, Future<StoredImage>> storedImages, boolean hasImages) {
+		PendingRow row = new PendingRow(rowNumber);
+		String serialNumber = trim(record.get("serialnumber"));
+		String brandName = trim(record.get("brandname"));
+		String model = trim(record.get("model"));
+		String type = trim(record.get("type"));
+		String status = trim(record.get("status"));
+		String manufacturedDate = trim(record.get("manufactureddate"));
+		String description = trim(record.get("description"));
+		String price = trim(record.get("price"));
+		String image = trim(record.get("image"));
+		row.vehicle.setSerialNumber(serialNumber);
+
+		if (isBlank(serialNumber) || isBlank(brandName) || isBlank(model) || isBlank(type) || isBlank(status)) {
+			return row.reject("Required fields (Serial, Brand, Model, Type, Status) cannot be empty.");
+		}
+		if (!validationUtil.validateVehicleSerialNumber(serialNumber)) {
+			return row.reject("Serial number must be 3-50 letters, digits or hyphens.");
+		}
+		if (!validationUtil.validateVehicleNameField(brandName) || !validationUtil.validateVehicleNameField(model)) {
+			return row.reject("Brand and model must be 2-50 letters, digits, spaces, hyphens or apostrophes.");
+		}
+		if (!validationUtil.validateTextMaxLength(type, MAX_TYPE_LENGTH)) {
+			return row.reject("Type cannot be longer than " + MAX_TYPE_LENGTH + " characters.");
+		}
+		if (!validationUtil.validateVehicleStatus(status)) {
+			return row.reject("Invalid status '" + status + "'.");
+		}
+		if (!validationUtil.validateManufacturedDate(manufacturedDate)) {
+			return row.reject("Invalid manufactured date. Use YYYY-MM-DD, not in the future.");
+		}
+		if (!validationUtil.validateVehiclePrice(price)) {
+			return row.reject("Invalid price. Enter a number that is not negative.");
+		}
+		if (!validationUtil.validateTextMaxLength(description, MAX_DESCRIPTION_LENGTH)) {
+			return row.reject("Description cannot be longer than " + MAX_DESCRIPTION_LENGTH + " characters.");
+		}
+
+		// --- Image ---
+		if (!isBlank(image)) {
+			if (!hasImages) {
+				return row.reject("Image " + image + " named, but no image zip file was uploaded.");
+			}
+			Future<StoredImage> future = storedImages.get(imageKey(image));
+			StoredImage stored = future != null ? awaitImage(future) : null;
+			if (stored == null) {
+				return row.reject(future == null ? "Image " + image + " is not in the zip file."
+						: "Image " + image + " could not be stored.");
+			}
+			row.vehicle.setImagePath(stored.getPath());
+		}
+
+		// Unique serial numbers; MySQL compares them case-insensitively
+		if (!serialNumbers.add(serialNumber.toUpperCase(Locale.ROOT))) {
+			return row.reject("Serial number " + serialNumber + " is already in use.");
+		}
+
+		row.vehicle.setBrandName(brandName);
+		row.vehicle.setModel(model);
+		row.vehicle.setType(type);
+		row.vehicle.setStatus(status);
+		row.vehicle.setManufacturedDate(isBlank(manufacturedDate) ? null : LocalDate.parse(manufacturedDate));
+		row.vehicle.setDescription(description);
+		row.vehicle.setPrice(isBlank(price) ? null : new BigDecimal(price));
+		return row;
+	}
+
+	private static Set<String> loadSerialNumbers() throws SQLException, ClassNotFoundException {
+		Set<String> serialNumbers = new HashSet<>();
+		try (Connection conn = DbConfig.getDbConnection();
+				PreparedStatement stmt = conn.prepareStatement("SELECT serial_number FROM Vehicles");
+				ResultSet rs = stmt.executeQuery()) {
+			while (rs.next()) {
+				serialNumbers.add(rs.getString("serial_number").toUpperCase(Locale.ROOT));
+			}
+		}
+		return serialNumbers;
+	}
+
+	// --- Writing ---
+
+	/**
+	 * Inserts the batch's valid rows in one transaction and reports the batch.
+	 *
+	 * @return false if the database failed and the import should stop
+	 */
+	private boolean writeBatch(VehicleImportReport report, List<PendingRow> batch, Set<String> usedImages) {
+		List<PendingRow> toInsert = new ArrayList<>(batch.size());
+		for (PendingRow row : batch) {
+			if (row.rejection == null) {
+				toInsert.add(row);
+			}
+		}
+
+		if (!toInsert.isEmpty()) {
+			Connection conn = null;
+			try {
+				conn = DbConfig.getDbConnection();
+				conn.setAutoCommit(false);
+				insert(conn, toInsert);
+				conn.commit();
+			} catch (SQLException | ClassNotFoundException e) {
+				lastErrorMessage = "Error importing vehicles: " + e.getMessage();
+				LOG.error(lastErrorMessage);
+				try {
+					if (conn != null)
+						conn.rollback();
+				} catch (SQLException ex) {
+					LOG.error("Rollback failed: {}", ex.getMessage());
+				}
+				for (PendingRow row : batch) {
+					report.add(row.rejection != null ? rejected(row)
+							: new VehicleImportReport.Row(row.row, ImportOutcome.FAILED, 0,
+									row.vehicle.getSerialNumber(), "Not imported: " + e.getMessage()));
+				}
+				batch.clear();
+				report.setError(lastErrorMessage);
+				return false;
+			} finally {
+				try {
+					if (conn != null) {
+						conn.setAutoCommit(true);
+						conn.close();
+					}
+				} catch (SQLException ex) {
+					LOG.error("Failed to release connection: {}", ex.getMessage());
+				}
+			}
+		}
+
+		// --- Report and Publish Committed Vehicles ---
+		for (PendingRow row : batch) {
+			if (row.rejection != null) {
+				report.add(rejected(row));
+				continue;
+			}
+			report.add(new VehicleImportReport.Row(row.row, ImportOutcome.IMPORTED, row.vehicle.getVehicleId(),
+					row.vehicle.getSerialNumber(), null));
+			if (row.vehicle.getImagePath() != null) {
+				usedImages.add(row.vehicle.getImagePath());
+			}
+			VehicleService.applyImageVariants(row.vehicle);
+			FleetEvents.vehicleAdded(row.vehicle);
+		}
+		batch.clear();
+		return true;
+	}
+
+	/**
+	 * Inserts the rows with one JDBC batch (sent as a single multi-row INSERT
+	 * when the driver rewrites batches, see DbConfig) and sets their new IDs.
+	 */
+	private static void insert(Connection conn, List<PendingRow> rows) throws SQLException {
+		String sql = "INSERT INTO Vehicles (serial_number, brand_name, model, type, status, manufactured_date, "
+				+ "image_path, description, price) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+		try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			for (PendingRow row : rows) {
+				VehicleModel vehicle = row.vehicle;
+				stmt.setString(1, vehicle.getSerialNumber());
+				stmt.setString(2, vehicle.getBrandName());
+				stmt.setString(3, vehicle.getModel());
+				stmt.setString(4, vehicle.getType());
+				stmt.setString(5, vehicle.getStatus());
+				stmt.setObject(6,
+						vehicle.getManufacturedDate() != null ? Date.valueOf(vehicle.getManufacturedDate()) : null);
+				stmt.setString(7, vehicle.getImagePath());
+				stmt.setString(8, vehicle.getDescription());
+				stmt.setBigDecimal(9, vehicle.getPrice());
+				stmt.addBatch();
+			}
+			for (int count : stmt.executeBatch()) {
+				if (count == 0) {
+					throw new SQLException("A vehicle row was not inserted.");
+				}
+			}
+			try (ResultSet keys = stmt.getGeneratedKeys()) {
+				for (int i = 0; i < rows.size() && keys.next(); i++) {
+					rows.get(i).vehicle.setVehicleId(keys.getInt(1));
+				}
+			}
+		}
+	}
+
+	// --- Helpers ---
+
+	private static VehicleImportReport.Row rejected(PendingRow row) {
+		return new VehicleImportReport.Row(row.row, ImportOutcome.REJECTED, 0, row.vehicle.getSerialNumber(),
+				row.rejection);
+	}
+
+	private void fail(VehicleImportReport report, String message) {
+		lastErrorMessage = message;
+		LOG.warn(lastErrorMessage);
+		report.setError(message);
+	}
+
+	private static String trim(String value) {
+		return value != null ? value.trim() : null;
+	}
+
+	private static boolean isBlank(String value) {
+		return value == null || value.isEmpty();
+	}
+
+	/**
+	 * A row waiting to be written, or rejected with a reason.
+	 */
+	private static final class PendingRow {
+		private final int row;
+		private final VehicleModel vehicle = new VehicleModel();
+		private String rejection;
+
+		PendingRow(int row) {
+			this.row = row;
+		}
+
+		PendingRow reject(String reason) {
+			rejection = reason;
+			return this;
+		}
+	}
+}
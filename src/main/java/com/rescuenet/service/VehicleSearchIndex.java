@@ -0,0 +1,277 @@
+package com.rescuenet.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+import com.rescuenet.model.VehicleModel;
+
+/**
+ * @author Prayash Rawal
+ */
+/**
+ * VehicleSearchIndex is an in-memory inverted index over the vehicle fleet.
+ * Brand name, model, type, serial number and description are split into
+ * lowercase tokens, and each token maps to the vehicles that contain it. A
+ * search term matches every token it is a prefix of, so "amb" finds
+ * "Ambulance". Results are ranked by which fields matched and whether the
+ * match was exact. The index is loaded once from the database and then kept
+ * up to date as vehicles are added or change status.
+ */
+public final class VehicleSearchIndex {
+
+	private static final Logger LOG = LogManager.getLogger(VehicleSearchIndex.class);
+
+	private static final VehicleSearchIndex INSTANCE = new VehicleSearchIndex();
+
+	// --- Field Weights (higher ranks first) ---
+	private static final int WEIGHT_SERIAL = 5;
+	private static final int WEIGHT_BRAND = 4;
+	private static final int WEIGHT_MODEL = 4;
+	private static final int WEIGHT_TYPE = 3;
+	private static final int WEIGHT_DESCRIPTION = 1;
+	private static final int EXACT_MATCH_BONUS = 2;
+
+	private static final Comparator<VehicleModel> DISPLAY_ORDER = Comparator
+			.comparing(VehicleModel::getType, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+			.thenComparing(VehicleModel::getBrandName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+			.thenComparing(VehicleModel::getModel, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
+	private final Map<Integer, VehicleModel> vehicles = new ConcurrentHashMap<>();
+	// token -> (vehicle ID -> best field weight for that token)
+	private final ConcurrentSkipListMap<String, Map<Integer, Integer>> postings = new ConcurrentSkipListMap<>();
+	private final Object writeLock = new Object();
+	private volatile boolean loaded = false;
+
+	private VehicleSearchIndex() {
+	}
+
+	/**
+	 * Gets the shared search index.
+	 *
+	 * @return the application-wide index instance
+	 */
+	public static VehicleSearchIndex getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Loads the index from the database if that has not happened yet.
+	 *
+	 * @param loader loads every vehicle (any status), returning null on failure
+	 * @return true if the index is loaded and can serve searches
+	 */
+	public boolean ensureLoaded(Supplier<List<VehicleModel>> loader) {
+		if (loaded) {
+			return true;
+		}
+		synchronized (writeLock) {
+			if (!loaded) {
+				List<VehicleModel> all = loader.get();
+				if (all == null) {
+					return false;
+				}
+				for (VehicleModel vehicle : all) {
+					indexVehicle(vehicle);
+				}
+				loaded = true;
+				LOG.info("Indexed {} vehicles, {} distinct tokens.", all.size(), postings.size());
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Checks whether the index has been loaded.
+	 *
+	 * @return true if loaded
+	 */
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * Searches available vehicles. Every term in the query must match (as a
+	 * prefix of some token) for a vehicle to be returned.
+	 *
+	 * @param query the user's search text
+	 * @return matching available vehicles, best matches first
+	 */
+	public List<VehicleModel> searchAvailable(String query) {
+		List<String> terms = tokenize(query);
+		if (terms.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		// --- Score Each Term, Keeping Only Vehicles That Match All Terms ---
+		Map<Integer, Integer> scores = null;
+		for (String term : new LinkedHashSet<>(terms)) {
+			Map<Integer, Integer> termScores = new HashMap<>();
+			ConcurrentNavigableMap<String, Map<Integer, Integer>> matches = postings.subMap(term, true,
+					term + Character.MAX_VALUE, false);
+			for (Map.Entry<String, Map<Integer, Integer>> entry : matches.entrySet()) {
+				int bonus = entry.getKey().equals(term) ? EXACT_MATCH_BONUS : 1;
+				for (Map.Entry<Integer, Integer> posting : entry.getValue().entrySet()) {
+					termScores.merge(posting.getKey(), posting.getValue() * bonus, Math::max);
+				}
+			}
+			if (scores == null) {
+				scores = termScores;
+			} else {
+				scores.keySet().retainAll(termScores.keySet());
+				for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+					entry.setValue(entry.getValue() + termScores.get(entry.getKey()));
+				}
+			}
+			if (scores.isEmpty()) {
+				return new ArrayList<>();
+			}
+		}
+
+		// --- Keep Available Vehicles and Rank ---
+		List<VehicleModel> results = new ArrayList<>();
+		for (Integer vehicleId : scores.keySet()) {
+			VehicleModel vehicle = vehicles.get(vehicleId);
+			if (vehicle != null && "Available".equalsIgnoreCase(vehicle.getStatus())) {
+				results.add(vehicle);
+			}
+		}
+		final Map<Integer, Integer> finalScores = scores;
+		results.sort(Comparator.<VehicleModel>comparingInt(v -> -finalScores.get(v.getVehicleId()))
+				.thenComparing(DISPLAY_ORDER));
+		return results;
+	}
+
+	/**
+	 * Adds a newly created vehicle to the index.
+	 *
+	 * @param vehicle the vehicle, with its generated ID set
+	 */
+	public void onVehicleAdded(VehicleModel vehicle) {
+		synchronized (writeLock) {
+			if (loaded) {
+				indexVehicle(copyOf(vehicle));
+			}
+		}
+	}
+
+	/**
+	 * Records a vehicle's new status. Status is not tokenized, so only the
+	 * stored vehicle is replaced.
+	 *
+	 * @param vehicleId the ID of the vehicle
+	 * @param status    the new status
+	 */
+	public void onVehicleStatusChanged(int vehicleId, String status) {
+		synchronized (writeLock) {
+			VehicleModel existing = vehicles.get(vehicleId);
+			if (existing != null) {
+				// Replace rather than mutate: search results already handed out keep their values.
+				VehicleModel updated = copyOf(existing);
+				updated.setStatus(status);
+				vehicles.put(vehicleId, updated);
+			}
+		}
+	}
+
+	/**
+	 * Records the resized copies of an image on every vehicle that shows it.
+	 *
+	 * @param imagePath     the original image path
+	 * @param thumbnailPath the thumbnail path
+	 * @param mediumPath    the medium path, or null
+	 */
+	public void onImageVariantsReady(String imagePath, String thumbnailPath, String mediumPath) {
+		synchronized (writeLock) {
+			for (VehicleModel existing : vehicles.values()) {
+				if (imagePath.equals(existing.getImagePath())) {
+					VehicleModel updated = copyOf(existing);
+					updated.setThumbnailPath(thumbnailPath);
+					updated.setMediumPath(mediumPath);
+					vehicles.put(updated.getVehicleId(), updated);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the last known status of a vehicle.
+	 *
+	 * @param vehicleId the ID of the vehicle
+	 * @return the status, or null if the vehicle is not indexed
+	 */
+	public String getStatus(int vehicleId) {
+		VehicleModel vehicle = vehicles.get(vehicleId);
+		return vehicle != null ? vehicle.getStatus() : null;
+	}
+
+	private void indexVehicle(VehicleModel vehicle) {
+		vehicles.put(vehicle.getVehicleId(), vehicle);
+		addField(vehicle.getVehicleId(), vehicle.getSerialNumber(), WEIGHT_SERIAL);
+		addField(vehicle.getVehicleId(), vehicle.getBrandName(), WEIGHT_BRAND);
+		addField(vehicle.getVehicleId(), vehicle.getModel(), WEIGHT_MODEL);
+		addField(vehicle.getVehicleId(), vehicle.getType(), WEIGHT_TYPE);
+		addField(vehicle.getVehicleId(), vehicle.getDescription(), WEIGHT_DESCRIPTION);
+	}
+
+	private void addField(int vehicleId, String text, int weight) {
+		for (String token : tokenize(text)) {
+			addToken(vehicleId, token, weight);
+		}
+	}
+
+	private void addToken(int vehicleId, String token, int weight) {
+		if (!token.isEmpty()) {
+			postings.computeIfAbsent(token, k -> new ConcurrentHashMap<>()).merge(vehicleId, weight, Math::max);
+		}
+	}
+
+	/**
+	 * Splits text into lowercase tokens of letters and digits.
+	 */
+	private static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null) {
+			return tokens;
+		}
+		String lower = text.toLowerCase();
+		int start = -1;
+		for (int i = 0; i <= lower.length(); i++) {
+			boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+			if (wordChar && start < 0) {
+				start = i;
+			} else if (!wordChar && start >= 0) {
+				tokens.add(lower.substring(start, i));
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+
+	private static VehicleModel copyOf(VehicleModel source) {
+		VehicleModel copy = new VehicleModel();
+		copy.setVehicleId(source.getVehicleId());
+		copy.setSerialNumber(source.getSerialNumber());
+		copy.setBrandName(source.getBrandName());
+		copy.setModel(source.getModel());
+		copy.setType(source.getType());
+		copy.setStatus(source.getStatus());
+		copy.setManufacturedDate(source.getManufacturedDate());
+		copy.setImagePath(source.getImagePath());
+		copy.setThumbnailPath(source.getThumbnailPath());
+		copy.setMediumPath(source.getMediumPath());
+		copy.setDescription(source.getDescription());
+		copy.setPrice(source.getPrice());
+		return copy;
+	}
+
+}
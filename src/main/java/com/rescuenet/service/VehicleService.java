@@ -1,11 +1,14 @@
 package com.rescuenet.service;
 
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
 import com.rescuenet.model.VehicleModel;
 import com.rescuenet.config.DbConfig;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Date;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -25,62 +28,50 @@ import java.time.LocalDate;
  */
 public class VehicleService {
 
-	private Connection dbConn; // Instance variable for connection
-	private String lastErrorMessage;
-	private boolean isConnectionError = false; // Initialize to false
+	private static final Logger LOG = LogManager.getLogger(VehicleService.class);
 
-	/**
-	 * Initializes the database connection for vehicle operations. Handles
-	 * exceptions internally and sets flags.
-	 */
-	public VehicleService() {
-		Connection tempConn = null;
-		try {
-			tempConn = DbConfig.getDbConnection(); // This might throw ClassNotFoundException or SQLException
-			if (tempConn == null) { // Defensive check if DbConfig returns null
-				this.isConnectionError = true;
-				this.lastErrorMessage = "Database connection could not be established (DbConfig returned null).";
-				System.err.println("VehicleService Constructor: " + this.lastErrorMessage);
-			} else {
-				System.out.println("VehicleService Constructor: Database connection appears to be established.");
-			}
-		} catch (ClassNotFoundException e) {
-			this.isConnectionError = true;
-			this.lastErrorMessage = "VehicleService: Database driver not found during initialization - "
-					+ e.getMessage();
-			System.err.println(this.lastErrorMessage);
-			e.printStackTrace();
-		} catch (SQLException e) {
-			this.isConnectionError = true;
-			this.lastErrorMessage = "VehicleService: SQL error during database connection initialization - "
-					+ e.getMessage();
-			System.err.println(this.lastErrorMessage);
-			e.printStackTrace();
-		} catch (Exception e) { // Catch any other unexpected runtime errors
-			this.isConnectionError = true;
-			this.lastErrorMessage = "VehicleService: Unexpected error during initialization - " + e.getMessage();
-			System.err.println(this.lastErrorMessage);
-			e.printStackTrace();
-		}
-		this.dbConn = tempConn; // Assign, even if null (isConnectionError will be true)
-	}
+	// Services are shared by all request threads, so error state is kept per
+	// thread; each request reads back the outcome of its own call.
+	private final ThreadLocal<String> lastErrorMessage = new ThreadLocal<>();
+	private final ThreadLocal<Boolean> connectionError = ThreadLocal.withInitial(() -> false);
 
 	/**
-	 * Retrieves the last error message encountered during a service operation.
+	 * Retrieves the last error message encountered by the calling thread.
 	 *
 	 * @return the last error message, or null if no error occurred
 	 */
 	public String getLastErrorMessage() {
-		return lastErrorMessage;
+		return lastErrorMessage.get();
 	}
 
 	/**
-	 * Checks if a database connection error has occurred.
+	 * Checks if the last call on this thread failed to obtain a database
+	 * connection.
 	 *
 	 * @return true if a connection error exists, false otherwise
 	 */
 	public boolean isConnectionError() {
-		return isConnectionError;
+		return connectionError.get();
+	}
+
+	/**
+	 * Borrows a connection for a single call, recording a connection error if
+	 * none is available.
+	 *
+	 * @param failureMessage the message to record if no connection is available
+	 * @return a connection that the caller must close, or null if unavailable
+	 */
+	private Connection openConnection(String failureMessage) {
+		lastErrorMessage.remove();
+		connectionError.set(false);
+		try {
+			return DbConfig.getDbConnection();
+		} catch (SQLException | ClassNotFoundException e) {
+			connectionError.set(true);
+			lastErrorMessage.set(failureMessage);
+			LOG.error("{} - {}", failureMessage, e.getMessage());
+			return null;
+		}
 	}
 
 	/**
@@ -90,15 +81,13 @@ public class VehicleService {
 	 * @return true if the vehicle was added successfully, false otherwise
 	 */
 	public boolean addVehicle(VehicleModel vehicle) { // No longer throws SQLException
-		lastErrorMessage = null;
-		if (isConnectionError || dbConn == null) {
-			lastErrorMessage = "Cannot add vehicle due to database connection error.";
-			System.err.println("VehicleService: " + lastErrorMessage);
+		Connection conn = openConnection("Cannot add vehicle due to database connection error.");
+		if (conn == null) {
 			return false;
 		}
 
 		String sql = "INSERT INTO Vehicles (serial_number, brand_name, model, type, status, manufactured_date, image_path, description, price) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-		try (PreparedStatement pstmt = dbConn.prepareStatement(sql)) {
+		try (conn; PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 			pstmt.setString(1, vehicle.getSerialNumber());
 			pstmt.setString(2, vehicle.getBrandName());
 			pstmt.setString(3, vehicle.getModel());
@@ -110,40 +99,68 @@ public class VehicleService {
 			pstmt.setString(8, vehicle.getDescription());
 			pstmt.setBigDecimal(9, vehicle.getPrice());
 			int rowsAffected = pstmt.executeUpdate();
-			System.out.println("VehicleService: Added vehicle, rows affected: " + rowsAffected);
+			LOG.debug("Added vehicle, rows affected: {}", rowsAffected);
+			if (rowsAffected > 0) {
+				try (ResultSet keys = pstmt.getGeneratedKeys()) {
+					if (keys.next()) {
+						vehicle.setVehicleId(keys.getInt(1));
+					}
+				}
+				// Autocommit insert: the vehicle is committed, so the in-memory views can see it
+				applyImageVariants(vehicle);
+				FleetEvents.vehicleAdded(vehicle);
+			}
 			return rowsAffected > 0;
 		} catch (SQLException e) {
-			lastErrorMessage = "Error adding vehicle: " + e.getMessage();
-			System.err.println("VehicleService: " + lastErrorMessage);
-			e.printStackTrace(); // Log the full stack trace
+			lastErrorMessage.set("Error adding vehicle: " + e.getMessage());
+			LOG.error("{}", lastErrorMessage.get(), e);
 			return false; // Indicate failure
 		}
-		// Note: Connection handling (closing) needs to be consistent.
-		// If dbConn is a class member and the service is request-scoped,
-		// it should be closed appropriately (e.g., in a finally block of the calling
-		// controller's method,
-		// or if the service implements AutoCloseable).
-		// For now, assuming it's either pooled or managed elsewhere.
 	}
 
 	/**
-	 * Retrieves all available vehicles, grouped by type for display.
+	 * Retrieves all available vehicles, grouped by type for display. Served from
+	 * the shared VehicleCatalogCache; the database is only queried after a
+	 * vehicle or reservation change has invalidated the cached catalog.
 	 *
 	 * @return a Map with vehicle type as the key and a list of VehicleModel objects
-	 *         as the value
+	 *         as the value (unmodifiable)
 	 */
 	public Map<String, List<VehicleModel>> getCategorizedAvailableVehicles() { // No longer throws SQLException
-		lastErrorMessage = null;
-		Map<String, List<VehicleModel>> categorizedVehicles = new LinkedHashMap<>();
-		if (isConnectionError || dbConn == null) {
-			lastErrorMessage = "Cannot fetch vehicles due to database connection error.";
-			System.err.println("VehicleService: " + lastErrorMessage);
-			return categorizedVehicles; // Return empty map
+		VehicleCatalogCache.Snapshot snapshot = getCatalogSnapshot();
+		if (snapshot == null) {
+			return new LinkedHashMap<>(); // Return empty map; error details were set by the loader
+		}
+		return snapshot.getCategorizedVehicles();
+	}
+
+	/**
+	 * Gets the current snapshot of the available vehicles, grouped by type,
+	 * along with the catalog version it was built for.
+	 *
+	 * @return the snapshot, or null if the catalog could not be loaded
+	 */
+	public VehicleCatalogCache.Snapshot getCatalogSnapshot() {
+		lastErrorMessage.remove();
+		connectionError.set(false);
+		return VehicleCatalogCache.getInstance().getSnapshot(this::loadCategorizedAvailableVehicles);
+	}
+
+	/**
+	 * Loads all available vehicles from the database, grouped by type.
+	 *
+	 * @return the categorized vehicles, or null if the query failed
+	 */
+	private Map<String, List<VehicleModel>> loadCategorizedAvailableVehicles() {
+		Connection conn = openConnection("Cannot fetch vehicles due to database connection error.");
+		if (conn == null) {
+			return null;
 		}
 
+		Map<String, List<VehicleModel>> categorizedVehicles = new LinkedHashMap<>();
 		String sql = "SELECT vehicle_id, serial_number, brand_name, model, type, status, manufactured_date, image_path, description, price "
 				+ "FROM Vehicles WHERE status = ? ORDER BY type, brand_name, model";
-		try (PreparedStatement pstmt = dbConn.prepareStatement(sql)) {
+		try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
 			pstmt.setString(1, "Available");
 			ResultSet rs = pstmt.executeQuery();
 			while (rs.next()) {
@@ -152,64 +169,74 @@ public class VehicleService {
 				categorizedVehicles.computeIfAbsent(vehicleType, k -> new ArrayList<>()).add(vehicle);
 			}
 		} catch (SQLException e) {
-			lastErrorMessage = "Error fetching categorized vehicles: " + e.getMessage();
-			System.err.println("VehicleService: " + lastErrorMessage);
-			e.printStackTrace(); // Log stack trace
-			// Return empty map or rethrow as a runtime exception if preferred
+			lastErrorMessage.set("Error fetching categorized vehicles: " + e.getMessage());
+			LOG.error("{}", lastErrorMessage.get(), e);
+			return null;
 		}
+		LOG.info("Rebuilt vehicle catalog with {} categories.", categorizedVehicles.size());
 		return categorizedVehicles;
 	}
 
 	/**
-	 * Searches for available vehicles matching the provided query across multiple
-	 * fields.
+	 * Searches for available vehicles matching the provided query across brand,
+	 * model, type, serial number and description. Each word of the query must
+	 * match the start of a word in one of those fields; results are ranked by
+	 * relevance. Served from the in-memory VehicleSearchIndex, which is loaded
+	 * from the database on first use.
 	 *
 	 * @param searchQuery the user's search term
 	 * @return a list of VehicleModel objects matching the query
 	 */
 	public List<VehicleModel> searchAvailableVehicles(String searchQuery) { // No longer throws SQLException
-		lastErrorMessage = null;
-		List<VehicleModel> vehicles = new ArrayList<>();
-		if (isConnectionError || dbConn == null) {
-			lastErrorMessage = "Cannot search vehicles due to database connection error.";
-			System.err.println("VehicleService: " + lastErrorMessage);
-			return vehicles;
-		}
+		lastErrorMessage.remove();
+		connectionError.set(false);
 		if (searchQuery == null || searchQuery.trim().isEmpty()) {
-			// If search is empty, return all available vehicles categorized, or an empty
-			// list.
-			// For search context, usually means "no specific search", so could return all
-			// or empty.
-			// To return all available (not categorized):
-			// return getAllAvailableVehicles(); // You'd need to create this method
-			return vehicles; // Returning empty for now, consistent with search results.
+			return new ArrayList<>(); // No specific search: consistent empty result
 		}
 
-		String queryParam = "%" + searchQuery.toLowerCase() + "%";
-		String sql = "SELECT vehicle_id, serial_number, brand_name, model, type, status, manufactured_date, image_path, description, price "
-				+ "FROM Vehicles " + "WHERE status = ? AND (" + "LOWER(brand_name) LIKE ? OR "
-				+ "LOWER(model) LIKE ? OR " + "LOWER(type) LIKE ? OR " + "LOWER(serial_number) LIKE ? OR "
-				+ "LOWER(description) LIKE ?)" + " ORDER BY type, brand_name, model";
-		try (PreparedStatement pstmt = dbConn.prepareStatement(sql)) {
-			pstmt.setString(1, "Available");
-			pstmt.setString(2, queryParam);
-			pstmt.setString(3, queryParam);
-			pstmt.setString(4, queryParam);
-			pstmt.setString(5, queryParam);
-			pstmt.setString(6, queryParam);
+		VehicleSearchIndex index = VehicleSearchIndex.getInstance();
+		if (!index.ensureLoaded(this::loadAllVehicles)) {
+			return new ArrayList<>(); // Error details were set by the loader
+		}
+		return index.searchAvailable(searchQuery);
+	}
 
-			ResultSet rs = pstmt.executeQuery();
+	/**
+	 * Loads every vehicle, whatever its status, for the search index.
+	 *
+	 * @return all vehicles, or null if the query failed
+	 */
+	private List<VehicleModel> loadAllVehicles() {
+		Connection conn = openConnection("Cannot search vehicles due to database connection error.");
+		if (conn == null) {
+			return null;
+		}
+
+		List<VehicleModel> vehicles = new ArrayList<>();
+		String sql = "SELECT vehicle_id, serial_number, brand_name, model, type, status, manufactured_date, image_path, description, price "
+				+ "FROM Vehicles";
+		try (conn; PreparedStatement pstmt = conn.prepareStatement(sql); ResultSet rs = pstmt.executeQuery()) {
 			while (rs.next()) {
 				vehicles.add(mapResultSetToVehicleModel(rs));
 			}
 		} catch (SQLException e) {
-			lastErrorMessage = "Error searching vehicles: " + e.getMessage();
-			System.err.println("VehicleService: " + lastErrorMessage);
-			e.printStackTrace(); // Log stack trace
+			lastErrorMessage.set("Error loading vehicles for search: " + e.getMessage());
+			LOG.error("{}", lastErrorMessage.get(), e);
+			return null;
 		}
 		return vehicles;
 	}
 
+	/**
+	 * Sets the resized image paths that exist so far; generation of missing
+	 * ones is queued.
+	 */
+	static void applyImageVariants(VehicleModel vehicle) {
+		ImageVariantService images = ImageVariantService.getInstance();
+		vehicle.setThumbnailPath(images.getVariantPath(vehicle.getImagePath(), ImageVariantService.THUMBNAIL_WIDTH));
+		vehicle.setMediumPath(images.getVariantPath(vehicle.getImagePath(), ImageVariantService.MEDIUM_WIDTH));
+	}
+
 	/**
 	 * Maps a ResultSet row to a VehicleModel object. (Keep this method as is)
 	 */
@@ -225,6 +252,7 @@ public class VehicleService {
 		Date manufacturedDateSql = rs.getDate("manufactured_date");
 		vehicle.setManufacturedDate(manufacturedDateSql != null ? manufacturedDateSql.toLocalDate() : null);
 		vehicle.setImagePath(rs.getString("image_path"));
+		applyImageVariants(vehicle);
 		vehicle.setDescription(rs.getString("description"));
 		vehicle.setPrice(rs.getBigDecimal("price"));
 		return vehicle;
@@ -0,0 +1,63 @@
+package com.rescuenet.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * @author Prayash Rawal
+ */
+
+/**
+ * Utility class for the JSON responses in the RescueNet application. The
+ * responses are small and flat, so they are built with a StringBuilder; this
+ * class quotes their strings and writes them out.
+ */
+public class JsonUtil {
+
+	private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+	/**
+	 * Appends a value as a JSON string, or null.
+	 *
+	 * @param out   the JSON being built
+	 * @param value the value, or null
+	 */
+	public static void appendString(StringBuilder out, String value) {
+		// --- Quote and Escape ---
+		if (value == null) {
+			out.append("null");
+			return;
+		}
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				out.append('\\').append(c);
+			} else if (c < 0x20) {
+				out.append(String.format("\\u%04x", (int) c));
+			} else {
+				out.append(c);
+			}
+		}
+		out.append('"');
+	}
+
+	/**
+	 * Writes a JSON response body. Responses are not cached, since they
+	 * reflect live data.
+	 *
+	 * @param response the HttpServletResponse to write to
+	 * @param json     the JSON text
+	 * @throws IOException if the response cannot be written
+	 */
+	public static void write(HttpServletResponse response, CharSequence json) throws IOException {
+		// --- Write Response ---
+		byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+		response.setContentType(JSON_CONTENT_TYPE);
+		response.setHeader("Cache-Control", "no-store");
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+}
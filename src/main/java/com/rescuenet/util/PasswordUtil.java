@@ -8,8 +8,6 @@ import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.KeySpec;
 import java.util.Base64;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
@@ -18,6 +16,9 @@ import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
 /**
  * @author Prayash Rawal
  */
@@ -29,12 +30,32 @@ import javax.crypto.spec.SecretKeySpec;
  */
 public class PasswordUtil {
 
+	private static final Logger LOG = LogManager.getLogger(PasswordUtil.class);
 	private static final String ENCRYPT_ALGO = "AES/GCM/NoPadding";
 	private static final int TAG_LENGTH_BIT = 128;
 	private static final int IV_LENGTH_BYTE = 12;
 	private static final int SALT_LENGTH_BYTE = 16;
 	private static final Charset UTF_8 = StandardCharsets.UTF_8;
 
+	// SecureRandom is thread-safe and expensive to seed, so one instance is shared.
+	// Cipher and SecretKeyFactory are not thread-safe, so each thread keeps its own
+	// instead of looking them up through the provider list on every call.
+	private static final SecureRandom RANDOM = new SecureRandom();
+	private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+		try {
+			return Cipher.getInstance(ENCRYPT_ALGO);
+		} catch (Exception e) {
+			throw new IllegalStateException("Cipher " + ENCRYPT_ALGO + " is not available", e);
+		}
+	});
+	private static final ThreadLocal<SecretKeyFactory> KEY_FACTORY = ThreadLocal.withInitial(() -> {
+		try {
+			return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("PBKDF2WithHmacSHA256 is not available", e);
+		}
+	});
+
 	/**
 	 * Generates a random nonce of the specified length.
 	 *
@@ -44,7 +65,7 @@ public class PasswordUtil {
 	public static byte[] getRandomNonce(int numBytes) {
 		// --- Generate Nonce ---
 		byte[] nonce = new byte[numBytes];
-		new SecureRandom().nextBytes(nonce);
+		RANDOM.nextBytes(nonce);
 		return nonce;
 	}
 
@@ -75,12 +96,12 @@ public class PasswordUtil {
 			throws NoSuchAlgorithmException, InvalidKeySpecException {
 		// --- Derive AES Key ---
 		try {
-			SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+			SecretKeyFactory factory = KEY_FACTORY.get();
 			KeySpec spec = new PBEKeySpec(password, salt, 65536, 256);
 			SecretKey secret = new SecretKeySpec(factory.generateSecret(spec).getEncoded(), "AES");
 			return secret;
-		} catch (NoSuchAlgorithmException | InvalidKeySpecException ex) {
-			Logger.getLogger(PasswordUtil.class.getName()).log(Level.SEVERE, null, ex);
+		} catch (InvalidKeySpecException ex) {
+			LOG.error("Key derivation failed", ex);
 			throw ex;
 		}
 	}
@@ -103,7 +124,7 @@ public class PasswordUtil {
 			SecretKey aesKeyFromPassword = getAESKeyFromPassword(employee_id.toCharArray(), salt);
 
 			// --- Encrypt Password ---
-			Cipher cipher = Cipher.getInstance(ENCRYPT_ALGO);
+			Cipher cipher = CIPHER.get(); // init() below fully resets the reused instance
 			cipher.init(Cipher.ENCRYPT_MODE, aesKeyFromPassword, new GCMParameterSpec(TAG_LENGTH_BIT, iv));
 			byte[] cipherText = cipher.doFinal(password.getBytes());
 
@@ -114,7 +135,7 @@ public class PasswordUtil {
 			// --- Encode to Base64 ---
 			return Base64.getEncoder().encodeToString(cipherTextWithIvSalt);
 		} catch (Exception ex) {
-			Logger.getLogger(PasswordUtil.class.getName()).log(Level.SEVERE, "Encryption failed", ex);
+			LOG.error("Encryption failed", ex);
 			return null;
 		}
 	}
@@ -145,14 +166,14 @@ public class PasswordUtil {
 			SecretKey aesKeyFromPassword = PasswordUtil.getAESKeyFromPassword(username.toCharArray(), salt);
 
 			// --- Decrypt Password ---
-			Cipher cipher = Cipher.getInstance(ENCRYPT_ALGO);
+			Cipher cipher = CIPHER.get();
 			cipher.init(Cipher.DECRYPT_MODE, aesKeyFromPassword, new GCMParameterSpec(TAG_LENGTH_BIT, iv));
 			byte[] plainText = cipher.doFinal(cipherText);
 
 			// --- Convert to String ---
 			return new String(plainText, UTF_8);
 		} catch (Exception ex) {
-			Logger.getLogger(PasswordUtil.class.getName()).log(Level.SEVERE, "Decryption failed", ex);
+			LOG.error("Decryption failed", ex);
 			return null;
 		}
 	}
@@ -8,6 +8,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import com.rescuenet.logging.LogManager;
+import com.rescuenet.logging.Logger;
+
 /**
  * @author Prayash Rawal
  */
@@ -19,6 +22,8 @@ import jakarta.servlet.http.HttpServletResponse;
  */
 public class RedirectionUtil {
 
+	private static final Logger LOG = LogManager.getLogger(RedirectionUtil.class);
+
 	/**
 	 * Performs a server-side forward to a JSP, setting a message as a request
 	 * attribute. Use this for displaying errors or data on the same logical page
@@ -42,7 +47,7 @@ public class RedirectionUtil {
 		}
 
 		// --- Forward to JSP ---
-		System.out.println("RedirectionUtil: Forwarding to JSP: " + targetJspPath + " with messageType: " + msgType);
+		LOG.debug("Forwarding to JSP: {} with messageType: {}", targetJspPath, msgType);
 		req.getRequestDispatcher(targetJspPath).forward(req, resp);
 	}
 
@@ -75,7 +80,7 @@ public class RedirectionUtil {
 
 		// --- Perform Redirect ---
 		String redirectUrl = redirectUrlBuilder.toString();
-		System.out.println("RedirectionUtil: Redirecting to URL: " + redirectUrl);
+		LOG.debug("Redirecting to URL: {}", redirectUrl);
 		resp.sendRedirect(redirectUrl);
 	}
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.rescuenet.util;
 
+import com.rescuenet.model.SessionPrincipal;
 import com.rescuenet.model.UserModel;
+import com.rescuenet.service.UserProfileCache;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 
@@ -75,29 +77,31 @@ public class SessionUtil {
 	}
 
 	/**
-	 * Stores a user in the session.
+	 * Stores a user in the session. Only the user's SessionPrincipal is kept;
+	 * the rest of the profile is read through UserProfileCache when needed.
 	 *
 	 * @param request the HttpServletRequest to obtain the session
-	 * @param user    the UserModel to store in the session
+	 * @param user    the UserModel of the logged-in user
 	 */
 	public static void setUser(HttpServletRequest request, UserModel user) {
 		// --- Store User in Session ---
-		setAttribute(request, USER_KEY, user);
+		setAttribute(request, USER_KEY,
+				SessionPrincipal.of(user, UserProfileCache.getInstance().getVersion(user.getUserId())));
 	}
 
 	/**
 	 * Retrieves the user from the session.
 	 *
 	 * @param request the HttpServletRequest to obtain the session
-	 * @return the UserModel stored in the session, or null if not found or session
-	 *         is invalid
+	 * @return the SessionPrincipal stored in the session, or null if not found or
+	 *         session is invalid
 	 */
-	public static UserModel getUser(HttpServletRequest request) {
+	public static SessionPrincipal getUser(HttpServletRequest request) {
 		// --- Retrieve User from Session ---
 		Object user = getAttribute(request, USER_KEY);
-		if (user instanceof UserModel) {
-			return (UserModel) user;
+		if (user instanceof SessionPrincipal) {
+			return (SessionPrincipal) user;
 		}
 		return null;
 	}
-}
\ No newline at end of file
+}
@@ -20,11 +20,11 @@
 <link rel="stylesheet"
 	href="https://cdnjs.cloudflare.com/ajax/libs/font-awesome/6.0.0/css/all.min.css">
 <link rel="stylesheet" type="text/css"
-	href="${pageContext.request.contextPath}/css/header.css" />
+	href="${pageContext.request.contextPath}${assets['css/header.css']}" />
 <link rel="stylesheet" type="text/css"
-	href="${pageContext.request.contextPath}/css/footer.css" />
+	href="${pageContext.request.contextPath}${assets['css/footer.css']}" />
 <link rel="stylesheet" type="text/css"
-	href="${pageContext.request.contextPath}/css/aboutus.css" />
+	href="${pageContext.request.contextPath}${assets['css/aboutus.css']}" />
 </head>
 <body>
 	<!-- Header Section -->
@@ -14,9 +14,9 @@
 
 <!-- Stylesheets -->
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/admin_dashboard.css">
+	href="${pageContext.request.contextPath}${assets['css/admin_dashboard.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/footer.css">
+	href="${pageContext.request.contextPath}${assets['css/footer.css']}">
 
 <!-- Font Awesome for Icons -->
 <link rel="stylesheet"
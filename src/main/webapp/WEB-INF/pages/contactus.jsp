@@ -15,11 +15,11 @@
 <link rel="stylesheet"
 	href="https://cdnjs.cloudflare.com/ajax/libs/font-awesome/6.0.0/css/all.min.css">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/header.css">
+	href="${pageContext.request.contextPath}${assets['css/header.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/footer.css">
+	href="${pageContext.request.contextPath}${assets['css/footer.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/contactus.css">
+	href="${pageContext.request.contextPath}${assets['css/contactus.css']}">
 </head>
 <body>
 	<!-- Header Section -->
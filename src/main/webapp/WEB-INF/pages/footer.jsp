@@ -6,11 +6,11 @@
 	<!-- Social Media Links -->
 	<div class="social-media">
 		<a href="#"><img
-			src="${pageContext.request.contextPath}/resources/images/system/facebook.svg"></a>
+			src="${pageContext.request.contextPath}${assets['resources/images/system/facebook.svg']}"></a>
 		<a href="#"><img
-			src="${pageContext.request.contextPath}/resources/images/system/instagram.svg"></a>
+			src="${pageContext.request.contextPath}${assets['resources/images/system/instagram.svg']}"></a>
 		<a href="#"><img
-			src="${pageContext.request.contextPath}/resources/images/system/twitter.svg"></a>
+			src="${pageContext.request.contextPath}${assets['resources/images/system/twitter.svg']}"></a>
 	</div>
 
 	<!-- Copyright Notice -->
@@ -7,7 +7,7 @@
         <!-- Logo Section -->
         <h1 class="logo">
             <a href="${pageContext.request.contextPath}/home">
-                <img src="${pageContext.request.contextPath}/resources/images/system/logo.png" />
+                <img src="${pageContext.request.contextPath}${assets['resources/images/system/logo.png']}" />
             </a>
         </h1>
 
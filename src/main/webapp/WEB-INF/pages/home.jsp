@@ -14,11 +14,11 @@
 <meta name="viewport" content="width=device-width, initial-scale=1.0">
 <title>RescueNet - Available Vehicles</title>
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/header.css">
+	href="${pageContext.request.contextPath}${assets['css/header.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/footer.css">
+	href="${pageContext.request.contextPath}${assets['css/footer.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/home.css">
+	href="${pageContext.request.contextPath}${assets['css/home.css']}">
 <link rel="stylesheet"
 	href="https://cdnjs.cloudflare.com/ajax/libs/font-awesome/6.0.0-beta3/css/all.min.css">
 </head>
@@ -30,12 +30,12 @@
 		<div class="top-content-wrapper">
 			<div class="main-banner-container">
 				<img class="banner-image"
-					src="${pageContext.request.contextPath}/resources/images/system/homebanner.jpg"
+					src="${pageContext.request.contextPath}${assets['resources/images/system/homebanner.jpg']}"
 					alt="RescueNet Banner" />
 			</div>
 			<div class="side-banner-container">
 				<img class="side-banner-image"
-					src="${pageContext.request.contextPath}/resources/images/syste/qr.jpg"
+					src="${pageContext.request.contextPath}${assets['resources/images/system/qr.jpg']}"
 					alt="QR Code" />
 			</div>
 		</div>
@@ -105,7 +105,10 @@
 									<div class="card-image-container">
 										<c:if test="${not empty vehicle.imagePath}">
 											<img class="card-image"
-												src="${pageContext.request.contextPath}/${vehicle.imagePath}"
+												src="${pageContext.request.contextPath}/${empty vehicle.thumbnailPath ? vehicle.imagePath : vehicle.thumbnailPath}"
+												<c:if test="${not empty vehicle.thumbnailPath}">srcset="${pageContext.request.contextPath}/${vehicle.thumbnailPath} 320w<c:if test="${not empty vehicle.mediumPath}">, ${pageContext.request.contextPath}/${vehicle.mediumPath} 800w</c:if>"
+												sizes="(max-width: 700px) 100vw, 360px"</c:if>
+												loading="lazy" decoding="async"
 												alt="${vehicle.brandName} ${vehicle.model}">
 										</c:if>
 										<c:if test="${empty vehicle.imagePath}">
@@ -150,61 +153,8 @@
 
 				<%-- ========== CATEGORIZED VIEW (Default) ========== --%>
 				<c:otherwise>
-					<c:if test="${empty categorizedVehicles}">
-						<div class="no-results">
-							<p>No available vehicles currently listed.</p>
-						</div>
-					</c:if>
-					<c:if test="${not empty categorizedVehicles}">
-						<c:forEach var="categoryEntry" items="${categorizedVehicles}">
-							<section class="vehicle-category-section">
-								<h2 class="category-heading">${categoryEntry.key}s</h2>
-								<div class="vehicle-grid">
-									<c:forEach var="vehicle" items="${categoryEntry.value}">
-										<article class="vehicle-card">
-											<div class="card-image-container">
-												<c:if test="${not empty vehicle.imagePath}">
-													<img class="card-image"
-														src="${pageContext.request.contextPath}/${vehicle.imagePath}"
-														alt="${vehicle.brandName} ${vehicle.model}">
-												</c:if>
-												<c:if test="${empty vehicle.imagePath}">
-													<div class="card-image-placeholder">No Image</div>
-												</c:if>
-											</div>
-											<div class="card-body">
-												<h3 class="card-title">${vehicle.brandName}
-													${vehicle.model}</h3>
-												<div class="card-details">
-													<p class="detail-item">
-														<span class="detail-label">Status:</span><span
-															class="status-badge status-${vehicle.status.toLowerCase()}">${vehicle.status}</span>
-													</p>
-													<c:if test="${not empty vehicle.manufacturedDate}">
-														<p class="detail-item">
-															<span class="detail-label">Manufactured:</span>
-															${vehicle.manufacturedDate}
-														</p>
-													</c:if>
-													<c:if test="${not empty vehicle.description}">
-														<p class="detail-item card-description">
-															<span class="detail-label">Description:</span>
-															${vehicle.description}
-														</p>
-													</c:if>
-												</div>
-													<c:if test="${not empty vehicle.price}">
-														<div class="card-price-tag">
-															$${vehicle.price} <span class="price-unit">/ day</span>
-														</div>
-													</c:if>
-											</div>
-										</article>
-									</c:forEach>
-								</div>
-							</section>
-						</c:forEach>
-					</c:if>
+					<%-- Rendered by home_catalog.jsp, once per catalog version --%>
+					${catalogHtml}
 				</c:otherwise>
 			</c:choose>
 		</section>
@@ -0,0 +1,67 @@
+<%--
+  @author Prayash Rawal
+  Purpose: Renders the available vehicles grouped by type for the home page. The output is
+           rendered once per catalog version by HomeController and cached as a fragment,
+           so it must depend only on categorizedVehicles and the context path.
+--%>
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+	pageEncoding="UTF-8" trimDirectiveWhitespaces="true"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<c:if test="${empty categorizedVehicles}">
+	<div class="no-results">
+		<p>No available vehicles currently listed.</p>
+	</div>
+</c:if>
+<c:if test="${not empty categorizedVehicles}">
+	<c:forEach var="categoryEntry" items="${categorizedVehicles}">
+		<section class="vehicle-category-section">
+			<h2 class="category-heading">${categoryEntry.key}s</h2>
+			<div class="vehicle-grid">
+				<c:forEach var="vehicle" items="${categoryEntry.value}">
+					<article class="vehicle-card">
+						<div class="card-image-container">
+							<c:if test="${not empty vehicle.imagePath}">
+								<img class="card-image"
+									src="${pageContext.request.contextPath}/${empty vehicle.thumbnailPath ? vehicle.imagePath : vehicle.thumbnailPath}"
+									<c:if test="${not empty vehicle.thumbnailPath}">srcset="${pageContext.request.contextPath}/${vehicle.thumbnailPath} 320w<c:if test="${not empty vehicle.mediumPath}">, ${pageContext.request.contextPath}/${vehicle.mediumPath} 800w</c:if>"
+									sizes="(max-width: 700px) 100vw, 360px"</c:if>
+									loading="lazy" decoding="async"
+									alt="${vehicle.brandName} ${vehicle.model}">
+							</c:if>
+							<c:if test="${empty vehicle.imagePath}">
+								<div class="card-image-placeholder">No Image</div>
+							</c:if>
+						</div>
+						<div class="card-body">
+							<h3 class="card-title">${vehicle.brandName}
+								${vehicle.model}</h3>
+							<div class="card-details">
+								<p class="detail-item">
+									<span class="detail-label">Status:</span><span
+										class="status-badge status-${vehicle.status.toLowerCase()}">${vehicle.status}</span>
+								</p>
+								<c:if test="${not empty vehicle.manufacturedDate}">
+									<p class="detail-item">
+										<span class="detail-label">Manufactured:</span>
+										${vehicle.manufacturedDate}
+									</p>
+								</c:if>
+								<c:if test="${not empty vehicle.description}">
+									<p class="detail-item card-description">
+										<span class="detail-label">Description:</span>
+										${vehicle.description}
+									</p>
+								</c:if>
+							</div>
+								<c:if test="${not empty vehicle.price}">
+									<div class="card-price-tag">
+										$${vehicle.price} <span class="price-unit">/ day</span>
+									</div>
+								</c:if>
+						</div>
+					</article>
+				</c:forEach>
+			</div>
+		</section>
+	</c:forEach>
+</c:if>
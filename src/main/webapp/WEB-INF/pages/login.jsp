@@ -12,13 +12,13 @@
 <meta charset="UTF-8">
 <title>RescueNet - Login</title>
 <link rel="stylesheet" type="text/css"
-	href="${pageContext.request.contextPath}/css/login.css" />
+	href="${pageContext.request.contextPath}${assets['css/login.css']}" />
 </head>
 <body>
 	<div class="login-container">
 		<div class="logo-container">
 			<img
-				src="${pageContext.request.contextPath}/resources/images/system/logo.png" />
+				src="${pageContext.request.contextPath}${assets['resources/images/system/logo.png']}" />
 		</div>
 
 		<h1>Login</h1>
@@ -63,11 +63,11 @@
 
 			<div class="social-media">
 				<a href="#"><img
-					src="${pageContext.request.contextPath}/resources/images/system/facebook.svg"></a>
+					src="${pageContext.request.contextPath}${assets['resources/images/system/facebook.svg']}"></a>
 				<a href="#"><img
-					src="${pageContext.request.contextPath}/resources/images/system/instagram.svg"></a>
+					src="${pageContext.request.contextPath}${assets['resources/images/system/instagram.svg']}"></a>
 				<a href="#"><img
-					src="${pageContext.request.contextPath}/resources/images/system/twitter.svg"></a>
+					src="${pageContext.request.contextPath}${assets['resources/images/system/twitter.svg']}"></a>
 			</div>
 
 			<div class="register-link">
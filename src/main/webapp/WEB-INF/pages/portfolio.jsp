@@ -15,11 +15,11 @@
 <meta name="viewport" content="width=device-width, initial-scale=1.0">
 <title>User Portfolio - RescueNet</title>
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/header.css">
+	href="${pageContext.request.contextPath}${assets['css/header.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/footer.css">
+	href="${pageContext.request.contextPath}${assets['css/footer.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/portfolio.css">
+	href="${pageContext.request.contextPath}${assets['css/portfolio.css']}">
 </head>
 <body>
 	<jsp:include page="header.jsp" />
@@ -73,7 +73,7 @@
 							<c:choose>
 								<c:when test="${not empty user.profilePicturePath}">
 									<img
-										src="${pageContext.request.contextPath}/${user.profilePicturePath}"
+										src="${pageContext.request.contextPath}/${empty profileThumbnailPath ? user.profilePicturePath : profileThumbnailPath}"
 										alt="Profile Picture">
 								</c:when>
 								<c:otherwise>
@@ -157,7 +157,7 @@
 									<c:choose>
 										<c:when test="${not empty user.profilePicturePath}">
 											<img
-												src="${pageContext.request.contextPath}/${user.profilePicturePath}"
+												src="${pageContext.request.contextPath}/${empty profileThumbnailPath ? user.profilePicturePath : profileThumbnailPath}"
 												alt="Current Profile Picture"
 												style="max-width: 100px; max-height: 100px; border-radius: 50%;">
 										</c:when>
@@ -15,18 +15,18 @@
 <meta name="viewport" content="width=device-width, initial-scale=1.0">
 <title>Register - RescueNet</title>
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/header.css">
+	href="${pageContext.request.contextPath}${assets['css/header.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/footer.css">
+	href="${pageContext.request.contextPath}${assets['css/footer.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/registration.css">
+	href="${pageContext.request.contextPath}${assets['css/registration.css']}">
 </head>
 <body>
 	<main class="auth-container">
 		<div class="auth-card">
 			<div class="logo-container">
 				<img
-					src="${pageContext.request.contextPath}/resources/images/system/logo.png"
+					src="${pageContext.request.contextPath}${assets['resources/images/system/logo.png']}"
 					alt="RescueNet Logo" />
 			</div>
 			<h2>REGISTRATION</h2>
@@ -0,0 +1,107 @@
+<%-- 
+  @author Prayash Rawal
+  Purpose: Shows the result of a bulk reservation import: the totals, any error that
+           stopped the import, and each row that was rejected or failed, with the reason.
+--%>
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+	pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<!DOCTYPE html>
+<html lang="en">
+<head>
+<meta charset="UTF-8">
+<meta name="viewport" content="width=device-width, initial-scale=1.0">
+<title>RescueNet - Reservation Import</title>
+<link rel="stylesheet"
+	href="${pageContext.request.contextPath}${assets['css/admin_dashboard.css']}">
+<link rel="stylesheet"
+	href="${pageContext.request.contextPath}${assets['css/reservations.css']}">
+</head>
+<body>
+	<div class="admin-container">
+
+		<aside class="sidebar">
+			<div class="logo">
+				<h2>RescueNet</h2>
+			</div>
+			<nav class="sidebar-nav">
+				<a href="${pageContext.request.contextPath}/admin" class="nav-link"><i
+					class="fas fa-tachometer-alt nav-icon"></i><span>Dashboard</span></a> <a
+					href="${pageContext.request.contextPath}/vehicles" class="nav-link"><i
+					class="fas fa-truck nav-icon"></i><span>Vehicles</span></a> <a
+					href="${pageContext.request.contextPath}/reservations"
+					class="nav-link active"><i class="fas fa-calendar-alt nav-icon"></i><span>Reservations</span></a>
+			</nav>
+		</aside>
+
+		<main class="main-content">
+			<header class="top-header">
+				<h1>Reservation Import</h1>
+				<div class="user-info">
+					<span><i class="fas fa-user-circle"></i> Welcome,
+						${sessionScope.user.username}</span> <a
+						href="${pageContext.request.contextPath}/logout"
+						class="logout-btn"><i class="fas fa-sign-out-alt"></i> Logout</a>
+				</div>
+			</header>
+
+			<section class="page-content reservation-content">
+
+				<c:if test="${report.importedCount > 0}">
+					<div class="message success-message">Imported
+						${report.importedCount} of ${report.totalCount} reservations in
+						${report.elapsedMillis} ms.</div>
+				</c:if>
+				<c:if test="${not empty report.error}">
+					<div class="message error-message"><c:out value="${report.error}" /></div>
+				</c:if>
+
+				<div class="table-container card-style">
+					<h2><c:out value="${not empty fileName ? fileName : 'Import'}" />: ${report.totalCount}
+						rows, ${report.importedCount} imported, ${report.rejectedCount}
+						rejected, ${report.failedCount} failed</h2>
+
+					<div class="table-wrapper">
+						<table class="data-table">
+							<thead>
+								<tr>
+									<th>Row</th>
+									<th>Outcome</th>
+									<th>Vehicle ID</th>
+									<th>Date</th>
+									<th>Reason</th>
+								</tr>
+							</thead>
+							<tbody>
+								<c:forEach var="row" items="${report.problemRows}">
+									<tr>
+										<td>${row.row}</td>
+										<td>${row.outcome}</td>
+										<td>${row.vehicleId}</td>
+										<td>${row.reservationDate}</td>
+										<td><c:out value="${row.message}" /></td>
+									</tr>
+								</c:forEach>
+								<c:if test="${empty report.problemRows}">
+									<tr>
+										<td colspan="5" class="no-results-row">Every row was
+											imported.</td>
+									</tr>
+								</c:if>
+							</tbody>
+						</table>
+					</div>
+
+					<div class="form-actions">
+						<a href="${pageContext.request.contextPath}/reservations"
+							class="button button-primary"><i class="fas fa-arrow-left"></i>
+							Back to Reservations</a>
+					</div>
+				</div>
+
+			</section>
+
+		</main>
+	</div>
+</body>
+</html>
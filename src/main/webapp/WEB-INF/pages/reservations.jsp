@@ -1,8 +1,8 @@
 <%-- 
   @author Prayash Rawal
   Purpose: Displays the reservations management page for the RescueNet admin dashboard,
-           allowing administrators to create, edit, or delete vehicle reservations, view all
-           reservations in a table, and handle error/success messages.
+           allowing administrators to create, edit, or delete vehicle reservations, browse
+           reservations page by page with filters, and handle error/success messages.
 --%>
 <%@ page language="java" contentType="text/html; charset=UTF-8"
 	pageEncoding="UTF-8"%>
@@ -14,9 +14,9 @@
 <meta name="viewport" content="width=device-width, initial-scale=1.0">
 <title>RescueNet - Reservations</title>
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/admin_dashboard.css">
+	href="${pageContext.request.contextPath}${assets['css/admin_dashboard.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/reservations.css">
+	href="${pageContext.request.contextPath}${assets['css/reservations.css']}">
 </head>
 <body>
 	<div class="admin-container">
@@ -131,8 +131,77 @@
 					</form>
 				</div>
 
+				<c:if test="${empty reservation}">
+					<div class="form-container card-style">
+						<h2>Import Reservations</h2>
+						<%-- CSV with a header row, or JSON objects, with vehicleId, userId, reservationDate and status --%>
+						<form
+							action="${pageContext.request.contextPath}/reservations/import"
+							method="post" enctype="multipart/form-data" class="import-form">
+							<div class="form-group">
+								<label for="importFile">CSV or JSON file (columns: vehicleId,
+									userId, reservationDate, status):</label> <input type="file"
+									id="importFile" name="file" accept=".csv,.json,.jsonl" required>
+							</div>
+							<div class="form-actions">
+								<button type="submit" class="button button-primary">
+									<i class="fas fa-file-import"></i> Import
+								</button>
+							</div>
+						</form>
+					</div>
+				</c:if>
+
 				<div class="table-container card-style">
 					<h2>All Reservations</h2>
+
+					<%-- Filters (GET, so pages can be bookmarked) --%>
+					<form action="${pageContext.request.contextPath}/reservations"
+						method="get" class="filter-form">
+						<div class="form-grid">
+							<div class="form-group">
+								<label for="filterStatus">Status:</label> <select
+									name="filterStatus" id="filterStatus">
+									<option value="">Any</option>
+									<c:forEach var="st"
+										items="${['Pending', 'Confirmed', 'Cancelled', 'Completed']}">
+										<option value="${st}" ${st == filter.status ? 'selected' : ''}>${st}</option>
+									</c:forEach>
+								</select>
+							</div>
+							<div class="form-group">
+								<label for="filterUserId">User:</label> <select
+									name="filterUserId" id="filterUserId">
+									<option value="">Any</option>
+									<c:forEach var="usr" items="${users}">
+										<option value="${usr.userId}"
+											${usr.userId == filter.userId ? 'selected' : ''}>${usr.username}</option>
+									</c:forEach>
+								</select>
+							</div>
+							<div class="form-group">
+								<label for="filterVehicleId">Vehicle ID:</label> <input
+									type="number" min="1" id="filterVehicleId"
+									name="filterVehicleId" value="${filter.vehicleId}">
+							</div>
+							<div class="form-group">
+								<label for="filterFrom">From:</label> <input type="date"
+									id="filterFrom" name="filterFrom" value="${filter.fromDate}">
+							</div>
+							<div class="form-group">
+								<label for="filterTo">To:</label> <input type="date"
+									id="filterTo" name="filterTo" value="${filter.toDate}">
+							</div>
+						</div>
+						<div class="form-actions">
+							<button type="submit" class="button button-primary">
+								<i class="fas fa-filter"></i> Filter
+							</button>
+							<a href="${pageContext.request.contextPath}/reservations"
+								class="button button-secondary">Clear</a>
+						</div>
+					</form>
+
 					<div class="table-wrapper">
 						<table class="data-table">
 							<thead>
@@ -184,6 +253,37 @@
 							</tbody>
 						</table>
 					</div>
+
+					<%-- Keyset Paging: links carry the filters plus the last row's date and ID --%>
+					<c:url var="firstPageUrl" value="/reservations">
+						<c:param name="filterStatus" value="${filter.status}" />
+						<c:param name="filterUserId" value="${filter.userId}" />
+						<c:param name="filterVehicleId" value="${filter.vehicleId}" />
+						<c:param name="filterFrom" value="${filter.fromDate}" />
+						<c:param name="filterTo" value="${filter.toDate}" />
+						<c:param name="size" value="${reservationPage.pageSize}" />
+					</c:url>
+					<c:url var="nextPageUrl" value="/reservations">
+						<c:param name="filterStatus" value="${filter.status}" />
+						<c:param name="filterUserId" value="${filter.userId}" />
+						<c:param name="filterVehicleId" value="${filter.vehicleId}" />
+						<c:param name="filterFrom" value="${filter.fromDate}" />
+						<c:param name="filterTo" value="${filter.toDate}" />
+						<c:param name="size" value="${reservationPage.pageSize}" />
+						<c:param name="afterDate" value="${reservationPage.nextAfterDate}" />
+						<c:param name="afterId" value="${reservationPage.nextAfterId}" />
+					</c:url>
+					<div class="pagination">
+						<c:if test="${filter.hasCursor()}">
+							<a href="${firstPageUrl}" class="button button-secondary"><i
+								class="fas fa-angle-double-left"></i> First page</a>
+						</c:if>
+						<c:if test="${reservationPage.hasNext}">
+							<a href="${nextPageUrl}" class="button button-primary">Next page
+								<i class="fas fa-angle-right"></i>
+							</a>
+						</c:if>
+					</div>
 				</div>
 
 			</section>
@@ -15,11 +15,11 @@
 <meta name="viewport" content="width=device-width, initial-scale=1.0">
 <title>RescueNet - Vehicle Management</title>
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/admin_dashboard.css">
+	href="${pageContext.request.contextPath}${assets['css/admin_dashboard.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/vehicles.css">
+	href="${pageContext.request.contextPath}${assets['css/vehicles.css']}">
 <link rel="stylesheet"
-	href="${pageContext.request.contextPath}/css/footer.css">
+	href="${pageContext.request.contextPath}${assets['css/footer.css']}">
 <link rel="stylesheet"
 	href="https://cdnjs.cloudflare.com/ajax/libs/font-awesome/6.0.0-beta3/css/all.min.css">
 </head>
@@ -157,6 +157,34 @@
 					</form>
 				</div>
 
+				<c:if test="${empty vehicle}">
+					<div class="form-container card-style">
+						<h2>Import Vehicles</h2>
+						<%-- CSV with a header row, or JSON objects; "image" names a file in the zip --%>
+						<form action="${pageContext.request.contextPath}/vehicles/import"
+							method="post" enctype="multipart/form-data" class="vehicle-form">
+							<div class="form-grid">
+								<div class="form-group">
+									<label for="importFile">CSV or JSON file (serialNumber,
+										brandName, model, type, status, manufacturedDate,
+										description, price, image):</label> <input type="file"
+										id="importFile" name="file" accept=".csv,.json,.jsonl"
+										required>
+								</div>
+								<div class="form-group">
+									<label for="importImages">Images (optional .zip):</label> <input
+										type="file" id="importImages" name="images" accept=".zip">
+								</div>
+							</div>
+							<div class="form-actions">
+								<button type="submit" class="button button-primary">
+									<i class="fas fa-file-import"></i> Import
+								</button>
+							</div>
+						</form>
+					</div>
+				</c:if>
+
 				<div class="vehicle-list-container card-style">
 					<h2>Existing Vehicles</h2>
 					<p>(Placeholder: A table or grid displaying existing vehicles